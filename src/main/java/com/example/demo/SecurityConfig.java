@@ -1,9 +1,13 @@
 package com.example.demo;
 
+import com.example.demo.permission.PermissionCatalog;
 import com.example.demo.user.CustomUserDetailsService;
 import com.example.demo.user.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity; // Import this
@@ -24,6 +28,7 @@ import java.util.List;
 import static org.springframework.security.config.Customizer.withDefaults;
 
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @EnableWebSecurity
 @EnableMethodSecurity // --- ADD THIS ANNOTATION ---
 public class SecurityConfig {
@@ -64,8 +69,25 @@ public class SecurityConfig {
     }
 
 
+    // The Prometheus scrape exposes tenant ids and traffic: platform operators only. Prometheus cannot
+    // log in for a JWT, so this endpoint also takes HTTP Basic credentials of an operator account
+    // (basic_auth in the scrape config); every other endpoint keeps accepting JWTs only
+    @Bean
+    @Order(1)
+    public SecurityFilterChain prometheusSecurityFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher("/actuator/prometheus")
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(authz -> authz.anyRequest().hasAuthority(PermissionCatalog.PLATFORM_PERMISSION))
+                .httpBasic(withDefaults())
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        return http.build();
+    }
+
     // Bean definition for the main SecurityFilterChain
     @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 // Configure CORS using the bean defined above
@@ -77,11 +99,17 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 // Configure authorization rules
                 .authorizeHttpRequests(authz -> authz
+                        // Async responses (e.g. GraphQL) are written on a second dispatch that carries no JWT;
+                        // the request itself was authorized on its first dispatch
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Allow public access to H2 console (for development ONLY!)
                         // IMPORTANT: Disable or secure this properly in production
                         .requestMatchers("/h2-console/**").permitAll()
                         // Allow public access to authentication endpoints
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Health checks are unauthenticated; the Prometheus scrape has its own chain above
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("PERMISSION_MANAGE_PLATFORM")
                         // Require authentication for any other request
                         .anyRequest().authenticated()
                 )
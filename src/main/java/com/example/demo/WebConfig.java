@@ -1,10 +1,18 @@
 package com.example.demo;
 
+import com.example.demo.columnar.ColumnarHttpMessageConverter;
+import com.example.demo.property.PropertyResponse;
+import com.example.demo.vendor.VendorResponse;
+import com.example.demo.workorder.WorkOrderResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebConfig {
 
@@ -23,5 +31,20 @@ public class WebConfig {
             }
         };
     }
-}
 
+    /**
+     * Columnar JSON for the resource lists (Accept: application/vnd.columnar+json). Registered ahead of
+     * Jackson, which would otherwise write that type as plain JSON. CBOR and Smile come with Spring's
+     * default converters.
+     */
+    @Bean
+    public WebMvcConfigurer columnarListConverter(ObjectMapper objectMapper) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                converters.add(0, new ColumnarHttpMessageConverter(objectMapper.getFactory(),
+                        List.of(PropertyResponse.COLUMNS, VendorResponse.COLUMNS, WorkOrderResponse.COLUMNS)));
+            }
+        };
+    }
+}
@@ -2,44 +2,90 @@ package com.example.demo.admin;
 
 import com.example.demo.user.UpdateUserPermissionsRequest;
 import com.example.demo.user.User;
+import com.example.demo.user.UserResponse;
 import jakarta.validation.Valid;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
+
 @RestController
 @RequestMapping("/api/admin")
+// Rarely used: created (with the provisioning pool behind it) on the first admin request, not at startup
+@Lazy
 // Secure the entire controller. Only users with this permission can access any endpoint here.
 @PreAuthorize("hasAuthority('PERMISSION_MANAGE_USERS')")
 public class AdminController {
 
     private final AdminService adminService;
+    private final UserProvisioningService provisioningService;
 
-    public AdminController(AdminService adminService) {
+    public AdminController(AdminService adminService, UserProvisioningService provisioningService) {
         this.adminService = adminService;
+        this.provisioningService = provisioningService;
     }
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     /**
-     * Gets a list of all users within the admin's own tenant.
+     * Gets one page of users within the admin's own tenant, sorted by username.
+     * "search" filters by username prefix; out-of-range paging values are clamped.
      */
     @GetMapping("/users")
-    public ResponseEntity<List<User>> getUsersInTenant() {
-        List<User> users = adminService.listUsersInTenant();
+    public ResponseEntity<UserPage> getUsersInTenant(@RequestParam(defaultValue = "") String search,
+                                                     @RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "20") int size) {
+        UserPage users = adminService.listUsersInTenant(search, Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * How many users in the admin's tenant hold each permission, and each combination of permissions.
+     */
+    @GetMapping("/users/permission-matrix")
+    public ResponseEntity<PermissionMatrix> getPermissionMatrix() {
+        return ResponseEntity.ok(adminService.permissionMatrix());
+    }
+
     /**
      * Updates the permissions for a specific user within the admin's tenant.
      */
     @PutMapping("/users/{userId}/permissions")
-    public ResponseEntity<User> updateUserPermissions(
+    public ResponseEntity<UserResponse> updateUserPermissions(
             @PathVariable Long userId,
             @Valid @RequestBody UpdateUserPermissionsRequest request) {
 
         User updatedUser = adminService.updateUserPermissions(userId, request.getPermissionNames());
-        return ResponseEntity.ok(updatedUser);
+        return ResponseEntity.ok(UserResponse.of(updatedUser));
+    }
+
+    /**
+     * Grants or revokes permissions and role templates for many users in one transaction.
+     */
+    @PostMapping("/users/permissions/bulk")
+    public ResponseEntity<BulkPermissionChangeResult> bulkChangePermissions(
+            @Valid @RequestBody BulkPermissionChangeRequest request) {
+        return ResponseEntity.ok(adminService.bulkChangePermissions(request));
+    }
+
+    /**
+     * Creates many users in the admin's tenant from a JSON array; the result has one entry per row.
+     */
+    @PostMapping(value = "/users/provision", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProvisioningResult> provisionUsers(@RequestBody List<ProvisionUserRequest> users) {
+        return ResponseEntity.ok(provisioningService.provision(users));
+    }
+
+    /**
+     * The same from CSV: username,password[,permissions separated by ';'], optionally with a header line.
+     */
+    @PostMapping(value = "/users/provision", consumes = "text/csv")
+    public ResponseEntity<ProvisioningResult> provisionUsersFromCsv(@RequestBody String csv) {
+        return ResponseEntity.ok(provisioningService.provision(UserCsvParser.parse(csv)));
     }
 
     // Note: We've imported GlobalExceptionHandler in the test, so any
@@ -1,19 +1,31 @@
 package com.example.demo.admin;
 
 import com.example.demo.user.User;
-import java.util.List;
 import java.util.Set;
 
 public interface AdminService {
     /**
-     * Lists all users within the calling admin's tenant.
+     * Lists one page of users within the calling admin's tenant, optionally filtered by username prefix.
+     * Users and their permissions are loaded in two statements.
      * Requires PERMISSION_MANAGE_USERS.
      */
-    List<User> listUsersInTenant();
+    UserPage listUsersInTenant(String usernamePrefix, int page, int size);
+
+    /**
+     * Aggregated permission holdings of the calling admin's tenant.
+     * Requires PERMISSION_MANAGE_USERS.
+     */
+    PermissionMatrix permissionMatrix();
 
     /**
      * Updates the permissions for a specific user within the admin's tenant.
      * Requires PERMISSION_MANAGE_USERS.
      */
     User updateUserPermissions(Long userId, Set<String> permissionNames);
+
+    /**
+     * Grants and revokes permissions and role templates for many users of the admin's tenant
+     * in one transaction, with set-based statements. Requires PERMISSION_MANAGE_USERS.
+     */
+    BulkPermissionChangeResult bulkChangePermissions(BulkPermissionChangeRequest request);
 }
@@ -1,39 +1,71 @@
 package com.example.demo.admin;
 
+import com.example.demo.diagnostics.TenantResolutionEvent;
+import com.example.demo.exception.AuthenticationRequiredException;
+import com.example.demo.exception.ForbiddenException;
+import com.example.demo.exception.InvalidRequestException;
 import com.example.demo.permission.Permission;
-import com.example.demo.permission.PermissionRepository;
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.role.PermissionAssignmentStore;
+import com.example.demo.role.RoleTemplate;
+import com.example.demo.role.RoleTemplateRepository;
 import com.example.demo.user.User;
 import com.example.demo.user.UserRepository;
-import org.springframework.security.access.AccessDeniedException;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Lazy
 public class AdminServiceImpl implements AdminService {
 
     private final UserRepository userRepository;
-    private final PermissionRepository permissionRepository;
+    private final PermissionCatalog permissionCatalog;
+    private final PermissionAssignmentStore assignmentStore;
+    private final RoleTemplateRepository roleTemplateRepository;
 
-    public AdminServiceImpl(UserRepository userRepository, PermissionRepository permissionRepository) {
+    private static final String PERMISSION_MANAGE_USERS = "PERMISSION_MANAGE_USERS";
+
+    public AdminServiceImpl(UserRepository userRepository,
+                            PermissionCatalog permissionCatalog,
+                            PermissionAssignmentStore assignmentStore,
+                            RoleTemplateRepository roleTemplateRepository) {
         this.userRepository = userRepository;
-        this.permissionRepository = permissionRepository;
+        this.permissionCatalog = permissionCatalog;
+        this.assignmentStore = assignmentStore;
+        this.roleTemplateRepository = roleTemplateRepository;
     }
 
     // Helper to get the currently authenticated user
     private User getCurrentUser() {
+        TenantResolutionEvent event = TenantResolutionEvent.begin("AdminServiceImpl");
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated() || authentication.getPrincipal().equals("anonymousUser")) {
-            throw new IllegalStateException("User must be authenticated.");
+            throw AuthenticationRequiredException.INSTANCE;
         }
         Object principal = authentication.getPrincipal();
-        if (principal instanceof User) {
-            return (User) principal;
+        if (principal instanceof User user) {
+            event.resolved(user.getTenantId());
+            return user;
         } else {
             // This might happen if the principal is just a username string
             // In our setup, CustomUserDetailsService returns the full User object
@@ -43,10 +75,80 @@ public class AdminServiceImpl implements AdminService {
 
     @Override
     @Transactional(readOnly = true) // This operation is read-only
-    public List<User> listUsersInTenant() {
+    public UserPage listUsersInTenant(String usernamePrefix, int page, int size) {
+        Long adminTenantId = getCurrentUser().getTenantId();
+
+        // 1. One page of ids and usernames (no entities, so the eager permissions aren't loaded per user)
+        Slice<UserRepository.UsernameView> users = userRepository.findByTenantIdAndUsernameStartingWith(
+                adminTenantId, usernamePrefix, PageRequest.of(page, size, Sort.by("username")));
+
+        // 2. The permissions of all users on the page in one query
+        Map<Long, List<String>> permissionsByUser = new HashMap<>();
+        if (users.hasContent()) {
+            List<Long> userIds = users.map(UserRepository.UsernameView::getId).getContent();
+            for (UserRepository.PermissionGrantView grant : userRepository.findPermissionGrantsByUserIdIn(userIds)) {
+                permissionsByUser.computeIfAbsent(grant.getUserId(), id -> new ArrayList<>()).add(grant.getPermission());
+            }
+        }
+
+        List<UserSummary> content = new ArrayList<>(users.getNumberOfElements());
+        for (UserRepository.UsernameView user : users) {
+            List<String> permissions = permissionsByUser.getOrDefault(user.getId(), new ArrayList<>());
+            permissions.sort(Comparator.naturalOrder());
+            content.add(new UserSummary(user.getId(), user.getUsername(), permissions));
+        }
+        return new UserPage(content, page, size, users.hasNext());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PermissionMatrix permissionMatrix() {
         Long adminTenantId = getCurrentUser().getTenantId();
-        // Return all users that match the admin's tenantId
-        return userRepository.findAllByTenantId(adminTenantId);
+
+        // Fold every grant into a per-user bit mask while streaming the rows
+        Map<Long, BitSet> masksByUser = new HashMap<>();
+        Map<String, Long> holders = new HashMap<>();
+        try (Stream<UserRepository.PermissionGrantView> grants = userRepository.streamPermissionGrantsByTenantId(adminTenantId)) {
+            grants.forEach(grant -> {
+                masksByUser.computeIfAbsent(grant.getUserId(), userId -> new BitSet()).set(bitOf(grant.getPermission()));
+                holders.merge(grant.getPermission(), 1L, Long::sum);
+            });
+        }
+        long totalUsers = userRepository.countByTenantId(adminTenantId);
+
+        Map<BitSet, Long> usersByMask = masksByUser.values().stream()
+                .collect(Collectors.groupingBy(mask -> mask, Collectors.counting()));
+        long usersWithoutPermissions = totalUsers - masksByUser.size();
+        if (usersWithoutPermissions > 0) {
+            usersByMask.merge(new BitSet(), usersWithoutPermissions, Long::sum);
+        }
+
+        List<String> names = permissionCatalog.names();
+        Map<String, Long> holdersInCatalogueOrder = new LinkedHashMap<>();
+        names.forEach(name -> holdersInCatalogueOrder.put(name, holders.getOrDefault(name, 0L)));
+        List<PermissionMatrix.Combination> combinations = usersByMask.entrySet().stream()
+                .map(entry -> new PermissionMatrix.Combination(entry.getKey().toLongArray(), namesOf(entry.getKey(), names), entry.getValue()))
+                .sorted(Comparator.comparingLong(PermissionMatrix.Combination::getUsers).reversed()
+                        .thenComparing(PermissionMatrix.Combination::getMask, Arrays::compare))
+                .collect(Collectors.toList());
+        return new PermissionMatrix(totalUsers, names, holdersInCatalogueOrder, combinations);
+    }
+
+    private int bitOf(String permission) {
+        return permissionCatalog.bitOf(permission).orElseGet(() -> {
+            // Granted, but added after the catalogue was loaded
+            permissionCatalog.refresh();
+            return permissionCatalog.bitOf(permission)
+                    .orElseThrow(() -> new IllegalStateException("Permission missing from catalogue: " + permission));
+        });
+    }
+
+    private static List<String> namesOf(BitSet mask, List<String> names) {
+        List<String> result = new ArrayList<>();
+        for (int bit = mask.nextSetBit(0); bit >= 0 && bit < names.size(); bit = mask.nextSetBit(bit + 1)) {
+            result.add(names.get(bit));
+        }
+        return result;
     }
 
     @Override
@@ -57,11 +159,11 @@ public class AdminServiceImpl implements AdminService {
         // 1. Find the user to be updated.
         //    Ensure the user exists AND belongs to the admin's tenant.
         User userToUpdate = userRepository.findByIdAndTenantId(userId, adminTenantId)
-                .orElseThrow(() -> new AccessDeniedException("User not found or not in your tenant."));
+                .orElseThrow(() -> ForbiddenException.USER_NOT_IN_TENANT);
 
-        // 2. Find the permission objects from the database
+        // 2. Resolve the permission objects from the in-memory catalogue
         //    This validates that the permissions actually exist.
-        Set<Permission> newPermissions = permissionRepository.findByNameIn(permissionNames);
+        Set<Permission> newPermissions = permissionCatalog.resolve(permissionNames);
 
         // Optional: Check if all requested permission names were found
         if (newPermissions.size() != permissionNames.size()) {
@@ -69,24 +171,83 @@ public class AdminServiceImpl implements AdminService {
             // You could throw a custom exception here (e.g., PermissionNotFoundException)
             // For now, we'll just assign the ones we found.
             // Or, throw an error:
-            throw new IllegalArgumentException("One or more permissions not found.");
+            throw InvalidRequestException.UNKNOWN_PERMISSION;
         }
 
-        // 3. Prevent an admin from stripping their own admin-management permission
-        User adminUser = getCurrentUser();
-        if (adminUser.getId().equals(userToUpdate.getId())) {
-            // Check if the admin is trying to remove their own PERMISSION_MANAGE_USERS
-            boolean isLosingAdminAccess = newPermissions.stream()
-                    .noneMatch(p -> p.getName().equals("PERMISSION_MANAGE_USERS"));
+        // 3. Replace the user's direct grants, writing only the rows that differ,
+        //    and recompute the effective permissions of this one user
+        List<Long> userIds = List.of(userToUpdate.getId());
+        assignmentStore.adoptDirectGrants(userIds);
+        assignmentStore.replaceDirect(userIds, idsOf(newPermissions));
+        assignmentStore.recomputeClosure(userIds);
 
-            if(isLosingAdminAccess) {
-                throw new AccessDeniedException("Admin cannot remove their own user management permission.");
-            }
+        // 4. Prevent an admin from stripping their own admin-management permission
+        //    (a role template may still grant it; the transaction rolls back otherwise)
+        preventSelfLockout(userIds);
+
+        assignmentStore.refresh(userToUpdate);
+        return userToUpdate;
+    }
+
+    @Override
+    @Transactional
+    public BulkPermissionChangeResult bulkChangePermissions(BulkPermissionChangeRequest request) {
+        Long adminTenantId = getCurrentUser().getTenantId();
+        Set<Long> userIds = request.getUserIds();
+
+        // All users must belong to the admin's tenant; checked in one count
+        if (assignmentStore.countUsersInTenant(userIds, adminTenantId) != userIds.size()) {
+            throw new ForbiddenException("One or more users not found or not in your tenant.");
+        }
+        if (!Collections.disjoint(request.getGrant(), request.getRevoke())
+                || !Collections.disjoint(request.getAssignRoles(), request.getRemoveRoles())) {
+            throw new InvalidRequestException("The same permission or role cannot be added and removed at once.");
         }
+        List<Long> grantIds = permissionIds(request.getGrant());
+        List<Long> revokeIds = permissionIds(request.getRevoke());
+        List<Long> assignIds = templateIds(adminTenantId, request.getAssignRoles());
+        List<Long> removeIds = templateIds(adminTenantId, request.getRemoveRoles());
+
+        // One statement per kind of change, whatever the number of users
+        assignmentStore.adoptDirectGrants(userIds);
+        assignmentStore.revokeDirect(userIds, revokeIds);
+        assignmentStore.grantDirect(userIds, grantIds);
+        assignmentStore.unassignTemplates(userIds, removeIds);
+        assignmentStore.assignTemplates(userIds, assignIds);
+        PermissionAssignmentStore.ClosureChange change = assignmentStore.recomputeClosure(userIds);
+
+        preventSelfLockout(userIds);
+        return new BulkPermissionChangeResult(userIds.size(), change.inserted(), change.deleted());
+    }
+
+    private void preventSelfLockout(Collection<Long> changedUserIds) {
+        Long adminId = getCurrentUser().getId();
+        if (changedUserIds.contains(adminId) && !assignmentStore.hasEffectivePermission(adminId, PERMISSION_MANAGE_USERS)) {
+            throw new ForbiddenException("Admin cannot remove their own user management permission.");
+        }
+    }
+
+    private List<Long> permissionIds(Set<String> names) {
+        Set<Permission> permissions = permissionCatalog.resolve(names);
+        if (permissions.size() != names.size()) {
+            throw InvalidRequestException.UNKNOWN_PERMISSION;
+        }
+        return idsOf(permissions);
+    }
+
+    private List<Long> templateIds(Long tenantId, Set<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        List<RoleTemplate> templates = roleTemplateRepository.findAllByTenantIdAndNameIn(tenantId, names);
+        if (templates.size() != names.size()) {
+            throw new InvalidRequestException("One or more role templates not found.");
+        }
+        return templates.stream().map(RoleTemplate::getId).collect(Collectors.toList());
+    }
 
-        // 4. Set the new permissions and save the user
-        userToUpdate.setPermissions(newPermissions);
-        return userRepository.save(userToUpdate);
+    private static List<Long> idsOf(Set<Permission> permissions) {
+        return permissions.stream().map(Permission::getId).collect(Collectors.toList());
     }
 
     // We're missing a method in UserRepository, let's add it.
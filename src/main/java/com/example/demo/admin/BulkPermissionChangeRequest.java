@@ -0,0 +1,30 @@
+package com.example.demo.admin;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Permission and role template changes applied to many users of the admin's tenant at once.
+ * Revoking a permission removes the direct grant; a user still holds it if one of their templates grants it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPermissionChangeRequest {
+
+    @NotEmpty(message = "userIds is mandatory")
+    @Size(max = 1000, message = "At most 1000 users per request")
+    private Set<Long> userIds;
+
+    private Set<String> grant = new HashSet<>();
+    private Set<String> revoke = new HashSet<>();
+    // Role template names
+    private Set<String> assignRoles = new HashSet<>();
+    private Set<String> removeRoles = new HashSet<>();
+}
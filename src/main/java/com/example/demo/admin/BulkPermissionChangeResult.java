@@ -0,0 +1,16 @@
+package com.example.demo.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPermissionChangeResult {
+
+    private int users;
+    // Rows added to and removed from the users' effective permissions
+    private int permissionsAdded;
+    private int permissionsRemoved;
+}
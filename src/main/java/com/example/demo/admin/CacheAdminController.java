@@ -0,0 +1,42 @@
+package com.example.demo.admin;
+
+import com.example.demo.cache.SecondLevelCacheService;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@Lazy
+// The cache is shared by all tenants, so only platform operators may inspect or clear it
+@PreAuthorize("hasAuthority('PERMISSION_MANAGE_PLATFORM')")
+public class CacheAdminController {
+
+    private final SecondLevelCacheService secondLevelCacheService;
+
+    public CacheAdminController(SecondLevelCacheService secondLevelCacheService) {
+        this.secondLevelCacheService = secondLevelCacheService;
+    }
+
+    /**
+     * Hit and miss counts, entry counts and weights for each second-level cache region.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Map<String, Object>>> regionStatistics() {
+        return ResponseEntity.ok(secondLevelCacheService.regionStatistics());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> evictAll() {
+        secondLevelCacheService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/tenants/{tenantId}")
+    public ResponseEntity<Map<String, Object>> evictTenant(@PathVariable Long tenantId) {
+        return ResponseEntity.ok(Map.of("tenantId", tenantId, "evicted", secondLevelCacheService.evictTenant(tenantId)));
+    }
+}
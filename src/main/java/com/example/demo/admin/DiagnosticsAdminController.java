@@ -0,0 +1,40 @@
+package com.example.demo.admin;
+
+import com.example.demo.diagnostics.SlowRequestRecorder;
+import com.example.demo.diagnostics.SlowRequestView;
+import com.example.demo.exception.AuthenticationRequiredException;
+import com.example.demo.tenant.TenantContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/diagnostics")
+@Lazy
+@PreAuthorize("hasAuthority('PERMISSION_MANAGE_USERS')")
+public class DiagnosticsAdminController {
+
+    private final SlowRequestRecorder slowRequestRecorder;
+
+    public DiagnosticsAdminController(SlowRequestRecorder slowRequestRecorder) {
+        this.slowRequestRecorder = slowRequestRecorder;
+    }
+
+    /**
+     * Recent slow (and sampled) requests of the admin's tenant with their span trees, newest first.
+     */
+    @GetMapping("/slow-requests")
+    public ResponseEntity<List<SlowRequestView>> slowRequests(@RequestParam(defaultValue = "false") boolean slowOnly) {
+        Long tenantId = TenantContext.currentTenantIdOrNull();
+        if (tenantId == null) {
+            throw AuthenticationRequiredException.INSTANCE;
+        }
+        return ResponseEntity.ok(slowRequestRecorder.recent(tenantId, slowOnly));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.admin;
+
+import com.example.demo.diagnostics.FlightRecorderService;
+import com.example.demo.exception.InvalidRequestException;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/diagnostics/jfr")
+@Lazy
+// A recording covers the whole JVM, every tenant's requests included
+@PreAuthorize("hasAuthority('PERMISSION_MANAGE_PLATFORM')")
+public class FlightRecorderAdminController {
+
+    private final FlightRecorderService flightRecorderService;
+
+    public FlightRecorderAdminController(FlightRecorderService flightRecorderService) {
+        this.flightRecorderService = flightRecorderService;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> status() {
+        return ResponseEntity.ok(flightRecorderService.status());
+    }
+
+    /**
+     * Starts a recording. threshold (e.g. 0ms) applies to the application's events, which
+     * otherwise use their own defaults; the recording stops by itself after maxDuration.
+     */
+    @PostMapping("/start")
+    public ResponseEntity<Map<String, Object>> start(@RequestParam(required = false) String threshold,
+                                                     @RequestParam(defaultValue = "10m") String maxDuration) throws Exception {
+        return ResponseEntity.ok(flightRecorderService.start(threshold != null ? duration(threshold) : null, duration(maxDuration)));
+    }
+
+    // Same formats as durations in application.properties (500ms, 10m, PT10M)
+    private static Duration duration(String value) {
+        try {
+            return DurationStyle.detectAndParse(value);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("Invalid duration: " + value);
+        }
+    }
+
+    /**
+     * Stops the recording and streams it back as a .jfr file (open with JDK Mission Control or `jfr print`).
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<Resource> stop() throws Exception {
+        Path file = flightRecorderService.stop();
+        long size = Files.size(file);
+        // The temporary file goes away once the response has been copied from it
+        Resource body = new InputStreamResource(Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(size)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregated view of who holds which permissions in a tenant: how many users hold each
+ * permission, and how many users share each distinct combination of permissions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PermissionMatrix {
+
+    private long totalUsers;
+    // Catalogue order; position i is bit i of Combination.mask
+    private List<String> permissions;
+    private Map<String, Long> holders;
+    private List<Combination> combinations;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Combination {
+
+        // BitSet.toLongArray words: bit i is mask[i / 64] >> (i % 64); empty for no permissions
+        private long[] mask;
+        private List<String> permissions;
+        private long users;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * One user to create in the admin's tenant. Rows are validated one by one, so a bad row
+ * is reported in the result instead of failing the whole request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProvisionUserRequest {
+
+    private String username;
+    private String password;
+    // Permission names; the default user permission when empty
+    private Set<String> permissions;
+}
@@ -0,0 +1,24 @@
+package com.example.demo.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of one provisioning row. Rows are numbered from 1 in request order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProvisionedUser {
+
+    public enum Status {
+        CREATED, DUPLICATE, INVALID
+    }
+
+    private int row;
+    private String username;
+    private Status status;
+    private Long userId;
+    private String message;
+}
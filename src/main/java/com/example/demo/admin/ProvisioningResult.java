@@ -0,0 +1,17 @@
+package com.example.demo.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProvisioningResult {
+
+    private int created;
+    private int rejected;
+    private List<ProvisionedUser> rows;
+}
@@ -0,0 +1,56 @@
+package com.example.demo.admin;
+
+import com.example.demo.datasource.ShardAdminService;
+import com.example.demo.datasource.TenantShardMover;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/shards")
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+// Cross-tenant operations: PERMISSION_MANAGE_PLATFORM cannot be granted by tenants,
+// only configured operators have it (app.platform.operators).
+@PreAuthorize("hasAuthority('PERMISSION_MANAGE_PLATFORM')")
+public class ShardAdminController {
+
+    private final ShardAdminService shardAdminService;
+
+    public ShardAdminController(ShardAdminService shardAdminService) {
+        this.shardAdminService = shardAdminService;
+    }
+
+    /**
+     * Lists the shards and the explicit tenant assignments.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> describeShards() {
+        return ResponseEntity.ok(shardAdminService.describe());
+    }
+
+    /**
+     * Row counts per shard and tenant, queried on all shards in parallel.
+     */
+    @GetMapping("/statistics")
+    public ResponseEntity<Map<String, Map<Long, Map<String, Long>>>> tenantStatistics() {
+        return ResponseEntity.ok(shardAdminService.tenantStatistics());
+    }
+
+    @GetMapping("/tenants/{tenantId}")
+    public ResponseEntity<Map<String, Object>> shardOfTenant(@PathVariable Long tenantId) {
+        return ResponseEntity.ok(Map.of("tenantId", tenantId, "shard", shardAdminService.shardFor(tenantId)));
+    }
+
+    /**
+     * Moves a tenant to another shard. Reads keep working during the move;
+     * the tenant's writes get 503 until the copy has finished.
+     */
+    @PostMapping("/tenants/{tenantId}/move")
+    public ResponseEntity<TenantShardMover.TenantMoveResult> moveTenant(@PathVariable Long tenantId,
+                                                                        @RequestParam String targetShard) {
+        return ResponseEntity.ok(shardAdminService.moveTenant(tenantId, targetShard));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.admin;
+
+import com.example.demo.exception.InvalidRequestException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads provisioning rows from CSV: {@code username,password[,permissions]}, permissions separated by ';'.
+ * A header line starting with "username" is skipped, as are blank lines. Fields may be double-quoted
+ * (with "" for a quote), so passwords can contain commas.
+ */
+final class UserCsvParser {
+
+    private UserCsvParser() {
+    }
+
+    static List<ProvisionUserRequest> parse(String csv) {
+        List<ProvisionUserRequest> rows = new ArrayList<>();
+        String[] lines = csv.split("\r?\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            if (line.isBlank() || (rows.isEmpty() && line.trim().toLowerCase().startsWith("username"))) {
+                continue;
+            }
+            List<String> fields = fields(line, i + 1);
+            String username = fields.get(0).trim();
+            String password = fields.size() > 1 ? fields.get(1) : null;
+            Set<String> permissions = new LinkedHashSet<>();
+            if (fields.size() > 2) {
+                Arrays.stream(fields.get(2).split(";"))
+                        .map(String::trim)
+                        .filter(name -> !name.isEmpty())
+                        .forEach(permissions::add);
+            }
+            rows.add(new ProvisionUserRequest(username, password, permissions));
+        }
+        return rows;
+    }
+
+    private static List<String> fields(String line, int lineNumber) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new InvalidRequestException("Unterminated quote on CSV line " + lineNumber);
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
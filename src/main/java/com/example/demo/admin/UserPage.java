@@ -0,0 +1,19 @@
+package com.example.demo.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPage {
+
+    private List<UserSummary> content;
+    private int page;
+    private int size;
+    // No total count: finding out whether there is a next page costs one extra row, not a query
+    private boolean hasNext;
+}
@@ -0,0 +1,266 @@
+package com.example.demo.admin;
+
+import com.example.demo.diagnostics.TenantResolutionEvent;
+import com.example.demo.exception.AuthenticationRequiredException;
+import com.example.demo.exception.InvalidRequestException;
+import com.example.demo.exception.UserAlreadyExistsException;
+import com.example.demo.permission.Permission;
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.user.AuthServiceImpl;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRegistrationRequest;
+import com.example.demo.user.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Creates many users in the admin's tenant in one request.
+ *
+ * Usernames are checked against the database in one query per chunk, passwords are hashed in
+ * parallel on a bounded pool, and users and their permission rows are written with JDBC batches.
+ * Every row gets its own outcome; only the valid, new rows are created.
+ */
+@Service
+@Lazy
+public class UserProvisioningService implements DisposableBean {
+
+    // Rows per JDBC batch and usernames per IN list
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String INSERT_USER = "INSERT INTO app_user (username, password, tenant_id) VALUES (?, ?, ?)";
+    private static final String INSERT_PERMISSION = "INSERT INTO user_permissions (user_id, permission_id) VALUES (?, ?)";
+    private static final String SELECT_IDS = "SELECT id, username FROM app_user WHERE username IN (:usernames)";
+
+    private final UserRepository userRepository;
+    private final PermissionCatalog permissionCatalog;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final int hashingThreads;
+    private final int maxRows;
+    private final ThreadPoolExecutor hashingPool;
+
+    public UserProvisioningService(UserRepository userRepository,
+                                   PermissionCatalog permissionCatalog,
+                                   PasswordEncoder passwordEncoder,
+                                   Validator validator,
+                                   DataSource dataSource,
+                                   @Value("${app.provisioning.hashing-threads:0}") int hashingThreads,
+                                   @Value("${app.provisioning.max-rows:10000}") int maxRows) {
+        this.userRepository = userRepository;
+        this.permissionCatalog = permissionCatalog;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.hashingThreads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        this.maxRows = maxRows;
+        // BCrypt is CPU-bound: one thread per core, a short queue, and callers hash themselves when it's full
+        AtomicInteger counter = new AtomicInteger();
+        this.hashingPool = new ThreadPoolExecutor(this.hashingThreads, this.hashingThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.hashingThreads * 4), r -> {
+                    Thread thread = new Thread(r, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    // Helper to get the currently authenticated user
+    private User getCurrentUser() {
+        TenantResolutionEvent event = TenantResolutionEvent.begin("UserProvisioningService");
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication.getPrincipal().equals("anonymousUser")) {
+            throw AuthenticationRequiredException.INSTANCE;
+        }
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof User user) {
+            event.resolved(user.getTenantId());
+            return user;
+        } else {
+            throw new IllegalStateException("Authentication principal is not the expected User object.");
+        }
+    }
+
+    @Transactional
+    public ProvisioningResult provision(List<ProvisionUserRequest> requests) {
+        Long tenantId = getCurrentUser().getTenantId();
+        if (requests == null || requests.isEmpty()) {
+            throw new InvalidRequestException("No users to provision.");
+        }
+        if (requests.size() > maxRows) {
+            throw new InvalidRequestException("At most " + maxRows + " users per request.");
+        }
+
+        // 1. Validate each row on its own and drop repeats within the request
+        ProvisionedUser[] outcomes = new ProvisionedUser[requests.size()];
+        List<Candidate> candidates = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ProvisionUserRequest request = requests.get(i);
+            String username = request.getUsername() == null ? null : request.getUsername().trim();
+            String problem = validate(username, request.getPassword());
+            Set<String> names = request.getPermissions() == null || request.getPermissions().isEmpty()
+                    ? Set.of(AuthServiceImpl.DEFAULT_USER_PERMISSION) : request.getPermissions();
+            Set<Permission> permissions = problem == null ? permissionCatalog.resolve(names) : Set.of();
+            if (problem == null && permissions.size() != names.size()) {
+                problem = "Unknown permission(s): " + unknownNames(names, permissions);
+            }
+            if (problem != null) {
+                outcomes[i] = rejected(i, username, ProvisionedUser.Status.INVALID, problem);
+            } else if (!seen.add(username)) {
+                outcomes[i] = rejected(i, username, ProvisionedUser.Status.DUPLICATE, "Listed more than once in this request.");
+            } else {
+                candidates.add(new Candidate(i, username, request.getPassword(), permissions));
+            }
+        }
+
+        // 2. Usernames that are already taken, one query per chunk
+        Set<String> taken = new HashSet<>();
+        for (List<Candidate> chunk : chunks(candidates)) {
+            taken.addAll(userRepository.findExistingUsernames(chunk.stream().map(Candidate::username).toList()));
+        }
+        List<Candidate> toCreate = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            if (taken.contains(candidate.username())) {
+                outcomes[candidate.index()] = rejected(candidate.index(), candidate.username(),
+                        ProvisionedUser.Status.DUPLICATE, "User with email " + candidate.username() + " already exists.");
+            } else {
+                toCreate.add(candidate);
+            }
+        }
+
+        // 3. Hash, then write users and permission rows in batches
+        if (!toCreate.isEmpty()) {
+            String[] hashes = hashPasswords(toCreate);
+            Map<String, Long> ids = insertUsers(toCreate, hashes, tenantId);
+            List<Long[]> grants = new ArrayList<>();
+            for (Candidate candidate : toCreate) {
+                Long userId = ids.get(candidate.username());
+                candidate.permissions().forEach(permission -> grants.add(new Long[]{userId, permission.getId()}));
+                outcomes[candidate.index()] = new ProvisionedUser(candidate.index() + 1, candidate.username(),
+                        ProvisionedUser.Status.CREATED, userId, null);
+            }
+            jdbcTemplate.batchUpdate(INSERT_PERMISSION, grants, CHUNK_SIZE, (ps, grant) -> {
+                ps.setLong(1, grant[0]);
+                ps.setLong(2, grant[1]);
+            });
+        }
+
+        List<ProvisionedUser> rows = List.of(outcomes);
+        return new ProvisioningResult(toCreate.size(), rows.size() - toCreate.size(), rows);
+    }
+
+    // The same rules as self-registration
+    private String validate(String username, String password) {
+        Set<ConstraintViolation<UserRegistrationRequest>> violations =
+                validator.validate(new UserRegistrationRequest(username, password));
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+    }
+
+    private String[] hashPasswords(List<Candidate> candidates) {
+        String[] hashes = new String[candidates.size()];
+        int slices = Math.min(hashingThreads, candidates.size());
+        List<Future<?>> futures = new ArrayList<>(slices);
+        for (int slice = 0; slice < slices; slice++) {
+            int from = candidates.size() * slice / slices;
+            int to = candidates.size() * (slice + 1) / slices;
+            futures.add(hashingPool.submit(() -> {
+                for (int i = from; i < to; i++) {
+                    hashes[i] = passwordEncoder.encode(candidates.get(i).password());
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Interrupted while hashing passwords", ex);
+        } catch (ExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+        return hashes;
+    }
+
+    private Map<String, Long> insertUsers(List<Candidate> candidates, String[] hashes, Long tenantId) {
+        List<Object[]> users = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            users.add(new Object[]{candidates.get(i).username(), hashes[i], tenantId});
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_USER, users);
+        } catch (DuplicateKeyException ex) {
+            // Registered concurrently after the uniqueness check; nothing from this request is kept
+            throw new UserAlreadyExistsException("One or more users were created concurrently; please retry.");
+        }
+
+        Map<String, Long> ids = new HashMap<>();
+        for (List<Candidate> chunk : chunks(candidates)) {
+            MapSqlParameterSource parameters = new MapSqlParameterSource("usernames",
+                    chunk.stream().map(Candidate::username).toList());
+            namedJdbcTemplate.query(SELECT_IDS, parameters, rs -> {
+                ids.put(rs.getString("username"), rs.getLong("id"));
+            });
+        }
+        return ids;
+    }
+
+    private static List<List<Candidate>> chunks(List<Candidate> candidates) {
+        List<List<Candidate>> chunks = new ArrayList<>();
+        for (int from = 0; from < candidates.size(); from += CHUNK_SIZE) {
+            chunks.add(candidates.subList(from, Math.min(from + CHUNK_SIZE, candidates.size())));
+        }
+        return chunks;
+    }
+
+    private static String unknownNames(Set<String> names, Set<Permission> found) {
+        Set<String> known = found.stream().map(Permission::getName).collect(Collectors.toSet());
+        return names.stream().filter(name -> !known.contains(name)).sorted().collect(Collectors.joining(", "));
+    }
+
+    private static ProvisionedUser rejected(int index, String username, ProvisionedUser.Status status, String message) {
+        return new ProvisionedUser(index + 1, username, status, null, message);
+    }
+
+    @Override
+    public void destroy() {
+        hashingPool.shutdownNow();
+    }
+
+    private record Candidate(int index, String username, String password, Set<Permission> permissions) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * What the admin user listing returns for each user: no password hash, permissions by name.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+
+    private Long id;
+    private String username;
+    private List<String> permissions;
+}
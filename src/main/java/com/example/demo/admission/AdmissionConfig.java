@@ -0,0 +1,49 @@
+package com.example.demo.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Per-tenant fair admission control (see AdmissionFilter); disable with "app.admission.enabled=false".
+ */
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+@ConditionalOnProperty(prefix = "app.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Bean
+    public FairAdmissionController fairAdmissionController(AdmissionProperties properties,
+                                                           @Value("${server.tomcat.threads.max:200}") int workerThreads) {
+        // Admitted and queued tenant requests each hold a worker; login, health checks and the rest need some too
+        if (properties.getMaxConcurrency() + properties.getMaxQueuedTotal() > workerThreads * 3 / 4) {
+            throw new IllegalStateException("app.admission.max-concurrency + max-queued-total must not exceed three quarters of "
+                    + "server.tomcat.threads.max (" + workerThreads + ").");
+        }
+        if (properties.getMaxQueueLength() >= properties.getMaxQueuedTotal()) {
+            throw new IllegalStateException("app.admission.max-queue-length must be below max-queued-total, "
+                    + "or one tenant can fill the whole queue.");
+        }
+        return new FairAdmissionController(properties.getMaxConcurrency(), properties.getMaxQueueLength(),
+                properties.getMaxQueuedTotal());
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(FairAdmissionController controller,
+                                                                   AdmissionProperties properties,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                                                   @Value("${app.metrics.max-tenant-tags:100}") int maxTenantTags) {
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionFilter(controller, properties, meterRegistry.getIfAvailable(), maxTenantTags));
+        registration.addUrlPatterns("/api/*");
+        // Right after the security filter chain (JwtAuthenticationFilter establishes the tenant), before any other work
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.demo.admission;
+
+import com.example.demo.exception.DomainException;
+import com.example.demo.exception.TooManyRequestsException;
+import com.example.demo.limiter.ConcurrencyLimitFilter;
+import com.example.demo.tenant.TenantContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Per-tenant admission control (see FairAdmissionController). Runs right after the security filter chain,
+ * where the tenant is known; unauthenticated requests pass through. A request holds its permit until the
+ * response is complete, including asynchronous processing such as GraphQL. Endpoints that run several
+ * operations in one request report the extra ones with charge, so they count against the tenant's share.
+ *
+ * Waiting requests still hold their servlet thread, but not a connection, CPU time or a slot of the adaptive
+ * concurrency limit, so one tenant's burst queues behind its own limit instead of occupying the connection
+ * pool or getting other tenants shed.
+ *
+ * Metrics: tenant.admission.queue (time spent waiting, by tenant, tier and outcome; recorded only for requests
+ * that had to wait), tenant.admission.in.flight and tenant.admission.queued. Tenants beyond
+ * app.metrics.max-tenant-tags share tenant="other".
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    public static final String METRIC = "tenant.admission.queue";
+    static final String OTHER = "other";
+    private static final String CHARGE_ATTRIBUTE = AdmissionFilter.class.getName() + ".charge";
+
+    private final FairAdmissionController controller;
+    private final AdmissionProperties properties;
+    private final long maxQueueNanos;
+    private final MeterRegistry meterRegistry;
+    private final int maxTenantTags;
+    private final Map<Long, Meters> metersByTenant = new ConcurrentHashMap<>();
+    private final Map<String, Meters> otherMeters = new ConcurrentHashMap<>();
+
+    public AdmissionFilter(FairAdmissionController controller, AdmissionProperties properties,
+                           MeterRegistry meterRegistry, int maxTenantTags) {
+        this.controller = controller;
+        this.properties = properties;
+        this.maxQueueNanos = properties.getMaxQueueTime().toNanos();
+        this.meterRegistry = meterRegistry;
+        this.maxTenantTags = maxTenantTags;
+        if (meterRegistry != null) {
+            Gauge.builder("tenant.admission.in.flight", controller, FairAdmissionController::inFlight)
+                    .description("Tenant requests admitted and running").register(meterRegistry);
+            Gauge.builder("tenant.admission.queued", controller, FairAdmissionController::queued)
+                    .description("Tenant requests waiting for admission").register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Long tenantId = TenantContext.currentTenantIdOrNull();
+        if (tenantId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        AdmissionProperties.Tier tier = properties.tierOf(tenantId);
+        long started = System.nanoTime();
+        FairAdmissionController.Permit permit;
+        // A queued request must not hold a slot of the global limiter, or one tenant's burst gets the others shed
+        ConcurrencyLimitFilter.suspend(request);
+        try {
+            permit = controller.acquire(tenantId, tier.getWeight(), tier.getMaxConcurrency(), maxQueueNanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            permit = null;
+        } finally {
+            ConcurrencyLimitFilter.resume(request);
+        }
+        if (permit == null) {
+            record(tenantId, System.nanoTime() - started, false);
+            reject(response, new TooManyRequestsException("Too many concurrent requests for tenant " + tenantId + "; retry later."));
+            return;
+        }
+        if (permit.waited()) {
+            record(tenantId, System.nanoTime() - started, true);
+        }
+        FairAdmissionController.Permit admitted = permit;
+        request.setAttribute(CHARGE_ATTRIBUTE, (IntConsumer) requests -> controller.charge(admitted, requests));
+
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+            if (async) {
+                FairAdmissionController.Permit asyncPermit = permit;
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        controller.release(asyncPermit);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        controller.release(asyncPermit);
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        controller.release(asyncPermit);
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            }
+        } finally {
+            if (!async) {
+                controller.release(permit);
+            }
+        }
+    }
+
+    // Counts the given number of additional requests against the tenant of an admitted request; a no-op otherwise
+    public static void charge(HttpServletRequest request, int requests) {
+        if (request.getAttribute(CHARGE_ATTRIBUTE) instanceof IntConsumer charge) {
+            charge.accept(requests);
+        }
+    }
+
+    private void reject(HttpServletResponse response, DomainException ex) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        ex.addHeaders(headers);
+        headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setStatus(ex.getStatus().value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        byte[] body = ex.body();
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private void record(Long tenantId, long nanos, boolean admitted) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Meters meters = metersByTenant.get(tenantId);
+        if (meters == null) {
+            String tier = properties.tierNameOf(tenantId);
+            meters = metersByTenant.size() >= maxTenantTags
+                    ? otherMeters.computeIfAbsent(tier, t -> new Meters(OTHER, t))
+                    : metersByTenant.computeIfAbsent(tenantId, id -> new Meters(id.toString(), tier));
+        }
+        (admitted ? meters.admitted : meters.rejected).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private final class Meters {
+
+        private final Timer admitted;
+        private final Timer rejected;
+
+        Meters(String tenant, String tier) {
+            this.admitted = timer(tenant, tier, "admitted");
+            this.rejected = timer(tenant, tier, "rejected");
+        }
+
+        private Timer timer(String tenant, String tier, String outcome) {
+            return Timer.builder(METRIC)
+                    .description("Time tenant requests waited for admission")
+                    .tag("tenant", tenant)
+                    .tag("tier", tier)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.demo.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+    // Tenant requests running at once across all tenants; keep it near what the connection pool can serve
+    private int maxConcurrency = 40;
+    // Longest a request waits for admission before it is answered with 429
+    private Duration maxQueueTime = Duration.ofSeconds(2);
+    // Requests of one tenant waiting at once; further ones are rejected right away
+    private int maxQueueLength = 20;
+    // Requests of all tenants waiting at once. Each holds a servlet thread, so max-concurrency plus this must
+    // leave a quarter of server.tomcat.threads.max free for everything else (checked at startup)
+    private int maxQueuedTotal = 100;
+    private String defaultTier = "standard";
+    private Map<String, Tier> tiers = new HashMap<>(Map.of("standard", new Tier()));
+    // Tenant id to tier name; tenants not listed use the default tier
+    private Map<Long, String> tenantTiers = new HashMap<>();
+
+    public Tier tierOf(Long tenantId) {
+        Tier tier = tiers.get(tenantTiers.getOrDefault(tenantId, defaultTier));
+        return tier != null ? tier : tiers.get(defaultTier);
+    }
+
+    public String tierNameOf(Long tenantId) {
+        String name = tenantTiers.getOrDefault(tenantId, defaultTier);
+        return tiers.containsKey(name) ? name : defaultTier;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public Duration getMaxQueueTime() {
+        return maxQueueTime;
+    }
+
+    public void setMaxQueueTime(Duration maxQueueTime) {
+        this.maxQueueTime = maxQueueTime;
+    }
+
+    public int getMaxQueueLength() {
+        return maxQueueLength;
+    }
+
+    public void setMaxQueueLength(int maxQueueLength) {
+        this.maxQueueLength = maxQueueLength;
+    }
+
+    public int getMaxQueuedTotal() {
+        return maxQueuedTotal;
+    }
+
+    public void setMaxQueuedTotal(int maxQueuedTotal) {
+        this.maxQueuedTotal = maxQueuedTotal;
+    }
+
+    public String getDefaultTier() {
+        return defaultTier;
+    }
+
+    public void setDefaultTier(String defaultTier) {
+        this.defaultTier = defaultTier;
+    }
+
+    public Map<String, Tier> getTiers() {
+        return tiers;
+    }
+
+    public void setTiers(Map<String, Tier> tiers) {
+        this.tiers = tiers;
+    }
+
+    public Map<Long, String> getTenantTiers() {
+        return tenantTiers;
+    }
+
+    public void setTenantTiers(Map<Long, String> tenantTiers) {
+        this.tenantTiers = tenantTiers;
+    }
+
+    public static class Tier {
+
+        // Share of admissions while tenants compete: a weight-4 tenant is admitted four times as often as a weight-1 tenant
+        private int weight = 1;
+        // Requests of one tenant running at once
+        private int maxConcurrency = 16;
+
+        public Tier() {
+        }
+
+        public Tier(int weight, int maxConcurrency) {
+            this.weight = weight;
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.demo.admission;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits tenant requests under two limits: a global one (maxConcurrency) and one per tenant (its tier's
+ * maxConcurrency). Requests over a limit wait in their tenant's queue; when capacity frees up the next
+ * request is chosen across tenants by start-time fair queuing: each waiting request gets a virtual finish
+ * tag of start + 1/weight, where start is the later of the current virtual time and the tenant's previous
+ * finish tag, and the smallest tag goes first. A tenant with weight 4 is therefore admitted four times as
+ * often as one with weight 1 while both have work queued, and a tenant that was idle does not bank credit.
+ *
+ * Waiting requests occupy a servlet thread each, so the queues are bounded per tenant (maxQueueLength) and
+ * in total (maxQueuedTotal); a request that finds either full is rejected at once. The per-tenant bound keeps
+ * one tenant from filling the total, so other tenants can still queue while its queue is full.
+ *
+ * A request that does the work of several (a batch) is admitted as one and then charged for the rest
+ * (charge), which moves the tenant's later finish tags back as if it had queued that many more requests.
+ * The charge lasts while the tenant has requests running or waiting.
+ *
+ * All state is guarded by one lock; the critical sections are a few map and queue operations.
+ */
+public class FairAdmissionController {
+
+    private final int maxConcurrency;
+    private final int maxQueueLength;
+    private final int maxQueuedTotal;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Tenants with requests running or waiting; idle tenants are removed
+    private final Map<Long, TenantState> tenants = new HashMap<>();
+    private int inFlight;
+    private int queued;
+    private double virtualTime;
+    private long sequence;
+
+    public FairAdmissionController(int maxConcurrency, int maxQueueLength, int maxQueuedTotal) {
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueueLength = maxQueueLength;
+        this.maxQueuedTotal = maxQueuedTotal;
+    }
+
+    /**
+     * Waits until the request may run.
+     *
+     * @return the permit to release when the request is done, or null if the tenant's queue or the total
+     *         queue is full or the request was not admitted within the timeout
+     */
+    public Permit acquire(Long tenantId, int weight, int tenantMaxConcurrency, long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            TenantState tenant = tenants.computeIfAbsent(tenantId, id -> new TenantState(id, weight, tenantMaxConcurrency));
+            if (tenant.queue.isEmpty() && tenant.inFlight < tenant.maxConcurrency && inFlight < maxConcurrency) {
+                return admit(tenant);
+            }
+            if (tenant.queue.size() >= maxQueueLength || queued >= maxQueuedTotal) {
+                removeIfIdle(tenant);
+                return null;
+            }
+
+            double start = Math.max(virtualTime, tenant.lastFinish);
+            Waiter waiter = new Waiter(tenant, start, start + 1.0 / tenant.weight, sequence++, lock.newCondition());
+            tenant.lastFinish = waiter.finish;
+            tenant.queue.addLast(waiter);
+            queued++;
+
+            long remaining = timeoutNanos;
+            try {
+                while (waiter.permit == null && remaining > 0) {
+                    remaining = waiter.admitted.awaitNanos(remaining);
+                }
+            } catch (InterruptedException ex) {
+                if (waiter.permit != null) {
+                    // Admitted and interrupted at once: hand the capacity on
+                    release(waiter.permit);
+                } else {
+                    abandon(waiter);
+                }
+                throw ex;
+            }
+            if (waiter.permit == null) {
+                abandon(waiter);
+            }
+            return waiter.permit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(Permit permit) {
+        lock.lock();
+        try {
+            if (permit.released) {
+                return;
+            }
+            permit.released = true;
+            inFlight--;
+            permit.tenant.inFlight--;
+            dispatch();
+            removeIfIdle(permit.tenant);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts extra requests' worth of work done under an admitted permit against the tenant's share.
+     */
+    public void charge(Permit permit, int requests) {
+        lock.lock();
+        try {
+            if (permit.released || requests <= 0) {
+                return;
+            }
+            TenantState tenant = permit.tenant;
+            tenant.lastFinish = Math.max(virtualTime, tenant.lastFinish) + (double) requests / tenant.weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Hands free capacity to the waiting requests with the smallest finish tags among tenants under their own limit
+    private void dispatch() {
+        while (inFlight < maxConcurrency) {
+            Waiter next = null;
+            for (TenantState tenant : tenants.values()) {
+                Waiter head = tenant.queue.peekFirst();
+                if (head != null && tenant.inFlight < tenant.maxConcurrency
+                        && (next == null || head.finish < next.finish || (head.finish == next.finish && head.sequence < next.sequence))) {
+                    next = head;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            next.tenant.queue.removeFirst();
+            queued--;
+            virtualTime = Math.max(virtualTime, next.start);
+            next.permit = admit(next.tenant);
+            next.permit.waited = true;
+            next.admitted.signal();
+        }
+    }
+
+    private Permit admit(TenantState tenant) {
+        inFlight++;
+        tenant.inFlight++;
+        return new Permit(tenant);
+    }
+
+    private void abandon(Waiter waiter) {
+        waiter.tenant.queue.remove(waiter);
+        queued--;
+        removeIfIdle(waiter.tenant);
+    }
+
+    private void removeIfIdle(TenantState tenant) {
+        if (tenant.inFlight == 0 && tenant.queue.isEmpty()) {
+            tenants.remove(tenant.tenantId, tenant);
+        }
+    }
+
+    public static final class Permit {
+
+        private final TenantState tenant;
+        private boolean waited;
+        private boolean released;
+
+        private Permit(TenantState tenant) {
+            this.tenant = tenant;
+        }
+
+        // Whether the request was queued before it was admitted
+        public boolean waited() {
+            return waited;
+        }
+    }
+
+    private static final class TenantState {
+
+        private final Long tenantId;
+        private final int weight;
+        private final int maxConcurrency;
+        private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+        private int inFlight;
+        private double lastFinish;
+
+        TenantState(Long tenantId, int weight, int maxConcurrency) {
+            this.tenantId = tenantId;
+            this.weight = Math.max(weight, 1);
+            this.maxConcurrency = Math.max(maxConcurrency, 1);
+        }
+    }
+
+    private static final class Waiter {
+
+        private final TenantState tenant;
+        private final double start;
+        private final double finish;
+        private final long sequence;
+        private final Condition admitted;
+        private Permit permit;
+
+        Waiter(TenantState tenant, double start, double finish, long sequence, Condition admitted) {
+            this.tenant = tenant;
+            this.start = start;
+            this.finish = finish;
+            this.sequence = sequence;
+            this.admitted = admitted;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.batch;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/batch")
+public class BatchController {
+
+    private final BatchExecutor batchExecutor;
+
+    public BatchController(BatchExecutor batchExecutor) {
+        this.batchExecutor = batchExecutor;
+    }
+
+    // POST /api/batch - Run several API calls in one request; 207 Multi-Status with one result per operation
+    @PostMapping
+    public ResponseEntity<BatchResponse> execute(@Valid @RequestBody BatchRequest batch,
+                                                 HttpServletRequest request, HttpServletResponse response) {
+        return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(batchExecutor.execute(batch, request, response));
+    }
+}
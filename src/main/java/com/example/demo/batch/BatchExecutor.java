@@ -0,0 +1,338 @@
+package com.example.demo.batch;
+
+import com.example.demo.admission.AdmissionFilter;
+import com.example.demo.datasource.ShardContext;
+import com.example.demo.datasource.TenantShardDirectory;
+import com.example.demo.tenant.TenantContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the operations of a batch, in order, through Spring MVC as if each were its own API call.
+ *
+ * Operations are dispatched in-process to a DispatcherServlet of their own, after the batch request has
+ * passed the filter chain: the caller is authenticated once, and every operation runs with the batch's
+ * security context, so @PreAuthorize and tenant scoping apply exactly as for a direct call.
+ *
+ * Transactional batches run in one transaction (on the tenant's shard when sharding is enabled). The
+ * first operation answering 4xx/5xx rolls the transaction back and the remaining ones are not run
+ * (424 Failed Dependency). Otherwise every operation runs and commits on its own; only operations that
+ * reference a failed one are skipped.
+ *
+ * Since operations skip the filter chain, admission, the adaptive concurrency limit and Idempotency-Key
+ * handling see the batch as one request. Tenant admission is charged for the other operations up front,
+ * so a tenant's batches count against its share like the calls they contain.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BatchExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchExecutor.class);
+
+    private static final Set<String> METHODS = Set.of("GET", "POST", "PUT", "PATCH", "DELETE");
+    // ${operationId.field.path}; array elements by index, e.g. ${list.0.id}
+    private static final Pattern REFERENCE = Pattern.compile("\\$\\{([A-Za-z0-9_-]+)((?:\\.[A-Za-z0-9_]+)+)}");
+
+    private final WebApplicationContext applicationContext;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<TenantShardDirectory> shardDirectory;
+    private volatile DispatcherServlet dispatcher;
+
+    public BatchExecutor(WebApplicationContext applicationContext, ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager,
+                         ObjectProvider<TenantShardDirectory> shardDirectory) {
+        this.applicationContext = applicationContext;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardDirectory = shardDirectory;
+    }
+
+    public BatchResponse execute(BatchRequest batch, HttpServletRequest request, HttpServletResponse response) {
+        List<BatchRequest.Operation> operations = batch.getOperations();
+        AdmissionFilter.charge(request, operations.size() - 1);
+        if (!batch.isTransactional()) {
+            Run run = new Run(request, response);
+            operations.forEach(run::execute);
+            return new BatchResponse(false, true, run.results);
+        }
+
+        Run run = new Run(request, response);
+        boolean committed = Boolean.TRUE.equals(onTenantShard(() -> transactionTemplate.execute(status -> {
+            for (BatchRequest.Operation operation : operations) {
+                if (!run.execute(operation)) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+            }
+            return true;
+        })));
+        for (int i = run.results.size(); i < operations.size(); i++) {
+            run.results.add(run.failedDependency(operations.get(i).getId(), "Not run: the batch was rolled back."));
+        }
+        return new BatchResponse(true, committed, run.results);
+    }
+
+    // The whole transaction must use one shard; the services' own routing is skipped inside it
+    private <T> T onTenantShard(Supplier<T> action) {
+        TenantShardDirectory directory = shardDirectory.getIfAvailable();
+        Long tenantId = TenantContext.currentTenantIdOrNull();
+        if (directory == null || tenantId == null || ShardContext.current() != null) {
+            return action.get();
+        }
+        String shard = directory.beginWrite(tenantId);
+        try {
+            return ShardContext.callOn(shard, action);
+        } finally {
+            directory.endWrite(tenantId);
+        }
+    }
+
+    // Created on first use: the application context must be fully started before a DispatcherServlet can attach to it
+    private DispatcherServlet dispatcher(ServletContext servletContext) throws ServletException {
+        DispatcherServlet current = dispatcher;
+        if (current == null) {
+            synchronized (this) {
+                current = dispatcher;
+                if (current == null) {
+                    current = new DispatcherServlet(applicationContext);
+                    current.setPublishContext(false);
+                    current.setPublishEvents(false);
+                    current.init(servletConfig(servletContext));
+                    dispatcher = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static ServletConfig servletConfig(ServletContext servletContext) {
+        return new ServletConfig() {
+            @Override
+            public String getServletName() {
+                return "batchDispatcher";
+            }
+
+            @Override
+            public ServletContext getServletContext() {
+                return servletContext;
+            }
+
+            @Override
+            public String getInitParameter(String name) {
+                return null;
+            }
+
+            @Override
+            public Enumeration<String> getInitParameterNames() {
+                return Collections.emptyEnumeration();
+            }
+        };
+    }
+
+    /**
+     * State of one batch execution: the results so far and the response bodies that later operations may reference.
+     */
+    private final class Run {
+
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final List<BatchResponse.OperationResult> results = new ArrayList<>();
+        private final Map<String, BatchResponse.OperationResult> byId = new HashMap<>();
+
+        Run(HttpServletRequest request, HttpServletResponse response) {
+            this.request = request;
+            this.response = response;
+        }
+
+        // Returns whether the operation succeeded (2xx/3xx)
+        boolean execute(BatchRequest.Operation operation) {
+            BatchResponse.OperationResult result = run(operation);
+            results.add(result);
+            if (operation.getId() != null) {
+                byId.put(operation.getId(), result);
+            }
+            return result.status() < 400;
+        }
+
+        private BatchResponse.OperationResult run(BatchRequest.Operation operation) {
+            String id = operation.getId();
+            String method = operation.getMethod().toUpperCase();
+            if (!METHODS.contains(method)) {
+                return error(id, HttpStatus.BAD_REQUEST, "Unsupported method '" + operation.getMethod() + "'.");
+            }
+            if (id != null && byId.containsKey(id)) {
+                return error(id, HttpStatus.BAD_REQUEST, "Duplicate operation id '" + id + "'.");
+            }
+
+            String path;
+            byte[] body;
+            try {
+                path = resolvePath(operation.getPath());
+                body = operation.getBody() != null ? objectMapper.writeValueAsBytes(resolveBody(operation.getBody())) : null;
+            } catch (UnresolvedReference ex) {
+                return ex.failedDependency ? failedDependency(id, ex.getMessage()) : error(id, HttpStatus.BAD_REQUEST, ex.getMessage());
+            } catch (IOException ex) {
+                return error(id, HttpStatus.BAD_REQUEST, "Invalid body.");
+            }
+            if (!dispatchable(path)) {
+                return error(id, HttpStatus.BAD_REQUEST, "Path '" + path + "' cannot be used in a batch.");
+            }
+
+            BufferedResponse operationResponse = new BufferedResponse(response);
+            try {
+                dispatcher(request.getServletContext()).service(new SubRequest(request, method, path, body), operationResponse);
+            } catch (ServletException | IOException | RuntimeException ex) {
+                // GlobalExceptionHandler answers everything a controller throws; this is the dispatch itself failing
+                log.error("Batch operation {} {} failed", method, path, ex);
+                return error(id, HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred");
+            }
+            return new BatchResponse.OperationResult(id, operationResponse.getStatus(), bodyOf(operationResponse));
+        }
+
+        private JsonNode bodyOf(BufferedResponse operationResponse) {
+            byte[] bytes = operationResponse.body();
+            if (bytes.length == 0) {
+                return null;
+            }
+            String contentType = operationResponse.getContentType();
+            if (contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))) {
+                try {
+                    return objectMapper.readTree(bytes);
+                } catch (IOException ex) {
+                    // fall through and return the text as-is
+                }
+            }
+            return TextNode.valueOf(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        // --- References ---
+
+        private String resolvePath(String path) {
+            Matcher matcher = REFERENCE.matcher(path);
+            StringBuilder resolved = new StringBuilder();
+            while (matcher.find()) {
+                String value = lookup(matcher.group(1), matcher.group(2)).asText();
+                matcher.appendReplacement(resolved, Matcher.quoteReplacement(UriUtils.encode(value, StandardCharsets.UTF_8)));
+            }
+            matcher.appendTail(resolved);
+            return resolved.toString();
+        }
+
+        // A string that is exactly one reference takes the referenced JSON value; references inside longer strings are substituted as text
+        private JsonNode resolveBody(JsonNode node) {
+            if (node.isTextual()) {
+                String text = node.textValue();
+                Matcher matcher = REFERENCE.matcher(text);
+                if (matcher.matches()) {
+                    return lookup(matcher.group(1), matcher.group(2)).deepCopy();
+                }
+                matcher.reset();
+                StringBuilder resolved = new StringBuilder();
+                boolean found = false;
+                while (matcher.find()) {
+                    found = true;
+                    matcher.appendReplacement(resolved, Matcher.quoteReplacement(lookup(matcher.group(1), matcher.group(2)).asText()));
+                }
+                matcher.appendTail(resolved);
+                return found ? TextNode.valueOf(resolved.toString()) : node;
+            }
+            if (node.isObject()) {
+                ObjectNode copy = JsonNodeFactory.instance.objectNode();
+                for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    copy.set(field.getKey(), resolveBody(field.getValue()));
+                }
+                return copy;
+            }
+            if (node.isArray()) {
+                ArrayNode copy = JsonNodeFactory.instance.arrayNode(node.size());
+                node.forEach(element -> copy.add(resolveBody(element)));
+                return copy;
+            }
+            return node;
+        }
+
+        private JsonNode lookup(String operationId, String fieldPath) {
+            BatchResponse.OperationResult referenced = byId.get(operationId);
+            if (referenced == null) {
+                throw new UnresolvedReference("Operation '" + operationId + "' does not precede this one.", false);
+            }
+            if (referenced.status() >= 400) {
+                throw new UnresolvedReference("Operation '" + operationId + "' failed.", true);
+            }
+            JsonNode value = referenced.body();
+            for (String field : fieldPath.substring(1).split("\\.")) {
+                value = value == null ? null
+                        : value.isArray() && field.chars().allMatch(Character::isDigit) ? value.get(Integer.parseInt(field))
+                        : value.get(field);
+            }
+            if (value == null || value.isNull() || value.isContainerNode()) {
+                throw new UnresolvedReference("Reference '${" + operationId + fieldPath + "}' does not name a value.", false);
+            }
+            return value;
+        }
+
+        private BatchResponse.OperationResult failedDependency(String id, String message) {
+            return error(id, HttpStatus.FAILED_DEPENDENCY, message);
+        }
+
+        // Same body as GlobalExceptionHandler writes
+        private BatchResponse.OperationResult error(String id, HttpStatus status, String message) {
+            ObjectNode body = JsonNodeFactory.instance.objectNode();
+            body.put("message", message);
+            return new BatchResponse.OperationResult(id, status.value(), body);
+        }
+    }
+
+    // Tenant APIs only: no nested batches, no login or token endpoints, no async GraphQL
+    private static boolean dispatchable(String path) {
+        return path.startsWith("/api/") && !path.contains("..")
+                && !path.startsWith("/api/batch") && !path.startsWith("/api/auth/") && !path.startsWith("/api/graphql");
+    }
+
+    private static final class UnresolvedReference extends RuntimeException {
+
+        private final boolean failedDependency;
+
+        UnresolvedReference(String message, boolean failedDependency) {
+            super(message);
+            this.failedDependency = failedDependency;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * An ordered list of API calls run by POST /api/batch.
+ * Paths and body strings may contain ${id.field} references to the response body of an earlier operation,
+ * e.g. "/api/workorders?propertyId=${property.id}".
+ *
+ * Operations run inside the batch request, not as requests of their own: the adaptive concurrency limit
+ * takes one slot for the whole batch and Idempotency-Key is not honoured for them, so a retried batch
+ * runs its creates again. Tenant admission weighs the batch by its number of operations.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequest {
+
+    // true: all operations commit together and the first failure rolls everything back;
+    // false: each operation commits on its own and later ones still run after a failure
+    private boolean transactional;
+
+    @Valid
+    @NotEmpty(message = "operations is mandatory")
+    @Size(max = 100, message = "At most 100 operations per batch")
+    private List<Operation> operations;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Operation {
+
+        // Optional; needed only to reference the operation's result
+        private String id;
+
+        @NotBlank(message = "method is mandatory")
+        private String method;
+
+        // Relative to the server, including the query string, e.g. /api/workorders/7/status?status=DONE
+        @NotBlank(message = "path is mandatory")
+        private String path;
+
+        private JsonNode body;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * Multi-status answer of POST /api/batch: one result per operation, in request order.
+ * committed is false when a transactional batch was rolled back.
+ */
+public record BatchResponse(boolean transactional, boolean committed, List<OperationResult> results) {
+
+    // body is the operation's JSON response (or its error), null when it had none
+    public record OperationResult(String id, int status, JsonNode body) {
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.demo.batch;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One batch operation presented to the DispatcherServlet as a request of its own: method, path, query
+ * parameters and JSON body come from the operation, everything else (principal, locale, remote address)
+ * from the batch request. Attributes are not shared, so handler mapping and MVC state of one operation
+ * never leaks into the next or into the batch request.
+ */
+final class SubRequest extends HttpServletRequestWrapper {
+
+    private static final Set<String> OWN_HEADERS = Set.of("content-type", "content-length", "accept");
+
+    private final String method;
+    private final String path;
+    private final String queryString;
+    private final Map<String, String[]> parameters;
+    private final byte[] body;
+    private final Map<String, Object> attributes = new HashMap<>();
+
+    SubRequest(HttpServletRequest batchRequest, String method, String pathAndQuery, byte[] body) {
+        super(batchRequest);
+        UriComponents uri = UriComponentsBuilder.fromUriString(pathAndQuery).build();
+        this.method = method;
+        this.path = uri.getPath();
+        this.queryString = uri.getQuery();
+        this.parameters = decode(uri.getQueryParams());
+        this.body = body;
+    }
+
+    private static Map<String, String[]> decode(MultiValueMap<String, String> encoded) {
+        MultiValueMap<String, String> decoded = new LinkedMultiValueMap<>();
+        encoded.forEach((name, values) -> values.forEach(value ->
+                decoded.add(UriUtils.decode(name, StandardCharsets.UTF_8),
+                        value != null ? UriUtils.decode(value, StandardCharsets.UTF_8) : "")));
+        Map<String, String[]> parameters = new LinkedHashMap<>();
+        decoded.forEach((name, values) -> parameters.put(name, values.toArray(String[]::new)));
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    // --- Request line and parameters ---
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return getContextPath() + path;
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        StringBuffer url = new StringBuffer();
+        url.append(getScheme()).append("://").append(getServerName()).append(':').append(getServerPort());
+        return url.append(getRequestURI());
+    }
+
+    @Override
+    public String getServletPath() {
+        return path;
+    }
+
+    @Override
+    public String getPathInfo() {
+        return null;
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = parameters.get(name);
+        return values != null ? values[0] : null;
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return parameters;
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(parameters.keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return parameters.get(name);
+    }
+
+    @Override
+    public DispatcherType getDispatcherType() {
+        return DispatcherType.REQUEST;
+    }
+
+    // --- Body ---
+
+    @Override
+    public String getContentType() {
+        return body != null ? MediaType.APPLICATION_JSON_VALUE : null;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return StandardCharsets.UTF_8.name();
+    }
+
+    @Override
+    public int getContentLength() {
+        return body != null ? body.length : -1;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return getContentLength();
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body != null ? body : new byte[0]);
+        return new ServletInputStream() {
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return in.read(b, off, len);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    // --- Headers: the operation's own content headers, the rest from the batch request ---
+
+    @Override
+    public String getHeader(String name) {
+        String lower = name.toLowerCase();
+        if (!OWN_HEADERS.contains(lower)) {
+            return super.getHeader(name);
+        }
+        List<String> values = ownHeader(lower);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        String lower = name.toLowerCase();
+        return OWN_HEADERS.contains(lower) ? Collections.enumeration(ownHeader(lower)) : super.getHeaders(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (Enumeration<String> inherited = super.getHeaderNames(); inherited.hasMoreElements(); ) {
+            String name = inherited.nextElement();
+            if (!OWN_HEADERS.contains(name.toLowerCase())) {
+                names.add(name);
+            }
+        }
+        names.add(HttpHeaders.ACCEPT);
+        if (body != null) {
+            names.add(HttpHeaders.CONTENT_TYPE);
+            names.add(HttpHeaders.CONTENT_LENGTH);
+        }
+        return Collections.enumeration(names);
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        String value = getHeader(name);
+        return value != null ? Integer.parseInt(value) : -1;
+    }
+
+    private List<String> ownHeader(String lowerCaseName) {
+        return switch (lowerCaseName) {
+            case "accept" -> List.of(MediaType.APPLICATION_JSON_VALUE);
+            case "content-type" -> body != null ? List.of(MediaType.APPLICATION_JSON_VALUE) : List.of();
+            default -> body != null ? List.of(Integer.toString(body.length)) : List.of();
+        };
+    }
+
+    // --- Attributes ---
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    // --- Operations run to completion on the batch thread ---
+
+    @Override
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+        return false;
+    }
+
+    @Override
+    public AsyncContext startAsync() {
+        throw new IllegalStateException("Batch operations cannot run asynchronously");
+    }
+
+    @Override
+    public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+        throw new IllegalStateException("Batch operations cannot run asynchronously");
+    }
+}
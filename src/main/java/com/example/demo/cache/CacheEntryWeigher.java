@@ -0,0 +1,59 @@
+package com.example.demo.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.hibernate.cache.spi.entry.CollectionCacheEntry;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+
+import java.time.temporal.Temporal;
+
+/**
+ * Estimates the heap footprint of a Hibernate cache entry in bytes, so regions
+ * are bounded by memory rather than by entry count. The estimate only looks at
+ * the disassembled state Hibernate stores; it doesn't need to be exact, only
+ * proportional (a vendor with a long name weighs more than a permission).
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int REFERENCE = 8;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long weight = estimate(key) + estimate(value);
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    static long estimate(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof AbstractReadWriteAccess.Item item) {
+            return OBJECT_OVERHEAD + REFERENCE + 16 + estimate(item.getValue());
+        }
+        if (value instanceof CacheEntry entry) {
+            return OBJECT_OVERHEAD + estimate(entry.getDisassembledState());
+        }
+        if (value instanceof CollectionCacheEntry entry) {
+            return OBJECT_OVERHEAD + estimate(entry.getState());
+        }
+        if (value instanceof Object[] array) {
+            long weight = OBJECT_OVERHEAD + (long) array.length * REFERENCE;
+            for (Object element : array) {
+                weight += estimate(element);
+            }
+            return weight;
+        }
+        if (value instanceof CharSequence text) {
+            return 40 + text.length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return 16 + REFERENCE;
+        }
+        if (value instanceof Temporal) {
+            return 48;
+        }
+        // Cache keys and anything else Hibernate wraps
+        return 32;
+    }
+}
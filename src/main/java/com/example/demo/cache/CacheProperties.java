@@ -0,0 +1,69 @@
+package com.example.demo.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+
+    private boolean enabled = true;
+    // Bound for regions without an entry below, in estimated bytes of cached state
+    private DataSize defaultMaximumWeight = DataSize.ofMegabytes(8);
+    // Upper bound on staleness for rows changed outside Hibernate (bulk SQL, replica lag)
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+    private Map<String, Region> regions = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getDefaultMaximumWeight() {
+        return defaultMaximumWeight;
+    }
+
+    public void setDefaultMaximumWeight(DataSize defaultMaximumWeight) {
+        this.defaultMaximumWeight = defaultMaximumWeight;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    public Map<String, Region> getRegions() {
+        return regions;
+    }
+
+    public void setRegions(Map<String, Region> regions) {
+        this.regions = regions;
+    }
+
+    public DataSize maximumWeightOf(String region) {
+        Region settings = regions.get(region);
+        return settings != null && settings.getMaximumWeight() != null ? settings.getMaximumWeight() : defaultMaximumWeight;
+    }
+
+    public static class Region {
+
+        private DataSize maximumWeight;
+
+        public DataSize getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        public void setMaximumWeight(DataSize maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.cache;
+
+import java.util.List;
+
+/**
+ * Names of the second-level cache regions. Every region is created up front
+ * (see SecondLevelCacheConfig), so an entity can't end up in an unbounded cache.
+ */
+public final class CacheRegions {
+
+    public static final String PERMISSION = "permission";
+    public static final String TENANT = "tenant";
+    public static final String PROPERTY = "property";
+    public static final String VENDOR = "vendor";
+    public static final String USER_PERMISSIONS = "user-permissions";
+
+    public static final List<String> ALL = List.of(PERMISSION, TENANT, PROPERTY, VENDOR, USER_PERMISSIONS);
+
+    private CacheRegions() {
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hibernate second-level cache for reference data (permissions, tenants, properties,
+ * vendors and user permission sets), backed by Caffeine through the JCache API.
+ * Each region is bounded by the estimated size of its entries; disable with
+ * "app.cache.enabled=false".
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    // Caching providers share managers per URI; every application context gets its own
+    private static final AtomicInteger MANAGER_SEQUENCE = new AtomicInteger();
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "app.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public CacheManager hibernateCacheManager(CacheProperties properties) {
+        CaffeineCachingProvider provider = (CaffeineCachingProvider)
+                Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("hibernate-l2-" + MANAGER_SEQUENCE.incrementAndGet()), getClass().getClassLoader());
+        for (String region : CacheRegions.ALL) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumWeight(OptionalLong.of(properties.maximumWeightOf(region).toBytes()));
+            configuration.setWeigherFactory(Optional.of(CacheEntryWeigher::new));
+            configuration.setExpireAfterWrite(OptionalLong.of(properties.getExpireAfterWrite().toNanos()));
+            cacheManager.createCache(region, configuration);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(ObjectProvider<CacheManager> hibernateCacheManager) {
+        return hibernateProperties -> {
+            CacheManager cacheManager = hibernateCacheManager.getIfAvailable();
+            if (cacheManager == null) {
+                // hibernate-jcache is on the classpath and would otherwise be picked up with unbounded caches
+                hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+                return;
+            }
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+            // Every region must be one of CacheRegions, created above with a bound
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+}
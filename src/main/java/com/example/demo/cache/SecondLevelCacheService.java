@@ -0,0 +1,131 @@
+package com.example.demo.cache;
+
+import com.example.demo.datasource.ShardContext;
+import com.example.demo.datasource.TenantShardDirectory;
+import com.example.demo.property.Property;
+import com.example.demo.tenant.Tenant;
+import com.example.demo.user.User;
+import com.example.demo.vendor.Vendor;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.cache.CacheManager;
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics and targeted eviction for the second-level cache.
+ *
+ * Changes made through Hibernate keep the cache consistent by themselves; eviction is
+ * for rows changed behind Hibernate's back, e.g. when a tenant is moved between shards.
+ */
+@Service
+public class SecondLevelCacheService {
+
+    private static final String USER_PERMISSIONS_ROLE = User.class.getName() + ".permissions";
+
+    private final SessionFactory sessionFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<CacheManager> hibernateCacheManager;
+    private final ObjectProvider<TenantShardDirectory> shardDirectory;
+
+    public SecondLevelCacheService(EntityManagerFactory entityManagerFactory,
+                                   DataSource dataSource,
+                                   ObjectProvider<CacheManager> hibernateCacheManager,
+                                   ObjectProvider<TenantShardDirectory> shardDirectory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.hibernateCacheManager = hibernateCacheManager;
+        this.shardDirectory = shardDirectory;
+    }
+
+    /**
+     * Hits, misses and puts per region, plus the entry count and weight held by Caffeine.
+     */
+    public Map<String, Map<String, Object>> regionStatistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        CacheManager cacheManager = hibernateCacheManager.getIfAvailable();
+        Map<String, Map<String, Object>> regions = new LinkedHashMap<>();
+        for (String region : CacheRegions.ALL) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            long hits = regionStatistics.getHitCount();
+            long misses = regionStatistics.getMissCount();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("hits", hits);
+            values.put("misses", misses);
+            values.put("puts", regionStatistics.getPutCount());
+            values.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            if (cacheManager != null) {
+                com.github.benmanes.caffeine.cache.Cache<?, ?> cache = cacheManager.getCache(region)
+                        .unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+                values.put("entries", cache.estimatedSize());
+                cache.policy().eviction().ifPresent(eviction -> {
+                    values.put("weight", eviction.weightedSize().orElse(0));
+                    values.put("maximumWeight", eviction.getMaximum());
+                });
+            }
+            regions.put(region, values);
+        }
+        return regions;
+    }
+
+    /**
+     * Evicts everything cached for one tenant: the tenant row, its properties and vendors,
+     * and the permission sets of its users. Returns the number of evicted entries.
+     */
+    public int evictTenant(Long tenantId) {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(Tenant.class, tenantId);
+        int evicted = 1;
+
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM app_user WHERE tenant_id = ?", Long.class, tenantId);
+        evictUserPermissions(userIds);
+        evicted += userIds.size();
+
+        // Tenant data lives on the tenant's shard when sharding is enabled
+        TenantShardDirectory directory = shardDirectory.getIfAvailable();
+        Map<Class<?>, List<Long>> tenantRows = directory == null
+                ? tenantRowIds(tenantId)
+                : ShardContext.callOn(directory.shardFor(tenantId), () -> tenantRowIds(tenantId));
+        for (Map.Entry<Class<?>, List<Long>> rows : tenantRows.entrySet()) {
+            for (Long id : rows.getValue()) {
+                cache.evictEntityData(rows.getKey(), id);
+            }
+            evicted += rows.getValue().size();
+        }
+        return evicted;
+    }
+
+    /**
+     * Drops the cached permission sets of the given users, after their permissions were changed with SQL.
+     */
+    public void evictUserPermissions(Collection<Long> userIds) {
+        Cache cache = sessionFactory.getCache();
+        for (Long userId : userIds) {
+            cache.evictCollectionData(USER_PERMISSIONS_ROLE, userId);
+        }
+    }
+
+    public void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    private Map<Class<?>, List<Long>> tenantRowIds(Long tenantId) {
+        Map<Class<?>, List<Long>> ids = new LinkedHashMap<>();
+        ids.put(Property.class, jdbcTemplate.queryForList("SELECT id FROM property WHERE tenant_id = ?", Long.class, tenantId));
+        ids.put(Vendor.class, jdbcTemplate.queryForList("SELECT id FROM vendor WHERE tenant_id = ?", Long.class, tenantId));
+        return ids;
+    }
+}
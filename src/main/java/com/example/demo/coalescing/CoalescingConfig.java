@@ -0,0 +1,31 @@
+package com.example.demo.coalescing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Request coalescing for tenant reads (see RequestCoalescingFilter); disable with
+ * "app.coalescing.enabled=false".
+ */
+@Configuration
+@EnableConfigurationProperties(CoalescingProperties.class)
+public class CoalescingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.coalescing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<RequestCoalescingFilter> requestCoalescingFilter(CoalescingProperties properties,
+                                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        FilterRegistrationBean<RequestCoalescingFilter> registration =
+                new FilterRegistrationBean<>(new RequestCoalescingFilter(properties, meterRegistry.getIfAvailable()));
+        registration.addUrlPatterns("/api/*");
+        // After the security filter chain, which establishes the tenant, and admission control
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 2);
+        return registration;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.coalescing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "app.coalescing")
+public class CoalescingProperties {
+
+    private boolean enabled = true;
+    // GET endpoints whose concurrent identical requests share one computation (Ant-style patterns)
+    private List<String> paths = new ArrayList<>(List.of(
+            "/api/workorders", "/api/workorders/*",
+            "/api/properties", "/api/properties/*",
+            "/api/vendors", "/api/vendors/*"));
+    // How long a follower waits for the leader before computing the response itself
+    private Duration followerTimeout = Duration.ofSeconds(2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+    }
+
+    public Duration getFollowerTimeout() {
+        return followerTimeout;
+    }
+
+    public void setFollowerTimeout(Duration followerTimeout) {
+        this.followerTimeout = followerTimeout;
+    }
+}
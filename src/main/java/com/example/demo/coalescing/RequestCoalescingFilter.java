@@ -0,0 +1,280 @@
+package com.example.demo.coalescing;
+
+import com.example.demo.tenant.TenantContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Single-flight for tenant reads: while a GET is being computed, identical GETs (same tenant,
+ * path, query, Accept header and authorities) wait for it and are answered with a copy of its
+ * status, content type and serialized body instead of running the same query and serialization.
+ *
+ * Only in-flight work is shared, nothing is cached afterwards. Keys include the tenant, so
+ * coalescing never crosses tenants. Keys also include the tenant's write generation, which a
+ * write bumps when it starts, and the tenant's reads are not coalesced while it has writes in
+ * flight: a read issued after a write, even one whose response went out before the write
+ * request finished, never joins a computation that may predate the write. Followers wait at most
+ * app.coalescing.follower-timeout and then compute the response themselves, as they also do
+ * when the leader fails or answers with anything but 2xx.
+ *
+ * Runs after Spring Security (the tenant is known), so followers skip the controller and
+ * its interceptors.
+ */
+public class RequestCoalescingFilter extends OncePerRequestFilter {
+
+    public static final String METRIC = "http.server.requests.coalescing";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final List<String> paths;
+    private final long followerTimeoutNanos;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<Key, CompletableFuture<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Long, TenantWrites> writes = new ConcurrentHashMap<>();
+
+    public RequestCoalescingFilter(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.paths = List.copyOf(properties.getPaths());
+        this.followerTimeoutNanos = properties.getFollowerTimeout().toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Long tenantId = TenantContext.currentTenantIdOrNull();
+        if (tenantId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (WRITE_METHODS.contains(request.getMethod())) {
+            TenantWrites tenantWrites = writes.computeIfAbsent(tenantId, id -> new TenantWrites());
+            tenantWrites.begin();
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                tenantWrites.end();
+            }
+            return;
+        }
+        if (!"GET".equals(request.getMethod()) || !matches(request.getRequestURI())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Generation first: a write starting in between is then either seen as running or changes the key
+        TenantWrites tenantWrites = writes.get(tenantId);
+        long generation = tenantWrites == null ? 0 : tenantWrites.generation.get();
+        if (tenantWrites != null && tenantWrites.running.get() > 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Key key = new Key(tenantId, generation, request.getRequestURI(), request.getQueryString(),
+                request.getHeader(HttpHeaders.ACCEPT), authorities());
+        CompletableFuture<SharedResponse> mine = new CompletableFuture<>();
+        CompletableFuture<SharedResponse> leader = inFlight.putIfAbsent(key, mine);
+        if (leader == null) {
+            lead(key, mine, request, response, filterChain);
+        } else {
+            follow(leader, request, response, filterChain);
+        }
+    }
+
+    private void lead(Key key, CompletableFuture<SharedResponse> mine, HttpServletRequest request,
+                      HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        TeeResponse tee = new TeeResponse(response);
+        SharedResponse shared = null;
+        try {
+            filterChain.doFilter(request, tee);
+            tee.flushBuffer();
+            int status = tee.getStatus();
+            if (status >= 200 && status < 300 && !request.isAsyncStarted()) {
+                shared = new SharedResponse(status, tee.getContentType(), tee.copy);
+            }
+        } finally {
+            // Detach first: requests from now on start their own computation rather than reuse this one
+            inFlight.remove(key, mine);
+            mine.complete(shared);
+            count("leader");
+        }
+    }
+
+    private void follow(CompletableFuture<SharedResponse> leader, HttpServletRequest request,
+                        HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        SharedResponse shared;
+        try {
+            shared = leader.get(followerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            shared = null;
+            count("timeout");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            shared = null;
+        } catch (ExecutionException ex) {
+            shared = null;
+        }
+        if (shared == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        count("follower");
+        response.setStatus(shared.status());
+        if (shared.contentType() != null) {
+            response.setContentType(shared.contentType());
+        }
+        response.setContentLength(shared.body().size());
+        shared.body().writeTo(response.getOutputStream());
+    }
+
+    private boolean matches(String uri) {
+        for (String path : paths) {
+            if (pathMatcher.match(path, uri)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> authorities() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toUnmodifiableSet());
+    }
+
+    private void count(String role) {
+        if (meterRegistry != null) {
+            meterRegistry.counter(METRIC, "role", role).increment();
+        }
+    }
+
+    // Everything the response may depend on; the authorities stand for the caller's permission-relevant view
+    private record Key(Long tenantId, long generation, String path, String query, String accept, Set<String> authorities) {
+    }
+
+    // A tenant's writes in flight, and a generation bumped when one starts (after it is counted as running)
+    private static final class TenantWrites {
+
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicLong generation = new AtomicLong();
+
+        void begin() {
+            running.incrementAndGet();
+            generation.incrementAndGet();
+        }
+
+        void end() {
+            running.decrementAndGet();
+        }
+    }
+
+    // Read by any number of followers once the leader has completed; never written again
+    private record SharedResponse(int status, String contentType, FastByteArrayOutputStream body) {
+    }
+
+    /**
+     * Streams the leader's response to its client as usual and keeps a copy of the body for followers.
+     * The copy is chunked, so it is never resized or copied again.
+     */
+    private static final class TeeResponse extends HttpServletResponseWrapper {
+
+        private final FastByteArrayOutputStream copy = new FastByteArrayOutputStream(8192);
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        TeeResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream target = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        target.write(b);
+                        copy.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        target.write(b, off, len);
+                        copy.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        target.flush();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return target.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        target.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            super.flushBuffer();
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            copy.reset();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            copy.reset();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo.columnar;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes lists of registered response types as columnar JSON (Accept: application/vnd.columnar+json):
+ *
+ *   {"fields":["id","status",...],"dictionaries":{"status":["PENDING","DONE"]},"rows":[[1,0,...],[2,1,...]]}
+ *
+ * Field names appear once instead of once per row, and dictionary columns hold indexes into
+ * "dictionaries" (null stays null). Write-only; requests are still plain JSON.
+ */
+public class ColumnarHttpMessageConverter extends AbstractGenericHttpMessageConverter<List<?>> {
+
+    public static final MediaType MEDIA_TYPE = new MediaType("application", "vnd.columnar+json");
+
+    private final JsonFactory jsonFactory;
+    private final Map<Class<?>, ColumnarSchema<?>> schemas = new HashMap<>();
+
+    public ColumnarHttpMessageConverter(JsonFactory jsonFactory, List<ColumnarSchema<?>> schemas) {
+        super(MEDIA_TYPE);
+        this.jsonFactory = jsonFactory;
+        schemas.forEach(schema -> this.schemas.put(schema.type(), schema));
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    // Only when asked for by name: the converter sits before Jackson (which claims every +json type),
+    // so answering a wildcard here would make columnar the default for lists
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return mediaType != null && MEDIA_TYPE.isCompatibleWith(mediaType) && !mediaType.isWildcardSubtype()
+                && schemaOf(type != null ? type : clazz) != null;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected void writeInternal(List<?> rows, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ColumnarSchema<?> schema = schemaOf(type);
+        if (schema == null) {
+            // Without the generic type (e.g. a raw List), go by the first element
+            schema = rows.isEmpty() ? null : schemas.get(rows.get(0).getClass());
+        }
+        try (JsonGenerator json = jsonFactory.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8)) {
+            if (schema == null) {
+                json.writeStartObject();
+                json.writeArrayFieldStart("fields");
+                json.writeEndArray();
+                json.writeArrayFieldStart("rows");
+                json.writeEndArray();
+                json.writeEndObject();
+                return;
+            }
+            write(json, schema, rows);
+        }
+    }
+
+    private <T> void write(JsonGenerator json, ColumnarSchema<T> schema, List<?> untypedRows) throws IOException {
+        @SuppressWarnings("unchecked")
+        List<T> rows = (List<T>) untypedRows;
+        List<ColumnarSchema.Column<T>> columns = schema.columns();
+
+        // First pass: the distinct values of each dictionary column, in order of appearance
+        Map<String, Map<Object, Integer>> dictionaries = new LinkedHashMap<>();
+        for (ColumnarSchema.Column<T> column : columns) {
+            if (column.dictionary()) {
+                Map<Object, Integer> dictionary = new LinkedHashMap<>();
+                for (T row : rows) {
+                    Object value = column.value().apply(row);
+                    if (value != null) {
+                        dictionary.putIfAbsent(value, dictionary.size());
+                    }
+                }
+                dictionaries.put(column.name(), dictionary);
+            }
+        }
+
+        json.writeStartObject();
+        json.writeArrayFieldStart("fields");
+        for (ColumnarSchema.Column<T> column : columns) {
+            json.writeString(column.name());
+        }
+        json.writeEndArray();
+        json.writeObjectFieldStart("dictionaries");
+        for (Map.Entry<String, Map<Object, Integer>> dictionary : dictionaries.entrySet()) {
+            json.writeArrayFieldStart(dictionary.getKey());
+            for (Object value : dictionary.getValue().keySet()) {
+                writeValue(json, value);
+            }
+            json.writeEndArray();
+        }
+        json.writeEndObject();
+
+        List<Map<Object, Integer>> dictionaryByColumn = new ArrayList<>(columns.size());
+        for (ColumnarSchema.Column<T> column : columns) {
+            dictionaryByColumn.add(column.dictionary() ? dictionaries.get(column.name()) : null);
+        }
+        json.writeArrayFieldStart("rows");
+        for (T row : rows) {
+            json.writeStartArray();
+            for (int i = 0; i < columns.size(); i++) {
+                Object value = columns.get(i).value().apply(row);
+                Map<Object, Integer> dictionary = dictionaryByColumn.get(i);
+                writeValue(json, dictionary != null && value != null ? dictionary.get(value) : value);
+            }
+            json.writeEndArray();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    // Values are written as in the row-oriented JSON
+    private static void writeValue(JsonGenerator json, Object value) throws IOException {
+        if (value == null) {
+            json.writeNull();
+        } else if (value instanceof Integer number) {
+            json.writeNumber(number);
+        } else if (value instanceof Long number) {
+            json.writeNumber(number);
+        } else if (value instanceof LocalDateTime dateTime) {
+            IsoDateTimes.write(json, dateTime);
+        } else {
+            json.writeString(value.toString());
+        }
+    }
+
+    private ColumnarSchema<?> schemaOf(Type type) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        if (!List.class.isAssignableFrom(resolved.toClass())) {
+            return null;
+        }
+        return schemas.get(resolved.asCollection().getGeneric(0).toClass());
+    }
+
+    @Override
+    protected List<?> readInternal(Class<? extends List<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar JSON is a response format only.", inputMessage);
+    }
+
+    @Override
+    public List<?> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar JSON is a response format only.", inputMessage);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.columnar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The columns of one response type in the columnar list format. Columns with few distinct values
+ * (statuses, types, the tenant) are dictionary-encoded: rows carry an index into a value list.
+ */
+public final class ColumnarSchema<T> {
+
+    private final Class<T> type;
+    private final List<Column<T>> columns;
+
+    private ColumnarSchema(Class<T> type, List<Column<T>> columns) {
+        this.type = type;
+        this.columns = List.copyOf(columns);
+    }
+
+    public static <T> Builder<T> of(Class<T> type) {
+        return new Builder<>(type);
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    public List<Column<T>> columns() {
+        return columns;
+    }
+
+    public record Column<T>(String name, Function<T, Object> value, boolean dictionary) {
+    }
+
+    public static final class Builder<T> {
+
+        private final Class<T> type;
+        private final List<Column<T>> columns = new ArrayList<>();
+
+        private Builder(Class<T> type) {
+            this.type = type;
+        }
+
+        public Builder<T> column(String name, Function<T, Object> value) {
+            columns.add(new Column<>(name, value, false));
+            return this;
+        }
+
+        public Builder<T> dictionary(String name, Function<T, Object> value) {
+            columns.add(new Column<>(name, value, true));
+            return this;
+        }
+
+        public ColumnarSchema<T> build() {
+            return new ColumnarSchema<>(type, columns);
+        }
+    }
+}
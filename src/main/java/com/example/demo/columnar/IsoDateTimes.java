@@ -0,0 +1,59 @@
+package com.example.demo.columnar;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Timestamps for the hand-written response writers, row-oriented and columnar alike.
+ */
+public final class IsoDateTimes {
+
+    private IsoDateTimes() {
+    }
+
+    // The same text as DateTimeFormatter.ISO_LOCAL_DATE_TIME, which Jackson's JavaTimeModule writes,
+    // formatted into a small buffer instead of a String per timestamp
+    public static void write(JsonGenerator json, LocalDateTime value) throws IOException {
+        if (value == null) {
+            json.writeNull();
+            return;
+        }
+        if (value.getYear() < 0 || value.getYear() > 9999) {
+            json.writeString(value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+        char[] text = new char[29];
+        digits(text, 0, value.getYear(), 4);
+        text[4] = '-';
+        digits(text, 5, value.getMonthValue(), 2);
+        text[7] = '-';
+        digits(text, 8, value.getDayOfMonth(), 2);
+        text[10] = 'T';
+        digits(text, 11, value.getHour(), 2);
+        text[13] = ':';
+        digits(text, 14, value.getMinute(), 2);
+        text[16] = ':';
+        digits(text, 17, value.getSecond(), 2);
+        int length = 19;
+        if (value.getNano() > 0) {
+            // Fraction of a second without trailing zeros
+            text[19] = '.';
+            digits(text, 20, value.getNano(), 9);
+            length = 29;
+            while (text[length - 1] == '0') {
+                length--;
+            }
+        }
+        json.writeString(text, 0, length);
+    }
+
+    private static void digits(char[] text, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.datasource;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring over shard names. Each shard owns several virtual nodes,
+ * so adding a shard only moves roughly 1/N of the tenants.
+ * Immutable; build a new ring when the shard list changes.
+ */
+public class ConsistentHashRing {
+
+    private final SortedMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required.");
+        }
+        for (String shard : shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(shard + "#" + i), shard);
+            }
+        }
+    }
+
+    public String shardFor(Long tenantId) {
+        long hash = hash("tenant-" + tenantId);
+        SortedMap<Long, String> tail = ring.tailMap(hash);
+        Map.Entry<Long, String> entry = tail.isEmpty()
+                ? ring.entrySet().iterator().next()
+                : tail.entrySet().iterator().next();
+        return entry.getValue();
+    }
+
+    private static long hash(String key) {
+        try {
+            // MD5 spreads short keys well and is stable across JVMs and restarts
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long h = 0;
+            for (int i = 0; i < 8; i++) {
+                h = (h << 8) | (digest[i] & 0xFF);
+            }
+            return h;
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("MD5 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.datasource;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Connection settings and pool sizing for one physical database
+ * (a primary, a replica or a shard).
+ */
+@Data
+@NoArgsConstructor
+public class PoolProperties {
+    private String url;
+    private String username = "sa";
+    private String password = "";
+    private String driverClassName;
+    private int maximumPoolSize = 10;
+    private int minimumIdle = 2;
+}
@@ -0,0 +1,66 @@
+package com.example.demo.datasource;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which callers wrote recently, so their follow-up reads are served
+ * by the primary instead of a replica that may not have caught up yet.
+ * Callers are identified by the authenticated username.
+ */
+public class ReadYourWritesTracker {
+
+    private final long windowNanos;
+    private final Map<String, Long> lastWriteByCaller = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void recordWrite() {
+        String caller = currentCaller();
+        if (caller != null && windowNanos > 0) {
+            lastWriteByCaller.put(caller, System.nanoTime());
+        }
+    }
+
+    public boolean isSticky() {
+        String caller = currentCaller();
+        if (caller == null) {
+            return false;
+        }
+        Long lastWrite = lastWriteByCaller.get(caller);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.nanoTime() - lastWrite > windowNanos) {
+            lastWriteByCaller.remove(caller, lastWrite);
+            return false;
+        }
+        return true;
+    }
+
+    // Drops expired entries; called periodically by the health monitor
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, Long>> it = lastWriteByCaller.entrySet().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().getValue() > windowNanos) {
+                it.remove();
+            }
+        }
+    }
+
+    private String currentCaller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.StringUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically probes every replica. A replica that cannot be reached, or whose
+ * reported lag exceeds the configured maximum, is taken out of rotation; read-only
+ * work then falls back to the primary until the replica recovers.
+ */
+public class ReplicaHealthMonitor implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final ReadYourWritesTracker writesTracker;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final ScheduledExecutorService scheduler;
+
+    public ReplicaHealthMonitor(ReplicaRoutingDataSource routingDataSource,
+                                ReadYourWritesTracker writesTracker,
+                                String lagQuery,
+                                Duration maxLag,
+                                Duration interval) {
+        this.routingDataSource = routingDataSource;
+        this.writesTracker = writesTracker;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-health-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMs = Math.max(interval.toMillis(), 100);
+        scheduler.scheduleWithFixedDelay(this::checkAll, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void checkAll() {
+        for (ReplicaRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            check(replica);
+        }
+        writesTracker.purgeExpired();
+    }
+
+    void check(ReplicaRoutingDataSource.Replica replica) {
+        try (Connection connection = replica.getDataSource().getConnection()) {
+            if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                markUnhealthy(replica, "connection is not valid");
+                return;
+            }
+            if (StringUtils.hasText(lagQuery)) {
+                double lagSeconds = readLagSeconds(connection);
+                if (lagSeconds > maxLagSeconds) {
+                    markUnhealthy(replica, "lagging " + lagSeconds + "s behind primary");
+                    return;
+                }
+            }
+            replica.markHealthy();
+        } catch (Exception ex) {
+            markUnhealthy(replica, ex.getMessage());
+        }
+    }
+
+    private double readLagSeconds(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            // No row / NULL means the replica is not replaying, treat as caught up
+            return rs.next() ? rs.getDouble(1) : 0.0;
+        }
+    }
+
+    private void markUnhealthy(ReplicaRoutingDataSource.Replica replica, String problem) {
+        if (replica.isHealthy()) {
+            log.warn("Replica {} taken out of rotation: {}", replica.getKey(), problem);
+        }
+        replica.markUnhealthy(problem);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
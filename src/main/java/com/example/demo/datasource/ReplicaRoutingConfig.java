@@ -0,0 +1,78 @@
+package com.example.demo.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single auto-configured DataSource with a primary/replica router
+ * when "app.datasource.routing.enabled=true" (see application-replica.properties).
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaRoutingProperties properties) {
+        return new ReadYourWritesTracker(properties.getStickinessWindow());
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(ReplicaRoutingProperties properties,
+                                                             ReadYourWritesTracker tracker) {
+        DataSource primary = createPool("primary", properties.getPrimary(), false);
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            replicas.add(createPool("replica-" + i, properties.getReplicas().get(i), true));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, tracker);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        // Defer fetching the physical connection until the first statement, by which
+        // time the transaction's read-only flag is known to the router.
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(routingDataSource);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(ReplicaRoutingDataSource routingDataSource,
+                                                     ReadYourWritesTracker tracker,
+                                                     ReplicaRoutingProperties properties) {
+        return new ReplicaHealthMonitor(routingDataSource, tracker, properties.getLagQuery(),
+                properties.getMaxLag(), properties.getHealthCheckInterval());
+    }
+
+    static HikariDataSource createPool(String name, PoolProperties pool, boolean readOnly) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(pool.getUrl());
+        dataSource.setUsername(pool.getUsername());
+        dataSource.setPassword(pool.getPassword());
+        if (StringUtils.hasText(pool.getDriverClassName())) {
+            dataSource.setDriverClassName(pool.getDriverClassName());
+        }
+        dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+        dataSource.setMinimumIdle(pool.getMinimumIdle());
+        dataSource.setReadOnly(readOnly);
+        // Fail fast on an unreachable replica so the router can fall back to the primary
+        dataSource.setConnectionTimeout(readOnly ? 2000 : 30000);
+        dataSource.setInitializationFailTimeout(readOnly ? -1 : 1);
+        return dataSource;
+    }
+}
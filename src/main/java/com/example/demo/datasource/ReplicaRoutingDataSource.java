@@ -0,0 +1,174 @@
+package com.example.demo.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends @Transactional(readOnly = true) work to a healthy replica (round robin)
+ * and everything else to the primary.
+ *
+ * The routing decision reads the transaction's read-only flag, which Spring only
+ * publishes after the transaction has begun. This data source must therefore be
+ * wrapped in a LazyConnectionDataSourceProxy so the physical connection is
+ * fetched on the first statement, not at transaction start.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public static final String PRIMARY_KEY = "primary";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWritesTracker writesTracker;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources,
+                                    ReadYourWritesTracker writesTracker) {
+        this.primary = primary;
+        this.writesTracker = writesTracker;
+
+        List<Replica> replicaList = new ArrayList<>();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY_KEY, primary);
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            Replica replica = new Replica("replica-" + i, replicaDataSources.get(i));
+            replicaList.add(replica);
+            targets.put(replica.getKey(), replica.getDataSource());
+        }
+        this.replicas = Collections.unmodifiableList(replicaList);
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (readOnly) {
+            if (!writesTracker.isSticky()) {
+                Replica replica = nextHealthyReplica();
+                if (replica != null) {
+                    return replica.getKey();
+                }
+            }
+        } else if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // A read-write transaction: keep this caller on the primary for a while
+            writesTracker.recordWrite();
+        }
+        return PRIMARY_KEY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY_KEY.equals(key)) {
+            return primary.getConnection();
+        }
+        Replica replica = findReplica(key);
+        try {
+            return replica.getDataSource().getConnection();
+        } catch (SQLException ex) {
+            // Replica unreachable or its pool is exhausted: take it out of rotation
+            // and serve this read from the primary instead of failing the request.
+            replica.markUnhealthy("connection failed: " + ex.getMessage());
+            log.warn("Replica {} failed, falling back to primary: {}", replica.getKey(), ex.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Pools are configured with their own credentials; ignore per-call ones.
+        return getConnection();
+    }
+
+    private Replica nextHealthyReplica() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica candidate = replicas.get((start + i) % size);
+            if (candidate.isHealthy()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private Replica findReplica(Object key) {
+        for (Replica replica : replicas) {
+            if (replica.getKey().equals(key)) {
+                return replica;
+            }
+        }
+        throw new IllegalStateException("Unknown replica key: " + key);
+    }
+
+    /**
+     * A replica target together with its current health as seen by the router.
+     */
+    public static class Replica {
+        private final String key;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile String lastProblem;
+
+        Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public String getLastProblem() {
+            return lastProblem;
+        }
+
+        public void markHealthy() {
+            if (!healthy) {
+                log.info("Replica {} is back in rotation", key);
+            }
+            healthy = true;
+            lastProblem = null;
+        }
+
+        public void markUnhealthy(String problem) {
+            healthy = false;
+            lastProblem = problem;
+        }
+    }
+}
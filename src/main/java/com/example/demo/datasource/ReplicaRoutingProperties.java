@@ -0,0 +1,41 @@
+package com.example.demo.datasource;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for primary/replica routing, bound from "app.datasource.routing.*".
+ * Routing is only switched on when "app.datasource.routing.enabled=true";
+ * otherwise the single "spring.datasource.*" pool is used as before.
+ */
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled = false;
+
+    // The read/write database. All non read-only transactions go here.
+    private PoolProperties primary = new PoolProperties();
+
+    // Read replicas. @Transactional(readOnly = true) work is spread across these.
+    private List<PoolProperties> replicas = new ArrayList<>();
+
+    // After a caller writes, their reads stay on the primary for this long.
+    private Duration stickinessWindow = Duration.ofSeconds(5);
+
+    // How often replicas are probed for liveness and lag.
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    // Optional query returning the replica's lag in seconds (database specific).
+    // e.g. PostgreSQL: SELECT EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+    private String lagQuery;
+
+    // Replicas lagging more than this are taken out of rotation until they catch up.
+    private Duration maxLag = Duration.ofSeconds(10);
+}
@@ -0,0 +1,60 @@
+package com.example.demo.datasource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cross-shard operations for platform operators: directory overview,
+ * per-shard tenant statistics (queried in parallel) and tenant moves.
+ */
+public class ShardAdminService {
+
+    private final TenantShardDirectory directory;
+    private final ShardFanOut fanOut;
+    private final TenantShardMover mover;
+
+    public ShardAdminService(TenantShardDirectory directory, ShardFanOut fanOut, TenantShardMover mover) {
+        this.directory = directory;
+        this.fanOut = fanOut;
+        this.mover = mover;
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("shards", directory.getShardNames());
+        description.put("assignments", directory.getAssignments());
+        return description;
+    }
+
+    public String shardFor(Long tenantId) {
+        return directory.shardFor(tenantId);
+    }
+
+    /**
+     * Row counts per shard, per tenant and per tenant-scoped table, gathered from all shards in parallel.
+     */
+    public Map<String, Map<Long, Map<String, Long>>> tenantStatistics() {
+        return fanOut.onEveryShard((shard, dataSource) -> {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            Map<Long, Map<String, Long>> perTenant = new TreeMap<>();
+            for (String table : TenantShardMover.TENANT_TABLES) {
+                List<Map<String, Object>> rows = jdbc.queryForList(
+                        "SELECT tenant_id, COUNT(*) AS row_count FROM " + table + " GROUP BY tenant_id");
+                for (Map<String, Object> row : rows) {
+                    Long tenantId = ((Number) row.get("tenant_id")).longValue();
+                    perTenant.computeIfAbsent(tenantId, id -> new LinkedHashMap<>())
+                            .put(table, ((Number) row.get("row_count")).longValue());
+                }
+            }
+            return perTenant;
+        });
+    }
+
+    public TenantShardMover.TenantMoveResult moveTenant(Long tenantId, String targetShard) {
+        return mover.move(tenantId, targetShard);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the shard the current thread's database work should go to.
+ * Set by TenantShardAspect for tenant-scoped services and by admin tools
+ * that address a shard explicitly; unset means the default shard.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the action with all database access routed to the given shard,
+     * restoring the previous shard afterwards.
+     */
+    public static <T> T callOn(String shard, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static void runOn(String shard, Runnable action) {
+        callOn(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
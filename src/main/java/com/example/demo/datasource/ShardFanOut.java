@@ -0,0 +1,81 @@
+package com.example.demo.datasource;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Runs the same query on every shard in parallel and collects the per-shard results.
+ * Each task also runs with ShardContext set, so it may use JPA repositories.
+ */
+public class ShardFanOut implements DisposableBean {
+
+    private final Map<String, DataSource> shards;
+    private final ExecutorService executor;
+    private final Duration timeout;
+
+    public ShardFanOut(Map<String, DataSource> shards, int threads, Duration timeout) {
+        this.shards = shards;
+        this.timeout = timeout;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "shard-fan-out-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return results keyed by shard name, in shard configuration order.
+     */
+    public <T> Map<String, T> onEveryShard(BiFunction<String, DataSource, T> query) {
+        List<String> names = new ArrayList<>(shards.keySet());
+        List<Future<T>> futures = new ArrayList<>();
+        for (String name : names) {
+            DataSource dataSource = shards.get(name);
+            futures.add(executor.submit(() -> ShardContext.callOn(name, () -> query.apply(name, dataSource))));
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Map<String, T> results = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < names.size(); i++) {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                results.put(names.get(i), futures.get(i).get(remaining, TimeUnit.NANOSECONDS));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            cancelAll(futures);
+            throw new IllegalStateException("Interrupted during cross-shard query", ex);
+        } catch (TimeoutException ex) {
+            cancelAll(futures);
+            throw new IllegalStateException("Cross-shard query timed out after " + timeout, ex);
+        } catch (ExecutionException ex) {
+            cancelAll(futures);
+            throw new IllegalStateException("Cross-shard query failed: " + ex.getCause().getMessage(), ex.getCause());
+        }
+        return results;
+    }
+
+    private static void cancelAll(List<? extends Future<?>> futures) {
+        futures.forEach(future -> future.cancel(true));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.datasource;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local/dev helper: creates the mapped tables on every non-default shard
+ * (the default shard is handled by spring.jpa.hibernate.ddl-auto) and gives each
+ * shard its own identity range so tenant moves never collide on row ids.
+ * Production shards are expected to be provisioned by migrations instead.
+ *
+ * Ranges come from app.sharding.identity-ranges, never from the order of the shards, and
+ * startup fails if a shard's sequences have left its range.
+ */
+public class ShardSchemaInitializer implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardSchemaInitializer.class);
+
+    // Range n hands out ids from n * IDENTITY_RANGE (range 0, the default shard's, from 1)
+    static final long IDENTITY_RANGE = 1_000_000_000_000L;
+
+    private static final String NEXT_IDENTITY = "SELECT IDENTITY_BASE FROM INFORMATION_SCHEMA.COLUMNS "
+            + "WHERE UPPER(TABLE_NAME) = UPPER(?) AND UPPER(COLUMN_NAME) = 'ID' AND IS_IDENTITY = 'YES'";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final TenantShardRoutingDataSource routingDataSource;
+    private final Map<String, Integer> identityRanges;
+
+    public ShardSchemaInitializer(EntityManagerFactory entityManagerFactory,
+                                  TenantShardRoutingDataSource routingDataSource,
+                                  Map<String, Integer> identityRanges) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.routingDataSource = routingDataSource;
+        this.identityRanges = identityRanges;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<String, Integer> ranges = rangesByShard();
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        for (Map.Entry<String, DataSource> shard : routingDataSource.getShards().entrySet()) {
+            String name = shard.getKey();
+            int range = ranges.get(name);
+            if (!name.equals(routingDataSource.getDefaultShard()) && !hasTable(shard.getValue(), "property")) {
+                log.info("Creating schema on shard {} (identity range {})", name, range);
+                ShardContext.runOn(name, () -> sessionFactory.getSchemaManager().exportMappedObjects(true));
+                JdbcTemplate jdbc = new JdbcTemplate(shard.getValue());
+                for (String table : TenantShardMover.TENANT_TABLES) {
+                    jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + Math.max(1, range * IDENTITY_RANGE));
+                }
+            }
+            checkIdentityRange(name, shard.getValue(), range);
+        }
+    }
+
+    // Every shard needs its own range; the default shard's tables start at 1, i.e. range 0
+    private Map<String, Integer> rangesByShard() {
+        Map<String, Integer> ranges = new LinkedHashMap<>();
+        Map<Integer, String> shardsByRange = new HashMap<>();
+        for (String name : routingDataSource.getShards().keySet()) {
+            boolean defaultShard = name.equals(routingDataSource.getDefaultShard());
+            Integer range = identityRanges.get(name);
+            if (range == null && defaultShard) {
+                range = 0;
+            }
+            if (range == null || range < 0 || (range == 0) != defaultShard) {
+                throw new IllegalStateException("app.sharding.identity-ranges." + name + " must be set to a positive number"
+                        + " (0 is the default shard's range).");
+            }
+            String other = shardsByRange.putIfAbsent(range, name);
+            if (other != null) {
+                throw new IllegalStateException("Shards " + other + " and " + name + " have the same identity range " + range + ".");
+            }
+            ranges.put(name, range);
+        }
+        return ranges;
+    }
+
+    /**
+     * Fails if the next id of one of the shard's tenant tables lies outside the shard's identity range,
+     * e.g. after the range setting was changed for a shard that already holds data.
+     */
+    static void checkIdentityRange(String shard, DataSource dataSource, int range) {
+        long start = Math.max(1, range * IDENTITY_RANGE);
+        long end = (range + 1) * IDENTITY_RANGE;
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        for (String table : TenantShardMover.TENANT_TABLES) {
+            List<Long> next = jdbc.queryForList(NEXT_IDENTITY, Long.class, table);
+            if (!next.isEmpty() && (next.get(0) < start || next.get(0) >= end)) {
+                throw new IllegalStateException("Shard " + shard + " hands out " + table + " ids from " + next.get(0)
+                        + ", outside its identity range " + range + " [" + start + ", " + end + ").");
+            }
+        }
+    }
+
+    private static boolean hasTable(DataSource dataSource, String table) {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet rs = connection.getMetaData().getTables(null, null, null, new String[]{"TABLE"})) {
+            while (rs.next()) {
+                if (table.equalsIgnoreCase(rs.getString("TABLE_NAME"))) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Cannot inspect shard schema: " + ex.getMessage(), ex);
+        }
+    }
+}
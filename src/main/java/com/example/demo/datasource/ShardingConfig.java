@@ -0,0 +1,91 @@
+package com.example.demo.datasource;
+
+import com.example.demo.cache.SecondLevelCacheService;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tenant sharding, enabled with "app.sharding.enabled=true" (see application-sharding.properties).
+ *
+ * Global tables (users, permissions, tenants, the shard directory) stay on the default shard.
+ * Tenant data (properties, vendors, work orders) lives on the shard the directory assigns to the
+ * tenant; @TenantSharded services are routed there before their transaction begins. The directory
+ * and the write fence of tenant moves live in the database, so any number of instances can share it.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    public ShardingConfig(Environment environment) {
+        if (environment.getProperty("app.datasource.routing.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("app.sharding and app.datasource.routing cannot be enabled together.");
+        }
+    }
+
+    @Bean
+    @Primary
+    public TenantShardRoutingDataSource dataSource(ShardingProperties properties) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("app.sharding.shards must define at least one shard.");
+        }
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        properties.getShards().forEach((name, pool) ->
+                pools.put(name, ReplicaRoutingConfig.createPool(name, pool, false)));
+        return new TenantShardRoutingDataSource(properties.getDefaultShard(), pools);
+    }
+
+    @Bean(initMethod = "load")
+    public TenantShardDirectory tenantShardDirectory(TenantShardRoutingDataSource dataSource,
+                                                     ShardingProperties properties) {
+        DataSource defaultShard = dataSource.getShards().get(dataSource.getDefaultShard());
+        return new TenantShardDirectory(defaultShard, dataSource.getShards().keySet(),
+                properties.getVirtualNodes(), properties.getAssignments(), properties.getWriteLeaseTtl());
+    }
+
+    @Bean
+    public TenantShardAspect tenantShardAspect(TenantShardDirectory directory) {
+        return new TenantShardAspect(directory);
+    }
+
+    @Bean
+    public ShardFanOut shardFanOut(TenantShardRoutingDataSource dataSource, ShardingProperties properties) {
+        return new ShardFanOut(dataSource.getShards(), properties.getFanOutThreads(), properties.getFanOutTimeout());
+    }
+
+    @Bean
+    public TenantShardMover tenantShardMover(TenantShardRoutingDataSource dataSource,
+                                             TenantShardDirectory directory,
+                                             ShardingProperties properties,
+                                             ObjectProvider<SecondLevelCacheService> secondLevelCache) {
+        TenantShardMover mover = new TenantShardMover(dataSource.getShards(), directory, properties.getMoveDrainTimeout(),
+                properties.getMoveCleanupDelay());
+        // Rows are copied with plain JDBC, so cached entries of the moved tenant are dropped afterwards
+        secondLevelCache.ifAvailable(cache -> mover.addMoveListener(cache::evictTenant));
+        return mover;
+    }
+
+    @Bean
+    public ShardAdminService shardAdminService(TenantShardDirectory directory, ShardFanOut fanOut,
+                                               TenantShardMover mover) {
+        return new ShardAdminService(directory, fanOut, mover);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.sharding", name = "initialize-schemas", havingValue = "true")
+    public ShardSchemaInitializer shardSchemaInitializer(EntityManagerFactory entityManagerFactory,
+                                                         TenantShardRoutingDataSource dataSource,
+                                                         ShardingProperties properties) {
+        return new ShardSchemaInitializer(entityManagerFactory, dataSource, properties.getIdentityRanges());
+    }
+}
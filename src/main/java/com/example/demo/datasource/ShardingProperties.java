@@ -0,0 +1,55 @@
+package com.example.demo.datasource;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for tenant sharding, bound from "app.sharding.*".
+ * Only active when "app.sharding.enabled=true" (see application-sharding.properties).
+ */
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    // Holds the global tables (users, permissions, tenants, the shard directory)
+    // and serves any work that is not tied to a tenant.
+    private String defaultShard = "shard-0";
+
+    // Shard name -> connection pool.
+    private Map<String, PoolProperties> shards = new LinkedHashMap<>();
+
+    // Shard name -> identity range of its tenant tables (range n hands out ids from n * 10^12), used by
+    // initialize-schemas. Every non-default shard needs its own; it must not change once the shard holds data.
+    private Map<String, Integer> identityRanges = new LinkedHashMap<>();
+
+    // Virtual nodes per shard on the consistent-hash ring.
+    private int virtualNodes = 64;
+
+    // Fixed tenant -> shard assignments, applied before the hash ring is consulted.
+    private Map<Long, String> assignments = new LinkedHashMap<>();
+
+    // Create the mapped tables on every shard at startup (local/dev use only).
+    private boolean initializeSchemas = false;
+
+    // Parallelism and time limit for cross-shard admin queries.
+    private int fanOutThreads = 4;
+    private Duration fanOutTimeout = Duration.ofSeconds(30);
+
+    // How long a tenant move waits for in-flight writes (on any instance) to finish before giving up.
+    private Duration moveDrainTimeout = Duration.ofSeconds(10);
+
+    // How long an instance's announcement of in-flight writes for a tenant lasts without its heartbeat
+    // (renewed every fifth of it). A dead instance holds off moves of its tenants for at most this long.
+    private Duration writeLeaseTtl = Duration.ofSeconds(10);
+
+    // How long a moved tenant's rows stay on the source shard for reads routed just before the switch.
+    private Duration moveCleanupDelay = Duration.ofSeconds(1);
+}
@@ -0,0 +1,80 @@
+package com.example.demo.datasource;
+
+import com.example.demo.tenant.TenantContext;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Method;
+
+/**
+ * Routes @TenantSharded services to the authenticated tenant's shard.
+ * Runs before the transaction interceptor, so the connection is taken
+ * from the right shard when the transaction begins, and inside TracingAspect,
+ * so service spans include the routing.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class TenantShardAspect {
+
+    private final TenantShardDirectory directory;
+
+    public TenantShardAspect(TenantShardDirectory directory) {
+        this.directory = directory;
+    }
+
+    @Around("@within(com.example.demo.datasource.TenantSharded) || @annotation(com.example.demo.datasource.TenantSharded)")
+    public Object routeToTenantShard(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ShardContext.current() != null) {
+            // Nested call, or an admin tool that picked the shard explicitly
+            return joinPoint.proceed();
+        }
+        Long tenantId = TenantContext.currentTenantIdOrNull();
+        if (tenantId == null) {
+            // Let the service raise its usual "must be authenticated" error
+            return joinPoint.proceed();
+        }
+
+        // The directory is read on every call, so moves made by other instances take effect at once
+        boolean write = isWrite(joinPoint);
+        String shard = write ? directory.beginWrite(tenantId) : directory.shardFor(tenantId);
+        try {
+            return ShardContext.callOn(shard, () -> proceed(joinPoint));
+        } catch (ProceedFailure failure) {
+            throw failure.getCause();
+        } finally {
+            if (write) {
+                directory.endWrite(tenantId);
+            }
+        }
+    }
+
+    private static boolean isWrite(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(method, Transactional.class);
+        if (transactional == null) {
+            transactional = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), Transactional.class);
+        }
+        return transactional != null && !transactional.readOnly();
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            throw new ProceedFailure(ex);
+        }
+    }
+
+    // Carries a checked Throwable out of the Supplier passed to ShardContext
+    private static final class ProceedFailure extends RuntimeException {
+        ProceedFailure(Throwable cause) {
+            super(cause);
+        }
+    }
+}
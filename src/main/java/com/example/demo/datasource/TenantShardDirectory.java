@@ -0,0 +1,300 @@
+package com.example.demo.datasource;
+
+import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.TenantMigrationInProgressException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which shard holds a tenant's data, and fences the tenant's writes while it is moved.
+ *
+ * The directory is the "tenant_shard_assignment" table on the default shard, shared by every
+ * application instance. A tenant's row holds its shard and whether it is being moved. Each routed
+ * call reads the row (a primary-key lookup) before its transaction starts, so a move completed by
+ * one instance is seen by all of them on their next call.
+ *
+ * Writes are announced through leases in "tenant_write_lease", one row per instance and tenant,
+ * so a move can wait for writes running anywhere. An instance counts its writes in memory and only
+ * touches its lease when a tenant goes from idle to writing; a heartbeat extends the leases of
+ * tenants with writes in flight and drops the others. Leases expire after writeLeaseTtl, so an
+ * instance that dies mid-write holds off moves of its tenants only until then. Expiry is compared
+ * with the instances' clocks, which must agree to well within the TTL.
+ *
+ * Tenants without a row are placed by the configured assignments, then the consistent-hash ring.
+ * Their first write (or move) pins that shard in a row, so a later change to the ring cannot
+ * silently reroute a tenant away from its data.
+ */
+public class TenantShardDirectory implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantShardDirectory.class);
+
+    static final String TABLE = "tenant_shard_assignment";
+    static final String LEASES = "tenant_write_lease";
+    static final Duration DEFAULT_WRITE_LEASE_TTL = Duration.ofSeconds(10);
+
+    private static final String SELECT_SHARD = "SELECT shard FROM " + TABLE + " WHERE tenant_id = ?";
+    private static final String SELECT_FOR_WRITE = "SELECT shard, moving FROM " + TABLE + " WHERE tenant_id = ?";
+    private static final String PIN = "INSERT INTO " + TABLE + " (tenant_id, shard) SELECT ?, ? "
+            + "WHERE NOT EXISTS (SELECT 1 FROM " + TABLE + " WHERE tenant_id = ?)";
+    private static final String EXTEND_LEASE = "UPDATE " + LEASES + " SET expires_at = ? WHERE tenant_id = ? AND instance_id = ?";
+    private static final String INSERT_LEASE = "INSERT INTO " + LEASES + " (tenant_id, instance_id, expires_at) VALUES (?, ?, ?)";
+    private static final String DROP_LEASE = "DELETE FROM " + LEASES + " WHERE tenant_id = ? AND instance_id = ?";
+    private static final String LIVE_LEASES = "SELECT COUNT(*) FROM " + LEASES + " WHERE tenant_id = ? AND expires_at > ?";
+    // A move must not start while the previous one is still deleting the tenant's rows from its source
+    private static final String FENCE = "UPDATE " + TABLE + " SET moving = TRUE WHERE tenant_id = ? AND moving = FALSE"
+            + " AND (cleanup_until IS NULL OR cleanup_until < ?)";
+    // Claimed only while the tenant is still on the given shard and not being moved; expires if the instance dies
+    private static final String CLAIM_CLEANUP = "UPDATE " + TABLE + " SET cleanup_until = ? WHERE tenant_id = ? AND shard = ?"
+            + " AND moving = FALSE AND (cleanup_until IS NULL OR cleanup_until < ?)";
+    private static final String UNFENCE = "UPDATE " + TABLE + " SET moving = FALSE WHERE tenant_id = ?";
+
+    private final JdbcTemplate defaultShardJdbc;
+    private final Set<String> shardNames;
+    private final ConsistentHashRing ring;
+    private final Map<Long, String> configuredAssignments;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Duration writeLeaseTtl;
+    // This instance's writes in flight per tenant; an entry exists while the tenant holds a lease
+    private final Map<Long, LocalWrites> writes = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeat;
+
+    public TenantShardDirectory(DataSource defaultShard, Set<String> shardNames, int virtualNodes,
+                                Map<Long, String> configuredAssignments) {
+        this(defaultShard, shardNames, virtualNodes, configuredAssignments, DEFAULT_WRITE_LEASE_TTL);
+    }
+
+    public TenantShardDirectory(DataSource defaultShard, Set<String> shardNames, int virtualNodes,
+                                Map<Long, String> configuredAssignments, Duration writeLeaseTtl) {
+        this.defaultShardJdbc = new JdbcTemplate(defaultShard);
+        this.shardNames = Collections.unmodifiableSet(new LinkedHashSet<>(shardNames));
+        this.ring = new ConsistentHashRing(shardNames, virtualNodes);
+        this.configuredAssignments = Map.copyOf(configuredAssignments);
+        this.writeLeaseTtl = writeLeaseTtl;
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tenant-write-lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Creates the directory tables if needed (adding the fence columns to an older one), checks the configuration
+    // and starts the lease heartbeat
+    public void load() {
+        defaultShardJdbc.execute("CREATE TABLE IF NOT EXISTS " + TABLE
+                + " (tenant_id BIGINT PRIMARY KEY, shard VARCHAR(64) NOT NULL)");
+        defaultShardJdbc.execute("ALTER TABLE " + TABLE + " ADD COLUMN IF NOT EXISTS moving BOOLEAN DEFAULT FALSE NOT NULL");
+        defaultShardJdbc.execute("ALTER TABLE " + TABLE + " ADD COLUMN IF NOT EXISTS cleanup_until TIMESTAMP");
+        defaultShardJdbc.execute("CREATE TABLE IF NOT EXISTS " + LEASES + " (tenant_id BIGINT NOT NULL, "
+                + "instance_id VARCHAR(64) NOT NULL, expires_at TIMESTAMP NOT NULL, PRIMARY KEY (tenant_id, instance_id))");
+        configuredAssignments.values().forEach(this::requireKnownShard);
+        long periodMs = Math.max(writeLeaseTtl.toMillis() / 5, 10);
+        heartbeat.scheduleWithFixedDelay(this::renewLeases, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        heartbeat.shutdownNow();
+        writes.keySet().forEach(tenantId -> defaultShardJdbc.update(DROP_LEASE, tenantId, instanceId));
+    }
+
+    public String shardFor(Long tenantId) {
+        List<String> pinned = defaultShardJdbc.queryForList(SELECT_SHARD, String.class, tenantId);
+        return pinned.isEmpty() ? unpinnedShardFor(tenantId) : pinned.get(0);
+    }
+
+    public Set<String> getShardNames() {
+        return shardNames;
+    }
+
+    // Configured assignments, overridden by the rows of pinned and moved tenants
+    public Map<Long, String> getAssignments() {
+        Map<Long, String> assignments = new TreeMap<>(configuredAssignments);
+        defaultShardJdbc.query("SELECT tenant_id, shard FROM " + TABLE,
+                rs -> { assignments.put(rs.getLong(1), rs.getString(2)); });
+        return Collections.unmodifiableMap(assignments);
+    }
+
+    public void assign(Long tenantId, String shard) {
+        requireKnownShard(shard);
+        pin(tenantId);
+        defaultShardJdbc.update("UPDATE " + TABLE + " SET shard = ? WHERE tenant_id = ?", shard, tenantId);
+    }
+
+    // --- Write fence used while a tenant is moving ---
+
+    /**
+     * Announces a write for the tenant and returns the shard it must go to. Every call must be
+     * paired with endWrite. Fails with 503 while the tenant is being moved.
+     */
+    public String beginWrite(Long tenantId) {
+        LocalWrites local = writes.compute(tenantId, (id, current) -> {
+            LocalWrites state = current != null ? current : new LocalWrites();
+            state.running++;
+            return state;
+        });
+        try {
+            // The lease is in place before the fence is read, so a move either fences this write out or waits for it
+            local.ensureLeased(tenantId);
+            Map<String, Object> row = rowForWrite(tenantId);
+            if (Boolean.TRUE.equals(row.get("moving"))) {
+                throw new TenantMigrationInProgressException(tenantId);
+            }
+            // A move cannot flip the shard while this write holds its lease
+            return (String) row.get("shard");
+        } catch (RuntimeException ex) {
+            endWrite(tenantId);
+            throw ex;
+        }
+    }
+
+    public void endWrite(Long tenantId) {
+        writes.computeIfPresent(tenantId, (id, state) -> {
+            state.running--;
+            return state;
+        });
+    }
+
+    /**
+     * The heartbeat: extends the leases of tenants with writes in flight on this instance and drops
+     * the others, so a waiting move sees them go within one period.
+     */
+    void renewLeases() {
+        try {
+            Timestamp expires = Timestamp.from(Instant.now().plus(writeLeaseTtl));
+            for (Long tenantId : writes.keySet()) {
+                writes.computeIfPresent(tenantId, (id, state) -> {
+                    if (state.running > 0) {
+                        defaultShardJdbc.update(EXTEND_LEASE, expires, id, instanceId);
+                        return state;
+                    }
+                    defaultShardJdbc.update(DROP_LEASE, id, instanceId);
+                    return null;
+                });
+            }
+        } catch (RuntimeException ex) {
+            // Leases not extended now are extended next time, unless they expire first
+            log.warn("Renewing tenant write leases failed: {}", ex.getMessage());
+        }
+    }
+
+    public boolean isMoving(Long tenantId) {
+        List<Boolean> moving = defaultShardJdbc.queryForList("SELECT moving FROM " + TABLE + " WHERE tenant_id = ?",
+                Boolean.class, tenantId);
+        return !moving.isEmpty() && moving.get(0);
+    }
+
+    /**
+     * Blocks new writes for the tenant on every instance and waits for in-flight ones to finish.
+     * Reads keep being served from the current shard. Fails with 409 if the tenant is already being
+     * moved, its previous move is still cleaning up, or its writes do not drain in time.
+     */
+    void startMove(Long tenantId, Duration drainTimeout) throws InterruptedException {
+        pin(tenantId);
+        if (defaultShardJdbc.update(FENCE, tenantId, Timestamp.from(Instant.now())) == 0) {
+            throw new ConflictException("Tenant " + tenantId + " is already being moved, or its last move is still cleaning up.");
+        }
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        while (liveLeases(tenantId) > 0) {
+            if (System.nanoTime() > deadline) {
+                finishMove(tenantId);
+                throw new ConflictException("Timed out waiting for in-flight writes of tenant " + tenantId + "; retry the move later.");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    void finishMove(Long tenantId) {
+        defaultShardJdbc.update(UNFENCE, tenantId);
+    }
+
+    /**
+     * Keeps other moves of the tenant from starting while a finished move deletes its rows from the source
+     * shard; writes are not affected. Returns false if the tenant is no longer on expectedShard or is moving.
+     * The claim lapses after the lease, should this instance die before finishCleanup.
+     */
+    boolean startCleanup(Long tenantId, String expectedShard, Duration lease) {
+        Instant now = Instant.now();
+        return defaultShardJdbc.update(CLAIM_CLEANUP, Timestamp.from(now.plus(lease)), tenantId, expectedShard,
+                Timestamp.from(now)) == 1;
+    }
+
+    void finishCleanup(Long tenantId) {
+        defaultShardJdbc.update("UPDATE " + TABLE + " SET cleanup_until = NULL WHERE tenant_id = ?", tenantId);
+    }
+
+    private int liveLeases(Long tenantId) {
+        return defaultShardJdbc.queryForObject(LIVE_LEASES, Integer.class, tenantId, Timestamp.from(Instant.now()));
+    }
+
+    private Map<String, Object> rowForWrite(Long tenantId) {
+        List<Map<String, Object>> rows = defaultShardJdbc.queryForList(SELECT_FOR_WRITE, tenantId);
+        if (rows.isEmpty()) {
+            // First write pins the tenant's current placement
+            pin(tenantId);
+            rows = defaultShardJdbc.queryForList(SELECT_FOR_WRITE, tenantId);
+        }
+        return rows.get(0);
+    }
+
+    // Writes the tenant's current shard into the directory unless it already has a row
+    private void pin(Long tenantId) {
+        try {
+            defaultShardJdbc.update(PIN, tenantId, unpinnedShardFor(tenantId), tenantId);
+        } catch (DuplicateKeyException pinnedConcurrently) {
+            // Another instance inserted the row first; it holds the same placement
+        }
+    }
+
+    private String unpinnedShardFor(Long tenantId) {
+        String configured = configuredAssignments.get(tenantId);
+        return configured != null ? configured : ring.shardFor(tenantId);
+    }
+
+    private void requireKnownShard(String shard) {
+        if (!shardNames.contains(shard)) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+    }
+
+    // Guarded by the writes map: its compute methods run one at a time per tenant
+    private final class LocalWrites {
+
+        private int running;
+        private volatile boolean leased;
+
+        // Only the first write after the tenant was idle on this instance writes to the lease table
+        void ensureLeased(Long tenantId) {
+            if (leased) {
+                return;
+            }
+            synchronized (this) {
+                if (!leased) {
+                    Timestamp expires = Timestamp.from(Instant.now().plus(writeLeaseTtl));
+                    if (defaultShardJdbc.update(EXTEND_LEASE, expires, tenantId, instanceId) == 0) {
+                        defaultShardJdbc.update(INSERT_LEASE, tenantId, instanceId, expires);
+                    }
+                    leased = true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.demo.datasource;
+
+import com.example.demo.exception.InvalidRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Moves one tenant's rows from its current shard to another while the application keeps running.
+ *
+ * 1. New writes for the tenant are rejected (503) and in-flight writes are drained; reads continue.
+ *    The source shard is read from the directory only now, so a concurrent move cannot leave it stale.
+ * 2. The tenant's rows are copied to the target shard in a single target-side transaction, replacing
+ *    any rows left there by an earlier move whose cleanup was skipped.
+ * 3. The directory is switched to the target shard and writes are re-enabled.
+ * 4. After the cleanup delay, a background task deletes the tenant's rows from the source shard. A read
+ *    that looked the shard up just before the switch may still be running there and finds its rows.
+ *    It is skipped if the tenant has moved again since, and no new move of the tenant starts while it runs.
+ *
+ * The write fence and the switch go through the shared directory, so every instance takes part.
+ *
+ * Row ids are preserved, so shards must hand out disjoint identity ranges
+ * (ShardSchemaInitializer does this for locally created shards).
+ */
+public class TenantShardMover implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantShardMover.class);
+
+    // Tenant-scoped tables in foreign-key order (parents first)
+    static final List<String> TENANT_TABLES = List.of("property", "vendor", "work_order");
+    private static final int BATCH_SIZE = 500;
+    // Upper bound for deleting one tenant's rows; a claim left by a dead instance lapses after it
+    private static final Duration CLEANUP_LEASE = Duration.ofMinutes(5);
+
+    private final Map<String, DataSource> shards;
+    private final TenantShardDirectory directory;
+    private final Duration drainTimeout;
+    private final Duration cleanupDelay;
+    private final List<Consumer<Long>> moveListeners = new ArrayList<>();
+    private final ScheduledExecutorService cleanup;
+
+    public TenantShardMover(Map<String, DataSource> shards, TenantShardDirectory directory, Duration drainTimeout) {
+        this(shards, directory, drainTimeout, Duration.ZERO);
+    }
+
+    public TenantShardMover(Map<String, DataSource> shards, TenantShardDirectory directory, Duration drainTimeout,
+                            Duration cleanupDelay) {
+        this.shards = shards;
+        this.directory = directory;
+        this.drainTimeout = drainTimeout;
+        this.cleanupDelay = cleanupDelay;
+        this.cleanup = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tenant-move-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Called with the tenant id after every completed move (e.g. to drop cached rows)
+    public void addMoveListener(Consumer<Long> listener) {
+        moveListeners.add(listener);
+    }
+
+    public TenantMoveResult move(Long tenantId, String targetShard) {
+        DataSource target = shards.get(targetShard);
+        if (target == null) {
+            throw new InvalidRequestException("Unknown shard: " + targetShard);
+        }
+        long started = System.nanoTime();
+
+        fence(tenantId);
+        // Read under the fence: a move that finished a moment ago has already switched the directory
+        String sourceShard = directory.shardFor(tenantId);
+        if (sourceShard.equals(targetShard)) {
+            directory.finishMove(tenantId);
+            throw new InvalidRequestException("Tenant " + tenantId + " is already on " + targetShard);
+        }
+        DataSource source = shards.get(sourceShard);
+
+        Map<String, Integer> copied;
+        try {
+            copied = copyRows(tenantId, source, target);
+            directory.assign(tenantId, targetShard);
+        } catch (RuntimeException | SQLException ex) {
+            directory.finishMove(tenantId);
+            throw new IllegalStateException("Moving tenant " + tenantId + " to " + targetShard + " failed: " + ex.getMessage(), ex);
+        }
+        directory.finishMove(tenantId);
+        moveListeners.forEach(listener -> listener.accept(tenantId));
+        cleanup.schedule(() -> cleanUp(tenantId, sourceShard, targetShard), cleanupDelay.toMillis(), TimeUnit.MILLISECONDS);
+
+        long durationMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        log.info("Moved tenant {} from {} to {} in {} ms: {}", tenantId, sourceShard, targetShard, durationMs, copied);
+        return new TenantMoveResult(tenantId, sourceShard, targetShard, copied, durationMs);
+    }
+
+    @Override
+    public void destroy() {
+        cleanup.shutdownNow();
+    }
+
+    private void fence(Long tenantId) {
+        try {
+            directory.startMove(tenantId, drainTimeout);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while draining writes for tenant " + tenantId, ex);
+        }
+    }
+
+    // Deletes the moved tenant's rows from the source unless it has moved again; no move can copy them meanwhile
+    private void cleanUp(Long tenantId, String sourceShard, String targetShard) {
+        try {
+            if (!directory.startCleanup(tenantId, targetShard, CLEANUP_LEASE)) {
+                // A later move replaces any rows it finds on its target, so the leftovers are harmless
+                log.info("Tenant {} moved again since its move to {}; leaving {} as it is", tenantId, targetShard, sourceShard);
+                return;
+            }
+            try {
+                deleteRows(tenantId, shards.get(sourceShard));
+            } finally {
+                directory.finishCleanup(tenantId);
+            }
+        } catch (SQLException | RuntimeException ex) {
+            // The directory already points at the target; leftovers on the source are unreachable
+            log.error("Tenant {} moved to {}, but cleaning up {} failed: {}", tenantId, targetShard, sourceShard, ex.getMessage());
+        }
+    }
+
+    private Map<String, Integer> copyRows(Long tenantId, DataSource source, DataSource target) throws SQLException {
+        Map<String, Integer> copied = new LinkedHashMap<>();
+        try (Connection from = source.getConnection(); Connection to = target.getConnection()) {
+            to.setAutoCommit(false);
+            try {
+                deleteTenantRows(tenantId, to);
+                for (String table : TENANT_TABLES) {
+                    copied.put(table, copyTable(table, tenantId, from, to));
+                }
+                to.commit();
+            } catch (SQLException | RuntimeException ex) {
+                to.rollback();
+                throw ex;
+            } finally {
+                to.setAutoCommit(true);
+            }
+        }
+        return Collections.unmodifiableMap(copied);
+    }
+
+    private int copyTable(String table, Long tenantId, Connection from, Connection to) throws SQLException {
+        try (PreparedStatement select = from.prepareStatement("SELECT * FROM " + table + " WHERE tenant_id = ?")) {
+            select.setLong(1, tenantId);
+            try (ResultSet rs = select.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                StringJoiner names = new StringJoiner(", ");
+                StringJoiner placeholders = new StringJoiner(", ");
+                for (int i = 1; i <= columns; i++) {
+                    names.add(meta.getColumnName(i));
+                    placeholders.add("?");
+                }
+                String insert = "INSERT INTO " + table + " (" + names + ") VALUES (" + placeholders + ")";
+                int rows = 0;
+                try (PreparedStatement statement = to.prepareStatement(insert)) {
+                    while (rs.next()) {
+                        for (int i = 1; i <= columns; i++) {
+                            statement.setObject(i, rs.getObject(i));
+                        }
+                        statement.addBatch();
+                        if (++rows % BATCH_SIZE == 0) {
+                            statement.executeBatch();
+                        }
+                    }
+                    statement.executeBatch();
+                }
+                return rows;
+            }
+        }
+    }
+
+    private void deleteRows(Long tenantId, DataSource source) throws SQLException {
+        try (Connection connection = source.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                deleteTenantRows(tenantId, connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Children first, on the caller's transaction
+    private static void deleteTenantRows(Long tenantId, Connection connection) throws SQLException {
+        for (int i = TENANT_TABLES.size() - 1; i >= 0; i--) {
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM " + TENANT_TABLES.get(i) + " WHERE tenant_id = ?")) {
+                delete.setLong(1, tenantId);
+                delete.executeUpdate();
+            }
+        }
+    }
+
+    public record TenantMoveResult(Long tenantId, String fromShard, String toShard,
+                                   Map<String, Integer> rowsCopied, long durationMs) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hands out connections from the shard selected in ShardContext,
+ * or from the default shard when none is selected.
+ */
+public class TenantShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final String defaultShard;
+    private final Map<String, DataSource> shards;
+
+    public TenantShardRoutingDataSource(String defaultShard, Map<String, DataSource> shards) {
+        if (!shards.containsKey(defaultShard)) {
+            throw new IllegalArgumentException("Default shard '" + defaultShard + "' is not configured.");
+        }
+        this.defaultShard = defaultShard;
+        this.shards = Collections.unmodifiableMap(new LinkedHashMap<>(shards));
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(shards.get(defaultShard));
+        // Fail loudly rather than silently using the default shard for a typo
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public String getDefaultShard() {
+        return defaultShard;
+    }
+
+    public Map<String, DataSource> getShards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String shard = ShardContext.current();
+        return shard != null ? shard : defaultShard;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service (or method) whose data lives on the calling tenant's shard.
+ * When sharding is enabled, TenantShardAspect resolves the shard before the
+ * method's transaction starts. Without sharding the annotation has no effect.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface TenantSharded {
+}
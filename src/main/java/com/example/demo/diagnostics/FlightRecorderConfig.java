@@ -0,0 +1,18 @@
+package com.example.demo.diagnostics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+@Configuration
+public class FlightRecorderConfig {
+
+    /**
+     * Replaces Spring Boot's JSON converter (same ObjectMapper) so response serialization shows up in recordings.
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new JfrJacksonHttpMessageConverter(objectMapper);
+    }
+}
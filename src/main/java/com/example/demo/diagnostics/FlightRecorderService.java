@@ -0,0 +1,102 @@
+package com.example.demo.diagnostics;
+
+import com.example.demo.exception.ConflictException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.EventSettings;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts and stops one on-demand JFR recording at a time: the JDK's "default" settings
+ * (about 1% overhead) plus the application's own events at the requested threshold.
+ */
+@Component
+public class FlightRecorderService implements DisposableBean {
+
+    static final List<Class<? extends Event>> APPLICATION_EVENTS = List.of(
+            JwtValidationEvent.class, UserLoadEvent.class, TenantResolutionEvent.class,
+            RepositoryCallEvent.class, SerializationEvent.class);
+
+    private Recording recording;
+
+    /**
+     * @param threshold   minimum duration of the application events to record; null keeps each event's default
+     * @param maxDuration the recording stops by itself after this long, keeping its data for stop()
+     */
+    public synchronized Map<String, Object> start(Duration threshold, Duration maxDuration) throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new ConflictException("A recording is already running.");
+        }
+        closeRecording();
+        Recording started = new Recording(Configuration.getConfiguration("default"));
+        started.setName("demo-on-demand");
+        started.setToDisk(true);
+        started.setDuration(maxDuration);
+        for (Class<? extends Event> event : APPLICATION_EVENTS) {
+            EventSettings settings = started.enable(event);
+            if (threshold != null) {
+                settings.withThreshold(threshold);
+            }
+        }
+        started.start();
+        recording = started;
+        return status();
+    }
+
+    /**
+     * Stops the recording and writes it to a temporary file, which the caller deletes.
+     */
+    public synchronized Path stop() throws IOException {
+        if (recording == null) {
+            throw new ConflictException("No recording has been started.");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        Path file = Files.createTempFile("demo-recording-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        } finally {
+            closeRecording();
+        }
+        return file;
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", recording == null ? "NONE" : recording.getState().name());
+        if (recording != null) {
+            status.put("startedAt", recording.getStartTime());
+            status.put("maxDuration", recording.getDuration());
+            status.put("bytesWritten", recording.getSize());
+        }
+        return status;
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        closeRecording();
+    }
+}
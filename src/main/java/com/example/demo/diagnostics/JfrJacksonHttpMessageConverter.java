@@ -0,0 +1,77 @@
+package com.example.demo.diagnostics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * The JSON converter, emitting a SerializationEvent per response body while a recording has the
+ * event enabled. Otherwise it writes exactly like the stock converter, without counting bytes.
+ */
+public class JfrJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public JfrJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        SerializationEvent event = new SerializationEvent();
+        if (!event.isEnabled()) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        CountingOutputMessage counting = new CountingOutputMessage(outputMessage);
+        event.begin();
+        super.writeInternal(object, type, counting);
+        event.end();
+        if (event.shouldCommit()) {
+            event.bodyType = object.getClass().getSimpleName();
+            event.mediaType = String.valueOf(outputMessage.getHeaders().getContentType());
+            event.bytes = counting.bytes;
+            event.commit();
+        }
+    }
+
+    private static final class CountingOutputMessage implements HttpOutputMessage {
+
+        private final HttpOutputMessage delegate;
+        private OutputStream body;
+        private long bytes;
+
+        CountingOutputMessage(HttpOutputMessage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterOutputStream(delegate.getBody()) {
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                        bytes++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                        bytes += len;
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+    }
+}
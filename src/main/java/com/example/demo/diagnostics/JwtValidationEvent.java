@@ -0,0 +1,21 @@
+package com.example.demo.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.example.demo.JwtValidation")
+@Label("JWT Validation")
+@Category({"Demo", "Security"})
+@Description("Signature and expiry check of a bearer token")
+@Threshold("1 ms")
+@StackTrace(false)
+public class JwtValidationEvent extends Event {
+
+    @Label("Valid")
+    public boolean valid;
+}
@@ -0,0 +1,32 @@
+package com.example.demo.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.example.demo.RepositoryCall")
+@Label("Repository Call")
+@Category({"Demo", "Persistence"})
+@Description("One repository method invocation with the calling tenant and the rows it returned")
+@Threshold("5 ms")
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+
+    @Label("Repository")
+    public String repository;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Tenant Id")
+    @Description("0 when there is no authenticated tenant")
+    public long tenantId;
+
+    @Label("Rows")
+    @Description("Entities or values returned; -1 when the result is not a collection, optional or count")
+    public long rows;
+}
@@ -0,0 +1,114 @@
+package com.example.demo.diagnostics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The spans of one request, recorded by the request's own thread into flat arrays
+ * (no object per span); the span tree is only built when someone looks at it.
+ */
+public final class RequestTrace {
+
+    private final String method;
+    private final String path;
+    private final long startedAtMillis = System.currentTimeMillis();
+
+    private final String[] names;
+    private final int[] parents;
+    private final long[] starts;
+    private final long[] ends;
+    private int size;
+    private int open = -1;
+    private int dropped;
+
+    private String uri;
+    private int status;
+    private Long tenantId;
+
+    RequestTrace(String method, String path, int maxSpans) {
+        this.method = method;
+        this.path = path;
+        this.names = new String[maxSpans];
+        this.parents = new int[maxSpans];
+        this.starts = new long[maxSpans];
+        this.ends = new long[maxSpans];
+    }
+
+    /**
+     * Opens a span as a child of the innermost open span; returns its index,
+     * or -1 if the trace is full (the span is then only counted as dropped).
+     */
+    int open(String name) {
+        if (size == names.length) {
+            dropped++;
+            return -1;
+        }
+        int index = size++;
+        names[index] = name;
+        parents[index] = open;
+        starts[index] = System.nanoTime();
+        open = index;
+        return index;
+    }
+
+    void close(int index) {
+        if (index < 0) {
+            return;
+        }
+        ends[index] = System.nanoTime();
+        open = parents[index];
+    }
+
+    void complete(String uri, int status) {
+        this.uri = uri;
+        this.status = status;
+    }
+
+    void setTenantId(Long tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    long durationNanos() {
+        return size == 0 ? 0 : ends[0] - starts[0];
+    }
+
+    Long tenantId() {
+        return tenantId;
+    }
+
+    long startedAtMillis() {
+        return startedAtMillis;
+    }
+
+    SlowRequestView toView(boolean slow) {
+        List<List<SlowRequestView.Span>> children = new ArrayList<>(size);
+        long[] childNanos = new long[size];
+        for (int i = 0; i < size; i++) {
+            children.add(new ArrayList<>());
+        }
+        // Children always come after their parent, so going back to front completes each subtree first
+        SlowRequestView.Span root = null;
+        for (int i = size - 1; i >= 0; i--) {
+            // A span an exception left open ends with the request
+            long duration = (ends[i] != 0 ? ends[i] : ends[0]) - starts[i];
+            List<SlowRequestView.Span> ownChildren = children.get(i);
+            Collections.reverse(ownChildren);
+            SlowRequestView.Span span = new SlowRequestView.Span(names[i], millis(starts[i] - starts[0]),
+                    millis(duration), millis(duration - childNanos[i]), ownChildren);
+            if (parents[i] < 0) {
+                root = span;
+            } else {
+                children.get(parents[i]).add(span);
+                childNanos[parents[i]] += duration;
+            }
+        }
+        return new SlowRequestView(method, path, uri, status, Instant.ofEpochMilli(startedAtMillis),
+                millis(durationNanos()), slow, dropped, root);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.diagnostics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Traces every API request (the root span covers security, the controller and serialization)
+ * and hands the finished trace to SlowRequestRecorder, which decides whether to keep it.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class RequestTraceFilter extends OncePerRequestFilter {
+
+    private final SlowRequestRecorder recorder;
+
+    public RequestTraceFilter(ObjectProvider<SlowRequestRecorder> recorder) {
+        // Not available in web slice tests (@WebMvcTest), which then run untraced
+        this.recorder = recorder.getIfAvailable();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return recorder == null || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestTrace trace = RequestTracer.begin(request.getMethod(), request.getRequestURI(), recorder.maxSpans());
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            RequestTracer.finish(trace);
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            trace.complete(pattern != null ? pattern.toString() : null,
+                    failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus());
+            recorder.offer(trace);
+        }
+    }
+}
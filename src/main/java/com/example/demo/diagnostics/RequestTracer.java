@@ -0,0 +1,57 @@
+package com.example.demo.diagnostics;
+
+/**
+ * Span recording for the request on the current thread. Started and finished by
+ * RequestTraceFilter; without an active trace, start() and end() do nothing.
+ *
+ *   int span = RequestTracer.start("work");
+ *   try { ... } finally { RequestTracer.end(span); }
+ */
+public final class RequestTracer {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private RequestTracer() {
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Opens a span nested in the innermost open span; returns a handle for end(), -1 if not tracing.
+     */
+    public static int start(String name) {
+        RequestTrace trace = CURRENT.get();
+        return trace == null ? -1 : trace.open(name);
+    }
+
+    public static void end(int span) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.close(span);
+        }
+    }
+
+    /**
+     * Attributes the current trace to a tenant; only that tenant's admins can see it.
+     */
+    static void setTenant(Long tenantId) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.setTenantId(tenantId);
+        }
+    }
+
+    static RequestTrace begin(String method, String path, int maxSpans) {
+        RequestTrace trace = new RequestTrace(method, path, maxSpans);
+        CURRENT.set(trace);
+        trace.open(method + " " + path);
+        return trace;
+    }
+
+    static void finish(RequestTrace trace) {
+        trace.close(0);
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.example.demo.Serialization")
+@Label("Response Serialization")
+@Category({"Demo", "Web"})
+@Description("Writing a response body, with its type and size")
+@Threshold("5 ms")
+@StackTrace(false)
+public class SerializationEvent extends Event {
+
+    @Label("Body Type")
+    public String bodyType;
+
+    @Label("Media Type")
+    public String mediaType;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
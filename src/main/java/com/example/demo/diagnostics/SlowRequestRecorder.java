@@ -0,0 +1,76 @@
+package com.example.demo.diagnostics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the most recent traced requests in a fixed-size ring buffer: every request slower than the
+ * threshold and a random sample of the others. Writers claim a slot with one atomic increment and
+ * overwrite whatever was there, so recording never blocks and memory stays bounded.
+ */
+@Component
+public class SlowRequestRecorder {
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final AtomicLong next = new AtomicLong();
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final int maxSpans;
+
+    public SlowRequestRecorder(@Value("${app.diagnostics.slow-request-threshold:500ms}") Duration threshold,
+                               @Value("${app.diagnostics.sample-rate:0.01}") double sampleRate,
+                               @Value("${app.diagnostics.capacity:256}") int capacity,
+                               @Value("${app.diagnostics.max-spans-per-request:256}") int maxSpans) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.thresholdNanos = threshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.maxSpans = maxSpans;
+    }
+
+    int maxSpans() {
+        return maxSpans;
+    }
+
+    /**
+     * Keeps the finished trace if it was slow or is sampled; returns whether it was kept.
+     */
+    boolean offer(RequestTrace trace) {
+        boolean slow = trace.durationNanos() >= thresholdNanos;
+        if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return false;
+        }
+        int slot = (int) (next.getAndIncrement() % slots.length());
+        slots.set(slot, new Entry(trace, slow));
+        return true;
+    }
+
+    /**
+     * The recorded requests of one tenant, newest first.
+     */
+    public List<SlowRequestView> recent(Long tenantId, boolean slowOnly) {
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < slots.length(); i++) {
+            Entry entry = slots.get(i);
+            if (entry != null && tenantId.equals(entry.trace.tenantId()) && (entry.slow || !slowOnly)) {
+                entries.add(entry);
+            }
+        }
+        entries.sort(Comparator.comparingLong((Entry entry) -> entry.trace.startedAtMillis()).reversed());
+        List<SlowRequestView> views = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            views.add(entry.trace.toView(entry.slow));
+        }
+        return views;
+    }
+
+    private record Entry(RequestTrace trace, boolean slow) {
+    }
+}
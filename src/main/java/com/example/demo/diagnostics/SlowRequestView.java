@@ -0,0 +1,16 @@
+package com.example.demo.diagnostics;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A recorded request as returned by /api/admin/diagnostics/slow-requests. Times are in milliseconds;
+ * selfMs is the part of a span not spent in its child spans (for the root span: filters,
+ * controller code and response serialization).
+ */
+public record SlowRequestView(String method, String path, String uri, int status, Instant startedAt,
+                              double durationMs, boolean slow, int droppedSpans, Span root) {
+
+    public record Span(String name, double startMs, double durationMs, double selfMs, List<Span> children) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.diagnostics;
+
+import com.example.demo.tenant.TenantContext;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Records a span for every controller, service and repository call made while a request is traced,
+ * and a RepositoryCallEvent per repository call while a JFR recording has that event enabled.
+ * Outermost of the aspects, so service spans include the shard routing and the transaction.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TracingAspect {
+
+    // Spring Data repositories are proxies; name their spans after the repository interface, not CrudRepository
+    private static final ClassValue<String> REPOSITORY_NAMES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            for (Class<?> candidate : type.getInterfaces()) {
+                if (Repository.class.isAssignableFrom(candidate)) {
+                    return candidate.getSimpleName();
+                }
+            }
+            return type.getSimpleName();
+        }
+    };
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!RequestTracer.isActive()) {
+            return joinPoint.proceed();
+        }
+        // Controllers run after authentication, so this is where the trace learns its tenant
+        RequestTracer.setTenant(TenantContext.currentTenantIdOrNull());
+        return trace(joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint);
+    }
+
+    @Around("@within(org.springframework.stereotype.Service)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!RequestTracer.isActive()) {
+            return joinPoint.proceed();
+        }
+        return trace(joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint);
+    }
+
+    @Around("target(org.springframework.data.repository.Repository) || @within(org.springframework.stereotype.Repository)")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!RequestTracer.isActive() && !event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        Object proxy = joinPoint.getThis();
+        String type = proxy instanceof Repository<?, ?>
+                ? REPOSITORY_NAMES.get(proxy.getClass())
+                : joinPoint.getSignature().getDeclaringType().getSimpleName();
+        event.begin();
+        Object result = trace(type, joinPoint);
+        event.end();
+        if (event.shouldCommit()) {
+            Long tenantId = TenantContext.currentTenantIdOrNull();
+            event.repository = type;
+            event.method = joinPoint.getSignature().getName();
+            event.tenantId = tenantId != null ? tenantId : 0;
+            event.rows = rowsOf(result);
+            event.commit();
+        }
+        return result;
+    }
+
+    private static long rowsOf(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Number number) {
+            return number.longValue();
+        }
+        return result == null ? 0 : -1;
+    }
+
+    private static Object trace(String type, ProceedingJoinPoint joinPoint) throws Throwable {
+        int span = RequestTracer.start(type + "." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestTracer.end(span);
+        }
+    }
+}
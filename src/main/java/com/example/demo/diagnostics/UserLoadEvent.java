@@ -0,0 +1,24 @@
+package com.example.demo.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.example.demo.UserLoad")
+@Label("User Load")
+@Category({"Demo", "Security"})
+@Description("Loading the authenticated user and their permissions")
+@Threshold("1 ms")
+@StackTrace(false)
+public class UserLoadEvent extends Event {
+
+    @Label("Found")
+    public boolean found;
+
+    @Label("Permissions")
+    public int permissions;
+}
@@ -0,0 +1,13 @@
+package com.example.demo.exception;
+
+import org.springframework.http.HttpStatus;
+
+// Thrown by services that need the current user when there is none (returns 401)
+public class AuthenticationRequiredException extends DomainException {
+
+    public static final AuthenticationRequiredException INSTANCE = new AuthenticationRequiredException();
+
+    private AuthenticationRequiredException() {
+        super(HttpStatus.UNAUTHORIZED, "Authentication required.");
+    }
+}
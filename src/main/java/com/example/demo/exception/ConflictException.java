@@ -0,0 +1,11 @@
+package com.example.demo.exception;
+
+import org.springframework.http.HttpStatus;
+
+// The request conflicts with the current state of the resource, e.g. starting something already running (returns 409)
+public class ConflictException extends DomainException {
+
+    public ConflictException(String message) {
+        super(HttpStatus.CONFLICT, message);
+    }
+}
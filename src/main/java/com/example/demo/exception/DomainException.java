@@ -0,0 +1,59 @@
+package com.example.demo.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.util.Map;
+
+/**
+ * Base class for expected failures (tenant mismatches, bad input, conflicts, ...) that are
+ * answered with a 4xx/5xx status instead of being treated as errors.
+ *
+ * These are normal traffic, so no stack trace is captured and suppression is disabled; an
+ * instance carries no per-request state and may be preallocated and thrown repeatedly.
+ * The JSON body is serialized once per instance.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpStatus status;
+    private volatile byte[] body;
+
+    protected DomainException(HttpStatus status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Extra response headers, e.g. Retry-After.
+     */
+    public void addHeaders(HttpHeaders headers) {
+    }
+
+    /**
+     * The response body, {"message": "..."}, serialized on first use.
+     */
+    public byte[] body() {
+        byte[] result = body;
+        if (result == null) {
+            result = serialize(getMessage());
+            body = result;
+        }
+        return result;
+    }
+
+    static byte[] serialize(String message) {
+        try {
+            return MAPPER.writeValueAsBytes(Map.of("message", message == null ? "" : message));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize error message", ex);
+        }
+    }
+}
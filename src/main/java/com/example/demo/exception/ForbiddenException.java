@@ -0,0 +1,20 @@
+package com.example.demo.exception;
+
+import org.springframework.http.HttpStatus;
+
+// The resource doesn't exist in the caller's tenant, or the caller may not change it (returns 403)
+public class ForbiddenException extends DomainException {
+
+    public static final ForbiddenException PROPERTY_NOT_IN_TENANT =
+            new ForbiddenException("Property not found or access denied.");
+    public static final ForbiddenException VENDOR_NOT_IN_TENANT =
+            new ForbiddenException("Vendor not found or access denied.");
+    public static final ForbiddenException USER_NOT_IN_TENANT =
+            new ForbiddenException("User not found or not in your tenant.");
+    public static final ForbiddenException PLATFORM_PERMISSION =
+            new ForbiddenException("The platform permission cannot be granted by tenants.");
+
+    public ForbiddenException(String message) {
+        super(HttpStatus.FORBIDDEN, message);
+    }
+}
@@ -1,6 +1,12 @@
 package com.example.demo.exception;
 
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException; // Import AccessDeniedException
 import org.springframework.validation.FieldError; // Import FieldError
@@ -12,16 +18,30 @@ import org.springframework.web.server.ResponseStatusException; // Import Respons
 
 import java.util.HashMap; // Import HashMap
 import java.util.Map;     // Import Map
+import java.util.concurrent.ConcurrentHashMap;
 
 @ControllerAdvice // Makes this class apply globally to all controllers
-public class GlobalExceptionHandler {
-
-    // Handler for UserAlreadyExistsException (returns 409 Conflict)
-    @ExceptionHandler(UserAlreadyExistsException.class)
-    @ResponseStatus(HttpStatus.CONFLICT)
-    public ResponseEntity<Map<String, String>> handleUserAlreadyExists(UserAlreadyExistsException ex) {
-        // Return JSON: {"message": "User already exists..."}
-        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", ex.getMessage()));
+public class GlobalExceptionHandler implements DisposableBean {
+
+    // Bodies of framework exceptions, by message; the few distinct messages are serialized once
+    private static final int MAX_CACHED_BODIES = 256;
+    private static final byte[] INTERNAL_ERROR_BODY = DomainException.serialize("An unexpected internal server error occurred.");
+
+    private final Map<String, byte[]> cachedBodies = new ConcurrentHashMap<>();
+    private final UnexpectedErrorLog unexpectedErrorLog;
+
+    public GlobalExceptionHandler(@Value("${app.errors.max-logged-per-second:10}") int maxLoggedPerSecond) {
+        this.unexpectedErrorLog = new UnexpectedErrorLog(maxLoggedPerSecond);
+    }
+
+    // Handler for expected outcomes (tenant mismatches, bad input, conflicts, migrations):
+    // status, headers and the pre-serialized body all come from the exception
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<byte[]> handleDomainException(DomainException ex) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ex.addHeaders(headers);
+        return new ResponseEntity<>(ex.body(), headers, ex.getStatus());
     }
 
     // --- NEW: Handler for Validation Errors (returns 400 Bad Request) ---
@@ -41,48 +61,46 @@ public class GlobalExceptionHandler {
 
 
     // Handler for AccessDeniedException (returns 403 Forbidden)
-    // This catches exceptions thrown by service layer tenant checks
+    // Thrown by method security (@PreAuthorize)
     @ExceptionHandler(AccessDeniedException.class)
-    @ResponseStatus(HttpStatus.FORBIDDEN)
-    public ResponseEntity<Map<String, String>> handleAccessDenied(AccessDeniedException ex) {
-        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", ex.getMessage()));
-    }
-
-    // Handler for IllegalStateException (often related to auth context, returns 401 Unauthorized)
-    @ExceptionHandler(IllegalStateException.class)
-    @ResponseStatus(HttpStatus.UNAUTHORIZED)
-    public ResponseEntity<Map<String, String>> handleIllegalState(IllegalStateException ex) {
-        // Check if message indicates auth issue vs other state issues
-        if (ex.getMessage() != null && ex.getMessage().contains("User must be authenticated")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Authentication required."));
-        }
-        // Handle other IllegalStateExceptions if necessary, or rethrow/log
-        // For now, return a generic forbidden if not clearly auth related in service layer
-        // Or consider a 500 if it indicates an unexpected server state
-        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", ex.getMessage()));
-
+    public ResponseEntity<byte[]> handleAccessDenied(AccessDeniedException ex) {
+        return json(HttpStatus.FORBIDDEN, cachedBody(ex.getMessage()));
     }
 
     // Handler for ResponseStatusException (used in controllers for specific status codes)
     @ExceptionHandler(ResponseStatusException.class)
-    public ResponseEntity<Map<String, String>> handleResponseStatusException(ResponseStatusException ex) {
-        return ResponseEntity
-                .status(ex.getStatusCode())
-                .body(Map.of("message", ex.getReason() != null ? ex.getReason() : "An error occurred"));
+    public ResponseEntity<byte[]> handleResponseStatusException(ResponseStatusException ex) {
+        return json(ex.getStatusCode(), cachedBody(ex.getReason() != null ? ex.getReason() : "An error occurred"));
     }
 
 
-    // Optional: Generic fallback handler for any other exceptions (returns 500 Internal Server Error)
+    // Generic fallback handler for any other exceptions (returns 500 Internal Server Error)
+    // These are real errors (IllegalStateException included; expected outcomes are DomainExceptions):
+    // logged with their stack trace, off the request thread and rate limited
     @ExceptionHandler(Exception.class)
-    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
-    public ResponseEntity<Map<String, String>> handleGenericException(Exception ex) {
-        // Log the exception for debugging
-        // logger.error("An unexpected error occurred", ex); // Assuming you have a logger
-        System.err.println("An unexpected error occurred: " + ex.getMessage());
-        ex.printStackTrace(); // Print stack trace to console (for dev)
-
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("message", "An unexpected internal server error occurred."));
+    public ResponseEntity<byte[]> handleGenericException(Exception ex, HttpServletRequest request) {
+        unexpectedErrorLog.report(request.getMethod() + " " + request.getRequestURI(), ex);
+        return json(HttpStatus.INTERNAL_SERVER_ERROR, INTERNAL_ERROR_BODY);
+    }
+
+    private byte[] cachedBody(String message) {
+        String key = message == null ? "" : message;
+        byte[] body = cachedBodies.get(key);
+        if (body == null) {
+            body = DomainException.serialize(key);
+            if (cachedBodies.size() < MAX_CACHED_BODIES) {
+                cachedBodies.put(key, body);
+            }
+        }
+        return body;
     }
-}
 
+    private static ResponseEntity<byte[]> json(HttpStatusCode status, byte[] body) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Override
+    public void destroy() {
+        unexpectedErrorLog.shutdown();
+    }
+}
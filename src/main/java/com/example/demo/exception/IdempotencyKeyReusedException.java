@@ -0,0 +1,11 @@
+package com.example.demo.exception;
+
+import org.springframework.http.HttpStatus;
+
+// The Idempotency-Key was already used for a different request (returns 422)
+public class IdempotencyKeyReusedException extends DomainException {
+
+    public IdempotencyKeyReusedException() {
+        super(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request.");
+    }
+}
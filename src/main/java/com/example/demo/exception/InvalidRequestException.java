@@ -0,0 +1,14 @@
+package com.example.demo.exception;
+
+import org.springframework.http.HttpStatus;
+
+// Request content the service cannot act on, e.g. unknown permission names (returns 400)
+public class InvalidRequestException extends DomainException {
+
+    public static final InvalidRequestException UNKNOWN_PERMISSION =
+            new InvalidRequestException("One or more permissions not found.");
+
+    public InvalidRequestException(String message) {
+        super(HttpStatus.BAD_REQUEST, message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+// The server is over its current concurrency limit and sheds the request (returns 503)
+public class ServerOverloadedException extends DomainException {
+
+    private final String retryAfterSeconds;
+
+    public ServerOverloadedException(long retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "The server is overloaded; retry later.");
+        this.retryAfterSeconds = Long.toString(retryAfterSeconds);
+    }
+
+    @Override
+    public void addHeaders(HttpHeaders headers) {
+        headers.set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+    }
+}
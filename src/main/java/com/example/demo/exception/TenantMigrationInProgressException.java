@@ -0,0 +1,16 @@
+package com.example.demo.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+// Thrown for writes against a tenant that is currently being moved to another shard (returns 503)
+public class TenantMigrationInProgressException extends DomainException {
+    public TenantMigrationInProgressException(Long tenantId) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Tenant " + tenantId + " is being migrated; writes are temporarily unavailable.");
+    }
+
+    @Override
+    public void addHeaders(HttpHeaders headers) {
+        headers.set(HttpHeaders.RETRY_AFTER, "5");
+    }
+}
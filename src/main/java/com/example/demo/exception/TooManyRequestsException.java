@@ -0,0 +1,17 @@
+package com.example.demo.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+// The tenant has more requests running and queued than its share allows (returns 429)
+public class TooManyRequestsException extends DomainException {
+
+    public TooManyRequestsException(String message) {
+        super(HttpStatus.TOO_MANY_REQUESTS, message);
+    }
+
+    @Override
+    public void addHeaders(HttpHeaders headers) {
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.exception;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs unexpected (500) errors on a background thread, at most a fixed number per second.
+ * Errors over the limit, or while the queue is full, are only counted; the count is
+ * reported with the next error that is logged.
+ */
+class UnexpectedErrorLog {
+
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    private static final int QUEUE_CAPACITY = 256;
+
+    private final int maxPerSecond;
+    private final ThreadPoolExecutor writer;
+    private final AtomicLong currentSecond = new AtomicLong();
+    private final AtomicInteger loggedThisSecond = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    UnexpectedErrorLog(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+        this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+            Thread thread = new Thread(r, "unexpected-error-log");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    void report(String request, Throwable error) {
+        if (!tryAcquire()) {
+            suppressed.incrementAndGet();
+            return;
+        }
+        long skipped = suppressed.getAndSet(0);
+        try {
+            writer.execute(() -> write(request, error, skipped));
+        } catch (RejectedExecutionException ex) {
+            suppressed.addAndGet(skipped + 1);
+        }
+    }
+
+    long suppressedCount() {
+        return suppressed.get();
+    }
+
+    void shutdown() {
+        writer.shutdown();
+    }
+
+    private boolean tryAcquire() {
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        long previous = currentSecond.get();
+        if (second != previous && currentSecond.compareAndSet(previous, second)) {
+            loggedThisSecond.set(0);
+        }
+        return loggedThisSecond.incrementAndGet() <= maxPerSecond;
+    }
+
+    private static void write(String request, Throwable error, long skipped) {
+        if (skipped > 0) {
+            log.error("{} further unexpected errors were not logged (rate limit)", skipped);
+        }
+        log.error("Unexpected error on {}", request, error);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.graphql;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryError;
+import graphql.execution.preparsed.persisted.PersistedQueryIdInvalid;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Parsed and validated query documents, so a repeated query skips both steps.
+ *
+ * Clients may use Apollo automatic persisted queries: the query text with its SHA-256 hash in
+ * extensions.persistedQuery once, then the hash with "PersistedQueryMarker" in place of the text (the
+ * endpoint requires a query). An unknown hash is answered with a PersistedQueryNotFound error,
+ * and the client resends the text. Plain queries are cached by their text.
+ * Cost and depth limits are checked on every execution, cached or not.
+ *
+ * The engine calls getDocumentAsync; the lookup is implemented there and in the cache's async
+ * variant, and the synchronous methods graphql-java still declares only delegate to them.
+ */
+class DocumentCache extends ApolloPersistedQuerySupport {
+
+    private final CaffeineQueryCache cache;
+
+    DocumentCache(long maximumSize) {
+        this(new CaffeineQueryCache(maximumSize));
+    }
+
+    private DocumentCache(CaffeineQueryCache cache) {
+        super(cache);
+        this.cache = cache;
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        Optional<Object> id = getPersistedQueryId(executionInput);
+        if (id.isEmpty()) {
+            return CompletableFuture.completedFuture(parseAndValidate.apply(executionInput));
+        }
+        Object persistedQueryId = id.get();
+        try {
+            return cache.getPersistedQueryDocumentAsync(persistedQueryId, executionInput, queryText -> {
+                if (queryText == null) {
+                    throw new PersistedQueryNotFound(persistedQueryId);
+                }
+                if (persistedQueryIdIsInvalid(persistedQueryId, queryText)) {
+                    throw new PersistedQueryIdInvalid(persistedQueryId);
+                }
+                return parseAndValidate.apply(executionInput.transform(builder -> builder.query(queryText)));
+            });
+        } catch (PersistedQueryError ex) {
+            return CompletableFuture.completedFuture(mkMissingError(ex));
+        }
+    }
+
+    // Declared by graphql-java, deprecated there in favour of getDocumentAsync
+    @Override
+    @Deprecated
+    public PreparsedDocumentEntry getDocument(ExecutionInput executionInput,
+                                             Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        return getDocumentAsync(executionInput, parseAndValidate).join();
+    }
+
+    @Override
+    protected Optional<Object> getPersistedQueryId(ExecutionInput executionInput) {
+        Optional<Object> hash = super.getPersistedQueryId(executionInput);
+        if (hash.isPresent() || !hasText(executionInput.getQuery())) {
+            return hash;
+        }
+        return Optional.of(new QueryText(executionInput.getQuery()));
+    }
+
+    @Override
+    protected boolean persistedQueryIdIsInvalid(Object persistedQueryId, String queryText) {
+        return !(persistedQueryId instanceof QueryText) && super.persistedQueryIdIsInvalid(persistedQueryId, queryText);
+    }
+
+    private static boolean hasText(String query) {
+        return query != null && !query.isBlank() && !PERSISTED_QUERY_MARKER.equals(query);
+    }
+
+    // Keeps query texts and hashes apart in the one cache
+    private record QueryText(String query) {
+    }
+
+    private static final class CaffeineQueryCache implements PersistedQueryCache {
+
+        private final Cache<Object, PreparsedDocumentEntry> documents;
+
+        CaffeineQueryCache(long maximumSize) {
+            this.documents = Caffeine.newBuilder().maximumSize(maximumSize).build();
+        }
+
+        @Override
+        public CompletableFuture<PreparsedDocumentEntry> getPersistedQueryDocumentAsync(Object persistedQueryId,
+                                                                                        ExecutionInput executionInput,
+                                                                                        PersistedQueryCacheMiss onCacheMiss) {
+            String query = hasText(executionInput.getQuery()) ? executionInput.getQuery() : null;
+            // The miss handler throws PersistedQueryNotFound for a hash without text; nothing is cached then
+            return CompletableFuture.completedFuture(documents.get(persistedQueryId, id -> onCacheMiss.apply(query)));
+        }
+
+        // Declared by graphql-java, deprecated there in favour of getPersistedQueryDocumentAsync
+        @Override
+        @Deprecated
+        public PreparsedDocumentEntry getPersistedQueryDocument(Object persistedQueryId, ExecutionInput executionInput,
+                                                                PersistedQueryCacheMiss onCacheMiss) {
+            return getPersistedQueryDocumentAsync(persistedQueryId, executionInput, onCacheMiss).join();
+        }
+    }
+}
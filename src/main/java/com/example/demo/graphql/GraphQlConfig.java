@@ -0,0 +1,34 @@
+package com.example.demo.graphql;
+
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.instrumentation.Instrumentation;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Limits and caching for the GraphQL endpoint (spring.graphql.path). Queries over the depth or
+ * cost limit are rejected before any data is fetched.
+ */
+@Configuration
+@EnableConfigurationProperties(GraphQlProperties.class)
+public class GraphQlConfig {
+
+    @Bean
+    public Instrumentation maxQueryDepthInstrumentation(GraphQlProperties properties) {
+        return new MaxQueryDepthInstrumentation(properties.getMaxDepth());
+    }
+
+    @Bean
+    public Instrumentation maxQueryCostInstrumentation(GraphQlProperties properties) {
+        return new MaxQueryComplexityInstrumentation(properties.getMaxCost(), new QueryCostCalculator());
+    }
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer documentCacheCustomizer(GraphQlProperties properties) {
+        DocumentCache documentCache = new DocumentCache(properties.getDocumentCacheSize());
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentCache));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.graphql;
+
+import com.example.demo.exception.DomainException;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Service failures as GraphQL errors: the message of a DomainException, classified by its status,
+ * instead of the opaque INTERNAL_ERROR other exceptions get.
+ */
+@Component
+public class GraphQlExceptionResolver extends DataFetcherExceptionResolverAdapter {
+
+    @Override
+    protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment environment) {
+        if (!(ex instanceof DomainException domainException)) {
+            return null;
+        }
+        return GraphqlErrorBuilder.newError(environment)
+                .errorType(errorTypeOf(domainException))
+                .message(domainException.getMessage())
+                .build();
+    }
+
+    private static ErrorType errorTypeOf(DomainException ex) {
+        return switch (ex.getStatus()) {
+            case BAD_REQUEST, CONFLICT -> ErrorType.BAD_REQUEST;
+            case UNAUTHORIZED -> ErrorType.UNAUTHORIZED;
+            case FORBIDDEN -> ErrorType.FORBIDDEN;
+            case NOT_FOUND -> ErrorType.NOT_FOUND;
+            default -> ErrorType.INTERNAL_ERROR;
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.graphql;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.graphql")
+public class GraphQlProperties {
+
+    // Deepest field nesting a query may use (introspection included)
+    private int maxDepth = 10;
+    // Largest estimated cost: one per field, the selection under a paged list once per requested element
+    private int maxCost = 5000;
+    // Parsed and validated documents kept, by persisted query hash or query text
+    private long documentCacheSize = 1000;
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    public int getMaxCost() {
+        return maxCost;
+    }
+
+    public void setMaxCost(int maxCost) {
+        this.maxCost = maxCost;
+    }
+
+    public long getDocumentCacheSize() {
+        return documentCacheSize;
+    }
+
+    public void setDocumentCacheSize(long documentCacheSize) {
+        this.documentCacheSize = documentCacheSize;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.graphql;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+
+/**
+ * Estimated cost of a field: one, plus its selection counted once per element a paged list
+ * ("first" argument) may return. Other fields, introspection included, add their selection once.
+ */
+class QueryCostCalculator implements FieldComplexityCalculator {
+
+    private static final String PAGE_SIZE_ARGUMENT = "first";
+
+    @Override
+    public int calculate(FieldComplexityEnvironment environment, int childComplexity) {
+        long elements = 1;
+        if (environment.getFieldDefinition().getArgument(PAGE_SIZE_ARGUMENT) != null
+                && environment.getArguments().get(PAGE_SIZE_ARGUMENT) instanceof Integer first) {
+            elements = Math.max(first, 1);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, 1 + elements * Math.max(childComplexity, 1));
+    }
+}
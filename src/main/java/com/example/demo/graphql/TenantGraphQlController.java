@@ -0,0 +1,139 @@
+package com.example.demo.graphql;
+
+import com.example.demo.exception.InvalidRequestException;
+import com.example.demo.property.PropertyResponse;
+import com.example.demo.property.PropertyService;
+import com.example.demo.vendor.VendorResponse;
+import com.example.demo.vendor.VendorService;
+import com.example.demo.workorder.WorkOrderResponse;
+import com.example.demo.workorder.WorkOrderService;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.stereotype.Controller;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The GraphQL queries (schema.graphqls), answered by the same services and response records as the REST API.
+ *
+ * WorkOrder.property and WorkOrder.vendor are batch mappings: graphql-java collects the work orders of
+ * one query level and the references are loaded with a single IN (...) lookup per type.
+ */
+@Controller
+public class TenantGraphQlController {
+
+    private final WorkOrderService workOrderService;
+    private final PropertyService propertyService;
+    private final VendorService vendorService;
+
+    public TenantGraphQlController(WorkOrderService workOrderService,
+                                   PropertyService propertyService,
+                                   VendorService vendorService) {
+        this.workOrderService = workOrderService;
+        this.propertyService = propertyService;
+        this.vendorService = vendorService;
+    }
+
+    @QueryMapping
+    public List<WorkOrderResponse> workOrders(@Argument int first) {
+        return workOrderService.getWorkOrders(checkFirst(first)).stream().map(WorkOrderResponse::of).toList();
+    }
+
+    @QueryMapping
+    public WorkOrderResponse workOrder(@Argument Long id) {
+        return workOrderService.getWorkOrderById(id).map(WorkOrderResponse::of).orElse(null);
+    }
+
+    @QueryMapping
+    public List<PropertyResponse> properties(@Argument int first) {
+        return propertyService.getProperties(checkFirst(first)).stream().map(PropertyResponse::of).toList();
+    }
+
+    @QueryMapping
+    public PropertyResponse property(@Argument Long id) {
+        return propertyService.getPropertyById(id).map(PropertyResponse::of).orElse(null);
+    }
+
+    @QueryMapping
+    public List<VendorResponse> vendors(@Argument int first) {
+        return vendorService.getVendors(checkFirst(first)).stream().map(VendorResponse::of).toList();
+    }
+
+    @QueryMapping
+    public VendorResponse vendor(@Argument Long id) {
+        return vendorService.getVendorById(id).map(VendorResponse::of).orElse(null);
+    }
+
+    @BatchMapping(typeName = "WorkOrder")
+    public Map<WorkOrderResponse, PropertyResponse> property(List<WorkOrderResponse> workOrders) {
+        Set<Long> ids = idsOf(workOrders, WorkOrderResponse::propertyId);
+        Map<Long, PropertyResponse> properties = new HashMap<>();
+        propertyService.getPropertiesByIds(ids).forEach(property -> properties.put(property.getId(), PropertyResponse.of(property)));
+        return byWorkOrder(workOrders, WorkOrderResponse::propertyId, properties);
+    }
+
+    @BatchMapping(typeName = "WorkOrder")
+    public Map<WorkOrderResponse, VendorResponse> vendor(List<WorkOrderResponse> workOrders) {
+        Set<Long> ids = idsOf(workOrders, WorkOrderResponse::vendorId);
+        Map<Long, VendorResponse> vendors = new HashMap<>();
+        vendorService.getVendorsByIds(ids).forEach(vendor -> vendors.put(vendor.getId(), VendorResponse.of(vendor)));
+        return byWorkOrder(workOrders, WorkOrderResponse::vendorId, vendors);
+    }
+
+    // Timestamps as the REST API writes them, not LocalDateTime.toString()
+    @SchemaMapping(typeName = "WorkOrder")
+    public String createdAt(WorkOrderResponse workOrder) {
+        return format(workOrder.createdAt());
+    }
+
+    @SchemaMapping(typeName = "WorkOrder")
+    public String updatedAt(WorkOrderResponse workOrder) {
+        return format(workOrder.updatedAt());
+    }
+
+    private static int checkFirst(int first) {
+        if (first < 1) {
+            throw new InvalidRequestException("Argument 'first' must be at least 1.");
+        }
+        return first;
+    }
+
+    private static Set<Long> idsOf(List<WorkOrderResponse> workOrders, Function<WorkOrderResponse, Long> reference) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (WorkOrderResponse workOrder : workOrders) {
+            Long id = reference.apply(workOrder);
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    // Work orders without a (visible) reference are left out and resolve to null
+    private static <T> Map<WorkOrderResponse, T> byWorkOrder(List<WorkOrderResponse> workOrders,
+                                                             Function<WorkOrderResponse, Long> reference,
+                                                             Map<Long, T> loaded) {
+        Map<WorkOrderResponse, T> result = new HashMap<>();
+        for (WorkOrderResponse workOrder : workOrders) {
+            Long id = reference.apply(workOrder);
+            T value = id != null ? loaded.get(id) : null;
+            if (value != null) {
+                result.put(workOrder, value);
+            }
+        }
+        return result;
+    }
+
+    private static String format(LocalDateTime value) {
+        return value != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value) : null;
+    }
+}
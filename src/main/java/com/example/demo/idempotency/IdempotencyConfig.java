@@ -0,0 +1,53 @@
+package com.example.demo.idempotency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Idempotency-Key handling for create endpoints (see IdempotencyFilter); disable with
+ * "app.idempotency.enabled=false". Expired records are deleted every app.idempotency.cleanup-interval.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnProperty(prefix = "app.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig implements SchedulingConfigurer {
+
+    private final IdempotencyProperties properties;
+    private final IdempotencyRecordRepository repository;
+
+    public IdempotencyConfig(IdempotencyProperties properties, IdempotencyRecordRepository repository) {
+        this.properties = properties;
+        this.repository = repository;
+    }
+
+    @Bean
+    public IdempotencyStore idempotencyStore() {
+        return new IdempotencyStore(repository, properties);
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore idempotencyStore,
+                                                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(idempotencyStore, properties, meterRegistry.getIfAvailable()));
+        registration.addUrlPatterns("/api/*");
+        // After the security filter chain (the tenant is known), admission control and request coalescing
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 3);
+        return registration;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(() -> idempotencyStore().purgeExpired(), properties.getCleanupInterval());
+    }
+}
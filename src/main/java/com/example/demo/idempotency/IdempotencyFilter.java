@@ -0,0 +1,282 @@
+package com.example.demo.idempotency;
+
+import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.DomainException;
+import com.example.demo.exception.IdempotencyKeyReusedException;
+import com.example.demo.exception.InvalidRequestException;
+import com.example.demo.tenant.TenantContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotency-Key support for create endpoints: the first 2xx response to a POST carrying the header is
+ * stored per tenant and key (IdempotencyStore), and retries with the same key and request are answered
+ * with it, marked Idempotent-Replayed, without reaching the controller.
+ *
+ * A retry arriving while the original is still running waits for it (at most app.idempotency.in-flight-timeout,
+ * then 409). If the original fails, its error is not stored and the next attempt runs the request again.
+ * Reusing a key for a different method, path, query or body is answered with 422.
+ *
+ * Running requests are tracked per instance only: the key is not claimed in the table until the response is
+ * stored. With several instances, a retry that reaches another instance while the original is still running
+ * runs the request a second time. Only the first response is stored and replayed afterwards, but both requests
+ * take effect. Deployments whose clients retry before the original completes therefore need sticky routing
+ * by tenant, or a single instance, for the guarantee to hold.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final String METRIC = "http.server.requests.idempotency";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    private static final DomainException INVALID_KEY =
+            new InvalidRequestException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters.");
+    private static final DomainException KEY_REUSED = new IdempotencyKeyReusedException();
+    private static final DomainException STILL_RUNNING =
+            new ConflictException("A request with this Idempotency-Key is still being processed; retry later.");
+
+    private final IdempotencyStore store;
+    private final List<String> paths;
+    private final long inFlightTimeoutNanos;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<IdempotencyRecord.Key, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store, IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.paths = List.copyOf(properties.getPaths());
+        this.inFlightTimeoutNanos = properties.getInFlightTimeout().toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null || !matches(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Long tenantId = TenantContext.currentTenantIdOrNull();
+        if (tenantId == null) {
+            // Unauthenticated: let the endpoint answer as usual
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String idempotencyKey = request.getHeader(HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            reject(response, INVALID_KEY, "invalid");
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String fingerprint = fingerprint(cachedRequest);
+        IdempotencyRecord.Key key = new IdempotencyRecord.Key(tenantId, idempotencyKey);
+
+        while (true) {
+            Optional<StoredResponse> stored = store.find(key);
+            if (stored.isPresent()) {
+                replay(stored.get(), fingerprint, response);
+                return;
+            }
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> original = inFlight.putIfAbsent(key, mine);
+            if (original == null) {
+                lead(key, fingerprint, mine, cachedRequest, response, filterChain);
+                return;
+            }
+            StoredResponse result;
+            try {
+                result = original.get(inFlightTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                reject(response, STILL_RUNNING, "in_flight_timeout");
+                return;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                reject(response, STILL_RUNNING, "in_flight_timeout");
+                return;
+            } catch (ExecutionException ex) {
+                result = null;
+            }
+            if (result != null) {
+                replay(result, fingerprint, response);
+                return;
+            }
+            // The original failed and stored nothing: compete to run the request again
+        }
+    }
+
+    private void lead(IdempotencyRecord.Key key, String fingerprint, CompletableFuture<StoredResponse> mine,
+                      HttpServletRequest request, HttpServletResponse response,
+                      FilterChain filterChain) throws ServletException, IOException {
+        StoredResponse result = null;
+        try {
+            // Stored between our lookup and claiming the key
+            Optional<StoredResponse> stored = store.findCached(key);
+            if (stored.isPresent()) {
+                result = stored.get();
+                replay(result, fingerprint, response);
+                return;
+            }
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, wrapper);
+            int status = wrapper.getStatus();
+            try {
+                if (status >= 200 && status < 300 && !request.isAsyncStarted()) {
+                    result = new StoredResponse(fingerprint, status, wrapper.getContentType(), wrapper.getContentAsByteArray());
+                    store.save(key, result);
+                    count("stored");
+                }
+            } catch (RuntimeException ex) {
+                // The request already took effect, so the client still gets its response; only this
+                // instance's cache can replay it until the table is reachable again
+                log.warn("Could not store the idempotent response of tenant {}", key.getTenantId(), ex);
+                count("store_failed");
+            } finally {
+                wrapper.copyBodyToResponse();
+            }
+        } finally {
+            // Stored before detaching, so a request arriving after this point finds it in the store
+            inFlight.remove(key, mine);
+            mine.complete(result);
+        }
+    }
+
+    private void replay(StoredResponse stored, String fingerprint, HttpServletResponse response) throws IOException {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            reject(response, KEY_REUSED, "key_reused");
+            return;
+        }
+        count("replayed");
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void reject(HttpServletResponse response, DomainException ex, String outcome) throws IOException {
+        count(outcome);
+        HttpHeaders headers = new HttpHeaders();
+        ex.addHeaders(headers);
+        headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setStatus(ex.getStatus().value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        byte[] body = ex.body();
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static String fingerprint(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + ' ' + request.getRequestURI() + '?' + request.getQueryString() + '\n')
+                    .getBytes(StandardCharsets.UTF_8));
+            digest.update(request.body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private boolean matches(String uri) {
+        for (String path : paths) {
+            if (pathMatcher.match(path, uri)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void count(String outcome) {
+        if (meterRegistry != null) {
+            meterRegistry.counter(METRIC, "outcome", outcome).increment();
+        }
+    }
+
+    /**
+     * The request with its body read up front (for the fingerprint) and served again to the controller.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+        }
+    }
+}
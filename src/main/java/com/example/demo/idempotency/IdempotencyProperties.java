@@ -0,0 +1,70 @@
+package com.example.demo.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+    // POST endpoints that honour the Idempotency-Key header (Ant-style patterns)
+    private List<String> paths = new ArrayList<>(List.of("/api/workorders", "/api/properties", "/api/vendors"));
+    // How long a stored response is replayed; older records are deleted by the cleanup task
+    private Duration ttl = Duration.ofHours(24);
+    // Responses kept in memory; older ones are read back from the table
+    private int maxEntries = 10_000;
+    // How long a duplicate waits for the original request before answering 409
+    private Duration inFlightTimeout = Duration.ofSeconds(10);
+    private Duration cleanupInterval = Duration.ofMinutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Duration getInFlightTimeout() {
+        return inFlightTimeout;
+    }
+
+    public void setInFlightTimeout(Duration inFlightTimeout) {
+        this.inFlightTimeout = inFlightTimeout;
+    }
+
+    public Duration getCleanupInterval() {
+        return cleanupInterval;
+    }
+
+    public void setCleanupInterval(Duration cleanupInterval) {
+        this.cleanupInterval = cleanupInterval;
+    }
+}
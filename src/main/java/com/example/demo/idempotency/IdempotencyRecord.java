@@ -0,0 +1,73 @@
+package com.example.demo.idempotency;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * The stored first response for an Idempotency-Key of a tenant. Written once, never updated;
+ * rows older than app.idempotency.ttl are deleted by IdempotencyStore.
+ */
+@Entity
+@Table(name = "idempotency_records", indexes = @Index(name = "idx_idempotency_created_at", columnList = "created_at"))
+@IdClass(IdempotencyRecord.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord implements Persistable<IdempotencyRecord.Key> {
+
+    @Id
+    @Column(name = "tenant_id")
+    private Long tenantId;
+
+    @Id
+    @Column(name = "idempotency_key", length = IdempotencyFilter.MAX_KEY_LENGTH)
+    private String idempotencyKey;
+
+    // SHA-256 of method, path, query and body, to detect a key reused for another request
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    private int status;
+
+    private String contentType;
+
+    @Lob
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Override
+    @Transient
+    public Key getId() {
+        return new Key(tenantId, idempotencyKey);
+    }
+
+    // Always inserted: a second instance storing the same key fails instead of overwriting the first response
+    @Override
+    @Transient
+    public boolean isNew() {
+        return true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long tenantId;
+        private String idempotencyKey;
+    }
+}
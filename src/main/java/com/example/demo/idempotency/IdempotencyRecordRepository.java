@@ -0,0 +1,23 @@
+package com.example.demo.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, IdempotencyRecord.Key> {
+
+    // Read-write on purpose: the replica router sends read-only transactions to a replica, which may not
+    // have the record of a request that just completed on the primary yet
+    @Transactional
+    @Query("select r from IdempotencyRecord r where r.tenantId = :#{#key.tenantId} and r.idempotencyKey = :#{#key.idempotencyKey}")
+    Optional<IdempotencyRecord> findOnPrimary(IdempotencyRecord.Key key);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :cutoff")
+    int deleteCreatedBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,74 @@
+package com.example.demo.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Stored responses by tenant and Idempotency-Key: a size-bounded in-memory cache in front of the
+ * idempotency_records table. The table makes replays survive restarts and work across instances;
+ * both forget a response after the TTL. Records are always read from the primary.
+ */
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyRecordRepository repository;
+    private final Duration ttl;
+    private final Cache<IdempotencyRecord.Key, StoredResponse> cache;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository, IdempotencyProperties properties) {
+        this.repository = repository;
+        this.ttl = properties.getTtl();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Optional<StoredResponse> find(IdempotencyRecord.Key key) {
+        StoredResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        return repository.findOnPrimary(key)
+                .filter(record -> record.getCreatedAt().isAfter(cutoff))
+                .map(record -> {
+                    StoredResponse stored = new StoredResponse(record.getFingerprint(), record.getStatus(),
+                            record.getContentType(), record.getBody());
+                    cache.put(key, stored);
+                    return stored;
+                });
+    }
+
+    // Only what this instance stored recently; used to re-check after winning the in-flight race
+    Optional<StoredResponse> findCached(IdempotencyRecord.Key key) {
+        return Optional.ofNullable(cache.getIfPresent(key));
+    }
+
+    public void save(IdempotencyRecord.Key key, StoredResponse response) {
+        cache.put(key, response);
+        try {
+            repository.saveAndFlush(new IdempotencyRecord(key.getTenantId(), key.getIdempotencyKey(), response.fingerprint(),
+                    response.status(), response.contentType(), response.body(), LocalDateTime.now()));
+        } catch (DataIntegrityViolationException ex) {
+            // Another instance stored the same key first; its response is the one replayed from the table
+            log.debug("Idempotency key of tenant {} already stored", key.getTenantId());
+        }
+    }
+
+    public int purgeExpired() {
+        int deleted = repository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency records", deleted);
+        }
+        return deleted;
+    }
+}
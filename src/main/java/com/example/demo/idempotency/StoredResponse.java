@@ -0,0 +1,7 @@
+package com.example.demo.idempotency;
+
+/**
+ * The first response to an idempotent request, replayed for its retries.
+ */
+public record StoredResponse(String fingerprint, int status, String contentType, byte[] body) {
+}
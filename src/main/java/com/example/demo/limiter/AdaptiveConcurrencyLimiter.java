@@ -0,0 +1,138 @@
+package com.example.demo.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit that follows observed latency (gradient algorithm). Latency is averaged per window and
+ * compared with its long-term average: while requests take no longer than rttTolerance times the long-term
+ * average the limit grows slowly (by smoothing x sqrt(limit) per window), as latency rises beyond that it shrinks in
+ * proportion to the latency increase. When the database slows down, the limit therefore falls to what it
+ * can serve within the usual latency and everything beyond is shed instead of queueing for minutes.
+ *
+ * Requests are admitted by lane: HEAVY while in flight is under heavyShare of the limit, NORMAL under the
+ * limit, PRIORITY under the limit plus priorityHeadroom. Under pressure heavy work is shed first and login
+ * and health checks last.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Lane {
+        PRIORITY, NORMAL, HEAVY
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final double heavyShare;
+    private final double priorityHeadroom;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // Window and long-term latency, guarded by this
+    private long windowStart;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.rttTolerance = properties.getRttTolerance();
+        this.smoothing = properties.getSmoothing();
+        this.windowNanos = properties.getWindow().toNanos();
+        this.minWindowSamples = properties.getMinWindowSamples();
+        this.heavyShare = properties.getHeavyShare();
+        this.priorityHeadroom = properties.getPriorityHeadroom();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, properties.getInitialLimit()));
+        this.windowStart = System.nanoTime();
+    }
+
+    /**
+     * @return whether the request may run; if so, it must be followed by exactly one call to onComplete
+     */
+    public boolean tryAcquire(Lane lane) {
+        double current = limit;
+        int allowed = switch (lane) {
+            case PRIORITY -> (int) Math.ceil(current * (1 + priorityHeadroom));
+            case NORMAL -> (int) current;
+            case HEAVY -> Math.max(1, (int) (current * heavyShare));
+        };
+        while (true) {
+            int running = inFlight.get();
+            if (running >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(running, running + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases the request's slot and records its latency.
+     */
+    public void onComplete(long rttNanos) {
+        int running = inFlight.getAndDecrement();
+        sample(rttNanos, running, System.nanoTime());
+    }
+
+    // Gives the slot up while its request waits elsewhere (admission queue) ...
+    void suspend() {
+        inFlight.decrementAndGet();
+    }
+
+    // ... and takes it back without checking the limit: the request was admitted once and has waited its turn
+    void resume() {
+        inFlight.incrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    synchronized void sample(long rttNanos, int running, long now) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, running);
+        if (now - windowStart < windowNanos || windowSamples < minWindowSamples) {
+            return;
+        }
+        double shortRtt = (double) windowRttSum / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        update(shortRtt, maxInFlight);
+    }
+
+    private void update(double shortRtt, int maxInFlight) {
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            // Slow on purpose (a time constant of ~100 windows): a slowdown must not become the new normal within seconds
+            longRtt = longRtt * 0.99 + shortRtt * 0.01;
+        }
+        // After a slowdown the long-term average is inflated; let it recover faster once latency is back down
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.9;
+        }
+        double current = limit;
+        // Too little traffic to tell whether a higher limit would hold; keep it
+        if (maxInFlight < current / 2 && shortRtt <= longRtt * rttTolerance) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+        double estimate = current * gradient + Math.sqrt(current);
+        double next = current * (1 - smoothing) + estimate * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
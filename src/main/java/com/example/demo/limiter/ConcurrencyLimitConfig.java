@@ -0,0 +1,38 @@
+package com.example.demo.limiter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Adaptive concurrency limiting and load shedding (see ConcurrencyLimitFilter); disable with
+ * "app.concurrency-limit.enabled=false".
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "app.concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        return new AdaptiveConcurrencyLimiter(properties);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                                                                 ConcurrencyLimitProperties properties,
+                                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limiter, properties, meterRegistry.getIfAvailable()));
+        registration.addUrlPatterns("/api/*", "/actuator/*");
+        // Just before the security filter chain: shed requests cost no token validation. AdmissionFilter, further
+        // down, suspends the slot of a request while it is queued
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
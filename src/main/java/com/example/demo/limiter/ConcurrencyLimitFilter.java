@@ -0,0 +1,218 @@
+package com.example.demo.limiter;
+
+import com.example.demo.exception.DomainException;
+import com.example.demo.exception.ServerOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sheds requests over the adaptive concurrency limit (see AdaptiveConcurrencyLimiter) with an immediate 503
+ * and Retry-After, before authentication or any other work. Runs just ahead of the security filter chain;
+ * the time until the response is complete (including asynchronous processing) is the latency sample.
+ *
+ * A request waiting for per-tenant admission gives its slot up meanwhile (see suspend/resume), so one
+ * tenant's queued burst cannot fill the limit and get other tenants shed; the wait is not part of its latency.
+ *
+ * Metrics: http.server.requests.concurrency.limit and .in.flight (gauges), http.server.requests.shed (by lane).
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public static final String SHED_METRIC = "http.server.requests.shed";
+    private static final String SLOT_ATTRIBUTE = ConcurrencyLimitFilter.class.getName() + ".slot";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final DomainException overloaded;
+    private final List<LaneRule> priorityRules;
+    private final List<LaneRule> heavyRules;
+    private final Map<AdaptiveConcurrencyLimiter.Lane, Counter> shed = new EnumMap<>(AdaptiveConcurrencyLimiter.Lane.class);
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, ConcurrencyLimitProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.overloaded = new ServerOverloadedException(Math.max(1, properties.getRetryAfter().toSeconds()));
+        this.priorityRules = properties.getPriorityPaths().stream().map(LaneRule::parse).toList();
+        this.heavyRules = properties.getHeavyPaths().stream().map(LaneRule::parse).toList();
+        if (meterRegistry != null) {
+            Gauge.builder("http.server.requests.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive limit on requests in flight").register(meterRegistry);
+            Gauge.builder("http.server.requests.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Requests in flight under the adaptive limit").register(meterRegistry);
+            for (AdaptiveConcurrencyLimiter.Lane lane : AdaptiveConcurrencyLimiter.Lane.values()) {
+                shed.put(lane, Counter.builder(SHED_METRIC)
+                        .description("Requests rejected with 503 over the adaptive concurrency limit")
+                        .tag("lane", lane.name().toLowerCase())
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter.Lane lane = laneOf(request);
+        if (!limiter.tryAcquire(lane)) {
+            Counter counter = shed.get(lane);
+            if (counter != null) {
+                counter.increment();
+            }
+            reject(response);
+            return;
+        }
+
+        Slot slot = new Slot();
+        request.setAttribute(SLOT_ATTRIBUTE, slot);
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+            if (async) {
+                request.getAsyncContext().addListener(new CompletionListener(slot));
+            }
+        } finally {
+            if (!async) {
+                slot.complete();
+            }
+        }
+    }
+
+    /**
+     * Gives up the request's slot while it waits further down the chain; must be followed by resume.
+     * Does nothing for requests this filter did not admit.
+     */
+    public static void suspend(HttpServletRequest request) {
+        if (request.getAttribute(SLOT_ATTRIBUTE) instanceof Slot slot) {
+            slot.suspend();
+        }
+    }
+
+    public static void resume(HttpServletRequest request) {
+        if (request.getAttribute(SLOT_ATTRIBUTE) instanceof Slot slot) {
+            slot.resume();
+        }
+    }
+
+    AdaptiveConcurrencyLimiter.Lane laneOf(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (matchesAny(priorityRules, method, path)) {
+            return AdaptiveConcurrencyLimiter.Lane.PRIORITY;
+        }
+        if (matchesAny(heavyRules, method, path)) {
+            return AdaptiveConcurrencyLimiter.Lane.HEAVY;
+        }
+        return AdaptiveConcurrencyLimiter.Lane.NORMAL;
+    }
+
+    private boolean matchesAny(List<LaneRule> rules, String method, String path) {
+        for (LaneRule rule : rules) {
+            if ((rule.method() == null || rule.method().equals(method)) && pathMatcher.match(rule.pattern(), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        overloaded.addHeaders(headers);
+        headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setStatus(overloaded.getStatus().value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        byte[] body = overloaded.body();
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // "GET /api/workorders" or "/api/batch" (any method)
+    private record LaneRule(String method, String pattern) {
+
+        static LaneRule parse(String rule) {
+            String trimmed = rule.trim();
+            int space = trimmed.indexOf(' ');
+            return space < 0 ? new LaneRule(null, trimmed)
+                    : new LaneRule(trimmed.substring(0, space).toUpperCase(), trimmed.substring(space + 1).trim());
+        }
+    }
+
+    // An admitted request's slot; its latency sample leaves out the time it was suspended
+    private final class Slot {
+
+        private final long started = System.nanoTime();
+        private long suspendedAt;
+        private long suspendedNanos;
+        private boolean done;
+
+        synchronized void suspend() {
+            if (!done && suspendedAt == 0) {
+                suspendedAt = System.nanoTime();
+                limiter.suspend();
+            }
+        }
+
+        synchronized void resume() {
+            if (suspendedAt != 0) {
+                suspendedNanos += System.nanoTime() - suspendedAt;
+                suspendedAt = 0;
+                limiter.resume();
+            }
+        }
+
+        synchronized void complete() {
+            if (!done) {
+                resume();
+                done = true;
+                limiter.onComplete(System.nanoTime() - started - suspendedNanos);
+            }
+        }
+    }
+
+    // Async requests (GraphQL) hold their slot until the response completes
+    private static final class CompletionListener implements AsyncListener {
+
+        private final Slot slot;
+
+        CompletionListener(Slot slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            finish();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            finish();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            finish();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void finish() {
+            slot.complete();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.limiter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+    // Limit on requests in flight at startup, and the range it adapts within
+    private int initialLimit = 40;
+    private int minLimit = 8;
+    private int maxLimit = 400;
+    // Latency up to tolerance x the long-term average counts as healthy and does not lower the limit
+    private double rttTolerance = 1.5;
+    // Weight of each new limit estimate (0..1); lower values react more slowly
+    private double smoothing = 0.2;
+    // Latency samples are averaged over at least this long and this many requests before the limit changes
+    private Duration window = Duration.ofMillis(250);
+    private int minWindowSamples = 10;
+    // Share of the limit heavy requests may use; they are shed first
+    private double heavyShare = 0.7;
+    // Priority requests may exceed the limit by this share; they are shed last
+    private double priorityHeadroom = 0.25;
+    private Duration retryAfter = Duration.ofSeconds(1);
+    // Lane patterns: "METHOD /path/**" or "/path/**" for any method (Ant-style)
+    private List<String> priorityPaths = new ArrayList<>(List.of("/api/auth/**", "/actuator/health/**"));
+    private List<String> heavyPaths = new ArrayList<>(List.of(
+            "GET /api/workorders", "GET /api/properties", "GET /api/vendors",
+            "GET /api/admin/users", "GET /api/admin/users/permission-matrix", "POST /api/admin/users/provision",
+            "/api/batch", "/api/graphql"));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    public void setRttTolerance(double rttTolerance) {
+        this.rttTolerance = rttTolerance;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public int getMinWindowSamples() {
+        return minWindowSamples;
+    }
+
+    public void setMinWindowSamples(int minWindowSamples) {
+        this.minWindowSamples = minWindowSamples;
+    }
+
+    public double getHeavyShare() {
+        return heavyShare;
+    }
+
+    public void setHeavyShare(double heavyShare) {
+        this.heavyShare = heavyShare;
+    }
+
+    public double getPriorityHeadroom() {
+        return priorityHeadroom;
+    }
+
+    public void setPriorityHeadroom(double priorityHeadroom) {
+        this.priorityHeadroom = priorityHeadroom;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public List<String> getPriorityPaths() {
+        return priorityPaths;
+    }
+
+    public void setPriorityPaths(List<String> priorityPaths) {
+        this.priorityPaths = priorityPaths;
+    }
+
+    public List<String> getHeavyPaths() {
+        return heavyPaths;
+    }
+
+    public void setHeavyPaths(List<String> heavyPaths) {
+        this.heavyPaths = heavyPaths;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.metrics;
+
+import com.example.demo.datasource.ReplicaRoutingDataSource;
+import com.example.demo.datasource.TenantShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Application metrics on top of what Spring Boot records by itself (http.server.requests
+ * per endpoint, the auto-configured HikariCP pool, Hibernate statistics, JVM).
+ * Everything is exported at /actuator/prometheus; see the management.* properties.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int maxTenantTags;
+
+    public MetricsConfig(ObjectProvider<MeterRegistry> meterRegistry,
+                         @Value("${app.metrics.max-tenant-tags:100}") int maxTenantTags) {
+        this.meterRegistry = meterRegistry;
+        this.maxTenantTags = maxTenantTags;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // No registry in web slice tests (@WebMvcTest), which then run without request metrics
+        meterRegistry.ifAvailable(meters ->
+                registry.addInterceptor(new TenantRequestMetrics(meters, maxTenantTags)).addPathPatterns("/api/**"));
+    }
+
+    /**
+     * Hikari pools created by the replica and shard routers aren't beans, so Spring Boot doesn't
+     * instrument them; they report as hikaricp_* with their pool name like the default pool does.
+     */
+    @Bean
+    public MeterBinder routedPoolMetrics(ObjectProvider<ReplicaRoutingDataSource> replicaRouter,
+                                         ObjectProvider<TenantShardRoutingDataSource> shardRouter) {
+        return registry -> {
+            List<DataSource> pools = new ArrayList<>();
+            replicaRouter.ifAvailable(router -> {
+                pools.add(router.getPrimary());
+                router.getReplicas().forEach(replica -> pools.add(replica.getDataSource()));
+            });
+            shardRouter.ifAvailable(router -> pools.addAll(router.getShards().values()));
+            for (DataSource pool : pools) {
+                if (pool instanceof HikariDataSource hikari
+                        && hikari.getMetricRegistry() == null && hikari.getMetricsTrackerFactory() == null) {
+                    hikari.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                }
+            }
+        };
+    }
+
+    /**
+     * Lets SqlStatementCountFilter count the statements of each request.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounting() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements of each API request, including the user lookup done during
+ * authentication (this filter runs before the security filters).
+ *
+ * Per endpoint the count is recorded as sql.statements.per.request; requests over the statement
+ * budget, or that repeat one statement more often than the repeat threshold (likely N+1),
+ * are logged with the offending statement and counted in sql.statements.over.budget.
+ * The counts are left on the request as COUNTS_ATTRIBUTE for tests.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    public static final String COUNTS_ATTRIBUTE = SqlStatementCountFilter.class.getName() + ".counts";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementCountFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int statementBudget;
+    private final int repeatThreshold;
+
+    public SqlStatementCountFilter(ObjectProvider<MeterRegistry> meterRegistry,
+                                   @Value("${app.sql.statement-budget:20}") int statementBudget,
+                                   @Value("${app.sql.repeated-statement-threshold:5}") int repeatThreshold) {
+        this.meterRegistry = meterRegistry.getIfAvailable();
+        this.statementBudget = statementBudget;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementCounter.Counts previous = SqlStatementCounter.start();
+        SqlStatementCounter.Counts counts;
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            counts = SqlStatementCounter.stop(previous);
+            request.setAttribute(COUNTS_ATTRIBUTE, counts);
+        }
+        record(request, counts);
+    }
+
+    private void record(HttpServletRequest request, SqlStatementCounter.Counts counts) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        boolean overBudget = counts.total() > statementBudget;
+        boolean repeated = counts.maxRepeats() > repeatThreshold;
+
+        if (meterRegistry != null) {
+            DistributionSummary.builder("sql.statements.per.request")
+                    .description("SQL statements run by one request")
+                    .tag("uri", uri)
+                    .tag("method", method)
+                    .register(meterRegistry)
+                    .record(counts.total());
+            if (overBudget || repeated) {
+                meterRegistry.counter("sql.statements.over.budget", "uri", uri, "method", method,
+                        "reason", repeated ? "repeated" : "total").increment();
+            }
+        }
+        if (repeated) {
+            log.warn("{} {} repeated one SQL statement {} times ({} statements in total), likely N+1: {}",
+                    method, uri, counts.maxRepeats(), counts.total(), counts.mostRepeatedShape());
+        } else if (overBudget) {
+            log.warn("{} {} ran {} SQL statements, budget is {}; most repeated ({}x): {}",
+                    method, uri, counts.total(), statementBudget, counts.maxRepeats(), counts.mostRepeatedShape());
+        }
+    }
+}
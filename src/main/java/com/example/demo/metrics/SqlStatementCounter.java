@@ -0,0 +1,119 @@
+package com.example.demo.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while counting is active
+ * (SqlStatementCountFilter turns it on per request). Statements are also counted per SQL string,
+ * so a statement repeated once per row of an earlier result, the N+1 pattern, stands out.
+ *
+ * Only statements issued through Hibernate on the request thread are seen; JdbcTemplate
+ * and work handed to other threads (shard fan-out, provisioning) is not counted.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Starts counting on this thread; returns what the caller was counting before, if anything.
+     */
+    public static Counts start() {
+        Counts previous = CURRENT.get();
+        CURRENT.set(new Counts());
+        return previous;
+    }
+
+    /**
+     * Stops counting and returns the counts, restoring the counts that were active at start().
+     */
+    public static Counts stop(Counts previous) {
+        Counts counts = CURRENT.get();
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+        return counts == null ? new Counts() : counts;
+    }
+
+    /**
+     * Statements seen on this thread since start(), or null if nothing is being counted.
+     */
+    public static Counts current() {
+        return CURRENT.get();
+    }
+
+    public static final class Counts {
+
+        // Bounds memory for requests that run many different statements; the total is always exact
+        private static final int MAX_DISTINCT = 256;
+
+        private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+        private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+        private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+        private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+        private int total;
+        private final Map<String, Integer> bySql = new HashMap<>();
+
+        void add(String sql) {
+            total++;
+            Integer count = bySql.get(sql);
+            if (count != null) {
+                bySql.put(sql, count + 1);
+            } else if (bySql.size() < MAX_DISTINCT) {
+                bySql.put(sql, 1);
+            }
+        }
+
+        public int total() {
+            return total;
+        }
+
+        /**
+         * How often the most repeated statement ran (0 if none ran).
+         */
+        public int maxRepeats() {
+            int max = 0;
+            for (int count : bySql.values()) {
+                max = Math.max(max, count);
+            }
+            return max;
+        }
+
+        /**
+         * The most repeated statement with literals and parameter lists collapsed, or null if none ran.
+         */
+        public String mostRepeatedShape() {
+            String worst = null;
+            int max = 0;
+            for (Map.Entry<String, Integer> entry : bySql.entrySet()) {
+                if (entry.getValue() > max) {
+                    worst = entry.getKey();
+                    max = entry.getValue();
+                }
+            }
+            return worst == null ? null : shapeOf(worst);
+        }
+
+        static String shapeOf(String sql) {
+            String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+            shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+            shape = PARAMETER_LIST.matcher(shape).replaceAll("(?...)");
+            return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        }
+    }
+}
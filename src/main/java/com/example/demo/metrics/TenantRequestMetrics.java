@@ -0,0 +1,94 @@
+package com.example.demo.metrics;
+
+import com.example.demo.tenant.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts requests per tenant and outcome ("tenant.requests"), the basis for per-tenant
+ * request rates and error ratios.
+ *
+ * Only the first maxTenants tenants seen get their own tag value; later ones share
+ * tenant="other" and unauthenticated requests are tenant="none", so the number of series
+ * stays bounded. Counters are created once and cached, so recording a request is a map
+ * lookup and an increment.
+ */
+public class TenantRequestMetrics implements HandlerInterceptor {
+
+    public static final String METRIC = "tenant.requests";
+    static final String OTHER = "other";
+    static final String NONE = "none";
+
+    // Indexed by status / 100 (1xx..5xx); anything else is UNKNOWN
+    private static final String[] OUTCOMES = {"UNKNOWN", "INFORMATIONAL", "SUCCESS", "REDIRECTION", "CLIENT_ERROR", "SERVER_ERROR"};
+
+    private final MeterRegistry registry;
+    private final int maxTenants;
+    private final Map<Long, Counter[]> countersByTenant = new ConcurrentHashMap<>();
+    private final Counter[] otherCounters = new Counter[OUTCOMES.length];
+    private final Counter[] anonymousCounters = new Counter[OUTCOMES.length];
+
+    public TenantRequestMetrics(MeterRegistry registry, int maxTenants) {
+        this.registry = registry;
+        this.maxTenants = maxTenants;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        int status = response.getStatus();
+        // An exception that no handler resolved still ends up as a 500
+        record(TenantContext.currentTenantIdOrNull(), ex != null && status < 400 ? 500 : status);
+    }
+
+    public void record(Long tenantId, int status) {
+        Counter[] counters;
+        String tag;
+        if (tenantId == null) {
+            counters = anonymousCounters;
+            tag = NONE;
+        } else {
+            counters = countersByTenant.get(tenantId);
+            if (counters == null) {
+                // Once full, tenants without counters go straight to "other" without locking
+                counters = countersByTenant.size() >= maxTenants ? otherCounters : countersFor(tenantId);
+            }
+            tag = counters == otherCounters ? OTHER : tenantId.toString();
+        }
+        int outcome = outcomeIndex(status);
+        Counter counter = counters[outcome];
+        if (counter == null) {
+            // Racing threads register the same meter; the registry returns one instance
+            counter = Counter.builder(METRIC)
+                    .description("Requests per tenant and outcome")
+                    .tag("tenant", tag)
+                    .tag("outcome", OUTCOMES[outcome])
+                    .register(registry);
+            counters[outcome] = counter;
+        }
+        counter.increment();
+    }
+
+    private synchronized Counter[] countersFor(Long tenantId) {
+        Counter[] counters = countersByTenant.get(tenantId);
+        if (counters != null) {
+            return counters;
+        }
+        if (countersByTenant.size() >= maxTenants) {
+            return otherCounters;
+        }
+        counters = new Counter[OUTCOMES.length];
+        countersByTenant.put(tenantId, counters);
+        return counters;
+    }
+
+    private static int outcomeIndex(int status) {
+        int family = status / 100;
+        return family >= 1 && family <= 5 ? family : 0;
+    }
+}
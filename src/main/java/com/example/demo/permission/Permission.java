@@ -1,14 +1,20 @@
 package com.example.demo.permission;
 
+import com.example.demo.cache.CacheRegions;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.EqualsAndHashCode; // Import for Set equality
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
 @Entity
 @Data
 @NoArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true) // Important for Set operations
+@Immutable // Permissions are inserted by the catalogue and never renamed, which READ_ONLY caching relies on
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CacheRegions.PERMISSION)
 public class Permission {
 
     @Id
@@ -0,0 +1,183 @@
+package com.example.demo.permission;
+
+import com.example.demo.exception.ForbiddenException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory copy of the permission table. The catalogue only changes at deploy time,
+ * so registration and permission updates resolve names here instead of querying.
+ *
+ * Lookups read an immutable snapshot; seeding new permissions writes them in one batch
+ * and swaps in a freshly loaded snapshot. Each permission also gets a bit position for compact
+ * masks (see maskOf); masks grow with the catalogue, so there is no limit on its size.
+ *
+ * The platform permission is never handed out from here: tenants grant permissions by name
+ * (updates, bulk changes, role templates, provisioning), so it is derived from configuration
+ * instead (app.platform.operators, see CustomUserDetailsService).
+ */
+@Component
+public class PermissionCatalog {
+
+    // Cross-tenant operations (shards, shared caches, JFR, actuator)
+    public static final String PLATFORM_PERMISSION = "PERMISSION_MANAGE_PLATFORM";
+
+    // Names come from requests, so a stream of unknown names reloads the catalogue at most this often
+    static final Duration MISS_REFRESH_INTERVAL = Duration.ofSeconds(5);
+
+    private static final String INSERT_IF_MISSING =
+            "INSERT INTO permission (name) SELECT ? WHERE NOT EXISTS (SELECT 1 FROM permission WHERE name = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long missRefreshIntervalNanos;
+    private final AtomicLong lastMissRefresh;
+    private volatile Snapshot snapshot = new Snapshot(Map.of());
+
+    @Autowired
+    public PermissionCatalog(DataSource dataSource) {
+        this(dataSource, MISS_REFRESH_INTERVAL);
+    }
+
+    PermissionCatalog(DataSource dataSource, Duration missRefreshInterval) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.missRefreshIntervalNanos = missRefreshInterval.toNanos();
+        // The first miss always reloads
+        this.lastMissRefresh = new AtomicLong(System.nanoTime() - missRefreshIntervalNanos);
+    }
+
+    /**
+     * Inserts the permissions that don't exist yet in a single batch, then reloads the catalogue.
+     */
+    public synchronized void seed(Collection<String> names) {
+        List<Object[]> batch = new ArrayList<>(names.size());
+        for (String name : names) {
+            batch.add(new Object[]{name, name});
+        }
+        jdbcTemplate.batchUpdate(INSERT_IF_MISSING, batch);
+        refresh();
+    }
+
+    /**
+     * Reloads the catalogue from the database.
+     */
+    public synchronized void refresh() {
+        Map<String, Long> idsByName = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM permission ORDER BY id",
+                rs -> {
+                    idsByName.put(rs.getString("name"), rs.getLong("id"));
+                });
+        snapshot = new Snapshot(idsByName);
+    }
+
+    public Optional<Long> idOf(String name) {
+        return Optional.ofNullable(snapshot.idsByName.get(name));
+    }
+
+    /**
+     * Bit position of the permission, for compact permission masks. Bits are handed out in id order,
+     * so existing bits never change when permissions are added.
+     */
+    public Optional<Integer> bitOf(String name) {
+        return Optional.ofNullable(snapshot.bitsByName.get(name));
+    }
+
+    public BitSet maskOf(Collection<String> names) {
+        Snapshot current = snapshot;
+        BitSet mask = new BitSet(current.names.size());
+        for (String name : names) {
+            Integer bit = current.bitsByName.get(name);
+            if (bit == null) {
+                throw new IllegalArgumentException("Unknown permission: " + name);
+            }
+            mask.set(bit);
+        }
+        return mask;
+    }
+
+    public List<String> names() {
+        return snapshot.names;
+    }
+
+    /**
+     * Permission entities for the given names, skipping unknown names. If a name is missing
+     * the catalogue is reloaded once, in case another instance added it, unless a miss already
+     * reloaded it within MISS_REFRESH_INTERVAL. Asking for the platform permission is refused.
+     */
+    public Set<Permission> resolve(Collection<String> names) {
+        if (names.contains(PLATFORM_PERMISSION)) {
+            throw ForbiddenException.PLATFORM_PERMISSION;
+        }
+        Snapshot current = snapshot;
+        if (!current.idsByName.keySet().containsAll(names) && claimMissRefresh()) {
+            refresh();
+            current = snapshot;
+        }
+        Set<Permission> permissions = new HashSet<>();
+        for (String name : names) {
+            Long id = current.idsByName.get(name);
+            if (id != null) {
+                permissions.add(current.toEntity(name));
+            }
+        }
+        return permissions;
+    }
+
+    /**
+     * Every permission in the catalogue that tenants may hold, i.e. all but the platform permission.
+     */
+    public Set<Permission> all() {
+        Snapshot current = snapshot;
+        Set<Permission> permissions = new HashSet<>();
+        for (String name : current.names) {
+            if (!name.equals(PLATFORM_PERMISSION)) {
+                permissions.add(current.toEntity(name));
+            }
+        }
+        return permissions;
+    }
+
+    // True for one caller once the interval since the last miss-driven reload has passed
+    private boolean claimMissRefresh() {
+        long now = System.nanoTime();
+        long last = lastMissRefresh.get();
+        return now - last >= missRefreshIntervalNanos && lastMissRefresh.compareAndSet(last, now);
+    }
+
+    private static final class Snapshot {
+
+        private final Map<String, Long> idsByName;
+        private final Map<String, Integer> bitsByName;
+        private final List<String> names;
+
+        Snapshot(Map<String, Long> idsInIdOrder) {
+            Map<String, Integer> bits = new LinkedHashMap<>();
+            for (String name : idsInIdOrder.keySet()) {
+                bits.put(name, bits.size());
+            }
+            this.idsByName = Map.copyOf(idsInIdOrder);
+            this.bitsByName = Map.copyOf(bits);
+            this.names = List.copyOf(idsInIdOrder.keySet());
+        }
+
+        // A new detached instance per call; Hibernate only needs the id to write the join row
+        Permission toEntity(String name) {
+            Permission permission = new Permission(name);
+            permission.setId(idsByName.get(name));
+            return permission;
+        }
+    }
+}
@@ -24,32 +24,34 @@ public class PropertyController {
     }
 
     @PostMapping
-    public ResponseEntity<Property> createProperty(@Valid @RequestBody Property property) {
+    public ResponseEntity<PropertyResponse> createProperty(@Valid @RequestBody Property property) {
         // --- The @Valid annotation triggers validation ---
         Property savedProperty = propertyService.createProperty(property);
-        return new ResponseEntity<>(savedProperty, HttpStatus.CREATED);
+        return new ResponseEntity<>(PropertyResponse.of(savedProperty), HttpStatus.CREATED);
     }
 
     @GetMapping
-    public List<Property> getAllProperties() {
-        return propertyService.getAllProperties();
+    public List<PropertyResponse> getAllProperties() {
+        return propertyService.getAllProperties().stream().map(PropertyResponse::of).toList();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Property> getPropertyById(@PathVariable Long id) {
+    public ResponseEntity<PropertyResponse> getPropertyById(@PathVariable Long id) {
         Optional<Property> propertyOptional = propertyService.getPropertyById(id);
 
         return propertyOptional
+                .map(PropertyResponse::of)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Property> updateProperty(@PathVariable Long id, @Valid @RequestBody Property propertyDetails) {
+    public ResponseEntity<PropertyResponse> updateProperty(@PathVariable Long id, @Valid @RequestBody Property propertyDetails) {
         // --- Also add @Valid to the update method ---
         Optional<Property> updatedPropertyOptional = propertyService.updateProperty(id, propertyDetails);
 
         return updatedPropertyOptional
+                .map(PropertyResponse::of)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -1,8 +1,10 @@
 package com.example.demo.property;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,11 +21,24 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
      */
     List<Property> findAllByTenantId(Long tenantId);
 
+    /**
+     * One page of a tenant's properties.
+     */
+    List<Property> findAllByTenantId(Long tenantId, Pageable pageable);
+
+    /**
+     * The tenant's properties among the given ids, in one IN (...) query. Ids of other tenants are skipped.
+     */
+    List<Property> findAllByTenantIdAndIdIn(Long tenantId, Collection<Long> ids);
+
     /**
      * Finds a specific property by its ID, but only if it belongs to the specified tenant.
      * Replaces the generic findById().
      */
-    Optional<Property> findByIdAndTenantId(Long id, Long tenantId);
+    default Optional<Property> findByIdAndTenantId(Long id, Long tenantId) {
+        // Loads by primary key so the second-level cache is used, then checks ownership
+        return findById(id).filter(property -> tenantId.equals(property.getTenantId()));
+    }
 
     /**
      * Checks if a property exists by its ID and belongs to the specified tenant.
@@ -0,0 +1,72 @@
+package com.example.demo.property;
+
+import com.example.demo.columnar.ColumnarSchema;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * What the API returns for a property, written field by field by Writer instead of by reflection.
+ */
+@JsonSerialize(using = PropertyResponse.Writer.class)
+public record PropertyResponse(Long id, String address, String type, int bedrooms, int bathrooms, Long tenantId) {
+
+    public static final ColumnarSchema<PropertyResponse> COLUMNS = ColumnarSchema.of(PropertyResponse.class)
+            .column("id", PropertyResponse::id)
+            .column("address", PropertyResponse::address)
+            .dictionary("type", PropertyResponse::type)
+            .column("bedrooms", PropertyResponse::bedrooms)
+            .column("bathrooms", PropertyResponse::bathrooms)
+            .dictionary("tenantId", PropertyResponse::tenantId)
+            .build();
+
+    public static PropertyResponse of(Property property) {
+        return new PropertyResponse(property.getId(), property.getAddress(), property.getType(),
+                property.getBedrooms(), property.getBathrooms(), property.getTenantId());
+    }
+
+    public static final class Writer extends StdSerializer<PropertyResponse> {
+
+        // Field names are quoted and encoded once, not per response
+        private static final SerializedString ID = new SerializedString("id");
+        private static final SerializedString ADDRESS = new SerializedString("address");
+        private static final SerializedString TYPE = new SerializedString("type");
+        private static final SerializedString BEDROOMS = new SerializedString("bedrooms");
+        private static final SerializedString BATHROOMS = new SerializedString("bathrooms");
+        private static final SerializedString TENANT_ID = new SerializedString("tenantId");
+
+        public Writer() {
+            super(PropertyResponse.class);
+        }
+
+        @Override
+        public void serialize(PropertyResponse property, JsonGenerator json, SerializerProvider provider) throws IOException {
+            json.writeStartObject(property);
+            json.writeFieldName(ID);
+            writeNumber(json, property.id());
+            json.writeFieldName(ADDRESS);
+            json.writeString(property.address());
+            json.writeFieldName(TYPE);
+            json.writeString(property.type());
+            json.writeFieldName(BEDROOMS);
+            json.writeNumber(property.bedrooms());
+            json.writeFieldName(BATHROOMS);
+            json.writeNumber(property.bathrooms());
+            json.writeFieldName(TENANT_ID);
+            writeNumber(json, property.tenantId());
+            json.writeEndObject();
+        }
+
+        private static void writeNumber(JsonGenerator json, Long value) throws IOException {
+            if (value == null) {
+                json.writeNull();
+            } else {
+                json.writeNumber(value);
+            }
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.example.demo.property;
 
+import com.example.demo.datasource.TenantSharded;
+import com.example.demo.diagnostics.TenantResolutionEvent;
+import com.example.demo.exception.AuthenticationRequiredException;
 import com.example.demo.user.User; // Import User
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize; // Import PreAuthorize
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -8,10 +13,12 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional; // Import Transactional
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@TenantSharded // Routed to the tenant's shard when sharding is enabled
 public class PropertyService {
 
     private final PropertyRepository propertyRepository;
@@ -22,24 +29,41 @@ public class PropertyService {
 
     // --- Helper method to get current user's tenant ID ---
     private Long getCurrentTenantId() {
+        TenantResolutionEvent event = TenantResolutionEvent.begin("PropertyService");
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated() || authentication.getPrincipal().equals("anonymousUser")) {
-            throw new IllegalStateException("User must be authenticated to perform this action.");
+            throw AuthenticationRequiredException.INSTANCE;
         }
         Object principal = authentication.getPrincipal();
         if (principal instanceof User) {
-            return ((User) principal).getTenantId();
+            return event.resolved(((User) principal).getTenantId());
         } else {
             throw new IllegalStateException("Authentication principal is not the expected User type.");
         }
     }
 
     // No specific auth needed beyond being logged in for tenant
+    @Transactional(readOnly = true)
     public List<Property> getAllProperties() {
         Long tenantId = getCurrentTenantId();
         return propertyRepository.findAllByTenantId(tenantId);
     }
 
+    // The first properties by id, for clients that page (GraphQL)
+    @Transactional(readOnly = true)
+    public List<Property> getProperties(int limit) {
+        Long tenantId = getCurrentTenantId();
+        return propertyRepository.findAllByTenantId(tenantId, PageRequest.of(0, limit, Sort.by("id")));
+    }
+
+    // Batch lookup for data loaders; ids outside the tenant are silently skipped
+    @Transactional(readOnly = true)
+    public List<Property> getPropertiesByIds(Collection<Long> ids) {
+        Long tenantId = getCurrentTenantId();
+        return ids.isEmpty() ? List.of() : propertyRepository.findAllByTenantIdAndIdIn(tenantId, ids);
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Property> getPropertyById(Long id) {
         Long tenantId = getCurrentTenantId();
         return propertyRepository.findByIdAndTenantId(id, tenantId);
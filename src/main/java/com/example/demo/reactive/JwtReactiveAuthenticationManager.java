@@ -0,0 +1,94 @@
+package com.example.demo.reactive;
+
+import com.example.demo.diagnostics.JwtValidationEvent;
+import com.example.demo.user.JwtTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The reactive counterpart of JwtAuthenticationFilter: the Bearer token is validated and its user loaded
+ * into a UsernamePasswordAuthenticationToken with the user's permissions, timed under the same
+ * security.jwt.authentication metric. Loading the user goes through the JPA UserDetailsService, so it runs on
+ * the bounded elastic scheduler rather than on a server thread.
+ */
+public class JwtReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserDetailsService userDetailsService;
+    private final Timer authenticatedTimer;
+    private final Timer rejectedTimer;
+
+    public JwtReactiveAuthenticationManager(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService,
+                                            MeterRegistry meterRegistry) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.userDetailsService = userDetailsService;
+        this.authenticatedTimer = authenticationTimer(meterRegistry, "authenticated");
+        this.rejectedTimer = authenticationTimer(meterRegistry, "rejected");
+    }
+
+    private static Timer authenticationTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("security.jwt.authentication")
+                .description("JWT validation and user loading per request")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reads the token from "Authorization: Bearer ..."; requests without one stay anonymous.
+     */
+    public static ServerAuthenticationConverter bearerTokenConverter() {
+        return exchange -> Mono.justOrEmpty(tokenOf(exchange))
+                .map(token -> new UsernamePasswordAuthenticationToken(token, token));
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        String token = (String) authentication.getCredentials();
+        long start = System.nanoTime();
+        return Mono.fromCallable(() -> load(token))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnSuccess(result -> authenticatedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                .doOnError(ex -> rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    private Authentication load(String token) {
+        if (!validate(token)) {
+            throw new BadCredentialsException("Invalid JWT token");
+        }
+        UserDetails userDetails = userDetailsService.loadUserByUsername(jwtTokenProvider.getUsernameFromToken(token));
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private boolean validate(String token) {
+        JwtValidationEvent event = new JwtValidationEvent();
+        event.begin();
+        boolean valid = jwtTokenProvider.validateToken(token);
+        event.end();
+        if (event.shouldCommit()) {
+            event.valid = valid;
+            event.commit();
+        }
+        return valid;
+    }
+
+    private static String tokenOf(ServerWebExchange exchange) {
+        String bearerToken = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (bearerToken != null && bearerToken.startsWith("Bearer ") && bearerToken.length() > 7) {
+            return bearerToken.substring(7);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.demo.reactive;
+
+import com.example.demo.exception.DomainException;
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.user.JwtTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.authentication.ServerAuthenticationEntryPointFailureHandler;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * The non-blocking read stack, active when the application runs as a reactive web application
+ * (profile "reactive", see application-reactive.properties). It serves GET /api/properties,
+ * /api/vendors and /api/workorders, each with /{id}, from R2DBC (ReactiveReadRepository) behind JWT
+ * authentication (JwtReactiveAuthenticationManager). Every other API path is denied: writes, GraphQL,
+ * batch and admin stay on the servlet stack, which writes the data this stack reads.
+ *
+ * The R2DBC connection pool is not exposed as a ConnectionFactory bean, since its presence would make
+ * Boot back off from the JDBC DataSource that JPA (users, schema) still runs on. Tenant sharding and
+ * replica routing are not applied here; the stack reads the one database in app.reactive.url.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableWebFluxSecurity
+@EnableMethodSecurity
+@EnableConfigurationProperties(ReactiveReadProperties.class)
+public class ReactiveReadConfig {
+
+    // SecurityConfig is servlet-only; the shared services and controllers still expect these two
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
+    @Bean
+    public AuthenticationManager authenticationManager(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        return new ProviderManager(provider);
+    }
+
+    @Bean
+    public JwtReactiveAuthenticationManager jwtReactiveAuthenticationManager(JwtTokenProvider jwtTokenProvider,
+                                                                             UserDetailsService userDetailsService,
+                                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        return new JwtReactiveAuthenticationManager(jwtTokenProvider, userDetailsService,
+                meterRegistry.getIfAvailable(CompositeMeterRegistry::new));
+    }
+
+    // The pool is closed with the repository that owns it
+    @Bean
+    public ReactiveReadRepository reactiveReadRepository(ReactiveReadProperties properties) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate()
+                .option(ConnectionFactoryOptions.USER, properties.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, properties.getPassword())
+                .build();
+        return new ReactiveReadRepository(new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive-read")
+                .initialSize(properties.getInitialPoolSize())
+                .maxSize(properties.getMaxPoolSize())
+                .maxAcquireTime(properties.getMaxAcquireTime())
+                .build()));
+    }
+
+    @Bean
+    public ReactiveReadHandler reactiveReadHandler(ReactiveReadRepository repository, ReactiveReadProperties properties) {
+        return new ReactiveReadHandler(repository, properties.getPrefetch());
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveReadRoutes(ReactiveReadHandler handler) {
+        return route()
+                .GET("/api/properties", handler::listProperties)
+                .GET("/api/properties/{id}", handler::getProperty)
+                .GET("/api/vendors", handler::listVendors)
+                .GET("/api/vendors/{id}", handler::getVendor)
+                .GET("/api/workorders", handler::listWorkOrders)
+                .GET("/api/workorders/{id}", handler::getWorkOrder)
+                .onError(DomainException.class, (ex, request) -> {
+                    DomainException domainException = (DomainException) ex;
+                    return ServerResponse.status(domainException.getStatus())
+                            .headers(domainException::addHeaders)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue(domainException.body());
+                })
+                .build();
+    }
+
+    // Prometheus scrapes with HTTP Basic as a platform operator (app.platform.operators), as on the servlet stack
+    @Bean
+    @Order(1)
+    public SecurityWebFilterChain prometheusSecurityWebFilterChain(ServerHttpSecurity http,
+                                                                   JwtReactiveAuthenticationManager authenticationManager,
+                                                                   UserDetailsService userDetailsService,
+                                                                   PasswordEncoder passwordEncoder) {
+        // The user store is JPA, so lookups run off the event loop
+        ReactiveUserDetailsService users = username -> Mono.fromCallable(() -> userDetailsService.loadUserByUsername(username))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(UsernameNotFoundException.class, ex -> Mono.empty());
+        UserDetailsRepositoryReactiveAuthenticationManager basicAuthentication = new UserDetailsRepositoryReactiveAuthenticationManager(users);
+        basicAuthentication.setPasswordEncoder(passwordEncoder);
+
+        return http
+                .securityMatcher(ServerWebExchangeMatchers.pathMatchers("/actuator/prometheus"))
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .logout(ServerHttpSecurity.LogoutSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .httpBasic(basic -> basic
+                        .authenticationManager(basicAuthentication)
+                        .securityContextRepository(NoOpServerSecurityContextRepository.getInstance()))
+                .addFilterAt(jwtAuthentication(authenticationManager, new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .authorizeExchange(exchanges -> exchanges.anyExchange().hasAuthority(PermissionCatalog.PLATFORM_PERMISSION))
+                .build();
+    }
+
+    @Bean
+    @Order(2)
+    public SecurityWebFilterChain reactiveSecurityFilterChain(ServerHttpSecurity http,
+                                                              JwtReactiveAuthenticationManager authenticationManager) {
+        // Missing, invalid or expired tokens get 403, as on the servlet stack
+        HttpStatusServerEntryPoint forbidden = new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN);
+
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .logout(ServerHttpSecurity.LogoutSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(forbidden))
+                .addFilterAt(jwtAuthentication(authenticationManager, forbidden), SecurityWebFiltersOrder.AUTHENTICATION)
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/actuator/health/**").permitAll()
+                        .pathMatchers(HttpMethod.GET,
+                                "/api/properties", "/api/properties/*",
+                                "/api/vendors", "/api/vendors/*",
+                                "/api/workorders", "/api/workorders/*").authenticated()
+                        .anyExchange().denyAll())
+                .build();
+    }
+
+    private static AuthenticationWebFilter jwtAuthentication(JwtReactiveAuthenticationManager authenticationManager,
+                                                             HttpStatusServerEntryPoint failure) {
+        AuthenticationWebFilter jwtAuthentication = new AuthenticationWebFilter(authenticationManager);
+        jwtAuthentication.setServerAuthenticationConverter(JwtReactiveAuthenticationManager.bearerTokenConverter());
+        jwtAuthentication.setAuthenticationFailureHandler(new ServerAuthenticationEntryPointFailureHandler(failure));
+        // Stateless: the token is checked on every request and nothing is kept between them
+        jwtAuthentication.setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+        return jwtAuthentication;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.reactive;
+
+import com.example.demo.exception.AuthenticationRequiredException;
+import com.example.demo.user.User;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * GET handlers for the reactive read stack. The tenant comes from the authenticated User, as in the
+ * servlet services, and unknown ids (or ids of another tenant) are 404.
+ *
+ * Lists are written as they are read: a JSON array element by element, or one object per line for
+ * application/x-ndjson. The database is asked for at most prefetch rows beyond what the client has
+ * accepted, so a slow reader holds back the query instead of filling the heap.
+ */
+public class ReactiveReadHandler {
+
+    private final ReactiveReadRepository repository;
+    private final int prefetch;
+
+    public ReactiveReadHandler(ReactiveReadRepository repository, int prefetch) {
+        this.repository = repository;
+        this.prefetch = prefetch;
+    }
+
+    public Mono<ServerResponse> listProperties(ServerRequest request) {
+        return list(request, repository::findProperties);
+    }
+
+    public Mono<ServerResponse> getProperty(ServerRequest request) {
+        return one(request, repository::findProperty);
+    }
+
+    public Mono<ServerResponse> listVendors(ServerRequest request) {
+        return list(request, repository::findVendors);
+    }
+
+    public Mono<ServerResponse> getVendor(ServerRequest request) {
+        return one(request, repository::findVendor);
+    }
+
+    public Mono<ServerResponse> listWorkOrders(ServerRequest request) {
+        return list(request, repository::findWorkOrders);
+    }
+
+    public Mono<ServerResponse> getWorkOrder(ServerRequest request) {
+        return one(request, repository::findWorkOrder);
+    }
+
+    private <T> Mono<ServerResponse> list(ServerRequest request, Function<Long, Flux<T>> query) {
+        MediaType contentType = listType(request);
+        return currentTenantId().flatMap(tenantId -> {
+            Flux<T> rows = query.apply(tenantId).limitRate(prefetch);
+            return ServerResponse.ok().contentType(contentType).body(rows, Object.class);
+        });
+    }
+
+    private <T> Mono<ServerResponse> one(ServerRequest request, BiFunction<Long, Long, Mono<T>> query) {
+        Long id;
+        try {
+            id = Long.valueOf(request.pathVariable("id"));
+        } catch (NumberFormatException ex) {
+            return ServerResponse.badRequest().build();
+        }
+        return currentTenantId()
+                .flatMap(tenantId -> query.apply(id, tenantId))
+                .flatMap(row -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(row))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    // NDJSON only when asked for explicitly; anything else gets the JSON array the servlet stack returns
+    private static MediaType listType(ServerRequest request) {
+        for (MediaType accepted : request.headers().accept()) {
+            if (MediaType.APPLICATION_NDJSON.isCompatibleWith(accepted) && !accepted.isWildcardType()) {
+                return MediaType.APPLICATION_NDJSON;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    private static Mono<Long> currentTenantId() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .map(Authentication::getPrincipal)
+                .ofType(User.class)
+                .map(User::getTenantId)
+                .switchIfEmpty(Mono.error(AuthenticationRequiredException.INSTANCE));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.reactive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.reactive")
+public class ReactiveReadProperties {
+
+    // R2DBC URL of the database the JPA side writes to (same H2 in-memory database locally)
+    private String url = "r2dbc:h2:mem:///testdb";
+    private String username = "sa";
+    private String password = "";
+    // Connection pool; a connection is held only while a query's rows are being read
+    private int initialPoolSize = 4;
+    private int maxPoolSize = 20;
+    private Duration maxAcquireTime = Duration.ofSeconds(5);
+    // Rows requested from the database at a time while streaming a list to a slow client
+    private int prefetch = 256;
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getInitialPoolSize() {
+        return initialPoolSize;
+    }
+
+    public void setInitialPoolSize(int initialPoolSize) {
+        this.initialPoolSize = initialPoolSize;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public Duration getMaxAcquireTime() {
+        return maxAcquireTime;
+    }
+
+    public void setMaxAcquireTime(Duration maxAcquireTime) {
+        this.maxAcquireTime = maxAcquireTime;
+    }
+
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    public void setPrefetch(int prefetch) {
+        this.prefetch = prefetch;
+    }
+}
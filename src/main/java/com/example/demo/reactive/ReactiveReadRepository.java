@@ -0,0 +1,101 @@
+package com.example.demo.reactive;
+
+import com.example.demo.property.PropertyResponse;
+import com.example.demo.vendor.VendorResponse;
+import com.example.demo.workorder.WorkOrderResponse;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * The tenant-scoped reads of PropertyRepository, VendorRepository and WorkOrderRepository over R2DBC,
+ * mapped straight to the API response records. Lists are ordered by id and emitted row by row as the
+ * subscriber requests them; nothing is collected in memory.
+ */
+public class ReactiveReadRepository implements AutoCloseable {
+
+    private static final String PROPERTY_COLUMNS = "id, address, type, bedrooms, bathrooms, tenant_id";
+    private static final String VENDOR_COLUMNS = "id, name, specialty, phone, tenant_id";
+    private static final String WORK_ORDER_COLUMNS =
+            "id, description, status, property_id, vendor_id, created_at, updated_at, tenant_id";
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+
+    public ReactiveReadRepository(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+        this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void close() {
+        connectionPool.dispose();
+    }
+
+    public Flux<PropertyResponse> findProperties(Long tenantId) {
+        return databaseClient.sql("SELECT " + PROPERTY_COLUMNS + " FROM property WHERE tenant_id = :tenantId ORDER BY id")
+                .bind("tenantId", tenantId)
+                .map(ReactiveReadRepository::property)
+                .all();
+    }
+
+    public Mono<PropertyResponse> findProperty(Long id, Long tenantId) {
+        return databaseClient.sql("SELECT " + PROPERTY_COLUMNS + " FROM property WHERE id = :id AND tenant_id = :tenantId")
+                .bind("id", id)
+                .bind("tenantId", tenantId)
+                .map(ReactiveReadRepository::property)
+                .one();
+    }
+
+    public Flux<VendorResponse> findVendors(Long tenantId) {
+        return databaseClient.sql("SELECT " + VENDOR_COLUMNS + " FROM vendor WHERE tenant_id = :tenantId ORDER BY id")
+                .bind("tenantId", tenantId)
+                .map(ReactiveReadRepository::vendor)
+                .all();
+    }
+
+    public Mono<VendorResponse> findVendor(Long id, Long tenantId) {
+        return databaseClient.sql("SELECT " + VENDOR_COLUMNS + " FROM vendor WHERE id = :id AND tenant_id = :tenantId")
+                .bind("id", id)
+                .bind("tenantId", tenantId)
+                .map(ReactiveReadRepository::vendor)
+                .one();
+    }
+
+    public Flux<WorkOrderResponse> findWorkOrders(Long tenantId) {
+        return databaseClient.sql("SELECT " + WORK_ORDER_COLUMNS + " FROM work_order WHERE tenant_id = :tenantId ORDER BY id")
+                .bind("tenantId", tenantId)
+                .map(ReactiveReadRepository::workOrder)
+                .all();
+    }
+
+    public Mono<WorkOrderResponse> findWorkOrder(Long id, Long tenantId) {
+        return databaseClient.sql("SELECT " + WORK_ORDER_COLUMNS + " FROM work_order WHERE id = :id AND tenant_id = :tenantId")
+                .bind("id", id)
+                .bind("tenantId", tenantId)
+                .map(ReactiveReadRepository::workOrder)
+                .one();
+    }
+
+    private static PropertyResponse property(Readable row) {
+        return new PropertyResponse(row.get("id", Long.class), row.get("address", String.class),
+                row.get("type", String.class), row.get("bedrooms", Integer.class), row.get("bathrooms", Integer.class),
+                row.get("tenant_id", Long.class));
+    }
+
+    private static VendorResponse vendor(Readable row) {
+        return new VendorResponse(row.get("id", Long.class), row.get("name", String.class),
+                row.get("specialty", String.class), row.get("phone", String.class), row.get("tenant_id", Long.class));
+    }
+
+    private static WorkOrderResponse workOrder(Readable row) {
+        return new WorkOrderResponse(row.get("id", Long.class), row.get("description", String.class),
+                row.get("status", String.class), row.get("property_id", Long.class), row.get("vendor_id", Long.class),
+                row.get("created_at", LocalDateTime.class), row.get("updated_at", LocalDateTime.class),
+                row.get("tenant_id", Long.class));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.role;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * A permission granted to a user directly rather than through a role template.
+ * The user's effective permissions (user_permissions) are the union of these and
+ * the permissions of the user's templates. Only written with set-based SQL.
+ */
+@Entity
+@Table(name = "user_direct_permissions")
+@IdClass(DirectPermissionGrant.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DirectPermissionGrant {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "permission_id")
+    private Long permissionId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Long permissionId;
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.demo.role;
+
+import com.example.demo.cache.SecondLevelCacheService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based maintenance of direct grants, role template assignments and the effective
+ * permission closure (user_permissions, which is what authentication reads).
+ *
+ * Every statement handles any number of users at once and only touches rows that change;
+ * callers recompute the closure for the users they affected, nobody else's.
+ */
+@Repository
+@Transactional(propagation = Propagation.MANDATORY)
+public class PermissionAssignmentStore {
+
+    // Users without templates may have had user_permissions written directly (registration, provisioning).
+    // For them the effective set is by definition the direct set, so it is adopted before any change.
+    private static final String ADOPT_MISSING_DIRECT_GRANTS = """
+            INSERT INTO user_direct_permissions (user_id, permission_id)
+            SELECT up.user_id, up.permission_id FROM user_permissions up
+            WHERE up.user_id IN (:userIds)
+              AND NOT EXISTS (SELECT 1 FROM user_role_assignment a WHERE a.user_id = up.user_id)
+              AND NOT EXISTS (SELECT 1 FROM user_direct_permissions g
+                              WHERE g.user_id = up.user_id AND g.permission_id = up.permission_id)""";
+
+    private static final String ADOPT_REMOVED_DIRECT_GRANTS = """
+            DELETE FROM user_direct_permissions g
+            WHERE g.user_id IN (:userIds)
+              AND NOT EXISTS (SELECT 1 FROM user_role_assignment a WHERE a.user_id = g.user_id)
+              AND NOT EXISTS (SELECT 1 FROM user_permissions up
+                              WHERE up.user_id = g.user_id AND up.permission_id = g.permission_id)""";
+
+    private static final String GRANT_DIRECT = """
+            INSERT INTO user_direct_permissions (user_id, permission_id)
+            SELECT u.id, p.id FROM app_user u CROSS JOIN permission p
+            WHERE u.id IN (:userIds) AND p.id IN (:permissionIds)
+              AND NOT EXISTS (SELECT 1 FROM user_direct_permissions g
+                              WHERE g.user_id = u.id AND g.permission_id = p.id)""";
+
+    private static final String REVOKE_DIRECT = """
+            DELETE FROM user_direct_permissions
+            WHERE user_id IN (:userIds) AND permission_id IN (:permissionIds)""";
+
+    private static final String REVOKE_DIRECT_EXCEPT = """
+            DELETE FROM user_direct_permissions
+            WHERE user_id IN (:userIds) AND permission_id NOT IN (:permissionIds)""";
+
+    private static final String REVOKE_ALL_DIRECT = """
+            DELETE FROM user_direct_permissions WHERE user_id IN (:userIds)""";
+
+    private static final String ASSIGN_TEMPLATES = """
+            INSERT INTO user_role_assignment (user_id, role_template_id)
+            SELECT u.id, t.id FROM app_user u CROSS JOIN role_template t
+            WHERE u.id IN (:userIds) AND t.id IN (:templateIds)
+              AND NOT EXISTS (SELECT 1 FROM user_role_assignment a
+                              WHERE a.user_id = u.id AND a.role_template_id = t.id)""";
+
+    private static final String UNASSIGN_TEMPLATES = """
+            DELETE FROM user_role_assignment
+            WHERE user_id IN (:userIds) AND role_template_id IN (:templateIds)""";
+
+    // Closure = direct grants UNION template permissions; insert what's missing, delete what's no longer granted
+    private static final String INSERT_MISSING_EFFECTIVE = """
+            INSERT INTO user_permissions (user_id, permission_id)
+            SELECT d.user_id, d.permission_id FROM (
+                SELECT g.user_id, g.permission_id FROM user_direct_permissions g WHERE g.user_id IN (:userIds)
+                UNION
+                SELECT a.user_id, rp.permission_id FROM user_role_assignment a
+                JOIN role_template_permissions rp ON rp.role_template_id = a.role_template_id
+                WHERE a.user_id IN (:userIds)
+            ) d
+            WHERE NOT EXISTS (SELECT 1 FROM user_permissions up
+                              WHERE up.user_id = d.user_id AND up.permission_id = d.permission_id)""";
+
+    private static final String DELETE_REVOKED_EFFECTIVE = """
+            DELETE FROM user_permissions up
+            WHERE up.user_id IN (:userIds)
+              AND NOT EXISTS (SELECT 1 FROM user_direct_permissions g
+                              WHERE g.user_id = up.user_id AND g.permission_id = up.permission_id)
+              AND NOT EXISTS (SELECT 1 FROM user_role_assignment a
+                              JOIN role_template_permissions rp ON rp.role_template_id = a.role_template_id
+                              WHERE a.user_id = up.user_id AND rp.permission_id = up.permission_id)""";
+
+    // Hibernate evicts every cache region a native statement might touch unless told otherwise;
+    // this (uncached) table keeps that away from the permission cache, which is evicted per user instead
+    private static final String QUERY_SPACE = "user_direct_permissions";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final SecondLevelCacheService secondLevelCacheService;
+
+    public PermissionAssignmentStore(SecondLevelCacheService secondLevelCacheService) {
+        this.secondLevelCacheService = secondLevelCacheService;
+    }
+
+    public void adoptDirectGrants(Collection<Long> userIds) {
+        execute(ADOPT_MISSING_DIRECT_GRANTS, Map.of("userIds", userIds));
+        execute(ADOPT_REMOVED_DIRECT_GRANTS, Map.of("userIds", userIds));
+    }
+
+    public int grantDirect(Collection<Long> userIds, Collection<Long> permissionIds) {
+        return permissionIds.isEmpty() ? 0 : execute(GRANT_DIRECT, Map.of("userIds", userIds, "permissionIds", permissionIds));
+    }
+
+    public int revokeDirect(Collection<Long> userIds, Collection<Long> permissionIds) {
+        return permissionIds.isEmpty() ? 0 : execute(REVOKE_DIRECT, Map.of("userIds", userIds, "permissionIds", permissionIds));
+    }
+
+    /**
+     * Makes the direct grants of the users exactly the given permissions, touching only the difference.
+     */
+    public void replaceDirect(Collection<Long> userIds, Collection<Long> permissionIds) {
+        if (permissionIds.isEmpty()) {
+            execute(REVOKE_ALL_DIRECT, Map.of("userIds", userIds));
+            return;
+        }
+        execute(REVOKE_DIRECT_EXCEPT, Map.of("userIds", userIds, "permissionIds", permissionIds));
+        grantDirect(userIds, permissionIds);
+    }
+
+    public int assignTemplates(Collection<Long> userIds, Collection<Long> templateIds) {
+        return templateIds.isEmpty() ? 0 : execute(ASSIGN_TEMPLATES, Map.of("userIds", userIds, "templateIds", templateIds));
+    }
+
+    public int unassignTemplates(Collection<Long> userIds, Collection<Long> templateIds) {
+        return templateIds.isEmpty() ? 0 : execute(UNASSIGN_TEMPLATES, Map.of("userIds", userIds, "templateIds", templateIds));
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Long> usersAssignedTo(Long templateId) {
+        List<Number> ids = entityManager.createNativeQuery(
+                        "SELECT user_id FROM user_role_assignment WHERE role_template_id = :templateId")
+                .setParameter("templateId", templateId)
+                .getResultList();
+        return ids.stream().map(Number::longValue).collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<Long, Long> countMembers(Collection<Long> templateIds) {
+        if (templateIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Object[]> rows = entityManager.createNativeQuery("""
+                        SELECT role_template_id, COUNT(*) FROM user_role_assignment
+                        WHERE role_template_id IN (:templateIds) GROUP BY role_template_id""")
+                .setParameter("templateIds", templateIds)
+                .getResultList();
+        return rows.stream().collect(Collectors.toMap(
+                row -> ((Number) row[0]).longValue(), row -> ((Number) row[1]).longValue()));
+    }
+
+    public long countUsersInTenant(Collection<Long> userIds, Long tenantId) {
+        return ((Number) entityManager.createNativeQuery(
+                        "SELECT COUNT(*) FROM app_user WHERE tenant_id = :tenantId AND id IN (:userIds)")
+                .setParameter("tenantId", tenantId)
+                .setParameter("userIds", userIds)
+                .getSingleResult()).longValue();
+    }
+
+    public boolean hasEffectivePermission(Long userId, String permissionName) {
+        return ((Number) entityManager.createNativeQuery("""
+                        SELECT COUNT(*) FROM user_permissions up JOIN permission p ON p.id = up.permission_id
+                        WHERE up.user_id = :userId AND p.name = :name""")
+                .setParameter("userId", userId)
+                .setParameter("name", permissionName)
+                .getSingleResult()).longValue() > 0;
+    }
+
+    /**
+     * Brings user_permissions of the given users in line with their direct grants and templates,
+     * and drops their cached permission sets. Returns the number of rows inserted and deleted.
+     */
+    public ClosureChange recomputeClosure(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return new ClosureChange(0, 0);
+        }
+        entityManager.flush(); // Template changes made through JPA must be visible to the SQL below
+        int inserted = execute(INSERT_MISSING_EFFECTIVE, Map.of("userIds", userIds));
+        int deleted = execute(DELETE_REVOKED_EFFECTIVE, Map.of("userIds", userIds));
+        evictCachedPermissions(userIds);
+        return new ClosureChange(inserted, deleted);
+    }
+
+    /**
+     * Reloads a user whose permissions were changed with SQL in this transaction.
+     */
+    public void refresh(Object entity) {
+        entityManager.refresh(entity);
+    }
+
+    private void evictCachedPermissions(Collection<Long> userIds) {
+        List<Long> ids = List.copyOf(userIds);
+        secondLevelCacheService.evictUserPermissions(ids);
+        // Again after commit, in case a concurrent request cached the old set in between
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                secondLevelCacheService.evictUserPermissions(ids);
+            }
+        });
+    }
+
+    private int execute(String sql, Map<String, Object> parameters) {
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        query.addSynchronizedQuerySpace(QUERY_SPACE);
+        parameters.forEach(query::setParameter);
+        return query.executeUpdate();
+    }
+
+    public record ClosureChange(int inserted, int deleted) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.role;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * A user's membership in a role template. Only written with set-based SQL
+ * (see PermissionAssignmentStore); mapped so the schema is generated with the others.
+ */
+@Entity
+@Table(name = "user_role_assignment")
+@IdClass(RoleAssignment.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleAssignment {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "role_template_id")
+    private Long roleTemplateId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Long roleTemplateId;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.role;
+
+import com.example.demo.permission.Permission;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A named set of permissions within a tenant. Users assigned to a template hold its
+ * permissions in addition to their directly granted ones.
+ */
+@Entity
+@Table(name = "role_template", uniqueConstraints = @UniqueConstraint(columnNames = {"tenant_id", "name"}))
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(exclude = "permissions")
+@ToString(exclude = "permissions")
+public class RoleTemplate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    @Column(nullable = false, length = 64)
+    private String name;
+
+    @ManyToMany(fetch = FetchType.EAGER)
+    @JoinTable(
+            name = "role_template_permissions",
+            joinColumns = @JoinColumn(name = "role_template_id"),
+            inverseJoinColumns = @JoinColumn(name = "permission_id")
+    )
+    private Set<Permission> permissions = new HashSet<>();
+
+    public RoleTemplate(Long tenantId, String name) {
+        this.tenantId = tenantId;
+        this.name = name;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.role;
+
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/roles")
+@PreAuthorize("hasAuthority('PERMISSION_MANAGE_USERS')")
+public class RoleTemplateController {
+
+    private final RoleTemplateService roleTemplateService;
+
+    public RoleTemplateController(RoleTemplateService roleTemplateService) {
+        this.roleTemplateService = roleTemplateService;
+    }
+
+    /**
+     * Lists the role templates of the admin's tenant with their permissions and member counts.
+     */
+    @GetMapping
+    public ResponseEntity<List<RoleTemplateSummary>> getTemplates() {
+        return ResponseEntity.ok(roleTemplateService.listTemplates());
+    }
+
+    /**
+     * Creates a role template or replaces its permissions; members are updated in the same transaction.
+     */
+    @PutMapping("/{name}")
+    public ResponseEntity<RoleTemplateSummary> saveTemplate(@PathVariable String name,
+                                                            @Valid @RequestBody RoleTemplateRequest request) {
+        return ResponseEntity.ok(roleTemplateService.saveTemplate(name, request.getPermissionNames()));
+    }
+
+    @DeleteMapping("/{name}")
+    public ResponseEntity<Void> deleteTemplate(@PathVariable String name) {
+        return roleTemplateService.deleteTemplate(name)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
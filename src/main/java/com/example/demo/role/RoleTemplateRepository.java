@@ -0,0 +1,21 @@
+package com.example.demo.role;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RoleTemplateRepository extends JpaRepository<RoleTemplate, Long> {
+
+    // Fetches the permissions in the same query instead of one select per template
+    @EntityGraph(attributePaths = "permissions")
+    List<RoleTemplate> findAllByTenantIdOrderByName(Long tenantId);
+
+    Optional<RoleTemplate> findByTenantIdAndName(Long tenantId, String name);
+
+    List<RoleTemplate> findAllByTenantIdAndNameIn(Long tenantId, Collection<String> names);
+}
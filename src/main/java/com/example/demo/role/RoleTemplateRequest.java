@@ -0,0 +1,17 @@
+package com.example.demo.role;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleTemplateRequest {
+
+    @NotNull(message = "permissionNames is mandatory")
+    private Set<String> permissionNames;
+}
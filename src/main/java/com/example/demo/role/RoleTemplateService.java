@@ -0,0 +1,133 @@
+package com.example.demo.role;
+
+import com.example.demo.diagnostics.TenantResolutionEvent;
+import com.example.demo.exception.AuthenticationRequiredException;
+import com.example.demo.exception.ForbiddenException;
+import com.example.demo.exception.InvalidRequestException;
+import com.example.demo.permission.Permission;
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.user.User;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Named permission sets per tenant. Changing or deleting a template recomputes the
+ * effective permissions of its members only.
+ */
+@Service
+public class RoleTemplateService {
+
+    private static final int MAX_NAME_LENGTH = 64;
+    private static final String PERMISSION_MANAGE_USERS = "PERMISSION_MANAGE_USERS";
+
+    private final RoleTemplateRepository roleTemplateRepository;
+    private final PermissionAssignmentStore assignmentStore;
+    private final PermissionCatalog permissionCatalog;
+
+    public RoleTemplateService(RoleTemplateRepository roleTemplateRepository,
+                               PermissionAssignmentStore assignmentStore,
+                               PermissionCatalog permissionCatalog) {
+        this.roleTemplateRepository = roleTemplateRepository;
+        this.assignmentStore = assignmentStore;
+        this.permissionCatalog = permissionCatalog;
+    }
+
+    // Helper method to get the current user
+    private User getCurrentUser() {
+        TenantResolutionEvent event = TenantResolutionEvent.begin("RoleTemplateService");
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication.getPrincipal().equals("anonymousUser")) {
+            throw AuthenticationRequiredException.INSTANCE;
+        }
+        if (authentication.getPrincipal() instanceof User user) {
+            event.resolved(user.getTenantId());
+            return user;
+        }
+        throw new IllegalStateException("Authentication principal is not the expected User type.");
+    }
+
+    // Helper method to get current user's tenant ID
+    private Long getCurrentTenantId() {
+        return getCurrentUser().getTenantId();
+    }
+
+    @Transactional(readOnly = true)
+    public List<RoleTemplateSummary> listTemplates() {
+        List<RoleTemplate> templates = roleTemplateRepository.findAllByTenantIdOrderByName(getCurrentTenantId());
+        Map<Long, Long> members = assignmentStore.countMembers(
+                templates.stream().map(RoleTemplate::getId).collect(Collectors.toList()));
+        return templates.stream()
+                .map(template -> toSummary(template, members.getOrDefault(template.getId(), 0L)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates the template or replaces its permissions, then recomputes the permissions of its members.
+     */
+    @Transactional
+    public RoleTemplateSummary saveTemplate(String name, Set<String> permissionNames) {
+        if (name == null || name.isBlank() || name.length() > MAX_NAME_LENGTH) {
+            throw new InvalidRequestException("Role template name must be 1 to " + MAX_NAME_LENGTH + " characters.");
+        }
+        Set<Permission> permissions = permissionCatalog.resolve(permissionNames);
+        if (permissions.size() != permissionNames.size()) {
+            throw InvalidRequestException.UNKNOWN_PERMISSION;
+        }
+        Long tenantId = getCurrentTenantId();
+        RoleTemplate template = roleTemplateRepository.findByTenantIdAndName(tenantId, name)
+                .orElseGet(() -> roleTemplateRepository.save(new RoleTemplate(tenantId, name)));
+
+        // Modify the managed set in place so Hibernate only writes the rows that changed
+        template.getPermissions().retainAll(permissions);
+        template.getPermissions().addAll(permissions);
+
+        List<Long> members = assignmentStore.usersAssignedTo(template.getId());
+        assignmentStore.recomputeClosure(members);
+        preventSelfLockout(members);
+        return toSummary(template, members.size());
+    }
+
+    /**
+     * Deletes the template; its members keep only their direct grants and other templates.
+     * Returns false if there is no such template in the tenant.
+     */
+    @Transactional
+    public boolean deleteTemplate(String name) {
+        return roleTemplateRepository.findByTenantIdAndName(getCurrentTenantId(), name)
+                .map(template -> {
+                    List<Long> members = assignmentStore.usersAssignedTo(template.getId());
+                    if (!members.isEmpty()) {
+                        assignmentStore.unassignTemplates(members, List.of(template.getId()));
+                    }
+                    roleTemplateRepository.delete(template);
+                    assignmentStore.recomputeClosure(members);
+                    preventSelfLockout(members);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    // Same rule as bulk changes: an admin may not edit a template so that they lose user management
+    private void preventSelfLockout(Collection<Long> changedUserIds) {
+        Long adminId = getCurrentUser().getId();
+        if (changedUserIds.contains(adminId) && !assignmentStore.hasEffectivePermission(adminId, PERMISSION_MANAGE_USERS)) {
+            throw new ForbiddenException("Admin cannot remove their own user management permission.");
+        }
+    }
+
+    private static RoleTemplateSummary toSummary(RoleTemplate template, long members) {
+        List<String> permissions = template.getPermissions().stream()
+                .map(Permission::getName)
+                .sorted()
+                .collect(Collectors.toList());
+        return new RoleTemplateSummary(template.getId(), template.getName(), permissions, members);
+    }
+}
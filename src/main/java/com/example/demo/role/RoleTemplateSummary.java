@@ -0,0 +1,18 @@
+package com.example.demo.role;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleTemplateSummary {
+
+    private Long id;
+    private String name;
+    private List<String> permissions;
+    private long members;
+}
@@ -1,13 +1,17 @@
 package com.example.demo.tenant;
 
+import com.example.demo.cache.CacheRegions;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "tenants")
 @Data // Adds getters, setters, toString, equals, hashCode
 @NoArgsConstructor
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.TENANT)
 public class Tenant {
 
     @Id
@@ -0,0 +1,31 @@
+package com.example.demo.tenant;
+
+import com.example.demo.user.User;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Looks up the tenant of the currently authenticated user without throwing.
+ * Infrastructure code (routing, metrics, ...) uses this where "no tenant"
+ * is a normal answer; services keep their own strict getCurrentTenantId().
+ */
+public final class TenantContext {
+
+    private TenantContext() {
+    }
+
+    /**
+     * @return the authenticated user's tenant id, or null if there is no authenticated User principal.
+     */
+    public static Long currentTenantIdOrNull() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof User) {
+            return ((User) principal).getTenantId();
+        }
+        return null;
+    }
+}
@@ -1,8 +1,6 @@
 package com.example.demo.user;
 
-import com.example.demo.exception.UserAlreadyExistsException;
 import jakarta.validation.Valid;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -10,8 +8,6 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Map; // Import Map
-
 @RestController
 @RequestMapping("/api/auth") // Base path for authentication endpoints
 public class AuthController {
@@ -31,10 +27,10 @@ public class AuthController {
     }
 
     @PostMapping("/register")
-    public ResponseEntity<User> registerUser(@Valid @RequestBody UserRegistrationRequest registrationRequest) {
+    public ResponseEntity<UserResponse> registerUser(@Valid @RequestBody UserRegistrationRequest registrationRequest) {
         User registeredUser = authService.registerNewUser(registrationRequest);
         // Typically return 200 OK or 201 Created for registration
-        return ResponseEntity.ok(registeredUser);
+        return ResponseEntity.ok(UserResponse.of(registeredUser));
     }
 
     @PostMapping("/login")
@@ -56,13 +52,5 @@ public class AuthController {
         // Return the token in the response body
         return ResponseEntity.ok(new LoginResponse(jwt));
     }
-
-    // Exception handler specific to this controller (optional, can be global)
-    // Updated to return a JSON object (Map) instead of a String
-    @ExceptionHandler(UserAlreadyExistsException.class)
-    @ResponseStatus(HttpStatus.CONFLICT) // Set HTTP status to 409 Conflict
-    public Map<String, String> handleUserAlreadyExists(UserAlreadyExistsException ex) {
-        return Map.of("message", ex.getMessage());
-    }
 }
 
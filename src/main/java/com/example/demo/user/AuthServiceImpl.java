@@ -2,7 +2,7 @@ package com.example.demo.user;
 
 import com.example.demo.exception.UserAlreadyExistsException;
 import com.example.demo.permission.Permission; // Import Permission
-import com.example.demo.permission.PermissionRepository; // Import PermissionRepository
+import com.example.demo.permission.PermissionCatalog;
 import com.example.demo.tenant.Tenant;
 import com.example.demo.tenant.TenantRepository;
 import jakarta.annotation.PostConstruct; // Import PostConstruct
@@ -21,7 +21,10 @@ public class AuthServiceImpl implements AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final TenantRepository tenantRepository;
-    private final PermissionRepository permissionRepository; // Inject PermissionRepository
+    private final PermissionCatalog permissionCatalog; // Permissions are resolved in memory
+
+    // Set once a registration has seen an existing tenant and user
+    private volatile boolean bootstrapped;
 
     // Constants for default permissions
     public static final String DEFAULT_USER_PERMISSION = "PERMISSION_READ_OWN_DATA";
@@ -30,35 +33,27 @@ public class AuthServiceImpl implements AuthService {
     public static final String PERMISSION_DELETE_WORK_ORDER = "PERMISSION_DELETE_WORK_ORDER";
     public static final String PERMISSION_DELETE_PROPERTY = "PERMISSION_DELETE_PROPERTY"; // Add constant
 
+    // Seeded on startup; the first user of a tenant gets all of them
+    public static final List<String> DEFAULT_PERMISSIONS = List.of(DEFAULT_USER_PERMISSION, PERMISSION_MANAGE_USERS,
+            PERMISSION_DELETE_VENDOR, PERMISSION_DELETE_WORK_ORDER, PERMISSION_DELETE_PROPERTY);
+
 
     // Updated Constructor
     public AuthServiceImpl(UserRepository userRepository,
                            PasswordEncoder passwordEncoder,
                            TenantRepository tenantRepository,
-                           PermissionRepository permissionRepository) { // Add permissionRepository
+                           PermissionCatalog permissionCatalog) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.tenantRepository = tenantRepository;
-        this.permissionRepository = permissionRepository; // Assign permissionRepository
+        this.permissionCatalog = permissionCatalog;
     }
 
     // --- Ensure default permissions exist on startup ---
+    // One batched insert of the missing permissions, then the catalogue is loaded into memory
     @PostConstruct
-    @Transactional
     public void initPermissions() {
-        findOrCreatePermission(DEFAULT_USER_PERMISSION);
-        // Add other essential permissions
-        findOrCreatePermission(PERMISSION_MANAGE_USERS);
-        findOrCreatePermission(PERMISSION_DELETE_VENDOR);
-        findOrCreatePermission(PERMISSION_DELETE_WORK_ORDER);
-        // --- ADD THE MISSING PERMISSION CHECK ---
-        findOrCreatePermission(PERMISSION_DELETE_PROPERTY);
-        // --- END FIX ---
-    }
-
-    private Permission findOrCreatePermission(String name) {
-        return permissionRepository.findByName(name)
-                .orElseGet(() -> permissionRepository.save(new Permission(name)));
+        permissionCatalog.seed(DEFAULT_PERMISSIONS);
     }
     // --- End permission initialization ---
 
@@ -66,18 +61,18 @@ public class AuthServiceImpl implements AuthService {
     @Override
     @Transactional
     public User registerNewUser(UserRegistrationRequest registrationRequest) {
-        // 1. Check if user already exists
-        Optional<User> existingUser = userRepository.findByUsername(registrationRequest.getUsername());
-        if (existingUser.isPresent()) {
+        // 1. Check if user already exists (an existence probe; the user and its permissions aren't loaded)
+        if (userRepository.existsByUsername(registrationRequest.getUsername())) {
             throw new UserAlreadyExistsException("User with email " + registrationRequest.getUsername() + " already exists.");
         }
 
         // --- Determine or Create Tenant ---
+        // Existence probes instead of full-table counts, and none at all once the first tenant and user exist
+        boolean firstTenant = !bootstrapped && !tenantRepository.existsByNameIsNotNull();
         Long tenantIdToAssign;
         Tenant tenantToAssign; // Keep track of the tenant object
-        long tenantCount = tenantRepository.count();
 
-        if (tenantCount == 0) {
+        if (firstTenant) {
             // First user registration - create a new tenant
             String tenantName = extractTenantName(registrationRequest.getUsername());
             Optional<Tenant> existingTenantOpt = tenantRepository.findByName(tenantName);
@@ -107,15 +102,18 @@ public class AuthServiceImpl implements AuthService {
 
         // --- Assign Default Permissions ---
         Set<Permission> defaultPermissions = new HashSet<>();
-        // Find the essential 'user' permission
-        Permission userPermission = findOrCreatePermission(DEFAULT_USER_PERMISSION);
-        defaultPermissions.add(userPermission);
+        // The essential 'user' permission, from the in-memory catalogue
+        defaultPermissions.addAll(permissionCatalog.resolve(Set.of(DEFAULT_USER_PERMISSION)));
 
         // If this is the very first user ever (implicitly the first admin)
         // Or if the tenant was just created for this user (first user of tenant)
         // Give them admin permissions as well
-        if (userRepository.count() == 0 || (tenantCount == 0 && tenantToAssign.getId().equals(tenantIdToAssign))) {
-            defaultPermissions.addAll(permissionRepository.findAll()); // Give all defined permissions
+        boolean firstUser = firstTenant || (!bootstrapped && !userRepository.existsByIdIsNotNull());
+        if (firstUser) {
+            defaultPermissions.addAll(permissionCatalog.all()); // Give all defined permissions
+        } else {
+            // Both probes found committed rows; tenants and users are never deleted, so stop probing
+            bootstrapped = true;
         }
 
         newUser.setPermissions(defaultPermissions);
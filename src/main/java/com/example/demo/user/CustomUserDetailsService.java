@@ -1,25 +1,43 @@
 package com.example.demo.user;
 
+import com.example.demo.diagnostics.UserLoadEvent;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Set;
+
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    // Usernames of platform operators; the only source of PERMISSION_MANAGE_PLATFORM, tenants cannot write it
+    private final Set<String> platformOperators;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${app.platform.operators:}") Set<String> platformOperators) {
         this.userRepository = userRepository;
+        this.platformOperators = Set.copyOf(platformOperators);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserLoadEvent event = new UserLoadEvent();
+        event.begin();
         // Fetch the User entity from the repository using the username (email)
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() ->
-                        new UsernameNotFoundException("User not found with username: " + username));
+        User user = userRepository.findByUsername(username).orElse(null);
+        event.end();
+        if (event.shouldCommit()) {
+            event.found = user != null;
+            event.permissions = user != null ? user.getPermissions().size() : 0;
+            event.commit();
+        }
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found with username: " + username);
+        }
+        user.setPlatformOperator(platformOperators.contains(user.getUsername()));
 
         // The User entity itself now implements UserDetails correctly.
         // It maps its Set<Permission> to Collection<GrantedAuthority> internally.
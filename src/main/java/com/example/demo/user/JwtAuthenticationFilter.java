@@ -1,9 +1,15 @@
 package com.example.demo.user;
 
+import com.example.demo.diagnostics.JwtValidationEvent;
+import com.example.demo.diagnostics.RequestTracer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,6 +20,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -21,43 +28,86 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService) {
+    // Time spent authenticating the request (token parsing and user lookup), not the rest of the chain
+    private final Timer authenticatedTimer;
+    private final Timer rejectedTimer;
+    private final Timer anonymousTimer;
+
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService,
+                                   ObjectProvider<MeterRegistry> meterRegistryProvider) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        // Web slice tests have no registry; an empty composite registry hands out no-op timers
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(CompositeMeterRegistry::new);
+        this.authenticatedTimer = authenticationTimer(meterRegistry, "authenticated");
+        this.rejectedTimer = authenticationTimer(meterRegistry, "rejected");
+        this.anonymousTimer = authenticationTimer(meterRegistry, "anonymous");
+    }
+
+    private static Timer authenticationTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("security.jwt.authentication")
+                .description("JWT validation and user loading per request")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        // 1. Get JWT token from the request header
-        String token = getTokenFromRequest(request);
+        long start = System.nanoTime();
+        Timer timer = anonymousTimer;
+        int span = RequestTracer.start("JwtAuthenticationFilter");
+        try {
+            // 1. Get JWT token from the request header
+            String token = getTokenFromRequest(request);
+            if (StringUtils.hasText(token)) {
+                timer = rejectedTimer;
+            }
 
-        // 2. Validate the token
-        if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-            // 3. Get username from token
-            String username = jwtTokenProvider.getUsernameFromToken(token);
+            // 2. Validate the token
+            if (StringUtils.hasText(token) && validate(token)) {
+                // 3. Get username from token
+                String username = jwtTokenProvider.getUsernameFromToken(token);
 
-            // 4. Load the user associated with the token
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // 4. Load the user associated with the token
+                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
-            // 5. Create an authentication object
-            UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                    userDetails,
-                    null,
-                    userDetails.getAuthorities()
-            );
+                // 5. Create an authentication object
+                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
 
-            authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-            // 6. Set the user in the SecurityContext (This makes the user "logged in" for this request)
-            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                // 6. Set the user in the SecurityContext (This makes the user "logged in" for this request)
+                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                timer = authenticatedTimer;
+            }
+        } finally {
+            // Also when loading the user fails (e.g. it was deleted): recorded as rejected
+            RequestTracer.end(span);
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
 
         // Continue the filter chain
         filterChain.doFilter(request, response);
     }
 
+    private boolean validate(String token) {
+        JwtValidationEvent event = new JwtValidationEvent();
+        event.begin();
+        boolean valid = jwtTokenProvider.validateToken(token);
+        event.end();
+        if (event.shouldCommit()) {
+            event.valid = valid;
+            event.commit();
+        }
+        return valid;
+    }
+
     private String getTokenFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
 
@@ -3,6 +3,8 @@ package com.example.demo.user;
 // --- ADD THIS IMPORT ---
 import com.example.demo.permission.Permission; // Import Permission
 // --- END ADD IMPORT ---
+import com.example.demo.cache.CacheRegions;
+import com.example.demo.permission.PermissionCatalog;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -10,12 +12,15 @@ import lombok.Data;
 import lombok.EqualsAndHashCode; // Import for Set equality
 import lombok.NoArgsConstructor;
 import lombok.ToString; // Import for avoiding recursion in toString
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.HashSet; // Import HashSet
+import java.util.List;
 import java.util.Set;     // Import Set
 import java.util.stream.Collectors; // Import Collectors
 
@@ -23,7 +28,7 @@ import java.util.stream.Collectors; // Import Collectors
 @Table(name = "app_user")
 @Data
 @NoArgsConstructor
-@EqualsAndHashCode(exclude = "permissions") // Exclude collections from equals/hashCode
+@EqualsAndHashCode(exclude = {"permissions", "platformOperator"}) // Exclude collections from equals/hashCode
 @ToString(exclude = "permissions") // Exclude collections from toString to prevent recursion
 public class User implements UserDetails {
 
@@ -42,6 +47,7 @@ public class User implements UserDetails {
 
     // --- Permissions Relationship ---
     @ManyToMany(fetch = FetchType.EAGER) // Load permissions eagerly with the user
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USER_PERMISSIONS) // Loaded on every authenticated request
     @JoinTable(
             name = "user_permissions",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -54,14 +60,25 @@ public class User implements UserDetails {
     @Column(name = "tenant_id", nullable = false)
     private Long tenantId;
 
+    // Set from configuration when the user is loaded for authentication (app.platform.operators), never stored
+    @Transient
+    private boolean platformOperator;
+
     // --- UserDetails Methods ---
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        // Map permissions to Spring Security GrantedAuthority objects
-        return permissions.stream()
-                .map(permission -> new SimpleGrantedAuthority(permission.getName()))
+        // Map permissions to Spring Security GrantedAuthority objects; a platform permission row
+        // in the database counts for nothing, only configured operators get the authority
+        List<GrantedAuthority> authorities = permissions.stream()
+                .map(Permission::getName)
+                .filter(name -> !name.equals(PermissionCatalog.PLATFORM_PERMISSION))
+                .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toList());
+        if (platformOperator) {
+            authorities.add(new SimpleGrantedAuthority(PermissionCatalog.PLATFORM_PERMISSION));
+        }
+        return authorities;
     }
 
 
@@ -1,15 +1,32 @@
 package com.example.demo.user;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List; // Import List
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     // Finds a user by their username (email)
     Optional<User> findByUsername(String username);
 
+    boolean existsByUsername(String username);
+
+    // Whether any user exists at all (a single-row probe, unlike count())
+    boolean existsByIdIsNotNull();
+
+    /**
+     * Which of the given usernames are already taken, in one query.
+     */
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
     // --- NEW METHODS FOR ADMIN SERVICE ---
 
     /**
@@ -22,5 +39,39 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * This ensures an admin from one tenant cannot access a user from another.
      */
     Optional<User> findByIdAndTenantId(Long id, Long tenantId);
-}
 
+    // --- Admin listing: users and their permissions in two statements ---
+
+    /**
+     * One page of a tenant's users whose username starts with the prefix.
+     * Only id and username are selected, so the eager permission collection is not loaded;
+     * a Slice fetches one extra row instead of running a count query.
+     */
+    Slice<UsernameView> findByTenantIdAndUsernameStartingWith(Long tenantId, String usernamePrefix, Pageable pageable);
+
+    /**
+     * Permission names of the given users, in a single join query.
+     */
+    @Query("select u.id as userId, p.name as permission from User u join u.permissions p where u.id in :userIds")
+    List<PermissionGrantView> findPermissionGrantsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Every permission grant in a tenant, streamed for aggregation (requires a transaction).
+     */
+    @Query("select u.id as userId, p.name as permission from User u join u.permissions p where u.tenantId = :tenantId")
+    Stream<PermissionGrantView> streamPermissionGrantsByTenantId(@Param("tenantId") Long tenantId);
+
+    long countByTenantId(Long tenantId);
+
+    interface UsernameView {
+        Long getId();
+
+        String getUsername();
+    }
+
+    interface PermissionGrantView {
+        Long getUserId();
+
+        String getPermission();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.user;
+
+import com.example.demo.permission.Permission;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * What the API returns for a user: never the password hash or the UserDetails flags.
+ */
+@JsonSerialize(using = UserResponse.Writer.class)
+public record UserResponse(Long id, String username, Long tenantId, List<PermissionResponse> permissions) {
+
+    public static UserResponse of(User user) {
+        List<PermissionResponse> permissions = user.getPermissions().stream()
+                .sorted(Comparator.comparing(Permission::getName))
+                .map(permission -> new PermissionResponse(permission.getId(), permission.getName()))
+                .toList();
+        return new UserResponse(user.getId(), user.getUsername(), user.getTenantId(), permissions);
+    }
+
+    public record PermissionResponse(Long id, String name) {
+    }
+
+    public static final class Writer extends StdSerializer<UserResponse> {
+
+        private static final SerializedString ID = new SerializedString("id");
+        private static final SerializedString USERNAME = new SerializedString("username");
+        private static final SerializedString TENANT_ID = new SerializedString("tenantId");
+        private static final SerializedString PERMISSIONS = new SerializedString("permissions");
+        private static final SerializedString NAME = new SerializedString("name");
+
+        public Writer() {
+            super(UserResponse.class);
+        }
+
+        @Override
+        public void serialize(UserResponse user, JsonGenerator json, SerializerProvider provider) throws IOException {
+            json.writeStartObject(user);
+            json.writeFieldName(ID);
+            writeNumber(json, user.id());
+            json.writeFieldName(USERNAME);
+            json.writeString(user.username());
+            json.writeFieldName(TENANT_ID);
+            writeNumber(json, user.tenantId());
+            json.writeFieldName(PERMISSIONS);
+            json.writeStartArray(user.permissions(), user.permissions().size());
+            for (PermissionResponse permission : user.permissions()) {
+                json.writeStartObject(permission);
+                json.writeFieldName(ID);
+                writeNumber(json, permission.id());
+                json.writeFieldName(NAME);
+                json.writeString(permission.name());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+
+        private static void writeNumber(JsonGenerator json, Long value) throws IOException {
+            if (value == null) {
+                json.writeNull();
+            } else {
+                json.writeNumber(value);
+            }
+        }
+    }
+}
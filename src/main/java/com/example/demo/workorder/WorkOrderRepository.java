@@ -1,5 +1,6 @@
 package com.example.demo.workorder;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -17,6 +18,11 @@ public interface WorkOrderRepository extends JpaRepository<WorkOrder, Long> {
      */
     List<WorkOrder> findAllByTenantId(Long tenantId);
 
+    /**
+     * One page of a tenant's work orders.
+     */
+    List<WorkOrder> findAllByTenantId(Long tenantId, Pageable pageable);
+
     /**
      * Finds a specific work order by its ID, but only if it belongs to the specified tenant.
      * Replaces the generic findById().
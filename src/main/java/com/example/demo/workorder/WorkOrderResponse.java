@@ -0,0 +1,99 @@
+package com.example.demo.workorder;
+
+import com.example.demo.columnar.ColumnarSchema;
+import com.example.demo.columnar.IsoDateTimes;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * What the API returns for a work order. The property and vendor are referenced by id, which Hibernate
+ * knows without initializing the lazy associations, so lists cost one query however long they are.
+ */
+@JsonSerialize(using = WorkOrderResponse.Writer.class)
+public record WorkOrderResponse(Long id, String description, String status, Long propertyId, Long vendorId,
+                                LocalDateTime createdAt, LocalDateTime updatedAt, Long tenantId) {
+
+    public static final ColumnarSchema<WorkOrderResponse> COLUMNS = ColumnarSchema.of(WorkOrderResponse.class)
+            .column("id", WorkOrderResponse::id)
+            .column("description", WorkOrderResponse::description)
+            .dictionary("status", WorkOrderResponse::status)
+            .column("propertyId", WorkOrderResponse::propertyId)
+            .column("vendorId", WorkOrderResponse::vendorId)
+            .column("createdAt", WorkOrderResponse::createdAt)
+            .column("updatedAt", WorkOrderResponse::updatedAt)
+            .dictionary("tenantId", WorkOrderResponse::tenantId)
+            .build();
+
+    public static WorkOrderResponse of(WorkOrder workOrder) {
+        return new WorkOrderResponse(workOrder.getId(), workOrder.getDescription(), workOrder.getStatus(),
+                workOrder.getProperty() != null ? workOrder.getProperty().getId() : null,
+                workOrder.getVendor() != null ? workOrder.getVendor().getId() : null,
+                workOrder.getCreatedAt(), workOrder.getUpdatedAt(), workOrder.getTenantId());
+    }
+
+    public static final class Writer extends StdSerializer<WorkOrderResponse> {
+
+        private static final SerializedString ID = new SerializedString("id");
+        private static final SerializedString DESCRIPTION = new SerializedString("description");
+        private static final SerializedString STATUS = new SerializedString("status");
+        private static final SerializedString PROPERTY_ID = new SerializedString("propertyId");
+        private static final SerializedString VENDOR_ID = new SerializedString("vendorId");
+        private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+        private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+        private static final SerializedString TENANT_ID = new SerializedString("tenantId");
+
+        // Nearly every work order has one of a handful of statuses; those values are encoded once too
+        private static final Map<String, SerializedString> STATUSES = Map.of(
+                "PENDING", new SerializedString("PENDING"),
+                "IN_PROGRESS", new SerializedString("IN_PROGRESS"),
+                "COMPLETED", new SerializedString("COMPLETED"),
+                "DONE", new SerializedString("DONE"),
+                "CANCELLED", new SerializedString("CANCELLED"));
+
+        public Writer() {
+            super(WorkOrderResponse.class);
+        }
+
+        @Override
+        public void serialize(WorkOrderResponse workOrder, JsonGenerator json, SerializerProvider provider) throws IOException {
+            json.writeStartObject(workOrder);
+            json.writeFieldName(ID);
+            writeNumber(json, workOrder.id());
+            json.writeFieldName(DESCRIPTION);
+            json.writeString(workOrder.description());
+            json.writeFieldName(STATUS);
+            SerializedString status = workOrder.status() != null ? STATUSES.get(workOrder.status()) : null;
+            if (status != null) {
+                json.writeString(status);
+            } else {
+                json.writeString(workOrder.status());
+            }
+            json.writeFieldName(PROPERTY_ID);
+            writeNumber(json, workOrder.propertyId());
+            json.writeFieldName(VENDOR_ID);
+            writeNumber(json, workOrder.vendorId());
+            json.writeFieldName(CREATED_AT);
+            IsoDateTimes.write(json, workOrder.createdAt());
+            json.writeFieldName(UPDATED_AT);
+            IsoDateTimes.write(json, workOrder.updatedAt());
+            json.writeFieldName(TENANT_ID);
+            writeNumber(json, workOrder.tenantId());
+            json.writeEndObject();
+        }
+
+        private static void writeNumber(JsonGenerator json, Long value) throws IOException {
+            if (value == null) {
+                json.writeNull();
+            } else {
+                json.writeNumber(value);
+            }
+        }
+    }
+}
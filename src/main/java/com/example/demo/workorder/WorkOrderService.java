@@ -1,11 +1,16 @@
 package com.example.demo.workorder;
 
+import com.example.demo.datasource.TenantSharded;
+import com.example.demo.diagnostics.TenantResolutionEvent;
+import com.example.demo.exception.AuthenticationRequiredException;
+import com.example.demo.exception.ForbiddenException;
 import com.example.demo.property.Property;
 import com.example.demo.property.PropertyRepository;
 import com.example.demo.user.User;
 import com.example.demo.vendor.Vendor;
 import com.example.demo.vendor.VendorRepository;
-import org.springframework.security.access.AccessDeniedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize; // Import PreAuthorize
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,6 +23,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
+@TenantSharded // Routed to the tenant's shard when sharding is enabled
 public class WorkOrderService {
 
     private final WorkOrderRepository workOrderRepository;
@@ -34,24 +40,34 @@ public class WorkOrderService {
 
     // Helper method to get current user's tenant ID
     private Long getCurrentTenantId() {
+        TenantResolutionEvent event = TenantResolutionEvent.begin("WorkOrderService");
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated() || authentication.getPrincipal().equals("anonymousUser")) {
-            throw new IllegalStateException("User must be authenticated to perform this action.");
+            throw AuthenticationRequiredException.INSTANCE;
         }
         Object principal = authentication.getPrincipal();
         if (principal instanceof User) {
-            return ((User) principal).getTenantId();
+            return event.resolved(((User) principal).getTenantId());
         } else {
             throw new IllegalStateException("Authentication principal is not the expected User type.");
         }
     }
 
     // No specific role needed for reading
+    @Transactional(readOnly = true)
     public List<WorkOrder> getAllWorkOrders() {
         Long tenantId = getCurrentTenantId();
         return workOrderRepository.findAllByTenantId(tenantId);
     }
 
+    // The first work orders by id, for clients that page (GraphQL)
+    @Transactional(readOnly = true)
+    public List<WorkOrder> getWorkOrders(int limit) {
+        Long tenantId = getCurrentTenantId();
+        return workOrderRepository.findAllByTenantId(tenantId, PageRequest.of(0, limit, Sort.by("id")));
+    }
+
+    @Transactional(readOnly = true)
     public Optional<WorkOrder> getWorkOrderById(Long id) {
         Long tenantId = getCurrentTenantId();
         return workOrderRepository.findByIdAndTenantId(id, tenantId);
@@ -63,12 +79,12 @@ public class WorkOrderService {
         Long tenantId = getCurrentTenantId();
 
         Property property = propertyRepository.findByIdAndTenantId(propertyId, tenantId)
-                .orElseThrow(() -> new AccessDeniedException("Property not found or access denied."));
+                .orElseThrow(() -> ForbiddenException.PROPERTY_NOT_IN_TENANT);
 
         Vendor vendor = null;
         if (optionalVendorId != null) {
             vendor = vendorRepository.findByIdAndTenantId(optionalVendorId, tenantId)
-                    .orElseThrow(() -> new AccessDeniedException("Vendor not found or access denied."));
+                    .orElseThrow(() -> ForbiddenException.VENDOR_NOT_IN_TENANT);
         }
 
         workOrder.setProperty(property);
@@ -89,12 +105,12 @@ public class WorkOrderService {
         return workOrderRepository.findByIdAndTenantId(id, tenantId)
                 .map(existingWorkOrder -> {
                     Property newProperty = propertyRepository.findByIdAndTenantId(newPropertyId, tenantId)
-                            .orElseThrow(() -> new AccessDeniedException("New Property not found or access denied."));
+                            .orElseThrow(() -> ForbiddenException.PROPERTY_NOT_IN_TENANT);
 
                     Vendor newVendor = null;
                     if (newOptionalVendorId != null) {
                         newVendor = vendorRepository.findByIdAndTenantId(newOptionalVendorId, tenantId)
-                                .orElseThrow(() -> new AccessDeniedException("New Vendor not found or access denied."));
+                                .orElseThrow(() -> ForbiddenException.VENDOR_NOT_IN_TENANT);
                     }
 
                     existingWorkOrder.setDescription(workOrderDetails.getDescription());
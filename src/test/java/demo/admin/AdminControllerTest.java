@@ -20,13 +20,17 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -43,6 +47,8 @@ public class AdminControllerTest {
 
     @MockBean
     private AdminService adminService; // Mock the (not-yet-existing) AdminService
+    @MockBean
+    private UserProvisioningService provisioningService;
 
     // --- Mock security dependencies ---
     @MockBean
@@ -73,19 +79,58 @@ public class AdminControllerTest {
     @WithMockUser(username = "admin", authorities = {"PERMISSION_MANAGE_USERS"})
     void whenGetUsersInTenant_asAdmin_thenReturnsUserList() throws Exception {
         // Arrange
-        User user1 = new User();
-        user1.setId(10L);
-        user1.setUsername("user1@example.com");
-        user1.setTenantId(MOCK_TENANT_ID);
+        UserSummary user1 = new UserSummary(10L, "user1@example.com", List.of("PERMISSION_READ_OWN_DATA"));
 
-        when(adminService.listUsersInTenant()).thenReturn(List.of(user1));
+        when(adminService.listUsersInTenant("", 0, 20)).thenReturn(new UserPage(List.of(user1), 0, 20, false));
 
         // Act & Assert
         mockMvc.perform(get("/api/admin/users")
                         .with(csrf())) // Add CSRF for safety, though GETs might not need it
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(1))
-                .andExpect(jsonPath("$[0].username").value("user1@example.com"));
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].username").value("user1@example.com"))
+                .andExpect(jsonPath("$.content[0].permissions[0]").value("PERMISSION_READ_OWN_DATA"))
+                .andExpect(jsonPath("$.content[0].password").doesNotExist())
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = {"PERMISSION_MANAGE_USERS"})
+    void whenGetUsersInTenant_withSearchAndPaging_thenPassesClampedValuesToService() throws Exception {
+        when(adminService.listUsersInTenant("jo", 0, 100)).thenReturn(new UserPage(List.of(), 0, 100, true));
+
+        mockMvc.perform(get("/api/admin/users")
+                        .param("search", "jo")
+                        .param("page", "-3")
+                        .param("size", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(100))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = {"PERMISSION_MANAGE_USERS"})
+    void whenGetPermissionMatrix_asAdmin_thenReturnsAggregates() throws Exception {
+        PermissionMatrix matrix = new PermissionMatrix(3,
+                List.of("PERMISSION_READ_OWN_DATA", "PERMISSION_MANAGE_USERS"),
+                Map.of("PERMISSION_READ_OWN_DATA", 3L, "PERMISSION_MANAGE_USERS", 1L),
+                List.of(new PermissionMatrix.Combination(new long[]{1L}, List.of("PERMISSION_READ_OWN_DATA"), 2),
+                        new PermissionMatrix.Combination(new long[]{3L}, List.of("PERMISSION_READ_OWN_DATA", "PERMISSION_MANAGE_USERS"), 1)));
+        when(adminService.permissionMatrix()).thenReturn(matrix);
+
+        mockMvc.perform(get("/api/admin/users/permission-matrix"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalUsers").value(3))
+                .andExpect(jsonPath("$.holders.PERMISSION_MANAGE_USERS").value(1))
+                .andExpect(jsonPath("$.combinations[0].users").value(2))
+                .andExpect(jsonPath("$.combinations[1].mask[0]").value(3));
+    }
+
+    @Test
+    @WithMockUser // No PERMISSION_MANAGE_USERS
+    void whenGetPermissionMatrix_asUser_thenReturnsForbidden() throws Exception {
+        mockMvc.perform(get("/api/admin/users/permission-matrix"))
+                .andExpect(status().isForbidden());
     }
 
     @Test
@@ -133,4 +178,60 @@ public class AdminControllerTest {
                 .andExpect(jsonPath("$.permissions.length()").value(2))
                 .andExpect(jsonPath("$.permissions[?(@.name == 'PERMISSION_DELETE_VENDOR')]").exists());
     }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = {"PERMISSION_MANAGE_USERS"})
+    void whenBulkChangingPermissions_asAdmin_thenReturnsCounts() throws Exception {
+        BulkPermissionChangeRequest requestBody = new BulkPermissionChangeRequest(
+                Set.of(10L, 11L), Set.of("PERMISSION_DELETE_VENDOR"), Set.of(), Set.of("vendor-manager"), Set.of());
+        when(adminService.bulkChangePermissions(any(BulkPermissionChangeRequest.class)))
+                .thenReturn(new BulkPermissionChangeResult(2, 4, 0));
+
+        mockMvc.perform(post("/api/admin/users/permissions/bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users").value(2))
+                .andExpect(jsonPath("$.permissionsAdded").value(4));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = {"PERMISSION_MANAGE_USERS"})
+    void whenBulkChangingPermissions_withoutUsers_thenReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/admin/users/permissions/bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\": [], \"grant\": [\"PERMISSION_DELETE_VENDOR\"]}"))
+                .andExpect(status().isBadRequest());
+        verify(adminService, never()).bulkChangePermissions(any());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = {"PERMISSION_MANAGE_USERS"})
+    void whenProvisioningUsersFromCsv_asAdmin_thenParsesRowsAndReturnsResult() throws Exception {
+        ProvisionedUser row = new ProvisionedUser(1, "tech@example.com", ProvisionedUser.Status.CREATED, 42L, null);
+        when(provisioningService.provision(List.of(new ProvisionUserRequest("tech@example.com", "Password123", Set.of()))))
+                .thenReturn(new ProvisioningResult(1, 0, List.of(row)));
+
+        mockMvc.perform(post("/api/admin/users/provision")
+                        .with(csrf())
+                        .contentType("text/csv")
+                        .content("username,password\ntech@example.com,Password123\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rows[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.rows[0].userId").value(42));
+    }
+
+    @Test
+    @WithMockUser(username = "user", authorities = {"PERMISSION_READ_OWN_DATA"})
+    void whenProvisioningUsers_asUser_thenReturnsForbidden() throws Exception {
+        mockMvc.perform(post("/api/admin/users/provision")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"username\": \"tech@example.com\", \"password\": \"Password123\"}]"))
+                .andExpect(status().isForbidden());
+        verify(provisioningService, never()).provision(any());
+    }
 }
@@ -0,0 +1,164 @@
+package com.example.demo.admin;
+
+import com.example.demo.exception.ForbiddenException;
+import com.example.demo.permission.Permission;
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.role.RoleTemplateService;
+import com.example.demo.tenant.Tenant;
+import com.example.demo.tenant.TenantRepository;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the real H2 database to check the number of statements per listing
+@SpringBootTest
+public class AdminServiceTest {
+
+    @Autowired
+    private AdminService adminService;
+    @Autowired
+    private TenantRepository tenantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PermissionCatalog permissionCatalog;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private RoleTemplateService roleTemplateService;
+    @Autowired
+    private UserProvisioningService provisioningService;
+
+    private String domain;
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        domain = UUID.randomUUID() + ".example.com";
+        Tenant tenant = tenantRepository.save(new Tenant("Tenant " + domain));
+        admin = createUser(tenant, "admin", "PERMISSION_READ_OWN_DATA", "PERMISSION_MANAGE_USERS");
+        createUser(tenant, "albert", "PERMISSION_READ_OWN_DATA");
+        createUser(tenant, "alice", "PERMISSION_READ_OWN_DATA", "PERMISSION_DELETE_VENDOR");
+        createUser(tenant, "bob", "PERMISSION_READ_OWN_DATA");
+        createUser(tenant, "carol");
+
+        Tenant otherTenant = tenantRepository.save(new Tenant("Other " + domain));
+        createUser(otherTenant, "alfred", "PERMISSION_READ_OWN_DATA");
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void whenListingUsers_thenUsersAndPermissionsAreLoadedInTwoStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+
+        UserPage page = adminService.listUsersInTenant("", 0, 3);
+
+        assertEquals(2, statistics.getPrepareStatementCount() - before);
+        assertEquals(List.of(username("admin"), username("albert"), username("alice")), usernames(page));
+        assertTrue(page.isHasNext());
+        assertEquals(List.of("PERMISSION_DELETE_VENDOR", "PERMISSION_READ_OWN_DATA"), page.getContent().get(2).getPermissions());
+    }
+
+    @Test
+    void whenListingLastPage_thenHasNextIsFalseAndUsersWithoutPermissionsAreIncluded() {
+        UserPage page = adminService.listUsersInTenant("", 1, 3);
+
+        assertEquals(List.of(username("bob"), username("carol")), usernames(page));
+        assertFalse(page.isHasNext());
+        assertEquals(List.of(), page.getContent().get(1).getPermissions());
+    }
+
+    @Test
+    void whenSearchingByPrefix_thenOnlyMatchingUsersOfTheTenantAreReturned() {
+        assertEquals(List.of(username("albert"), username("alice")), usernames(adminService.listUsersInTenant("al", 0, 20)));
+        // LIKE wildcards in the search are matched literally
+        assertTrue(adminService.listUsersInTenant("%", 0, 20).getContent().isEmpty());
+        assertTrue(adminService.listUsersInTenant("zz", 0, 20).getContent().isEmpty());
+    }
+
+    @Test
+    void whenBuildingPermissionMatrix_thenHoldersAndCombinationsAreAggregated() {
+        PermissionMatrix matrix = adminService.permissionMatrix();
+
+        assertEquals(5, matrix.getTotalUsers());
+        assertEquals(permissionCatalog.names(), matrix.getPermissions());
+        assertEquals(4L, matrix.getHolders().get("PERMISSION_READ_OWN_DATA"));
+        assertEquals(1L, matrix.getHolders().get("PERMISSION_MANAGE_USERS"));
+        assertEquals(0L, matrix.getHolders().get("PERMISSION_DELETE_PROPERTY"));
+
+        PermissionMatrix.Combination mostCommon = matrix.getCombinations().get(0);
+        assertEquals(List.of("PERMISSION_READ_OWN_DATA"), mostCommon.getPermissions());
+        assertEquals(2, mostCommon.getUsers());
+        assertArrayEquals(permissionCatalog.maskOf(Set.of("PERMISSION_READ_OWN_DATA")).toLongArray(), mostCommon.getMask());
+        assertTrue(matrix.getCombinations().stream().anyMatch(c -> c.getMask().length == 0 && c.getUsers() == 1));
+        assertEquals(4, matrix.getCombinations().size());
+    }
+
+    @Test
+    void whenTenantAdminGrantsThePlatformPermission_thenEveryPathIsForbidden() {
+        // Even with the row in the permission table (e.g. left from an older out-of-band setup)
+        permissionCatalog.seed(List.of(PermissionCatalog.PLATFORM_PERMISSION));
+        Set<String> platform = Set.of(PermissionCatalog.PLATFORM_PERMISSION);
+        BulkPermissionChangeRequest bulk = new BulkPermissionChangeRequest();
+        bulk.setUserIds(Set.of(admin.getId()));
+        bulk.setGrant(platform);
+        ProvisionUserRequest provision = new ProvisionUserRequest();
+        provision.setUsername(username("operator"));
+        provision.setPassword("password123");
+        provision.setPermissions(platform);
+
+        assertThrows(ForbiddenException.class, () -> adminService.updateUserPermissions(admin.getId(),
+                Set.of("PERMISSION_READ_OWN_DATA", "PERMISSION_MANAGE_USERS", PermissionCatalog.PLATFORM_PERMISSION)));
+        assertThrows(ForbiddenException.class, () -> adminService.bulkChangePermissions(bulk));
+        assertThrows(ForbiddenException.class, () -> roleTemplateService.saveTemplate("operators", platform));
+        assertThrows(ForbiddenException.class, () -> provisioningService.provision(List.of(provision)));
+        assertFalse(permissionCatalog.all().stream().anyMatch(p -> p.getName().equals(PermissionCatalog.PLATFORM_PERMISSION)));
+
+        // A platform permission row that does reach a user is not an authority
+        Permission row = new Permission(PermissionCatalog.PLATFORM_PERMISSION);
+        row.setId(permissionCatalog.idOf(PermissionCatalog.PLATFORM_PERMISSION).orElseThrow());
+        admin.getPermissions().add(row);
+        assertFalse(admin.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals(PermissionCatalog.PLATFORM_PERMISSION)));
+    }
+
+    private User createUser(Tenant tenant, String name, String... permissions) {
+        User user = new User();
+        user.setUsername(username(name));
+        user.setPassword("secret");
+        user.setTenantId(tenant.getId());
+        user.setPermissions(permissionCatalog.resolve(Set.of(permissions)));
+        return userRepository.save(user);
+    }
+
+    private String username(String name) {
+        return name + "@" + domain;
+    }
+
+    private static List<String> usernames(UserPage page) {
+        return page.getContent().stream().map(UserSummary::getUsername).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.demo.admin;
+
+import com.example.demo.exception.InvalidRequestException;
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.tenant.Tenant;
+import com.example.demo.tenant.TenantRepository;
+import com.example.demo.user.CustomUserDetailsService;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the real H2 database: provisioned users must be able to log in with their permissions
+@SpringBootTest
+public class UserProvisioningServiceTest {
+
+    @Autowired
+    private UserProvisioningService provisioningService;
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private TenantRepository tenantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PermissionCatalog permissionCatalog;
+
+    private String domain;
+    private Tenant tenant;
+
+    @BeforeEach
+    void setUp() {
+        domain = UUID.randomUUID() + ".example.com";
+        tenant = tenantRepository.save(new Tenant("Tenant " + domain));
+        User admin = new User();
+        admin.setUsername(username("admin"));
+        admin.setPassword("secret");
+        admin.setTenantId(tenant.getId());
+        admin.setPermissions(permissionCatalog.resolve(Set.of("PERMISSION_READ_OWN_DATA", "PERMISSION_MANAGE_USERS")));
+        admin = userRepository.save(admin);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void whenProvisioningMixedRows_thenValidRowsAreCreatedAndOthersReported() {
+        List<ProvisionUserRequest> rows = List.of(
+                new ProvisionUserRequest(username("tech1"), "Password123", null),
+                new ProvisionUserRequest(username("tech2"), "Password123", Set.of("PERMISSION_READ_OWN_DATA", "PERMISSION_DELETE_VENDOR")),
+                new ProvisionUserRequest("not-an-email", "Password123", null),
+                new ProvisionUserRequest(username("tech3"), "short", null),
+                new ProvisionUserRequest(username("tech4"), "Password123", Set.of("PERMISSION_FLY")),
+                new ProvisionUserRequest(username("tech1"), "Password456", null),
+                new ProvisionUserRequest(username("admin"), "Password123", null));
+
+        ProvisioningResult result = provisioningService.provision(rows);
+
+        assertEquals(2, result.getCreated());
+        assertEquals(5, result.getRejected());
+        assertEquals(List.of(ProvisionedUser.Status.CREATED, ProvisionedUser.Status.CREATED,
+                        ProvisionedUser.Status.INVALID, ProvisionedUser.Status.INVALID, ProvisionedUser.Status.INVALID,
+                        ProvisionedUser.Status.DUPLICATE, ProvisionedUser.Status.DUPLICATE),
+                result.getRows().stream().map(ProvisionedUser::getStatus).toList());
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7), result.getRows().stream().map(ProvisionedUser::getRow).toList());
+        assertEquals("Unknown permission(s): PERMISSION_FLY", result.getRows().get(4).getMessage());
+
+        User created = userRepository.findById(result.getRows().get(1).getUserId()).orElseThrow();
+        assertEquals(tenant.getId(), created.getTenantId());
+        UserDetails login = userDetailsService.loadUserByUsername(username("tech2"));
+        assertTrue(passwordEncoder.matches("Password123", login.getPassword()));
+        assertEquals(Set.of("PERMISSION_READ_OWN_DATA", "PERMISSION_DELETE_VENDOR"), authorities(login));
+        assertEquals(Set.of("PERMISSION_READ_OWN_DATA"), authorities(userDetailsService.loadUserByUsername(username("tech1"))));
+        assertFalse(userRepository.existsByUsername(username("tech3")));
+    }
+
+    @Test
+    void whenProvisioningManyUsers_thenAllAreCreatedInTheAdminsTenant() {
+        List<ProvisionUserRequest> rows = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            rows.add(new ProvisionUserRequest(username("bulk" + i), "Password" + i, null));
+        }
+
+        ProvisioningResult result = provisioningService.provision(rows);
+
+        assertEquals(120, result.getCreated());
+        assertEquals(121, userRepository.countByTenantId(tenant.getId()));
+        assertEquals(120, result.getRows().stream().map(ProvisionedUser::getUserId).distinct().count());
+        UserDetails last = userDetailsService.loadUserByUsername(username("bulk119"));
+        assertTrue(passwordEncoder.matches("Password119", last.getPassword()));
+    }
+
+    @Test
+    void whenCsvIsProvisioned_thenQuotedFieldsAndHeaderAreHandled() {
+        String csv = "username,password,permissions\n"
+                + username("csv1") + ",\"Pass,word\"\"1\",PERMISSION_READ_OWN_DATA;PERMISSION_DELETE_PROPERTY\n"
+                + "\n"
+                + username("csv2") + ",Password123\n";
+
+        ProvisioningResult result = provisioningService.provision(UserCsvParser.parse(csv));
+
+        assertEquals(2, result.getCreated());
+        UserDetails login = userDetailsService.loadUserByUsername(username("csv1"));
+        assertTrue(passwordEncoder.matches("Pass,word\"1", login.getPassword()));
+        assertEquals(Set.of("PERMISSION_READ_OWN_DATA", "PERMISSION_DELETE_PROPERTY"), authorities(login));
+    }
+
+    @Test
+    void whenNothingIsProvisioned_thenRequestIsRejected() {
+        assertThrows(InvalidRequestException.class, () -> provisioningService.provision(List.of()));
+        assertThrows(InvalidRequestException.class, () -> UserCsvParser.parse("a@b.com,\"unterminated"));
+    }
+
+    private String username(String name) {
+        return name + "@" + domain;
+    }
+
+    private static Set<String> authorities(UserDetails user) {
+        return user.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+    }
+}
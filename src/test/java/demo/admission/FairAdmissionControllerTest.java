@@ -0,0 +1,147 @@
+package com.example.demo.admission;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Admission order and limits, with requests simulated by threads that hold their permit until released
+public class FairAdmissionControllerTest {
+
+    private static final long LONG_WAIT = TimeUnit.SECONDS.toNanos(10);
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.interrupt();
+            thread.join(5000);
+        }
+    }
+
+    @Test
+    void whenTenantIsAtItsLimit_thenOtherTenantsAreStillAdmitted() throws Exception {
+        FairAdmissionController controller = new FairAdmissionController(10, 10, 100);
+        assertNotNull(controller.acquire(1L, 1, 2, 0));
+        assertNotNull(controller.acquire(1L, 1, 2, 0));
+
+        assertNull(controller.acquire(1L, 1, 2, TimeUnit.MILLISECONDS.toNanos(20)), "Third request of tenant 1 must wait and time out");
+        assertNotNull(controller.acquire(2L, 1, 2, 0));
+        assertEquals(3, controller.inFlight());
+        assertEquals(0, controller.queued());
+    }
+
+    @Test
+    void whenTenantQueueIsFull_thenFurtherRequestsAreRejectedAtOnce() throws Exception {
+        FairAdmissionController controller = new FairAdmissionController(10, 1, 100);
+        assertNotNull(controller.acquire(1L, 1, 1, 0));
+        queue(controller, 1L, 1, new ArrayList<>());
+
+        long started = System.nanoTime();
+        assertNull(controller.acquire(1L, 1, 1, LONG_WAIT));
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void whenOneTenantsQueueIsFull_thenOtherTenantsAreStillAdmittedAndQueued() throws Exception {
+        FairAdmissionController controller = new FairAdmissionController(3, 2, 3);
+        assertNotNull(controller.acquire(1L, 1, 2, 0));
+        assertNotNull(controller.acquire(1L, 1, 2, 0));
+        queue(controller, 1L, 1, new ArrayList<>());
+        queue(controller, 1L, 1, new ArrayList<>());
+        assertNull(controller.acquire(1L, 1, 2, LONG_WAIT), "Tenant 1's queue is full");
+
+        FairAdmissionController.Permit other = controller.acquire(2L, 1, 2, 0);
+        assertNotNull(other, "Tenant 2 is admitted while tenant 1's queue is full");
+        queue(controller, 2L, 1, new ArrayList<>());
+
+        // All three queue places are taken: a third tenant is rejected at once instead of holding another thread
+        long started = System.nanoTime();
+        assertNull(controller.acquire(3L, 1, 2, LONG_WAIT));
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(3, controller.queued());
+    }
+
+    @Test
+    void whenQueuesCouldOccupyTheServerThreads_thenStartupFails() {
+        AdmissionProperties properties = new AdmissionProperties();
+        assertNotNull(new AdmissionConfig().fairAdmissionController(properties, 200));
+
+        properties.setMaxQueuedTotal(180);
+        assertThrows(IllegalStateException.class, () -> new AdmissionConfig().fairAdmissionController(properties, 200));
+        properties.setMaxQueuedTotal(100);
+        properties.setMaxQueueLength(100);
+        assertThrows(IllegalStateException.class, () -> new AdmissionConfig().fairAdmissionController(properties, 200));
+    }
+
+    @Test
+    void whenTenantsCompete_thenCapacityIsSharedByWeight() throws Exception {
+        FairAdmissionController controller = new FairAdmissionController(1, 100, 100);
+        FairAdmissionController.Permit blocker = controller.acquire(99L, 1, 1, 0);
+
+        // Tenant 1 (weight 1) queues first, tenant 2 (weight 3) after it
+        List<Long> admitted = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 4; i++) {
+            queue(controller, 1L, 1, admitted);
+        }
+        for (int i = 0; i < 4; i++) {
+            queue(controller, 2L, 3, admitted);
+        }
+        controller.release(blocker);
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        assertEquals(8, admitted.size());
+        assertEquals(3, admitted.subList(0, 4).stream().filter(tenant -> tenant == 2L).count(),
+                "Weight 3 should get three of the first four admissions: " + admitted);
+        assertEquals(0, controller.inFlight());
+    }
+
+    @Test
+    void whenARequestIsChargedForExtraWork_thenTheTenantsNextRequestQueuesBehindOthers() throws Exception {
+        FairAdmissionController controller = new FairAdmissionController(1, 100, 100);
+        FairAdmissionController.Permit batch = controller.acquire(1L, 1, 1, 0);
+        controller.charge(batch, 3);
+
+        // Queued first, but the batch already used up tenant 1's next three turns
+        List<Long> admitted = Collections.synchronizedList(new ArrayList<>());
+        queue(controller, 1L, 1, admitted);
+        queue(controller, 2L, 1, admitted);
+        controller.release(batch);
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        assertEquals(List.of(2L, 1L), admitted);
+    }
+
+    // Starts a request that records its tenant when admitted and releases right away; returns once it is queued
+    private void queue(FairAdmissionController controller, Long tenantId, int weight, List<Long> admitted) throws InterruptedException {
+        int before = controller.queued();
+        Thread thread = new Thread(() -> {
+            try {
+                FairAdmissionController.Permit permit = controller.acquire(tenantId, weight, 10, LONG_WAIT);
+                if (permit != null) {
+                    admitted.add(tenantId);
+                    controller.release(permit);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        threads.add(thread);
+        thread.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (controller.queued() == before && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(before + 1, controller.queued());
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.demo.batch;
+
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.property.PropertyRepository;
+import com.example.demo.tenant.Tenant;
+import com.example.demo.tenant.TenantRepository;
+import com.example.demo.user.JwtTokenProvider;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// POST /api/batch against the real controllers: references between operations, rollback and independent execution
+@SpringBootTest
+@AutoConfigureMockMvc
+public class BatchEndpointTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private TenantRepository tenantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PropertyRepository propertyRepository;
+    @Autowired
+    private PermissionCatalog permissionCatalog;
+
+    private Long tenantId;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = tenantRepository.save(new Tenant("Batch " + UUID.randomUUID())).getId();
+        User user = new User();
+        user.setUsername(UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setTenantId(tenantId);
+        user.setPermissions(permissionCatalog.resolve(Set.of("PERMISSION_READ_OWN_DATA")));
+        user = userRepository.save(user);
+        token = "Bearer " + jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @Test
+    void whenOperationsReferenceEarlierResults_thenTheyRunInOrderAndCommitTogether() throws Exception {
+        String response = batch(true,
+                operation("house", "POST", "/api/properties", Map.of("address", "1 Batch Lane", "type", "Condo")),
+                operation("job", "POST", "/api/workorders?propertyId=${house.id}", Map.of("description", "Inspect ${house.address}")),
+                operation("done", "PUT", "/api/workorders/${job.id}/status?status=COMPLETED", null))
+                .andExpect(jsonPath("$.committed").value(true))
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[1].status").value(201))
+                .andExpect(jsonPath("$.results[1].body.description").value("Inspect 1 Batch Lane"))
+                .andExpect(jsonPath("$.results[2].id").value("done"))
+                .andExpect(jsonPath("$.results[2].status").value(200))
+                .andExpect(jsonPath("$.results[2].body.status").value("COMPLETED"))
+                .andReturn().getResponse().getContentAsString();
+
+        long workOrderId = MAPPER.readTree(response).at("/results/1/body/id").asLong();
+        mockMvc.perform(get("/api/workorders/" + workOrderId).header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    @Test
+    void whenATransactionalOperationFails_thenEarlierOnesAreRolledBackAndLaterOnesSkipped() throws Exception {
+        batch(true,
+                operation("house", "POST", "/api/properties", Map.of("address", "2 Rollback Road", "type", "Condo")),
+                operation("job", "POST", "/api/workorders?propertyId=" + Long.MAX_VALUE, Map.of("description", "Nowhere")),
+                operation("list", "GET", "/api/properties", null))
+                .andExpect(jsonPath("$.committed").value(false))
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[1].status").value(greaterThanOrEqualTo(400)))
+                .andExpect(jsonPath("$.results[2].status").value(424));
+
+        assertTrue(propertyRepository.findAllByTenantId(tenantId).isEmpty());
+    }
+
+    @Test
+    void whenIndependentOperationsFail_thenTheOthersStillRunAndCommit() throws Exception {
+        batch(false,
+                operation("house", "POST", "/api/properties", Map.of("address", "3 Own Way", "type", "Condo")),
+                operation("broken", "POST", "/api/properties", Map.of("type", "Condo")),
+                operation("job", "POST", "/api/workorders?propertyId=${broken.id}", Map.of("description", "Never")),
+                operation("list", "GET", "/api/properties", null))
+                .andExpect(jsonPath("$.committed").value(true))
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[1].status").value(400))
+                .andExpect(jsonPath("$.results[1].body.address").value("Address is mandatory"))
+                .andExpect(jsonPath("$.results[2].status").value(424))
+                .andExpect(jsonPath("$.results[3].status").value(200))
+                .andExpect(jsonPath("$.results[3].body.length()").value(1));
+
+        assertEquals(1, propertyRepository.findAllByTenantId(tenantId).size());
+    }
+
+    @Test
+    void whenOperationTargetsAnUnsupportedPathOrUnknownReference_thenOnlyThatOperationIsRejected() throws Exception {
+        batch(false,
+                operation(null, "POST", "/api/batch", Map.of("operations", List.of())),
+                operation(null, "POST", "/api/auth/login", Map.of("username", "x", "password", "y")),
+                operation(null, "GET", "/actuator/metrics", null),
+                operation(null, "GET", "/api/properties/${later.id}", null),
+                operation("later", "GET", "/api/properties", null))
+                .andExpect(jsonPath("$.results[0].status").value(400))
+                .andExpect(jsonPath("$.results[1].status").value(400))
+                .andExpect(jsonPath("$.results[2].status").value(400))
+                .andExpect(jsonPath("$.results[3].status").value(400))
+                .andExpect(jsonPath("$.results[3].body.message").value(containsString("does not precede")))
+                .andExpect(jsonPath("$.results[4].status").value(200));
+
+        mockMvc.perform(post("/api/batch")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions batch(boolean transactional, Map<?, ?>... operations) throws Exception {
+        return mockMvc.perform(post("/api/batch")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(MAPPER.writeValueAsString(Map.of("transactional", transactional, "operations", List.of(operations)))))
+                .andExpect(status().isMultiStatus());
+    }
+
+    private static Map<String, Object> operation(String id, String method, String path, Map<String, ?> body) {
+        Map<String, Object> operation = new HashMap<>();
+        operation.put("id", id);
+        operation.put("method", method);
+        operation.put("path", path);
+        operation.put("body", body);
+        return operation;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.admin.AdminService;
+import com.example.demo.admin.PermissionMatrix;
+import com.example.demo.admin.UserPage;
+import com.example.demo.user.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AdminServiceImpl against the seeded dataset (usersPerTenant users per tenant); it has no
+ * get-by-id, create or delete paths of its own. See BenchmarkDataset for how to run and compare.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AdminServiceBenchmark {
+
+    private static final Set<String> READ_ONLY = Set.of("PERMISSION_READ_OWN_DATA");
+    private static final Set<String> READ_AND_DELETE = Set.of("PERMISSION_READ_OWN_DATA", "PERMISSION_DELETE_PROPERTY");
+
+    private AdminService service;
+    private boolean toggle;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDataset dataset) {
+        service = dataset.bean(AdminService.class);
+    }
+
+    @Benchmark
+    public UserPage listUsers(TenantSession session) {
+        return service.listUsersInTenant("", 0, 20);
+    }
+
+    @Benchmark
+    public UserPage searchUsers(TenantSession session) {
+        return service.listUsersInTenant("user1", 0, 20);
+    }
+
+    @Benchmark
+    public PermissionMatrix permissionMatrix(TenantSession session) {
+        return service.permissionMatrix();
+    }
+
+    // Alternates between two sets so every call changes rows
+    @Benchmark
+    public User updatePermissions(TenantSession session) {
+        toggle = !toggle;
+        return service.updateUserPermissions(session.tenant.randomNonAdminUserId(), toggle ? READ_AND_DELETE : READ_ONLY);
+    }
+}
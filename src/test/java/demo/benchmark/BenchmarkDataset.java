@@ -0,0 +1,199 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The application without its web layer, on a private in-memory H2 database seeded with
+ * rowsPerTenant properties, vendors and work orders and usersPerTenant users for each of the
+ * tenants. Sizes are JMH parameters, e.g. -p tenants=50 -p rowsPerTenant=100,10000.
+ *
+ * The service benchmarks report sampled latency percentiles, and with -prof gc (the default
+ * jmh.args of the benchmark profile) allocation per operation. Results go to target/jmh-result.json
+ * so two runs can be compared side by side:
+ *
+ *   mvn -Pbenchmark test-compile exec:exec -Dbenchmark='.*ServiceBenchmark.*'
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDataset {
+
+    static final List<String> PERMISSIONS = List.of("PERMISSION_READ_OWN_DATA", "PERMISSION_MANAGE_USERS",
+            "PERMISSION_DELETE_PROPERTY", "PERMISSION_DELETE_VENDOR", "PERMISSION_DELETE_WORK_ORDER");
+
+    @Param("10")
+    public int tenants;
+
+    @Param("1000")
+    public int rowsPerTenant;
+
+    @Param("50")
+    public int usersPerTenant;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private Tenant[] seeded;
+
+    @Setup(Level.Trial)
+    public void boot() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.root=WARN")
+                .run();
+        jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        context.getBean(PermissionCatalog.class).seed(PERMISSIONS);
+        seeded = new Tenant[tenants];
+        for (int i = 0; i < tenants; i++) {
+            seeded[i] = seedTenant(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * A random seeded tenant; each benchmark thread works as that tenant's admin.
+     */
+    Tenant randomTenant() {
+        return seeded[ThreadLocalRandom.current().nextInt(seeded.length)];
+    }
+
+    /**
+     * Inserts a property nobody references, for delete benchmarks.
+     */
+    long insertProperty(long tenantId) {
+        jdbcTemplate.update("INSERT INTO property (address, type, bedrooms, bathrooms, tenant_id) VALUES (?, ?, ?, ?, ?)",
+                "Disposable", "Condo", 1, 1, tenantId);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM property WHERE tenant_id = ?", Long.class, tenantId);
+    }
+
+    long insertVendor(long tenantId) {
+        jdbcTemplate.update("INSERT INTO vendor (name, specialty, phone, tenant_id) VALUES (?, ?, ?, ?)",
+                "Disposable", "Plumbing", "555-0100", tenantId);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM vendor WHERE tenant_id = ?", Long.class, tenantId);
+    }
+
+    long insertWorkOrder(Tenant tenant) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO work_order (description, status, created_at, updated_at, property_id, vendor_id, tenant_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", "Disposable", "PENDING", now, now, tenant.randomPropertyId(), null, tenant.id);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM work_order WHERE tenant_id = ?", Long.class, tenant.id);
+    }
+
+    private Tenant seedTenant(int index) {
+        jdbcTemplate.update("INSERT INTO tenants (name) VALUES (?)", "Benchmark tenant " + index);
+        long tenantId = jdbcTemplate.queryForObject("SELECT id FROM tenants WHERE name = ?", Long.class, "Benchmark tenant " + index);
+
+        List<Object[]> properties = new ArrayList<>(rowsPerTenant);
+        List<Object[]> vendors = new ArrayList<>(rowsPerTenant);
+        for (int i = 0; i < rowsPerTenant; i++) {
+            properties.add(new Object[]{i + " Benchmark Street", i % 2 == 0 ? "Condo" : "Single Family", i % 5, i % 3, tenantId});
+            vendors.add(new Object[]{"Vendor " + i, i % 2 == 0 ? "Plumbing" : "Electrical", "555-" + i, tenantId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO property (address, type, bedrooms, bathrooms, tenant_id) VALUES (?, ?, ?, ?, ?)", properties);
+        jdbcTemplate.batchUpdate("INSERT INTO vendor (name, specialty, phone, tenant_id) VALUES (?, ?, ?, ?)", vendors);
+        long[] propertyIds = ids("property", tenantId);
+        long[] vendorIds = ids("vendor", tenantId);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> workOrders = new ArrayList<>(rowsPerTenant);
+        for (int i = 0; i < rowsPerTenant; i++) {
+            workOrders.add(new Object[]{"Job " + i, i % 3 == 0 ? "DONE" : "PENDING", now, now,
+                    propertyIds[i], i % 4 == 0 ? null : vendorIds[i], tenantId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO work_order (description, status, created_at, updated_at, property_id, vendor_id, tenant_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", workOrders);
+
+        PermissionCatalog catalog = context.getBean(PermissionCatalog.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User admin = null;
+        long[] userIds = new long[usersPerTenant];
+        for (int i = 0; i < usersPerTenant; i++) {
+            User user = new User();
+            user.setUsername("user" + i + "@tenant" + index + ".example.com");
+            user.setPassword("not-a-real-hash");
+            user.setTenantId(tenantId);
+            user.setPermissions(catalog.resolve(i == 0 ? PERMISSIONS : Set.of("PERMISSION_READ_OWN_DATA")));
+            user = userRepository.save(user);
+            userIds[i] = user.getId();
+            if (i == 0) {
+                admin = user;
+            }
+        }
+        return new Tenant(tenantId, admin, propertyIds, vendorIds, ids("work_order", tenantId), userIds);
+    }
+
+    private long[] ids(String table, long tenantId) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + table + " WHERE tenant_id = ? ORDER BY id", Long.class, tenantId)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    static final class Tenant {
+
+        final long id;
+        final User admin;
+        private final long[] propertyIds;
+        private final long[] vendorIds;
+        private final long[] workOrderIds;
+        private final long[] userIds;
+
+        Tenant(long id, User admin, long[] propertyIds, long[] vendorIds, long[] workOrderIds, long[] userIds) {
+            this.id = id;
+            this.admin = admin;
+            this.propertyIds = propertyIds;
+            this.vendorIds = vendorIds;
+            this.workOrderIds = workOrderIds;
+            this.userIds = userIds;
+        }
+
+        long randomPropertyId() {
+            return random(propertyIds);
+        }
+
+        long randomVendorId() {
+            return random(vendorIds);
+        }
+
+        long randomWorkOrderId() {
+            return random(workOrderIds);
+        }
+
+        // Never the admin (index 0), so permission updates can't lock the benchmark out
+        long randomNonAdminUserId() {
+            return userIds[1 + ThreadLocalRandom.current().nextInt(userIds.length - 1)];
+        }
+
+        private static long random(long[] ids) {
+            return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        }
+    }
+}
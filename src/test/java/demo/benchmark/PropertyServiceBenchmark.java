@@ -0,0 +1,84 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.property.Property;
+import com.example.demo.property.PropertyService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PropertyService against the seeded dataset; see BenchmarkDataset for how to run and compare.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PropertyServiceBenchmark {
+
+    private PropertyService service;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDataset dataset) {
+        service = dataset.bean(PropertyService.class);
+    }
+
+    @Benchmark
+    public List<Property> list(TenantSession session) {
+        return service.getAllProperties();
+    }
+
+    @Benchmark
+    public Optional<Property> getById(TenantSession session) {
+        return service.getPropertyById(session.tenant.randomPropertyId());
+    }
+
+    @Benchmark
+    public Property create(TenantSession session) {
+        return service.createProperty(property("1 New Street"));
+    }
+
+    @Benchmark
+    public Optional<Property> update(TenantSession session) {
+        return service.updateProperty(session.tenant.randomPropertyId(), property("2 Updated Street"));
+    }
+
+    @Benchmark
+    public boolean delete(TenantSession session, Disposable disposable) {
+        return service.deleteProperty(disposable.id);
+    }
+
+    private static Property property(String address) {
+        Property property = new Property();
+        property.setAddress(address);
+        property.setType("Condo");
+        property.setBedrooms(2);
+        property.setBathrooms(1);
+        return property;
+    }
+
+    // A fresh unreferenced row per delete; the insert is not part of the measured time
+    @State(Scope.Thread)
+    public static class Disposable {
+
+        long id;
+
+        @Setup(Level.Invocation)
+        public void insert(BenchmarkDataset dataset, TenantSession session) {
+            id = dataset.insertProperty(session.tenant.id);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Authenticates the benchmark thread as the admin of one seeded tenant, as JwtAuthenticationFilter
+ * would for a request, so services run their normal tenant and permission checks.
+ */
+@State(Scope.Thread)
+public class TenantSession {
+
+    BenchmarkDataset.Tenant tenant;
+
+    @Setup(Level.Trial)
+    public void authenticate(BenchmarkDataset dataset) {
+        tenant = dataset.randomTenant();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(tenant.admin, null, tenant.admin.getAuthorities()));
+    }
+
+    @TearDown(Level.Trial)
+    public void clear() {
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.vendor.Vendor;
+import com.example.demo.vendor.VendorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VendorService against the seeded dataset; see BenchmarkDataset for how to run and compare.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class VendorServiceBenchmark {
+
+    private VendorService service;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDataset dataset) {
+        service = dataset.bean(VendorService.class);
+    }
+
+    @Benchmark
+    public List<Vendor> list(TenantSession session) {
+        return service.getAllVendors();
+    }
+
+    @Benchmark
+    public Optional<Vendor> getById(TenantSession session) {
+        return service.getVendorById(session.tenant.randomVendorId());
+    }
+
+    @Benchmark
+    public Vendor create(TenantSession session) {
+        return service.createVendor(vendor("New Plumbing"));
+    }
+
+    @Benchmark
+    public Optional<Vendor> update(TenantSession session) {
+        return service.updateVendor(session.tenant.randomVendorId(), vendor("Updated Plumbing"));
+    }
+
+    @Benchmark
+    public boolean delete(TenantSession session, Disposable disposable) {
+        return service.deleteVendor(disposable.id);
+    }
+
+    private static Vendor vendor(String name) {
+        Vendor vendor = new Vendor();
+        vendor.setName(name);
+        vendor.setSpecialty("Plumbing");
+        vendor.setPhone("555-0199");
+        return vendor;
+    }
+
+    // A fresh unreferenced row per delete; the insert is not part of the measured time
+    @State(Scope.Thread)
+    public static class Disposable {
+
+        long id;
+
+        @Setup(Level.Invocation)
+        public void insert(BenchmarkDataset dataset, TenantSession session) {
+            id = dataset.insertVendor(session.tenant.id);
+        }
+    }
+}
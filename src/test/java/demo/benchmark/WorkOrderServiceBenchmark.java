@@ -0,0 +1,88 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.workorder.WorkOrder;
+import com.example.demo.workorder.WorkOrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WorkOrderService against the seeded dataset; see BenchmarkDataset for how to run and compare.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class WorkOrderServiceBenchmark {
+
+    private WorkOrderService service;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDataset dataset) {
+        service = dataset.bean(WorkOrderService.class);
+    }
+
+    @Benchmark
+    public List<WorkOrder> list(TenantSession session) {
+        return service.getAllWorkOrders();
+    }
+
+    @Benchmark
+    public Optional<WorkOrder> getById(TenantSession session) {
+        return service.getWorkOrderById(session.tenant.randomWorkOrderId());
+    }
+
+    @Benchmark
+    public WorkOrder create(TenantSession session) {
+        return service.createWorkOrder(workOrder("Fix the leak"), session.tenant.randomPropertyId(), session.tenant.randomVendorId());
+    }
+
+    @Benchmark
+    public Optional<WorkOrder> update(TenantSession session) {
+        return service.updateWorkOrder(session.tenant.randomWorkOrderId(), workOrder("Fix the leak, again"),
+                session.tenant.randomPropertyId(), session.tenant.randomVendorId());
+    }
+
+    @Benchmark
+    public Optional<WorkOrder> updateStatus(TenantSession session) {
+        return service.updateWorkOrderStatus(session.tenant.randomWorkOrderId(), "IN_PROGRESS");
+    }
+
+    @Benchmark
+    public boolean delete(TenantSession session, Disposable disposable) {
+        return service.deleteWorkOrder(disposable.id);
+    }
+
+    private static WorkOrder workOrder(String description) {
+        WorkOrder workOrder = new WorkOrder();
+        workOrder.setDescription(description);
+        workOrder.setStatus("PENDING");
+        return workOrder;
+    }
+
+    // A fresh row per delete; the insert is not part of the measured time
+    @State(Scope.Thread)
+    public static class Disposable {
+
+        long id;
+
+        @Setup(Level.Invocation)
+        public void insert(BenchmarkDataset dataset, TenantSession session) {
+            id = dataset.insertWorkOrder(session.tenant);
+        }
+    }
+}
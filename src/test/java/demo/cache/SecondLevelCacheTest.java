@@ -0,0 +1,196 @@
+package com.example.demo.cache;
+
+import com.example.demo.permission.Permission;
+import com.example.demo.permission.PermissionRepository;
+import com.example.demo.property.Property;
+import com.example.demo.property.PropertyRepository;
+import com.example.demo.tenant.Tenant;
+import com.example.demo.tenant.TenantRepository;
+import com.example.demo.user.CustomUserDetailsService;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import com.example.demo.vendor.Vendor;
+import com.example.demo.vendor.VendorRepository;
+import com.example.demo.workorder.WorkOrder;
+import com.example.demo.workorder.WorkOrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the real H2 database: counts the JDBC statements per call with a cold and a warm cache
+@SpringBootTest
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private WorkOrderService workOrderService;
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+    @Autowired
+    private SecondLevelCacheService secondLevelCacheService;
+    @Autowired
+    private TenantRepository tenantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PermissionRepository permissionRepository;
+    @Autowired
+    private PropertyRepository propertyRepository;
+    @Autowired
+    private VendorRepository vendorRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactory sessionFactory;
+    private User user;
+    private Property property;
+    private Vendor vendor;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        user = createUserInNewTenant();
+        property = createProperty(user.getTenantId());
+        vendor = new Vendor();
+        vendor.setName("Bob Plumbing");
+        vendor.setTenantId(user.getTenantId());
+        vendor = vendorRepository.save(vendor);
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        secondLevelCacheService.evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void whenCacheIsWarm_thenCreatingWorkOrderDoesNotReloadPropertyAndVendor() {
+        long cold = statementsFor(this::createWorkOrder);
+        long warm = statementsFor(this::createWorkOrder);
+
+        assertEquals(cold - 2, warm, "Property and vendor should come from the second-level cache");
+        assertTrue(statistics().getCacheRegionStatistics(CacheRegions.PROPERTY).getHitCount() >= 1);
+        assertTrue(statistics().getCacheRegionStatistics(CacheRegions.VENDOR).getHitCount() >= 1);
+    }
+
+    @Test
+    void whenCacheIsWarm_thenAuthenticationLoadsOnlyTheUserRow() {
+        long cold = statementsFor(() -> userDetailsService.loadUserByUsername(user.getUsername()));
+        long warm = statementsFor(() -> userDetailsService.loadUserByUsername(user.getUsername()));
+
+        assertTrue(warm < cold, "Permission set should come from the second-level cache");
+        assertEquals(1, warm);
+    }
+
+    @Test
+    void whenPermissionsChange_thenCachedPermissionSetIsReplaced() {
+        userDetailsService.loadUserByUsername(user.getUsername()); // warm up
+
+        Permission extra = permissionRepository.findByName("PERMISSION_DELETE_VENDOR").orElseThrow();
+        transactionTemplate.executeWithoutResult(status -> {
+            User managed = userRepository.findById(user.getId()).orElseThrow();
+            managed.getPermissions().add(extra);
+        });
+
+        UserDetails reloaded = userDetailsService.loadUserByUsername(user.getUsername());
+        assertTrue(reloaded.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("PERMISSION_DELETE_VENDOR")));
+    }
+
+    @Test
+    void whenEvictingTenant_thenOnlyThatTenantsEntriesAreDropped() {
+        User otherUser = createUserInNewTenant();
+        Property otherProperty = createProperty(otherUser.getTenantId());
+        propertyRepository.findById(property.getId());
+        propertyRepository.findById(otherProperty.getId());
+        vendorRepository.findById(vendor.getId());
+        assertTrue(sessionFactory.getCache().containsEntity(Property.class, property.getId()));
+
+        int evicted = secondLevelCacheService.evictTenant(user.getTenantId());
+
+        assertTrue(evicted >= 3);
+        assertFalse(sessionFactory.getCache().containsEntity(Property.class, property.getId()));
+        assertFalse(sessionFactory.getCache().containsEntity(Vendor.class, vendor.getId()));
+        assertTrue(sessionFactory.getCache().containsEntity(Property.class, otherProperty.getId()));
+    }
+
+    @Test
+    void whenPropertyBelongsToAnotherTenant_thenCachedLookupStillDeniesAccess() {
+        User otherUser = createUserInNewTenant();
+        propertyRepository.findById(property.getId()); // cached now
+
+        assertTrue(propertyRepository.findByIdAndTenantId(property.getId(), otherUser.getTenantId()).isEmpty());
+        assertTrue(propertyRepository.findByIdAndTenantId(property.getId(), user.getTenantId()).isPresent());
+    }
+
+    @Test
+    void whenReadingStatistics_thenRegionsReportHitsAndWeight() {
+        propertyRepository.findById(property.getId());
+        propertyRepository.findById(property.getId());
+
+        Map<String, Map<String, Object>> regions = secondLevelCacheService.regionStatistics();
+
+        assertEquals(CacheRegions.ALL, regions.keySet().stream().toList());
+        Map<String, Object> propertyRegion = regions.get(CacheRegions.PROPERTY);
+        assertTrue((Long) propertyRegion.get("hits") >= 1);
+        assertTrue((Long) propertyRegion.get("weight") > 0);
+        assertEquals(16L * 1024 * 1024, propertyRegion.get("maximumWeight"));
+    }
+
+    private void createWorkOrder() {
+        WorkOrder workOrder = new WorkOrder();
+        workOrder.setDescription("Fix leak");
+        workOrderService.createWorkOrder(workOrder, property.getId(), vendor.getId());
+    }
+
+    private long statementsFor(Runnable call) {
+        Statistics statistics = statistics();
+        long before = statistics.getPrepareStatementCount();
+        call.run();
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    private Statistics statistics() {
+        return sessionFactory.getStatistics();
+    }
+
+    private User createUserInNewTenant() {
+        String name = UUID.randomUUID().toString();
+        Tenant tenant = tenantRepository.save(new Tenant("Tenant " + name));
+        User newUser = new User();
+        newUser.setUsername(name + "@example.com");
+        newUser.setPassword("secret");
+        newUser.setTenantId(tenant.getId());
+        Set<Permission> permissions = new HashSet<>();
+        permissions.add(permissionRepository.findByName("PERMISSION_READ_OWN_DATA").orElseThrow());
+        newUser.setPermissions(permissions);
+        return userRepository.save(newUser);
+    }
+
+    private Property createProperty(Long tenantId) {
+        Property newProperty = new Property();
+        newProperty.setAddress("1 Main St");
+        newProperty.setType("Condo");
+        newProperty.setTenantId(tenantId);
+        return propertyRepository.save(newProperty);
+    }
+}
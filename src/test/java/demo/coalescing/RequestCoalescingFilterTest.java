@@ -0,0 +1,202 @@
+package com.example.demo.coalescing;
+
+import com.example.demo.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Coalescing against a stub controller whose first call blocks until released
+public class RequestCoalescingFilterTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CountDownLatch firstCallEntered = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstCall = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Thread> threads = new ArrayList<>();
+
+    // Answers with the tenant and the call number, so shared and separate computations can be told apart
+    private final FilterChain controller = (request, response) -> {
+        int call = calls.incrementAndGet();
+        if (call == 1) {
+            firstCallEntered.countDown();
+            try {
+                releaseFirstCall.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        response.setContentType("application/json");
+        response.getWriter().write("{\"call\":" + call + "}");
+    };
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseFirstCall.countDown();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+    }
+
+    @Test
+    void whenIdenticalReadsOverlap_thenTheyShareOneComputation() throws Exception {
+        RequestCoalescingFilter filter = filter(Duration.ofSeconds(5));
+        AtomicReference<MockHttpServletResponse> leader = start(filter, get(1L, "/api/workorders"));
+        assertTrue(firstCallEntered.await(5, TimeUnit.SECONDS));
+        AtomicReference<MockHttpServletResponse> follower = start(filter, get(1L, "/api/workorders"));
+        awaitWaiting(threads.get(1));
+
+        releaseFirstCall.countDown();
+        joinAll();
+        assertEquals(1, calls.get());
+        assertEquals("{\"call\":1}", leader.get().getContentAsString());
+        assertEquals("{\"call\":1}", follower.get().getContentAsString());
+        assertEquals("application/json", follower.get().getContentType());
+        assertEquals(1.0, meterRegistry.counter(RequestCoalescingFilter.METRIC, "role", "follower").count());
+    }
+
+    @Test
+    void whenReadsDifferInTenantQueryOrAuthorities_thenEachIsComputed() throws Exception {
+        RequestCoalescingFilter filter = filter(Duration.ofSeconds(5));
+        start(filter, get(1L, "/api/workorders"));
+        assertTrue(firstCallEntered.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletRequest otherQuery = get(1L, "/api/workorders");
+        otherQuery.setQueryString("status=PENDING");
+        MockHttpServletRequest otherAuthorities = get(1L, "/api/workorders", "PERMISSION_READ_OWN_DATA", "PERMISSION_MANAGE_USERS");
+        for (MockHttpServletRequest request : List.of(get(2L, "/api/workorders"), otherQuery, otherAuthorities)) {
+            MockHttpServletResponse response = run(filter, request);
+            assertNotEquals("{\"call\":1}", response.getContentAsString());
+        }
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void whenLeaderIsSlowerThanTheTimeout_thenFollowerComputesItsOwnResponse() throws Exception {
+        RequestCoalescingFilter filter = filter(Duration.ofMillis(100));
+        start(filter, get(1L, "/api/properties"));
+        assertTrue(firstCallEntered.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse follower = run(filter, get(1L, "/api/properties"));
+        assertEquals("{\"call\":2}", follower.getContentAsString());
+        assertEquals(1.0, meterRegistry.counter(RequestCoalescingFilter.METRIC, "role", "timeout").count());
+    }
+
+    @Test
+    void whenTenantWritesDuringARead_thenLaterReadsDoNotJoinIt() throws Exception {
+        RequestCoalescingFilter filter = filter(Duration.ofSeconds(5));
+        start(filter, get(1L, "/api/vendors"));
+        assertTrue(firstCallEntered.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletRequest write = get(1L, "/api/vendors");
+        write.setMethod("POST");
+        run(filter, write);
+
+        MockHttpServletResponse afterWrite = run(filter, get(1L, "/api/vendors"));
+        assertEquals("{\"call\":3}", afterWrite.getContentAsString());
+    }
+
+    @Test
+    void whenAReadIsIssuedAfterAWriteBeforeTheWriteRequestFinishes_thenItDoesNotJoinAnEarlierRead() throws Exception {
+        RequestCoalescingFilter filter = filter(Duration.ofMillis(500));
+        start(filter, get(1L, "/api/vendors"));
+        assertTrue(firstCallEntered.await(5, TimeUnit.SECONDS));
+
+        // The write's response is already out when the client reads again; the write request itself is still finishing
+        AtomicReference<MockHttpServletResponse> readAfterWrite = new AtomicReference<>();
+        FilterChain writeController = (request, response) -> {
+            response.flushBuffer();
+            try {
+                readAfterWrite.set(run(filter, get(1L, "/api/vendors")));
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        };
+        MockHttpServletRequest write = get(1L, "/api/vendors");
+        write.setMethod("POST");
+        SecurityContextHolder.getContext().setAuthentication((UsernamePasswordAuthenticationToken) write.getUserPrincipal());
+        try {
+            filter.doFilter(write, new MockHttpServletResponse(), writeController);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        assertEquals("{\"call\":2}", readAfterWrite.get().getContentAsString());
+        assertEquals(0.0, meterRegistry.counter(RequestCoalescingFilter.METRIC, "role", "timeout").count(),
+                "The read must not have waited for the read from before the write");
+        assertEquals(0.0, meterRegistry.counter(RequestCoalescingFilter.METRIC, "role", "follower").count());
+    }
+
+    private RequestCoalescingFilter filter(Duration followerTimeout) {
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setFollowerTimeout(followerTimeout);
+        return new RequestCoalescingFilter(properties, meterRegistry);
+    }
+
+    private MockHttpServletRequest get(Long tenantId, String uri, String... authorities) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader("Accept", "application/json");
+        User user = new User();
+        user.setUsername("user-" + tenantId);
+        user.setTenantId(tenantId);
+        List<SimpleGrantedAuthority> granted = (authorities.length == 0 ? List.of("PERMISSION_READ_OWN_DATA") : List.of(authorities))
+                .stream().map(SimpleGrantedAuthority::new).toList();
+        request.setUserPrincipal(new UsernamePasswordAuthenticationToken(user, null, granted));
+        return request;
+    }
+
+    // Runs the filter on this thread with the request's principal as the authenticated user
+    private MockHttpServletResponse run(RequestCoalescingFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SecurityContextHolder.getContext().setAuthentication((UsernamePasswordAuthenticationToken) request.getUserPrincipal());
+        try {
+            filter.doFilter(request, response, controller);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+
+    private AtomicReference<MockHttpServletResponse> start(RequestCoalescingFilter filter, MockHttpServletRequest request) {
+        AtomicReference<MockHttpServletResponse> response = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                response.set(run(filter, request));
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        threads.add(thread);
+        thread.start();
+        return response;
+    }
+
+    private static void awaitWaiting(Thread follower) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (follower.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(Thread.State.TIMED_WAITING, follower.getState(), "Follower should be waiting for the leader");
+    }
+
+    private void joinAll() throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.demo.columnar;
+
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.property.Property;
+import com.example.demo.property.PropertyRepository;
+import com.example.demo.tenant.Tenant;
+import com.example.demo.tenant.TenantRepository;
+import com.example.demo.user.JwtTokenProvider;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Accept negotiation of the list endpoints: JSON, columnar JSON, CBOR and Smile
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ContentNegotiationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private TenantRepository tenantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PropertyRepository propertyRepository;
+    @Autowired
+    private PermissionCatalog permissionCatalog;
+
+    private Long tenantId;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tenantId = tenantRepository.save(new Tenant("Formats " + UUID.randomUUID())).getId();
+        User user = new User();
+        user.setUsername(UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setTenantId(tenantId);
+        user.setPermissions(permissionCatalog.resolve(Set.of("PERMISSION_READ_OWN_DATA")));
+        user = userRepository.save(user);
+        token = "Bearer " + jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        Property property = new Property();
+        property.setAddress("1 Format Street");
+        property.setType("Condo");
+        property.setTenantId(tenantId);
+        property = propertyRepository.save(property);
+        for (int i = 0; i < 3; i++) {
+            String created = mockMvc.perform(post("/api/workorders")
+                            .param("propertyId", property.getId().toString())
+                            .header("Authorization", token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"description\":\"Job " + i + "\"}"))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            if (i == 1) {
+                long id = new ObjectMapper().readTree(created).get("id").asLong();
+                mockMvc.perform(put("/api/workorders/" + id + "/status").param("status", "DONE").header("Authorization", token))
+                        .andExpect(status().isOk());
+            }
+        }
+    }
+
+    @Test
+    void whenNoFormatIsRequested_thenListIsRowOrientedJson() throws Exception {
+        mockMvc.perform(get("/api/workorders").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].status").value("PENDING"));
+    }
+
+    @Test
+    void whenColumnarIsRequested_thenFieldsAreListedOnceAndStatusesDictionaryEncoded() throws Exception {
+        mockMvc.perform(get("/api/workorders").header("Authorization", token).accept(ColumnarHttpMessageConverter.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(ColumnarHttpMessageConverter.MEDIA_TYPE))
+                .andExpect(jsonPath("$.fields[2]").value("status"))
+                .andExpect(jsonPath("$.dictionaries.status[0]").value("PENDING"))
+                .andExpect(jsonPath("$.dictionaries.status[1]").value("DONE"))
+                .andExpect(jsonPath("$.dictionaries.tenantId[0]").value(tenantId))
+                .andExpect(jsonPath("$.rows.length()").value(3))
+                .andExpect(jsonPath("$.rows[0][1]").value("Job 0"))
+                .andExpect(jsonPath("$.rows[0][2]").value(0))
+                .andExpect(jsonPath("$.rows[1][2]").value(1))
+                .andExpect(jsonPath("$.rows[0][4]").isEmpty());
+    }
+
+    @Test
+    void whenCborOrSmileIsRequested_thenListIsEncodedInThatFormat() throws Exception {
+        byte[] cbor = mockMvc.perform(get("/api/properties").header("Authorization", token).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode properties = new CBORMapper().readTree(cbor);
+        assertEquals(1, properties.size());
+        assertEquals("1 Format Street", properties.get(0).get("address").asText());
+
+        MediaType smileType = MediaType.parseMediaType("application/x-jackson-smile");
+        byte[] smile = mockMvc.perform(get("/api/workorders").header("Authorization", token).accept(smileType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(smileType))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode workOrders = new SmileMapper().readTree(smile);
+        assertEquals(3, workOrders.size());
+        assertEquals("PENDING", workOrders.get(0).get("status").asText());
+    }
+}
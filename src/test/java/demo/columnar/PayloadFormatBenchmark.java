@@ -0,0 +1,141 @@
+package com.example.demo.columnar;
+
+import com.example.demo.workorder.WorkOrderResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding a work order list in each negotiable format: row JSON, columnar JSON, CBOR and Smile,
+ * optionally gzipped as the server does for larger responses. Payload sizes (raw and gzipped) are
+ * printed once per trial.
+ *
+ *   mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PayloadFormatBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadFormatBenchmark {
+
+    private static final Type LIST_TYPE = ResolvableType.forClassWithGenerics(List.class, WorkOrderResponse.class).getType();
+
+    @Param("10000")
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    private final ObjectMapper smile = Jackson2ObjectMapperBuilder.smile()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    private final ColumnarHttpMessageConverter columnar =
+            new ColumnarHttpMessageConverter(json.getFactory(), List.of(WorkOrderResponse.COLUMNS));
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4 * 1024 * 1024);
+    private List<WorkOrderResponse> workOrders;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] statuses = {"PENDING", "IN_PROGRESS", "COMPLETED"};
+        LocalDateTime now = LocalDateTime.now();
+        workOrders = new ArrayList<>(rows);
+        for (long i = 0; i < rows; i++) {
+            workOrders.add(new WorkOrderResponse(i, "Job " + i + ": leaking tap in the kitchen",
+                    statuses[(int) (i % statuses.length)], i % 100, i % 4 == 0 ? null : i % 100,
+                    now.minusMinutes(i), now, 1L));
+        }
+        if (!gzip) {
+            System.out.printf("%n%-10s %12s %12s%n", "format", "bytes", "gzip bytes");
+            for (String format : List.of("json", "columnar", "cbor", "smile")) {
+                System.out.printf("%-10s %12d %12d%n", format, size(format, false), size(format, true));
+            }
+        }
+    }
+
+    @Benchmark
+    public int json() throws IOException {
+        return encode("json");
+    }
+
+    @Benchmark
+    public int columnar() throws IOException {
+        return encode("columnar");
+    }
+
+    @Benchmark
+    public int cbor() throws IOException {
+        return encode("cbor");
+    }
+
+    @Benchmark
+    public int smile() throws IOException {
+        return encode("smile");
+    }
+
+    private int encode(String format) throws IOException {
+        buffer.reset();
+        OutputStream out = gzip ? new GZIPOutputStream(buffer, 8192) : buffer;
+        switch (format) {
+            case "json" -> json.writeValue(out, workOrders);
+            case "cbor" -> cbor.writeValue(out, workOrders);
+            case "smile" -> smile.writeValue(out, workOrders);
+            default -> columnar.write(workOrders, LIST_TYPE, ColumnarHttpMessageConverter.MEDIA_TYPE, message(out));
+        }
+        out.close();
+        return buffer.size();
+    }
+
+    private int size(String format, boolean compressed) throws IOException {
+        boolean previous = gzip;
+        gzip = compressed;
+        try {
+            return encode(format);
+        } finally {
+            gzip = previous;
+        }
+    }
+
+    private static HttpOutputMessage message(OutputStream body) {
+        HttpHeaders headers = new HttpHeaders();
+        return new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.demo.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Routing against two independent in-memory H2 instances
+public class ReplicaRoutingDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary";
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing_replica";
+    // IFEXISTS=TRUE makes H2 refuse to create the database, simulating a dead replica
+    private static final String DEAD_REPLICA_URL = "jdbc:h2:mem:routing_missing;IFEXISTS=TRUE";
+
+    private DataSource primary;
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2(PRIMARY_URL + ";DB_CLOSE_DELAY=-1");
+        replica = h2(REPLICA_URL + ";DB_CLOSE_DELAY=-1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void whenReadOnlyTransaction_thenRoutesToReplica() throws SQLException {
+        ReplicaRoutingDataSource router = router(replica, Duration.ofSeconds(5));
+        beginTransaction(true);
+
+        assertEquals(REPLICA_URL, urlOf(router));
+    }
+
+    @Test
+    void whenReadWriteTransaction_thenRoutesToPrimary() throws SQLException {
+        ReplicaRoutingDataSource router = router(replica, Duration.ofSeconds(5));
+        beginTransaction(false);
+
+        assertEquals(PRIMARY_URL, urlOf(router));
+    }
+
+    @Test
+    void whenCallerWroteRecently_thenReadsStayOnPrimary() throws SQLException {
+        ReplicaRoutingDataSource router = router(replica, Duration.ofSeconds(30));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("writer@example.com", null, List.of()));
+
+        beginTransaction(false);
+        assertEquals(PRIMARY_URL, urlOf(router));
+
+        beginTransaction(true);
+        assertEquals(PRIMARY_URL, urlOf(router), "Read after write should be sticky to the primary");
+
+        // A different caller is not affected by the first caller's write
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("reader@example.com", null, List.of()));
+        assertEquals(REPLICA_URL, urlOf(router));
+    }
+
+    @Test
+    void whenStickinessWindowExpires_thenReadsReturnToReplica() throws Exception {
+        ReplicaRoutingDataSource router = router(replica, Duration.ofMillis(1));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("writer@example.com", null, List.of()));
+
+        beginTransaction(false);
+        urlOf(router);
+        Thread.sleep(5);
+
+        beginTransaction(true);
+        assertEquals(REPLICA_URL, urlOf(router));
+    }
+
+    @Test
+    void whenReplicaUnreachable_thenFallsBackToPrimaryAndMarksReplicaDown() throws SQLException {
+        ReplicaRoutingDataSource router = router(h2(DEAD_REPLICA_URL), Duration.ofSeconds(5));
+        beginTransaction(true);
+
+        assertEquals(PRIMARY_URL, urlOf(router));
+        assertFalse(router.getReplicas().get(0).isHealthy());
+        // Subsequent reads skip the dead replica without retrying it
+        assertEquals(PRIMARY_URL, urlOf(router));
+    }
+
+    @Test
+    void whenReplicaLagExceedsMaximum_thenMonitorTakesItOutOfRotation() throws SQLException {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofSeconds(5));
+        ReplicaRoutingDataSource router = new ReplicaRoutingDataSource(primary, List.of(replica), tracker);
+        ReplicaHealthMonitor laggingMonitor = new ReplicaHealthMonitor(router, tracker,
+                "SELECT 60", Duration.ofSeconds(10), Duration.ofHours(1));
+        try {
+            laggingMonitor.checkAll();
+            assertFalse(router.getReplicas().get(0).isHealthy());
+
+            beginTransaction(true);
+            assertEquals(PRIMARY_URL, urlOf(router));
+        } finally {
+            laggingMonitor.destroy();
+        }
+
+        ReplicaHealthMonitor caughtUpMonitor = new ReplicaHealthMonitor(router, tracker,
+                "SELECT 0", Duration.ofSeconds(10), Duration.ofHours(1));
+        try {
+            caughtUpMonitor.checkAll();
+            assertTrue(router.getReplicas().get(0).isHealthy());
+            assertEquals(REPLICA_URL, urlOf(router));
+        } finally {
+            caughtUpMonitor.destroy();
+        }
+    }
+
+    private ReplicaRoutingDataSource router(DataSource replicaDataSource, Duration stickiness) {
+        return new ReplicaRoutingDataSource(primary, List.of(replicaDataSource), new ReadYourWritesTracker(stickiness));
+    }
+
+    private static void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private static String urlOf(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+
+    private static DataSource h2(String url) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url);
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+}
@@ -0,0 +1,376 @@
+package com.example.demo.datasource;
+
+import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.InvalidRequestException;
+import com.example.demo.exception.TenantMigrationInProgressException;
+import com.example.demo.tenant.TenantContext;
+import com.example.demo.user.User;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sharding against several independent in-memory H2 databases
+public class TenantShardingTest {
+
+    private static final AtomicLong RUN = new AtomicLong();
+
+    private Map<String, DataSource> shards;
+    private TenantShardDirectory directory;
+    private ShardFanOut fanOut;
+
+    @BeforeEach
+    void setUp() {
+        long run = RUN.incrementAndGet();
+        shards = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            DataSource shard = h2("jdbc:h2:mem:sharding_" + run + "_" + i + ";DB_CLOSE_DELAY=-1");
+            createTenantTables(new JdbcTemplate(shard), i);
+            shards.put("shard-" + i, shard);
+        }
+        directory = new TenantShardDirectory(shards.get("shard-0"), shards.keySet(), 64, Map.of());
+        directory.load();
+        fanOut = new ShardFanOut(shards, 3, Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fanOut.destroy();
+        directory.destroy();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void whenResolvingTenants_thenHashRingIsStableAndSpreadsTenants() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2"), 64);
+        ConsistentHashRing sameRing = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2"), 64);
+        Map<String, Integer> perShard = new HashMap<>();
+        for (long tenantId = 1; tenantId <= 3000; tenantId++) {
+            String shard = ring.shardFor(tenantId);
+            assertEquals(shard, sameRing.shardFor(tenantId));
+            perShard.merge(shard, 1, Integer::sum);
+        }
+        assertEquals(3, perShard.size());
+        perShard.values().forEach(count -> assertTrue(count > 600, "Unbalanced ring: " + perShard));
+    }
+
+    @Test
+    void whenAddingAShard_thenOnlyAFractionOfTenantsMove() {
+        ConsistentHashRing three = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2"), 64);
+        ConsistentHashRing four = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2", "shard-3"), 64);
+        int moved = 0;
+        for (long tenantId = 1; tenantId <= 4000; tenantId++) {
+            String after = four.shardFor(tenantId);
+            if (!after.equals(three.shardFor(tenantId))) {
+                assertEquals("shard-3", after, "Tenants may only move to the new shard");
+                moved++;
+            }
+        }
+        assertTrue(moved > 500 && moved < 1600, "Expected roughly a quarter of tenants to move, was " + moved);
+    }
+
+    @Test
+    void whenTenantIsAssigned_thenDirectoryOverridesRingAndPersists() {
+        Long tenantId = 7L;
+        String other = shards.keySet().stream().filter(s -> !s.equals(directory.shardFor(tenantId))).findFirst().orElseThrow();
+
+        directory.assign(tenantId, other);
+        assertEquals(other, directory.shardFor(tenantId));
+
+        TenantShardDirectory reloaded = new TenantShardDirectory(shards.get("shard-0"), shards.keySet(), 64, Map.of());
+        reloaded.load();
+        assertEquals(other, reloaded.shardFor(tenantId));
+    }
+
+    @Test
+    void whenMovingTenant_thenRowsAreCopiedDirectoryFlippedAndSourceCleaned() throws Exception {
+        Long tenantId = 42L;
+        directory.assign(tenantId, "shard-1");
+        JdbcTemplate source = new JdbcTemplate(shards.get("shard-1"));
+        JdbcTemplate target = new JdbcTemplate(shards.get("shard-2"));
+        insertTenantRows(source, tenantId, 3);
+        insertTenantRows(source, 99L, 2); // another tenant on the same shard stays put
+
+        TenantShardMover mover = new TenantShardMover(shards, directory, Duration.ofSeconds(1), Duration.ofMillis(100));
+        Set<Long> notified = new java.util.HashSet<>();
+        mover.addMoveListener(notified::add);
+        TenantShardMover.TenantMoveResult result = mover.move(tenantId, "shard-2");
+
+        assertEquals("shard-1", result.fromShard());
+        assertEquals(Map.of("property", 3, "vendor", 3, "work_order", 3), result.rowsCopied());
+        assertEquals("shard-2", directory.shardFor(tenantId));
+        assertEquals(3, count(target, "work_order", tenantId));
+        assertFalse(directory.isMoving(tenantId));
+        assertEquals(Set.of(tenantId), notified);
+        awaitCleanup(source, tenantId);
+        assertEquals(0, count(source, "work_order", tenantId));
+        assertEquals(2, count(source, "property", 99L));
+        mover.destroy();
+    }
+
+    @Test
+    void whenTenantMovesBackBeforeCleanup_thenTheMoveReplacesLeftoversAndTheCleanupIsSkipped() throws Exception {
+        Long tenantId = 43L;
+        directory.assign(tenantId, "shard-1");
+        JdbcTemplate first = new JdbcTemplate(shards.get("shard-1"));
+        JdbcTemplate second = new JdbcTemplate(shards.get("shard-2"));
+        insertTenantRows(first, tenantId, 2);
+        TenantShardMover mover = new TenantShardMover(shards, directory, Duration.ofSeconds(1), Duration.ofMillis(300));
+
+        mover.move(tenantId, "shard-2");
+        assertEquals(2, count(first, "property", tenantId), "Source rows stay until the cleanup delay has passed");
+        assertThrows(InvalidRequestException.class, () -> mover.move(tenantId, "shard-2"));
+        // Back to shard-1 while its leftovers are still there: they are replaced, not duplicated
+        mover.move(tenantId, "shard-1");
+        assertEquals(2, count(first, "property", tenantId));
+
+        // The first move's cleanup finds the tenant on shard-1 again and leaves it alone
+        awaitCleanup(second, tenantId);
+        Thread.sleep(300);
+        assertEquals("shard-1", directory.shardFor(tenantId));
+        assertEquals(2, count(first, "property", tenantId));
+        assertEquals(2, count(first, "work_order", tenantId));
+        assertFalse(directory.isMoving(tenantId));
+        mover.destroy();
+    }
+
+    @Test
+    void whenMoveFails_thenTenantStaysOnSourceAndWritesResume() {
+        Long tenantId = 5L;
+        directory.assign(tenantId, "shard-0");
+        insertTenantRows(new JdbcTemplate(shards.get("shard-0")), tenantId, 1);
+        new JdbcTemplate(shards.get("shard-1")).execute("DROP TABLE work_order");
+
+        TenantShardMover mover = new TenantShardMover(shards, directory, Duration.ofSeconds(1));
+        assertThrows(IllegalStateException.class, () -> mover.move(tenantId, "shard-1"));
+
+        assertEquals("shard-0", directory.shardFor(tenantId));
+        assertEquals(0, count(new JdbcTemplate(shards.get("shard-1")), "property", tenantId), "Partial copy must be rolled back");
+        assertDoesNotThrow(() -> {
+            directory.beginWrite(tenantId);
+            directory.endWrite(tenantId);
+        });
+    }
+
+    @Test
+    void whenTenantIsMoving_thenWritesAreRejectedAndMoveWaitsForInFlightWrites() throws Exception {
+        Long tenantId = 3L;
+        directory.beginWrite(tenantId);
+        assertThrows(ConflictException.class, () -> directory.startMove(tenantId, Duration.ofMillis(50)),
+                "Move must not start while a write is in flight");
+
+        directory.endWrite(tenantId);
+        directory.renewLeases(); // the heartbeat drops the lease of a tenant without writes
+        directory.startMove(tenantId, Duration.ofMillis(50));
+        assertThrows(TenantMigrationInProgressException.class, () -> directory.beginWrite(tenantId));
+        directory.finishMove(tenantId);
+        assertDoesNotThrow(() -> directory.beginWrite(tenantId));
+    }
+
+    @Test
+    void whenAnInstanceDiesMidWrite_thenItsLeaseExpiresAndTheMoveProceeds() throws Exception {
+        Long tenantId = 13L;
+        // Never loaded, so no heartbeat renews its lease: an instance that stopped mid-write
+        TenantShardDirectory crashed = new TenantShardDirectory(shards.get("shard-0"), shards.keySet(), 64, Map.of(),
+                Duration.ofMillis(300));
+        crashed.beginWrite(tenantId);
+        crashed.beginWrite(tenantId);
+        assertEquals(1, new JdbcTemplate(shards.get("shard-0")).queryForObject(
+                "SELECT COUNT(*) FROM " + TenantShardDirectory.LEASES + " WHERE tenant_id = ?", Integer.class, tenantId),
+                "One lease per instance and tenant, however many writes run");
+
+        assertThrows(ConflictException.class, () -> directory.startMove(tenantId, Duration.ofMillis(50)));
+        directory.startMove(tenantId, Duration.ofSeconds(5));
+        assertThrows(TenantMigrationInProgressException.class, () -> crashed.beginWrite(tenantId));
+        directory.finishMove(tenantId);
+    }
+
+    @Test
+    void whenAMoveIsCleaningUp_thenOtherMovesWaitButWritesDoNot() throws Exception {
+        Long tenantId = 12L;
+        directory.assign(tenantId, "shard-1");
+
+        assertFalse(directory.startCleanup(tenantId, "shard-2", Duration.ofMinutes(1)), "The tenant is not on shard-2");
+        assertTrue(directory.startCleanup(tenantId, "shard-1", Duration.ofMinutes(1)));
+        assertThrows(ConflictException.class, () -> directory.startMove(tenantId, Duration.ofMillis(50)));
+        assertDoesNotThrow(() -> {
+            directory.beginWrite(tenantId);
+            directory.endWrite(tenantId);
+        });
+        directory.renewLeases();
+        directory.finishCleanup(tenantId);
+        directory.startMove(tenantId, Duration.ofMillis(50));
+        directory.finishMove(tenantId);
+
+        // A claim left behind by an instance that died lapses
+        assertTrue(directory.startCleanup(tenantId, "shard-1", Duration.ZERO));
+        Thread.sleep(5);
+        directory.startMove(tenantId, Duration.ofMillis(50));
+        assertFalse(directory.startCleanup(tenantId, "shard-1", Duration.ofMinutes(1)), "No cleanup while the tenant is moving");
+        directory.finishMove(tenantId);
+    }
+
+    @Test
+    void whenAnotherInstanceMovesATenant_thenServicesAreRoutedToTheNewShardAndTheirWritesHoldOffTheMove() throws Exception {
+        Long tenantId = 11L;
+        // Two application instances: each has its own directory object over the shared default shard
+        TenantShardDirectory otherInstance = new TenantShardDirectory(shards.get("shard-0"), shards.keySet(), 64, Map.of());
+        otherInstance.load();
+        directory.assign(tenantId, "shard-1");
+        insertTenantRows(new JdbcTemplate(shards.get("shard-1")), tenantId, 2);
+        TenantAddresses service = shardedService(directory);
+        User user = new User();
+        user.setTenantId(tenantId);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+
+        assertEquals(2, service.count());
+
+        // A write in flight on this instance holds off a move started on the other one
+        directory.beginWrite(tenantId);
+        TenantShardMover mover = new TenantShardMover(shards, otherInstance, Duration.ofMillis(100));
+        assertThrows(ConflictException.class, () -> mover.move(tenantId, "shard-2"));
+        directory.endWrite(tenantId);
+        directory.renewLeases();
+        mover.move(tenantId, "shard-2");
+
+        // No reload here: the next call already goes to the tenant's new shard
+        assertEquals(2, service.count());
+        service.add("3 Moved Mews");
+        assertEquals(3, count(new JdbcTemplate(shards.get("shard-2")), "property", tenantId));
+        awaitCleanup(new JdbcTemplate(shards.get("shard-1")), tenantId);
+
+        // A move started elsewhere fences this instance's writes, not its reads
+        directory.renewLeases();
+        otherInstance.startMove(tenantId, Duration.ofMillis(50));
+        assertThrows(TenantMigrationInProgressException.class, () -> service.add("4 Fenced Field"));
+        assertEquals(3, service.count());
+        otherInstance.finishMove(tenantId);
+        assertDoesNotThrow(() -> service.add("4 Fenced Field"));
+    }
+
+    @Test
+    void whenAShardsSequencesAreOutsideItsIdentityRange_thenTheCheckFails() {
+        insertTenantRows(new JdbcTemplate(shards.get("shard-1")), 1L, 2);
+
+        assertDoesNotThrow(() -> ShardSchemaInitializer.checkIdentityRange("shard-1", shards.get("shard-1"), 1));
+        assertDoesNotThrow(() -> ShardSchemaInitializer.checkIdentityRange("shard-0", shards.get("shard-0"), 0));
+        // e.g. a shard inserted before it in the configuration, had ranges followed the order
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> ShardSchemaInitializer.checkIdentityRange("shard-1", shards.get("shard-1"), 2));
+        assertTrue(ex.getMessage().contains("outside its identity range 2"), ex.getMessage());
+    }
+
+    @Test
+    void whenFanningOut_thenEveryShardIsQueriedWithItsShardContext() {
+        insertTenantRows(new JdbcTemplate(shards.get("shard-0")), 1L, 1);
+        insertTenantRows(new JdbcTemplate(shards.get("shard-2")), 2L, 4);
+
+        Map<String, String> contexts = fanOut.onEveryShard((name, dataSource) -> ShardContext.current());
+        assertEquals(Map.of("shard-0", "shard-0", "shard-1", "shard-1", "shard-2", "shard-2"), contexts);
+
+        ShardAdminService admin = new ShardAdminService(directory, fanOut, new TenantShardMover(shards, directory, Duration.ofSeconds(1)));
+        Map<String, Map<Long, Map<String, Long>>> stats = admin.tenantStatistics();
+        assertEquals(1L, stats.get("shard-0").get(1L).get("property"));
+        assertTrue(stats.get("shard-1").isEmpty());
+        assertEquals(4L, stats.get("shard-2").get(2L).get("work_order"));
+    }
+
+    @Test
+    void whenShardContextIsSet_thenRoutingDataSourceUsesThatShard() throws Exception {
+        TenantShardRoutingDataSource routing = new TenantShardRoutingDataSource("shard-0", shards);
+        new JdbcTemplate(shards.get("shard-1")).execute("CREATE TABLE marker (id INT)");
+
+        JdbcTemplate jdbc = new JdbcTemplate(routing);
+        assertThrows(Exception.class, () -> jdbc.queryForObject("SELECT COUNT(*) FROM marker", Long.class));
+        assertEquals(0L, ShardContext.callOn("shard-1", () -> jdbc.queryForObject("SELECT COUNT(*) FROM marker", Long.class)));
+        assertNull(ShardContext.current());
+    }
+
+    private TenantAddresses shardedService(TenantShardDirectory instanceDirectory) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(
+                new TenantAddresses(new JdbcTemplate(new TenantShardRoutingDataSource("shard-0", shards))));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new TenantShardAspect(instanceDirectory));
+        return factory.getProxy();
+    }
+
+    // A tenant-scoped service as the application has them, over the routing data source
+    @TenantSharded
+    public static class TenantAddresses {
+
+        private final JdbcTemplate jdbc;
+
+        public TenantAddresses(JdbcTemplate jdbc) {
+            this.jdbc = jdbc;
+        }
+
+        @Transactional(readOnly = true)
+        public long count() {
+            return jdbc.queryForObject("SELECT COUNT(*) FROM property WHERE tenant_id = ?", Long.class,
+                    TenantContext.currentTenantIdOrNull());
+        }
+
+        @Transactional
+        public void add(String address) {
+            jdbc.update("INSERT INTO property (address, tenant_id) VALUES (?, ?)", address, TenantContext.currentTenantIdOrNull());
+        }
+    }
+
+    private static void createTenantTables(JdbcTemplate jdbc, int shardIndex) {
+        long start = shardIndex * ShardSchemaInitializer.IDENTITY_RANGE + 1;
+        jdbc.execute("CREATE TABLE property (id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH " + start + ") PRIMARY KEY, "
+                + "address VARCHAR(255) NOT NULL, tenant_id BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE vendor (id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH " + start + ") PRIMARY KEY, "
+                + "name VARCHAR(255) NOT NULL, tenant_id BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE work_order (id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH " + start + ") PRIMARY KEY, "
+                + "description VARCHAR(255) NOT NULL, property_id BIGINT NOT NULL REFERENCES property(id), "
+                + "vendor_id BIGINT REFERENCES vendor(id), tenant_id BIGINT NOT NULL)");
+    }
+
+    private static void insertTenantRows(JdbcTemplate jdbc, Long tenantId, int count) {
+        for (int i = 0; i < count; i++) {
+            jdbc.update("INSERT INTO property (address, tenant_id) VALUES (?, ?)", "Address " + i, tenantId);
+            Long propertyId = jdbc.queryForObject("SELECT MAX(id) FROM property", Long.class);
+            jdbc.update("INSERT INTO vendor (name, tenant_id) VALUES (?, ?)", "Vendor " + i, tenantId);
+            Long vendorId = jdbc.queryForObject("SELECT MAX(id) FROM vendor", Long.class);
+            jdbc.update("INSERT INTO work_order (description, property_id, vendor_id, tenant_id) VALUES (?, ?, ?, ?)",
+                    "Job " + i, propertyId, vendorId, tenantId);
+        }
+    }
+
+    // Source rows are deleted by a background task after the move returns
+    private static void awaitCleanup(JdbcTemplate jdbc, Long tenantId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (count(jdbc, "property", tenantId) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, count(jdbc, "property", tenantId));
+    }
+
+    private static long count(JdbcTemplate jdbc, String table, Long tenantId) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE tenant_id = ?", Long.class, tenantId);
+    }
+
+    private static DataSource h2(String url) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url);
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+}
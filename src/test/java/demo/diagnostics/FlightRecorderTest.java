@@ -0,0 +1,108 @@
+package com.example.demo.diagnostics;
+
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.tenant.Tenant;
+import com.example.demo.tenant.TenantRepository;
+import com.example.demo.user.JwtTokenProvider;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.platform.operators=" + FlightRecorderTest.OPERATOR)
+@AutoConfigureMockMvc
+public class FlightRecorderTest {
+
+    static final String OPERATOR = "jfr-operator@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private TenantRepository tenantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PermissionCatalog permissionCatalog;
+
+    @Test
+    void whenRecording_thenApplicationEventsAreStreamedBackAsAJfrFile() throws Exception {
+        Long tenantId = tenantRepository.save(new Tenant("JFR " + UUID.randomUUID())).getId();
+        // Platform operators come from configuration, not from granted permissions
+        String operator = tokenFor(tenantId, OPERATOR, "PERMISSION_READ_OWN_DATA");
+        String user = tokenFor(tenantId, UUID.randomUUID() + "@example.com", "PERMISSION_READ_OWN_DATA");
+
+        mockMvc.perform(post("/api/admin/diagnostics/jfr/start").param("threshold", "0ms").header("Authorization", operator))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/admin/diagnostics/jfr/start").header("Authorization", operator))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get("/api/properties").header("Authorization", user)).andExpect(status().isOk());
+
+        byte[] recording = mockMvc.perform(post("/api/admin/diagnostics/jfr/stop").header("Authorization", operator))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", endsWith(".jfr\"")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Path file = Files.createTempFile("flight-recorder-test", ".jfr");
+        try {
+            Files.write(file, recording);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().startsWith("com.example.demo."))
+                    .collect(Collectors.toList());
+            Set<String> types = events.stream().map(event -> event.getEventType().getName()).collect(Collectors.toSet());
+            assertTrue(types.containsAll(Set.of("com.example.demo.JwtValidation", "com.example.demo.UserLoad",
+                    "com.example.demo.TenantResolution", "com.example.demo.RepositoryCall", "com.example.demo.Serialization")), types.toString());
+
+            assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("com.example.demo.RepositoryCall")
+                    && event.getString("repository").equals("PropertyRepository")
+                    && event.getLong("tenantId") == tenantId && event.getLong("rows") == 0));
+            assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("com.example.demo.TenantResolution")
+                    && event.getString("service").equals("PropertyService") && event.getLong("tenantId") == tenantId));
+            assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("com.example.demo.Serialization")
+                    && event.getLong("bytes") > 0));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        mockMvc.perform(post("/api/admin/diagnostics/jfr/stop").header("Authorization", operator))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void whenTenantAdminAsks_thenRecordingIsForbidden() throws Exception {
+        Long tenantId = tenantRepository.save(new Tenant("JFR " + UUID.randomUUID())).getId();
+        mockMvc.perform(post("/api/admin/diagnostics/jfr/start").header("Authorization", tokenFor(tenantId, UUID.randomUUID() + "@example.com", "PERMISSION_MANAGE_USERS")))
+                .andExpect(status().isForbidden());
+    }
+
+    private String tokenFor(Long tenantId, String username, String... permissions) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret");
+        user.setTenantId(tenantId);
+        user.setPermissions(permissionCatalog.resolve(Set.of(permissions)));
+        user = userRepository.save(user);
+        return "Bearer " + jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.diagnostics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlowRequestRecorderTest {
+
+    @Test
+    void whenSpansAreNested_thenTheTreeAndSelfTimesAreRebuilt() throws Exception {
+        SlowRequestRecorder recorder = new SlowRequestRecorder(Duration.ZERO, 0, 8, 16);
+
+        RequestTrace trace = RequestTracer.begin("GET", "/api/workorders", recorder.maxSpans());
+        int controller = RequestTracer.start("WorkOrderController.getAllWorkOrders");
+        int service = RequestTracer.start("WorkOrderService.getAllWorkOrders");
+        int repository = RequestTracer.start("WorkOrderRepository.findAllByTenantId");
+        Thread.sleep(5);
+        RequestTracer.end(repository);
+        RequestTracer.end(service);
+        RequestTracer.end(controller);
+        RequestTracer.setTenant(1L);
+        RequestTracer.finish(trace);
+        trace.complete("/api/workorders", 200);
+        assertTrue(recorder.offer(trace));
+        assertFalse(RequestTracer.isActive());
+
+        SlowRequestView view = recorder.recent(1L, true).get(0);
+        assertEquals("GET /api/workorders", view.root().name());
+        SlowRequestView.Span controllerSpan = view.root().children().get(0);
+        SlowRequestView.Span repositorySpan = controllerSpan.children().get(0).children().get(0);
+        assertEquals("WorkOrderRepository.findAllByTenantId", repositorySpan.name());
+        assertTrue(repositorySpan.durationMs() >= 5);
+        assertTrue(controllerSpan.selfMs() < controllerSpan.durationMs());
+        assertEquals(repositorySpan.durationMs(), repositorySpan.selfMs());
+        assertTrue(recorder.recent(2L, false).isEmpty(), "Traces are only visible to their tenant");
+    }
+
+    @Test
+    void whenRequestsAreFastAndNotSampled_thenNothingIsKept() {
+        SlowRequestRecorder recorder = new SlowRequestRecorder(Duration.ofHours(1), 0, 8, 16);
+        assertFalse(recorder.offer(finishedTrace(recorder, 1L, 3)));
+        assertTrue(recorder.recent(1L, false).isEmpty());
+
+        SlowRequestRecorder sampling = new SlowRequestRecorder(Duration.ofHours(1), 1.0, 8, 16);
+        assertTrue(sampling.offer(finishedTrace(sampling, 1L, 3)));
+        assertTrue(sampling.recent(1L, true).isEmpty());
+        assertFalse(sampling.recent(1L, false).get(0).slow());
+    }
+
+    @Test
+    void whenTraceIsFull_thenExtraSpansAreDroppedAndCounted() {
+        SlowRequestRecorder recorder = new SlowRequestRecorder(Duration.ZERO, 0, 8, 4);
+        recorder.offer(finishedTrace(recorder, 1L, 10));
+
+        SlowRequestView view = recorder.recent(1L, false).get(0);
+        assertEquals(3, view.root().children().size());
+        assertEquals(7, view.droppedSpans());
+    }
+
+    @Test
+    void whenManyThreadsRecord_thenTheRingKeepsOnlyTheNewestEntries() throws Exception {
+        SlowRequestRecorder recorder = new SlowRequestRecorder(Duration.ZERO, 0, 16, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> recorder.offer(finishedTrace(recorder, 1L, 2)));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<SlowRequestView> recent = recorder.recent(1L, false);
+        assertEquals(16, recent.size());
+        recent.forEach(view -> assertEquals(2, view.root().children().size()));
+    }
+
+    private static RequestTrace finishedTrace(SlowRequestRecorder recorder, Long tenantId, int spans) {
+        RequestTrace trace = RequestTracer.begin("GET", "/api/properties", recorder.maxSpans());
+        for (int i = 0; i < spans; i++) {
+            RequestTracer.end(RequestTracer.start("PropertyRepository.findAllByTenantId"));
+        }
+        RequestTracer.setTenant(tenantId);
+        RequestTracer.finish(trace);
+        trace.complete("/api/properties", 200);
+        return trace;
+    }
+}
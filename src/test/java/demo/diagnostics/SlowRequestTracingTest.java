@@ -0,0 +1,107 @@
+package com.example.demo.diagnostics;
+
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.tenant.Tenant;
+import com.example.demo.tenant.TenantRepository;
+import com.example.demo.user.JwtTokenProvider;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every request counts as slow here, so each one is recorded with its full span tree
+@SpringBootTest(properties = "app.diagnostics.slow-request-threshold=0ms")
+@AutoConfigureMockMvc
+public class SlowRequestTracingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private TenantRepository tenantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PermissionCatalog permissionCatalog;
+
+    @Test
+    void whenRequestIsSlow_thenAdminSeesItsSpansFromFilterToRepository() throws Exception {
+        Long tenantId = tenantRepository.save(new Tenant("Tracing " + UUID.randomUUID())).getId();
+        String admin = tokenFor(tenantId, "PERMISSION_READ_OWN_DATA", "PERMISSION_MANAGE_USERS");
+
+        mockMvc.perform(get("/api/properties").header("Authorization", admin)).andExpect(status().isOk());
+
+        JsonNode traces = objectMapper.readTree(mockMvc.perform(get("/api/admin/diagnostics/slow-requests")
+                        .param("slowOnly", "true")
+                        .header("Authorization", admin))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        JsonNode listing = null;
+        for (JsonNode trace : traces) {
+            if ("/api/properties".equals(trace.get("uri").asText())) {
+                listing = trace;
+            }
+        }
+        assertNotNull(listing, "The property listing should have been recorded: " + traces);
+        assertEquals(200, listing.get("status").asInt());
+        assertTrue(listing.get("slow").asBoolean());
+        List<String> spans = spanNames(listing.get("root"), new ArrayList<>());
+        assertEquals("GET /api/properties", spans.get(0));
+        assertTrue(spans.containsAll(List.of("JwtAuthenticationFilter", "CustomUserDetailsService.loadUserByUsername",
+                "PropertyController.getAllProperties", "PropertyService.getAllProperties")), spans.toString());
+        assertTrue(spans.stream().anyMatch(name -> name.startsWith("PropertyRepository.")), spans.toString());
+    }
+
+    @Test
+    void whenAnotherTenantOrANonAdminAsks_thenTracesAreNotShown() throws Exception {
+        Long tenantId = tenantRepository.save(new Tenant("Tracing " + UUID.randomUUID())).getId();
+        mockMvc.perform(get("/api/properties").header("Authorization", tokenFor(tenantId, "PERMISSION_READ_OWN_DATA")))
+                .andExpect(status().isOk());
+
+        Long otherTenantId = tenantRepository.save(new Tenant("Tracing " + UUID.randomUUID())).getId();
+        String otherAdmin = tokenFor(otherTenantId, "PERMISSION_MANAGE_USERS");
+        String body = mockMvc.perform(get("/api/admin/diagnostics/slow-requests").header("Authorization", otherAdmin))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertFalse(body.contains("/api/properties"), body);
+
+        mockMvc.perform(get("/api/admin/diagnostics/slow-requests")
+                        .header("Authorization", tokenFor(tenantId, "PERMISSION_READ_OWN_DATA")))
+                .andExpect(status().isForbidden());
+    }
+
+    private String tokenFor(Long tenantId, String... permissions) {
+        User user = new User();
+        user.setUsername(UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setTenantId(tenantId);
+        user.setPermissions(permissionCatalog.resolve(Set.of(permissions)));
+        user = userRepository.save(user);
+        return "Bearer " + jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private static List<String> spanNames(JsonNode span, List<String> names) {
+        names.add(span.get("name").asText());
+        span.get("children").forEach(child -> spanNames(child, names));
+        return names;
+    }
+}
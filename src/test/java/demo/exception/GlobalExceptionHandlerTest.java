@@ -0,0 +1,69 @@
+package com.example.demo.exception;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler(10);
+
+    @AfterEach
+    void tearDown() {
+        handler.destroy();
+    }
+
+    @Test
+    void whenDomainExceptionIsThrown_thenNoStackTraceIsCaptured() {
+        assertEquals(0, ForbiddenException.PROPERTY_NOT_IN_TENANT.getStackTrace().length);
+        assertEquals(0, new InvalidRequestException("bad").getStackTrace().length);
+        assertEquals(0, new UserAlreadyExistsException("taken").getStackTrace().length);
+    }
+
+    @Test
+    void whenPreallocatedExceptionIsHandled_thenTheSameSerializedBodyIsReused() {
+        ResponseEntity<byte[]> first = handler.handleDomainException(ForbiddenException.VENDOR_NOT_IN_TENANT);
+        ResponseEntity<byte[]> second = handler.handleDomainException(ForbiddenException.VENDOR_NOT_IN_TENANT);
+
+        assertEquals(HttpStatus.FORBIDDEN, first.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, first.getHeaders().getContentType());
+        assertSame(first.getBody(), second.getBody());
+        assertEquals("{\"message\":\"Vendor not found or access denied.\"}", new String(first.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void whenTenantIsMigrating_thenServiceUnavailableWithRetryAfter() {
+        ResponseEntity<byte[]> response = handler.handleDomainException(new TenantMigrationInProgressException(7L));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("5", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void whenUnexpectedErrorsBurst_thenOnlyTheRateLimitIsLogged() {
+        UnexpectedErrorLog log = new UnexpectedErrorLog(5);
+        try {
+            for (int i = 0; i < 50; i++) {
+                log.report("GET /api/test", new RuntimeException("boom " + i));
+            }
+            // The window can roll over once during the loop, letting a second batch through
+            assertTrue(log.suppressedCount() >= 40, "suppressed " + log.suppressedCount());
+        } finally {
+            log.shutdown();
+        }
+
+        ResponseEntity<byte[]> response = handler.handleGenericException(new RuntimeException("boom"),
+                new MockHttpServletRequest("GET", "/api/test"));
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("{\"message\":\"An unexpected internal server error occurred.\"}",
+                new String(response.getBody(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.demo.graphql;
+
+import com.example.demo.metrics.SqlStatements;
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.property.Property;
+import com.example.demo.property.PropertyRepository;
+import com.example.demo.tenant.Tenant;
+import com.example.demo.tenant.TenantRepository;
+import com.example.demo.user.JwtTokenProvider;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import com.example.demo.vendor.Vendor;
+import com.example.demo.vendor.VendorRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The GraphQL endpoint against the real persistence layer: batching, tenant scoping, limits and the document cache
+@SpringBootTest
+@AutoConfigureMockMvc
+public class GraphQlEndpointTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private TenantRepository tenantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PropertyRepository propertyRepository;
+    @Autowired
+    private VendorRepository vendorRepository;
+    @Autowired
+    private PermissionCatalog permissionCatalog;
+
+    private Long tenantId;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = tenantRepository.save(new Tenant("GraphQL " + UUID.randomUUID())).getId();
+        token = tokenFor(tenantId);
+    }
+
+    @Test
+    void whenWorkOrdersSelectPropertyAndVendor_thenEachIsLoadedInOneLookup() throws Exception {
+        Vendor plumbing = vendorRepository.save(vendor("GraphQL Plumbing"));
+        Vendor electrical = vendorRepository.save(vendor("GraphQL Electrical"));
+        for (int i = 0; i < 10; i++) {
+            Property property = propertyRepository.save(property(i + " Graph Street"));
+            createWorkOrder("Job " + i, property, i % 3 == 0 ? null : (i % 2 == 0 ? plumbing : electrical));
+        }
+
+        MvcResult started = mockMvc.perform(post("/api/graphql")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("{ workOrders { description property { address } vendor { name } } }", null)))
+                // User and permissions, work orders, one IN (...) lookup each for properties and vendors
+                .andExpect(SqlStatements.atMost(5))
+                .andExpect(SqlStatements.noRepeatsOver(1))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.data.workOrders.length()").value(10))
+                .andExpect(jsonPath("$.data.workOrders[0].property.address").value("0 Graph Street"))
+                .andExpect(jsonPath("$.data.workOrders[0].vendor").isEmpty())
+                .andExpect(jsonPath("$.data.workOrders[1].vendor.name").value("GraphQL Electrical"))
+                .andExpect(jsonPath("$.data.workOrders[2].vendor.name").value("GraphQL Plumbing"));
+    }
+
+    @Test
+    void whenQueryingAnotherTenantsRecords_thenTheyAreNotVisible() throws Exception {
+        Property property = propertyRepository.save(property("1 Private Road"));
+        Long workOrderId = createWorkOrder("Private job", property, null);
+
+        String otherToken = tokenFor(tenantRepository.save(new Tenant("Other " + UUID.randomUUID())).getId());
+        graphQl(otherToken, "{ workOrder(id: " + workOrderId + ") { id } property(id: " + property.getId() + ") { id } workOrders { id } }", null)
+                .andExpect(jsonPath("$.data.workOrder").isEmpty())
+                .andExpect(jsonPath("$.data.property").isEmpty())
+                .andExpect(jsonPath("$.data.workOrders.length()").value(0));
+    }
+
+    @Test
+    void whenQueryExceedsCostOrDepthLimit_thenItIsRejectedBeforeFetching() throws Exception {
+        // 1 + 10000 * (id + address); rejected again when the document comes from the cache
+        for (int attempt = 0; attempt < 2; attempt++) {
+            graphQl(token, "{ properties(first: 10000) { id address } }", null)
+                    .andExpect(jsonPath("$.data").doesNotExist())
+                    .andExpect(jsonPath("$.errors[0].message").value(containsString("maximum query complexity exceeded")));
+        }
+        graphQl(token, "{ properties(first: 50) { id address } }", null)
+                .andExpect(jsonPath("$.errors").doesNotExist());
+
+        graphQl(token, "{ __schema { types { fields { type { ofType { ofType { ofType { ofType { ofType { ofType { name } } } } } } } } } } }", null)
+                .andExpect(jsonPath("$.errors[0].message").value(containsString("maximum query depth exceeded")));
+
+        graphQl(token, "{ vendors(first: 0) { id } }", null)
+                .andExpect(jsonPath("$.errors[0].message").value("Argument 'first' must be at least 1."))
+                .andExpect(jsonPath("$.errors[0].extensions.classification").value("BAD_REQUEST"));
+    }
+
+    @Test
+    void whenUsingPersistedQueries_thenTheHashAloneRunsTheRegisteredQuery() throws Exception {
+        propertyRepository.save(property("9 Persisted Place"));
+        String query = "{ properties { address } } # " + UUID.randomUUID();
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8)));
+
+        graphQl(token, PersistedQuerySupport.PERSISTED_QUERY_MARKER, hash)
+                .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryNotFound"));
+        graphQl(token, query, hash)
+                .andExpect(jsonPath("$.data.properties[0].address").value("9 Persisted Place"));
+        graphQl(token, PersistedQuerySupport.PERSISTED_QUERY_MARKER, hash)
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.data.properties[0].address").value("9 Persisted Place"));
+
+        graphQl(token, "{ properties { id } }", DigestUtils.md5DigestAsHex(query.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryIdInvalid"));
+    }
+
+    private ResultActions graphQl(String authorization, String query, String persistedQueryHash) throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/graphql")
+                        .header("Authorization", authorization)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body(query, persistedQueryHash)))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+    }
+
+    private static String body(String query, String persistedQueryHash) throws Exception {
+        Map<String, Object> body = new HashMap<>();
+        body.put("query", query);
+        if (persistedQueryHash != null) {
+            body.put("extensions", Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", persistedQueryHash)));
+        }
+        return MAPPER.writeValueAsString(body);
+    }
+
+    private Long createWorkOrder(String description, Property property, Vendor vendor) throws Exception {
+        var request = post("/api/workorders")
+                .param("propertyId", property.getId().toString())
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\":\"" + description + "\"}");
+        if (vendor != null) {
+            request.param("vendorId", vendor.getId().toString());
+        }
+        String created = mockMvc.perform(request)
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return MAPPER.readTree(created).get("id").asLong();
+    }
+
+    private String tokenFor(Long tenant) {
+        User user = new User();
+        user.setUsername(UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setTenantId(tenant);
+        user.setPermissions(permissionCatalog.resolve(Set.of("PERMISSION_READ_OWN_DATA")));
+        user = userRepository.save(user);
+        return "Bearer " + jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private Property property(String address) {
+        Property property = new Property();
+        property.setAddress(address);
+        property.setType("Condo");
+        property.setTenantId(tenantId);
+        return property;
+    }
+
+    private Vendor vendor(String name) {
+        Vendor vendor = new Vendor();
+        vendor.setName(name);
+        vendor.setTenantId(tenantId);
+        return vendor;
+    }
+}
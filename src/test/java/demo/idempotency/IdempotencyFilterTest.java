@@ -0,0 +1,150 @@
+package com.example.demo.idempotency;
+
+import com.example.demo.user.User;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Concurrent duplicates against a stub controller whose first call blocks until released
+public class IdempotencyFilterTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CountDownLatch firstCallEntered = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstCall = new CountDownLatch(1);
+
+    private final FilterChain controller = (request, response) -> {
+        int call = calls.incrementAndGet();
+        if (call == 1) {
+            firstCallEntered.countDown();
+            try {
+                releaseFirstCall.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        ((HttpServletResponse) response).setStatus(201);
+        response.setContentType("application/json");
+        response.getWriter().write("{\"id\":" + call + "}");
+    };
+
+    @AfterEach
+    void tearDown() {
+        releaseFirstCall.countDown();
+    }
+
+    @Test
+    void whenDuplicateArrivesWhileOriginalRuns_thenItWaitsAndGetsTheOriginalResponse() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+        AtomicReference<MockHttpServletResponse> original = new AtomicReference<>();
+        Thread thread = new Thread(() -> original.set(run(filter, request("key-1"))));
+        thread.start();
+        assertTrue(firstCallEntered.await(5, TimeUnit.SECONDS));
+
+        AtomicReference<MockHttpServletResponse> duplicate = new AtomicReference<>();
+        Thread waiting = new Thread(() -> duplicate.set(run(filter, request("key-1"))));
+        waiting.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (waiting.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        releaseFirstCall.countDown();
+        thread.join(5000);
+        waiting.join(5000);
+
+        assertEquals(1, calls.get());
+        assertEquals("{\"id\":1}", original.get().getContentAsString());
+        assertEquals("{\"id\":1}", duplicate.get().getContentAsString());
+        assertEquals(201, duplicate.get().getStatus());
+        assertEquals("true", duplicate.get().getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void whenOriginalOutlastsTheTimeout_thenDuplicateIsAnsweredWithConflict() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofMillis(50));
+        new Thread(() -> run(filter, request("key-2"))).start();
+        assertTrue(firstCallEntered.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse duplicate = run(filter, request("key-2"));
+        assertEquals(409, duplicate.getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void whenStoringTheResponseFails_thenTheClientStillGetsIt() throws Exception {
+        releaseFirstCall.countDown();
+        IdempotencyRecordRepository repository = repository();
+        when(repository.saveAndFlush(any())).thenThrow(new DataAccessResourceFailureException("database unavailable"));
+        IdempotencyFilter filter = filter(repository, Duration.ofSeconds(5));
+
+        MockHttpServletResponse original = run(filter, request("key-3"));
+        assertEquals(201, original.getStatus());
+        assertEquals("{\"id\":1}", original.getContentAsString());
+
+        MockHttpServletResponse retry = run(filter, request("key-3"));
+        assertEquals("{\"id\":1}", retry.getContentAsString());
+        assertEquals(1, calls.get());
+    }
+
+    private IdempotencyFilter filter(Duration inFlightTimeout) {
+        return filter(repository(), inFlightTimeout);
+    }
+
+    private static IdempotencyRecordRepository repository() {
+        IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+        when(repository.findById(any())).thenReturn(Optional.empty());
+        return repository;
+    }
+
+    private IdempotencyFilter filter(IdempotencyRecordRepository repository, Duration inFlightTimeout) {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setInFlightTimeout(inFlightTimeout);
+        return new IdempotencyFilter(new IdempotencyStore(repository, properties), properties, null);
+    }
+
+    private static MockHttpServletRequest request(String key) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/properties");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContentType("application/json");
+        request.setContent("{\"address\":\"1 Same Street\"}".getBytes());
+        User user = new User();
+        user.setUsername("user-1");
+        user.setTenantId(1L);
+        request.setUserPrincipal(new UsernamePasswordAuthenticationToken(user, null,
+                List.of(new SimpleGrantedAuthority("PERMISSION_READ_OWN_DATA"))));
+        return request;
+    }
+
+    // Runs the filter on this thread with the request's principal as the authenticated user
+    private MockHttpServletResponse run(IdempotencyFilter filter, MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SecurityContextHolder.getContext().setAuthentication((UsernamePasswordAuthenticationToken) request.getUserPrincipal());
+        try {
+            filter.doFilter(request, response, controller);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+}
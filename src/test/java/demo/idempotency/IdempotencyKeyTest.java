@@ -0,0 +1,150 @@
+package com.example.demo.idempotency;
+
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.property.PropertyRepository;
+import com.example.demo.tenant.Tenant;
+import com.example.demo.tenant.TenantRepository;
+import com.example.demo.user.JwtTokenProvider;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Idempotency-Key on the real create endpoints: replays, key reuse, tenant separation and the record table
+@SpringBootTest
+@AutoConfigureMockMvc
+public class IdempotencyKeyTest {
+
+    private static final String HOUSE = "{\"address\":\"1 Retry Road\",\"type\":\"Condo\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private TenantRepository tenantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PropertyRepository propertyRepository;
+    @Autowired
+    private PermissionCatalog permissionCatalog;
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+    @Autowired
+    private IdempotencyStore store;
+
+    @Test
+    void whenCreateIsRetriedWithTheSameKey_thenTheFirstResponseIsReplayed() throws Exception {
+        Long tenantId = newTenant();
+        String token = tokenFor(tenantId);
+        String key = UUID.randomUUID().toString();
+
+        String first = createProperty(token, key, HOUSE)
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andReturn().getResponse().getContentAsString();
+        createProperty(token, key, HOUSE)
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(content().json(first, true));
+
+        assertEquals(1, propertyRepository.findAllByTenantId(tenantId).size());
+        assertTrue(recordRepository.findById(new IdempotencyRecord.Key(tenantId, key)).isPresent());
+    }
+
+    @Test
+    void whenKeyIsReusedForAnotherRequest_thenItIsRejected() throws Exception {
+        String token = tokenFor(newTenant());
+        String key = UUID.randomUUID().toString();
+
+        createProperty(token, key, HOUSE).andExpect(status().isCreated());
+        createProperty(token, key, "{\"address\":\"2 Other Street\",\"type\":\"Condo\"}")
+                .andExpect(status().isUnprocessableEntity());
+        createProperty(token, "", HOUSE).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenTenantsUseTheSameKey_thenEachGetsItsOwnResult() throws Exception {
+        Long first = newTenant();
+        Long second = newTenant();
+        String key = UUID.randomUUID().toString();
+
+        createProperty(tokenFor(first), key, HOUSE).andExpect(status().isCreated());
+        createProperty(tokenFor(second), key, HOUSE)
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+
+        assertEquals(1, propertyRepository.findAllByTenantId(first).size());
+        assertEquals(1, propertyRepository.findAllByTenantId(second).size());
+    }
+
+    @Test
+    void whenFirstAttemptFails_thenTheRetryRunsAgain() throws Exception {
+        Long tenantId = newTenant();
+        String token = tokenFor(tenantId);
+        String key = UUID.randomUUID().toString();
+
+        mockMvc.perform(post("/api/workorders")
+                        .param("propertyId", Long.toString(Long.MAX_VALUE))
+                        .header("Authorization", token)
+                        .header(IdempotencyFilter.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Nowhere\"}"))
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        assertTrue(recordRepository.findById(new IdempotencyRecord.Key(tenantId, key)).isEmpty());
+    }
+
+    @Test
+    void whenRecordsExpire_thenTheCleanupDeletesThem() {
+        Long tenantId = newTenant();
+        recordRepository.saveAndFlush(new IdempotencyRecord(tenantId, "old", "f", 201, null, new byte[0],
+                LocalDateTime.now().minusDays(2)));
+        recordRepository.saveAndFlush(new IdempotencyRecord(tenantId, "new", "f", 201, null, new byte[0],
+                LocalDateTime.now()));
+
+        assertTrue(store.find(new IdempotencyRecord.Key(tenantId, "old")).isEmpty());
+        store.purgeExpired();
+        assertTrue(recordRepository.findById(new IdempotencyRecord.Key(tenantId, "old")).isEmpty());
+        assertTrue(store.find(new IdempotencyRecord.Key(tenantId, "new")).isPresent());
+    }
+
+    private ResultActions createProperty(String token, String key, String body) throws Exception {
+        return mockMvc.perform(post("/api/properties")
+                .header("Authorization", token)
+                .header(IdempotencyFilter.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+
+    private Long newTenant() {
+        return tenantRepository.save(new Tenant("Idempotency " + UUID.randomUUID())).getId();
+    }
+
+    private String tokenFor(Long tenantId) {
+        User user = new User();
+        user.setUsername(UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setTenantId(tenantId);
+        user.setPermissions(permissionCatalog.resolve(Set.of("PERMISSION_READ_OWN_DATA")));
+        user = userRepository.save(user);
+        return "Bearer " + jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
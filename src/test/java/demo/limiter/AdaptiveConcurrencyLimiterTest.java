@@ -0,0 +1,214 @@
+package com.example.demo.limiter;
+
+import com.example.demo.admission.AdmissionFilter;
+import com.example.demo.admission.AdmissionProperties;
+import com.example.demo.admission.FairAdmissionController;
+import com.example.demo.limiter.AdaptiveConcurrencyLimiter.Lane;
+import com.example.demo.tenant.TenantContext;
+import com.example.demo.user.User;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Limit adaptation with synthetic latency samples, lane admission, the shed response and the interplay with admission
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(250);
+
+    @Test
+    void whenLatencyRises_thenLimitFallsAndRecoversAfterwards() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties(40));
+        long now = System.nanoTime();
+        // Healthy and busy: the limit grows
+        for (int window = 0; window < 20; window++) {
+            now = feedWindow(limiter, now, 10, limiter.getLimit());
+        }
+        int healthy = limiter.getLimit();
+        assertTrue(healthy > 40, "Limit should grow while latency is stable: " + healthy);
+
+        // The database slows down tenfold: the limit shrinks towards the minimum
+        for (int window = 0; window < 20; window++) {
+            now = feedWindow(limiter, now, 100, limiter.getLimit());
+        }
+        int degraded = limiter.getLimit();
+        assertTrue(degraded < healthy / 2, "Limit should fall under high latency: " + degraded);
+
+        // Latency back to normal: the limit grows again
+        for (int window = 0; window < 40; window++) {
+            now = feedWindow(limiter, now, 10, limiter.getLimit());
+        }
+        assertTrue(limiter.getLimit() > degraded, "Limit should recover: " + limiter.getLimit());
+    }
+
+    @Test
+    void whenTrafficIsLight_thenLimitDoesNotGrow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties(40));
+        long now = System.nanoTime();
+        for (int window = 0; window < 20; window++) {
+            now = feedWindow(limiter, now, 10, 2);
+        }
+        assertEquals(40, limiter.getLimit());
+    }
+
+    @Test
+    void whenAtTheLimit_thenHeavyIsShedFirstAndPriorityLast() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties(10));
+        assertEquals(7, acquireAll(limiter, Lane.HEAVY));
+        assertEquals(3, acquireAll(limiter, Lane.NORMAL));
+        assertEquals(3, acquireAll(limiter, Lane.PRIORITY));
+        assertEquals(13, limiter.getInFlight());
+
+        limiter.onComplete(1_000_000);
+        assertFalse(limiter.tryAcquire(Lane.HEAVY));
+        assertFalse(limiter.tryAcquire(Lane.NORMAL));
+        assertTrue(limiter.tryAcquire(Lane.PRIORITY));
+    }
+
+    @Test
+    void whenRequestIsShed_thenItGets503WithRetryAfterBeforeReachingTheChain() throws Exception {
+        ConcurrencyLimitProperties properties = properties(8);
+        properties.setRetryAfter(Duration.ofSeconds(2));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter, properties, null);
+
+        assertEquals(Lane.HEAVY, filter.laneOf(new MockHttpServletRequest("GET", "/api/workorders")));
+        assertEquals(Lane.NORMAL, filter.laneOf(new MockHttpServletRequest("POST", "/api/workorders")));
+        assertEquals(Lane.NORMAL, filter.laneOf(new MockHttpServletRequest("GET", "/api/workorders/7")));
+        assertEquals(Lane.HEAVY, filter.laneOf(new MockHttpServletRequest("POST", "/api/graphql")));
+        assertEquals(Lane.PRIORITY, filter.laneOf(new MockHttpServletRequest("POST", "/api/auth/login")));
+        assertEquals(Lane.PRIORITY, filter.laneOf(new MockHttpServletRequest("GET", "/actuator/health/readiness")));
+
+        acquireAll(limiter, Lane.NORMAL);
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/properties"), shed,
+                (request, response) -> fail("Shed request must not reach the application"));
+        assertEquals(503, shed.getStatus());
+        assertEquals("2", shed.getHeader("Retry-After"));
+
+        MockHttpServletResponse login = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/auth/login"), login, (request, response) -> { });
+        assertEquals(200, login.getStatus());
+        assertEquals(8, limiter.getInFlight(), "The admitted request's slot is released when it completes");
+    }
+
+    @Test
+    void whenOneTenantsBurstQueuesForAdmission_thenOtherTenantsAreNotShed() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties(6));
+        ConcurrencyLimitFilter limitFilter = new ConcurrencyLimitFilter(limiter, properties(6), null);
+        AdmissionProperties admission = new AdmissionProperties();
+        admission.setMaxQueueTime(Duration.ofSeconds(10));
+        admission.getTiers().put("standard", new AdmissionProperties.Tier(1, 2));
+        FairAdmissionController controller = new FairAdmissionController(10, 100, 100);
+        AdmissionFilter admissionFilter = new AdmissionFilter(controller, admission, null, 100);
+        // Stands in for the security filter chain: the tenant comes from a request attribute
+        Filter authentication = (request, response, chain) -> {
+            User user = new User();
+            user.setTenantId((Long) request.getAttribute("tenant"));
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        };
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                if (Long.valueOf(1L).equals(TenantContext.currentTenantIdOrNull())) {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+
+        // Tenant 1 bursts with more requests than the limit: two run, the rest queue for admission
+        List<MockHttpServletResponse> burst = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            burst.add(response);
+            Thread thread = new Thread(() -> {
+                try {
+                    new MockFilterChain(servlet, limitFilter, authentication, admissionFilter).doFilter(request(1L), response);
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+            // One at a time: until a request reaches admission it holds its slot, as it should
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (controller.inFlight() + controller.queued() + shed(burst) <= i && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+        assertEquals(6, controller.queued(), "None of the burst may be shed while the limiter has room for what runs");
+        assertEquals(2, limiter.getInFlight(), "Queued requests must not hold limiter slots");
+
+        MockHttpServletResponse other = new MockHttpServletResponse();
+        new MockFilterChain(servlet, limitFilter, authentication, admissionFilter).doFilter(request(2L), other);
+        assertEquals(200, other.getStatus(), "Tenant 2 must be neither shed nor queued behind tenant 1");
+
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(10_000);
+        }
+        burst.forEach(response -> assertEquals(200, response.getStatus()));
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, controller.inFlight());
+    }
+
+    private static long shed(List<MockHttpServletResponse> responses) {
+        return responses.stream().filter(response -> response.getStatus() == 503).count();
+    }
+
+    private static MockHttpServletRequest request(Long tenantId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/workorders/1");
+        request.setAttribute("tenant", tenantId);
+        return request;
+    }
+
+    // One window of samples at the given latency with the given concurrency; returns the time after it
+    private static long feedWindow(AdaptiveConcurrencyLimiter limiter, long now, long rttMillis, int inFlight) {
+        long rtt = TimeUnit.MILLISECONDS.toNanos(rttMillis);
+        for (int i = 0; i < 20; i++) {
+            now += WINDOW / 20 + 1;
+            limiter.sample(rtt, inFlight, now);
+        }
+        return now;
+    }
+
+    private static int acquireAll(AdaptiveConcurrencyLimiter limiter, Lane lane) {
+        int acquired = 0;
+        while (limiter.tryAcquire(lane)) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    private static ConcurrencyLimitProperties properties(int initialLimit) {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(initialLimit);
+        properties.setMinLimit(4);
+        return properties;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.user.AuthServiceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Bulk-loads a synthetic multi-tenant dataset with plain JDBC batches: tenant sizes (work orders)
+ * follow a Zipf distribution, and each tenant gets properties, vendors and users in proportion.
+ * Every tenant's first user is an admin that can log in with PASSWORD.
+ */
+final class DatasetGenerator {
+
+    static final String PASSWORD = "load-test-password";
+
+    private static final int BATCH = 1_000;
+    private static final String[] STREETS = {"Oak", "Maple", "Cedar", "Elm", "Pine", "Birch", "Harbor", "Hill", "Lake", "Mill"};
+    private static final String[] STATUSES = {"PENDING", "IN_PROGRESS", "DONE"};
+    private static final String[] PROPERTY_TYPES = {"Condo", "Single Family", "Apartment", "Townhouse"};
+    private static final String[] SPECIALTIES = {"Plumbing", "Electrical", "HVAC", "Roofing", "Cleaning"};
+
+    private final JdbcTemplate jdbc;
+    private final PermissionCatalog permissionCatalog;
+    private final Random random;
+
+    DatasetGenerator(DataSource dataSource, PermissionCatalog permissionCatalog, long seed) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.permissionCatalog = permissionCatalog;
+        this.random = new Random(seed);
+    }
+
+    List<TenantData> generate(int tenants, long workOrders, double zipfExponent) {
+        permissionCatalog.seed(AuthServiceImpl.DEFAULT_PERMISSIONS);
+        long[] permissionIds = AuthServiceImpl.DEFAULT_PERMISSIONS.stream()
+                .mapToLong(name -> permissionCatalog.idOf(name).orElseThrow()).toArray();
+        // BCrypt is deliberately slow; every generated user shares one hash
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+        String run = Long.toString(System.currentTimeMillis(), 36);
+
+        long[] sizes = new ZipfDistribution(tenants, zipfExponent).split(workOrders);
+        List<TenantData> generated = new ArrayList<>(tenants);
+        for (int rank = 0; rank < tenants; rank++) {
+            generated.add(generateTenant(run, rank, sizes[rank], passwordHash, permissionIds));
+        }
+        return generated;
+    }
+
+    private TenantData generateTenant(String run, int rank, long workOrders, String passwordHash, long[] permissionIds) {
+        String name = "Load " + run + " #" + rank;
+        jdbc.update("INSERT INTO tenants (name) VALUES (?)", name);
+        long tenantId = jdbc.queryForObject("SELECT id FROM tenants WHERE name = ?", Long.class, name);
+
+        int properties = (int) Math.max(1, workOrders / 10);
+        int vendors = (int) Math.max(1, workOrders / 50);
+        int users = (int) Math.max(1, workOrders / 1_000);
+
+        batch("INSERT INTO property (address, type, bedrooms, bathrooms, tenant_id) VALUES (?, ?, ?, ?, ?)", properties,
+                i -> new Object[]{(i + 1) + " " + pick(STREETS) + " Street", pick(PROPERTY_TYPES), random.nextInt(6), 1 + random.nextInt(3), tenantId});
+        batch("INSERT INTO vendor (name, specialty, phone, tenant_id) VALUES (?, ?, ?, ?)", vendors,
+                i -> new Object[]{pick(STREETS) + " " + pick(SPECIALTIES) + " " + i, pick(SPECIALTIES), "555-" + (1000 + random.nextInt(9000)), tenantId});
+        long[] propertyIds = ids("property", tenantId);
+        long[] vendorIds = ids("vendor", tenantId);
+
+        LocalDateTime now = LocalDateTime.now();
+        batch("INSERT INTO work_order (description, status, created_at, updated_at, property_id, vendor_id, tenant_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", workOrders, i -> {
+            Timestamp created = Timestamp.valueOf(now.minusMinutes(random.nextInt(525_600)));
+            Long vendorId = random.nextInt(4) == 0 ? null : vendorIds[random.nextInt(vendorIds.length)];
+            return new Object[]{"Job " + i + ": " + pick(SPECIALTIES).toLowerCase() + " issue", pick(STATUSES), created, created,
+                    propertyIds[random.nextInt(propertyIds.length)], vendorId, tenantId};
+        });
+
+        String usernamePrefix = "load-" + run + "-" + rank + "-";
+        batch("INSERT INTO app_user (username, password, tenant_id) VALUES (?, ?, ?)", users,
+                i -> new Object[]{usernamePrefix + i + "@example.com", passwordHash, tenantId});
+        long[] userIds = ids("app_user", tenantId);
+        // The admin (first user) gets every default permission, the others only read access
+        List<Object[]> grants = new ArrayList<>();
+        for (long permissionId : permissionIds) {
+            grants.add(new Object[]{userIds[0], permissionId});
+        }
+        for (int i = 1; i < userIds.length; i++) {
+            grants.add(new Object[]{userIds[i], permissionIds[0]});
+        }
+        jdbc.batchUpdate("INSERT INTO user_permissions (user_id, permission_id) VALUES (?, ?)", grants);
+
+        return new TenantData(tenantId, usernamePrefix + "0@example.com", workOrders, propertyIds, vendorIds,
+                ids("work_order", tenantId));
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private void batch(String sql, long rows, RowSupplier rowSupplier) {
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (long i = 0; i < rows; i++) {
+            batch.add(rowSupplier.row(i));
+            if (batch.size() == BATCH) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(sql, batch);
+        }
+    }
+
+    private long[] ids(String table, long tenantId) {
+        return jdbc.queryForList("SELECT id FROM " + table + " WHERE tenant_id = ? ORDER BY id", Long.class, tenantId)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private interface RowSupplier {
+        Object[] row(long index);
+    }
+
+    record TenantData(long id, String adminUsername, long workOrders,
+                      long[] propertyIds, long[] vendorIds, long[] workOrderIds) {
+
+        long randomId(long[] ids, Random random) {
+            return ids[random.nextInt(ids.length)];
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Weighted request templates, written as "weight:METHOD path [body]" and separated by ';', e.g.
+ *
+ *   60:GET /api/properties/{property};10:POST /api/workorders?propertyId={property} {"description":"Leak"}
+ *
+ * {property}, {vendor} and {workOrder} become random ids of the tenant the request is sent as.
+ */
+final class EndpointMix {
+
+    static final String DEFAULT = "25:GET /api/properties;"
+            + "20:GET /api/properties/{property};"
+            + "15:GET /api/vendors/{vendor};"
+            + "20:GET /api/workorders/{workOrder};"
+            + "10:GET /api/workorders;"
+            + "10:POST /api/workorders?propertyId={property}&vendorId={vendor} {\"description\":\"Load test job\"}";
+
+    private final List<Endpoint> endpoints;
+    private final int[] cumulativeWeights;
+
+    private EndpointMix(List<Endpoint> endpoints) {
+        this.endpoints = List.copyOf(endpoints);
+        this.cumulativeWeights = new int[endpoints.size()];
+        int sum = 0;
+        for (int i = 0; i < endpoints.size(); i++) {
+            sum += endpoints.get(i).weight();
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    static EndpointMix parse(String spec) {
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (String entry : spec.split(";")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int colon = trimmed.indexOf(':');
+            String[] parts = trimmed.substring(colon + 1).trim().split(" ", 3);
+            if (colon < 1 || parts.length < 2) {
+                throw new IllegalArgumentException("Expected weight:METHOD path [body], got: " + trimmed);
+            }
+            int weight = Integer.parseInt(trimmed.substring(0, colon).trim());
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Weights must be positive: " + trimmed);
+            }
+            endpoints.add(new Endpoint(endpoints.size(), weight, parts[0].toUpperCase(), parts[1], parts.length > 2 ? parts[2] : null));
+        }
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("The endpoint mix is empty.");
+        }
+        return new EndpointMix(endpoints);
+    }
+
+    List<Endpoint> endpoints() {
+        return endpoints;
+    }
+
+    Endpoint sample(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return endpoints.get(i);
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    record Endpoint(int index, int weight, String method, String pathTemplate, String body) {
+
+        String name() {
+            return method + " " + pathTemplate.replaceAll("\\?.*", "");
+        }
+
+        String path(DatasetGenerator.TenantData tenant, Random random) {
+            String path = pathTemplate;
+            if (path.contains("{property}")) {
+                path = path.replace("{property}", Long.toString(tenant.randomId(tenant.propertyIds(), random)));
+            }
+            if (path.contains("{vendor}")) {
+                path = path.replace("{vendor}", Long.toString(tenant.randomId(tenant.vendorIds(), random)));
+            }
+            if (path.contains("{workOrder}")) {
+                path = path.replace("{workOrder}", Long.toString(tenant.randomId(tenant.workOrderIds(), random)));
+            }
+            return path;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sends the load over java.net.http with one bearer token per tenant, obtained through
+ * /api/auth/login like a real client would.
+ */
+final class HttpSender implements OpenModelLoadGenerator.Sender, AutoCloseable {
+
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final ExecutorService executor = Executors.newFixedThreadPool(
+            Math.max(4, Runtime.getRuntime().availableProcessors()));
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Long, String> tokens = new ConcurrentHashMap<>();
+
+    HttpSender(String baseUrl, Duration requestTimeout) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.requestTimeout = requestTimeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Logs every tenant's admin in, concurrently.
+     */
+    void login(List<DatasetGenerator.TenantData> tenants, String password) {
+        CompletableFuture.allOf(tenants.stream().map(tenant -> {
+            String body = objectMapper.createObjectNode()
+                    .put("username", tenant.adminUsername())
+                    .put("password", password)
+                    .toString();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                    .timeout(Duration.ofMinutes(1))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .thenAccept(response -> tokens.put(tenant.id(), tokenOf(tenant, response)));
+        }).toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * A sender for another instance of the application (sharing the database and JWT secret) that
+     * reuses the tokens this one logged in with.
+     */
+    HttpSender withBaseUrl(String otherBaseUrl) {
+        HttpSender other = new HttpSender(otherBaseUrl, requestTimeout);
+        other.tokens.putAll(tokens);
+        return other;
+    }
+
+    private String tokenOf(DatasetGenerator.TenantData tenant, HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login of " + tenant.adminUsername() + " failed with " + response.statusCode());
+        }
+        try {
+            return objectMapper.readTree(response.body()).get("token").asText();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable login response: " + response.body(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> send(DatasetGenerator.TenantData tenant, String method, String path, String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .header("Authorization", "Bearer " + tokens.get(tenant.id()));
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        request.method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Percentile table per endpoint, plus HdrHistogram .hgrm files (values in milliseconds) that the
+ * HdrHistogram plotter can overlay, e.g. to compare two runs or corrected and uncorrected latency.
+ */
+final class LatencyReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+    private static final String ROW = "%-36s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n";
+
+    private LatencyReport() {
+    }
+
+    static void print(OpenModelLoadGenerator.Results results, PrintStream out) {
+        double seconds = results.elapsed().toNanos() / 1e9;
+        out.printf("%nLatency from the time each request was due (ms), over %.1fs:%n", seconds);
+        out.printf("%-36s %8s %7s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "p50", "p90", "p99", "p99.9", "max");
+        Histogram total = new Histogram(3);
+        Histogram totalServiceTime = new Histogram(3);
+        long errors = 0;
+        for (OpenModelLoadGenerator.EndpointResult endpoint : results.endpoints()) {
+            row(out, endpoint.name, endpoint.latency, endpoint.errors.get());
+            total.add(endpoint.latency);
+            totalServiceTime.add(endpoint.serviceTime);
+            errors += endpoint.errors.get();
+        }
+        row(out, "all", total, errors);
+        row(out, "all, uncorrected service time", totalServiceTime, errors);
+        out.printf("Throughput: %.1f requests/s%n", total.getTotalCount() / seconds);
+        if (results.unfinished() > 0) {
+            out.printf("WARNING: %d requests were still in flight at the end and are not included%n", results.unfinished());
+        }
+    }
+
+    private static void row(PrintStream out, String name, Histogram histogram, long errors) {
+        out.printf(ROW, name, histogram.getTotalCount(), errors,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    /**
+     * Writes <endpoint>.hgrm (corrected) and <endpoint>.service-time.hgrm for every endpoint.
+     */
+    static void write(OpenModelLoadGenerator.Results results, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (OpenModelLoadGenerator.EndpointResult endpoint : results.endpoints()) {
+            String file = endpoint.name.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("_$", "");
+            writeHistogram(endpoint.latency, directory.resolve(file + ".hgrm"));
+            writeHistogram(endpoint.serviceTime, directory.resolve(file + ".service-time.hgrm"));
+        }
+    }
+
+    private static void writeHistogram(Histogram histogram, Path path) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(path))) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+}
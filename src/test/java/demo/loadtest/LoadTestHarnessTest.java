@@ -0,0 +1,87 @@
+package com.example.demo.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The load-test harness itself; the load test runs with -Ploadtest
+public class LoadTestHarnessTest {
+
+    @Test
+    void whenSplittingByZipf_thenSizesAreSkewedAndAddUp() {
+        long[] sizes = new ZipfDistribution(1000, 1.1).split(1_000_000);
+
+        assertEquals(1_000_000, Arrays.stream(sizes).sum());
+        assertTrue(Arrays.stream(sizes).allMatch(size -> size >= 1));
+        assertTrue(sizes[0] > 100 * sizes[999], "Largest tenant should dwarf the smallest: " + sizes[0] + " vs " + sizes[999]);
+        long topTen = Arrays.stream(sizes, 0, 10).sum();
+        assertTrue(topTen > 300_000, "The ten largest tenants should own a large share, was " + topTen);
+    }
+
+    @Test
+    void whenSampling_thenLowRanksAreMostFrequent() {
+        ZipfDistribution zipf = new ZipfDistribution(100, 1.0);
+        Random random = new Random(1);
+        int[] counts = new int[100];
+        for (int i = 0; i < 100_000; i++) {
+            counts[zipf.sample(random)]++;
+        }
+        assertTrue(counts[0] > counts[9] && counts[9] > counts[99]);
+    }
+
+    @Test
+    void whenParsingTheMix_thenWeightsMethodsAndBodiesAreRead() {
+        EndpointMix mix = EndpointMix.parse(EndpointMix.DEFAULT);
+
+        EndpointMix.Endpoint post = mix.endpoints().get(mix.endpoints().size() - 1);
+        assertEquals("POST", post.method());
+        assertEquals("POST /api/workorders", post.name());
+        assertEquals("{\"description\":\"Load test job\"}", post.body());
+        DatasetGenerator.TenantData tenant = new DatasetGenerator.TenantData(1, "admin", 1,
+                new long[]{7}, new long[]{8}, new long[]{9});
+        assertEquals("/api/workorders?propertyId=7&vendorId=8", post.path(tenant, new Random()));
+        assertThrows(IllegalArgumentException.class, () -> EndpointMix.parse("GET /api/properties"));
+    }
+
+    @Test
+    void whenServerStalls_thenRequestsDueDuringTheStallAreChargedTheWait() throws Exception {
+        DatasetGenerator.TenantData tenant = new DatasetGenerator.TenantData(1, "admin", 1,
+                new long[]{1}, new long[]{1}, new long[]{1});
+        AtomicInteger sent = new AtomicInteger();
+        // A synchronous sender that stalls once for 500ms, like a GC pause holding up a closed-loop client
+        OpenModelLoadGenerator.Sender stallingSender = (t, method, path, body) -> {
+            if (sent.incrementAndGet() == 10) {
+                sleep(500);
+            }
+            return CompletableFuture.completedFuture(200);
+        };
+
+        OpenModelLoadGenerator.Results results = new OpenModelLoadGenerator(EndpointMix.parse("1:GET /api/properties"),
+                List.of(tenant), 1.0, stallingSender, 1)
+                .run(100, Duration.ZERO, Duration.ofSeconds(1), Duration.ofSeconds(5));
+
+        OpenModelLoadGenerator.EndpointResult endpoint = results.endpoints().get(0);
+        assertEquals(100, endpoint.latency.getTotalCount(), "The schedule must not skip the requests due during the stall");
+        assertEquals(0, endpoint.errors.get());
+        // Only the stalled request itself took long to send, but the ~50 due behind it waited too
+        assertTrue(endpoint.serviceTime.getValueAtPercentile(90) < 100_000,
+                "Service time hides the stall: p90 " + endpoint.serviceTime.getValueAtPercentile(90) + "us");
+        assertTrue(endpoint.latency.getValueAtPercentile(90) > 100_000,
+                "Corrected latency shows the stall: p90 " + endpoint.latency.getValueAtPercentile(90) + "us");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
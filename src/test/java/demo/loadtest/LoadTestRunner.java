@@ -0,0 +1,113 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.permission.PermissionCatalog;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline multi-tenant load test: generates a Zipf-skewed dataset, logs each tenant's admin in and
+ * drives an open-model request mix at a fixed rate, then prints corrected latency percentiles and
+ * writes .hgrm files to target/loadtest.
+ *
+ * By default the application runs in this JVM on a random port and an in-memory database:
+ *
+ *   mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--tenants=2000 --work-orders=2000000 --rate=500"
+ *
+ * For millions of rows use a file database (--jdbc-url=jdbc:h2:file:./target/loadtest/db). To load an
+ * already running instance instead, pass --base-url=http://localhost:8080 and the --jdbc-url (with
+ * --jdbc-user and --jdbc-password) of the database it uses.
+ *
+ * Options (defaults in brackets): --tenants [1000], --work-orders [200000], --zipf [1.1],
+ * --rate requests/s [200], --warmup [10s], --duration [60s], --mix or --mix-file [EndpointMix.DEFAULT;
+ * a file is easier for request bodies, which contain spaces], --request-timeout [30s], --seed [42],
+ * --jdbc-url, --base-url.
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int tenants = Integer.parseInt(options.getOrDefault("tenants", "1000"));
+        long workOrders = Long.parseLong(options.getOrDefault("work-orders", "200000"));
+        double zipf = Double.parseDouble(options.getOrDefault("zipf", "1.1"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "10s"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "60s"));
+        Duration requestTimeout = DurationStyle.detectAndParse(options.getOrDefault("request-timeout", "30s"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        EndpointMix mix = EndpointMix.parse(options.containsKey("mix-file")
+                ? Files.readString(Path.of(options.get("mix-file")))
+                : options.getOrDefault("mix", EndpointMix.DEFAULT));
+        String jdbcUrl = options.getOrDefault("jdbc-url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+        String baseUrl = options.get("base-url");
+
+        ConfigurableApplicationContext context = null;
+        DataSource dataSource;
+        PermissionCatalog permissionCatalog;
+        if (baseUrl == null) {
+            System.setProperty("spring.devtools.restart.enabled", "false");
+            context = new SpringApplicationBuilder(DemoApplication.class)
+                    .properties(
+                            "server.port=0",
+                            "spring.datasource.url=" + jdbcUrl,
+                            "spring.jpa.show-sql=false",
+                            "spring.jpa.properties.hibernate.generate_statistics=false",
+                            "logging.level.root=WARN")
+                    .run();
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            dataSource = context.getBean(DataSource.class);
+            permissionCatalog = context.getBean(PermissionCatalog.class);
+        } else {
+            dataSource = new DriverManagerDataSource(jdbcUrl, options.getOrDefault("jdbc-user", "sa"),
+                    options.getOrDefault("jdbc-password", ""));
+            permissionCatalog = new PermissionCatalog(dataSource);
+        }
+
+        try (HttpSender sender = new HttpSender(baseUrl, requestTimeout)) {
+            long started = System.nanoTime();
+            List<DatasetGenerator.TenantData> dataset = new DatasetGenerator(dataSource, permissionCatalog, seed)
+                    .generate(tenants, workOrders, zipf);
+            System.out.printf("Generated %d tenants, %d work orders (largest tenant %d) in %ds%n", tenants, workOrders,
+                    dataset.get(0).workOrders(), Duration.ofNanos(System.nanoTime() - started).toSeconds());
+
+            sender.login(dataset, DatasetGenerator.PASSWORD);
+            System.out.printf("Running %.0f requests/s against %s for %s after %s of warmup%n", rate, baseUrl, duration, warmup);
+            OpenModelLoadGenerator.Results results = new OpenModelLoadGenerator(mix, dataset, zipf, sender, seed)
+                    .run(rate, warmup, duration, requestTimeout);
+
+            LatencyReport.print(results, System.out);
+            Path reports = Path.of("target", "loadtest");
+            LatencyReport.write(results, reports);
+            System.out.println("Histograms written to " + reports.toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+}
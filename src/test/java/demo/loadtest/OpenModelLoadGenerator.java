@@ -0,0 +1,176 @@
+package com.example.demo.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sends requests on a fixed schedule (request i is due at start + i / rate) whether or not earlier
+ * ones have completed, the way independent users arrive. Latency is measured from the time a request
+ * was due, not from when it was actually sent: if the generator or the server stalls, the requests
+ * that should have gone out meanwhile are charged the wait, so the histograms don't suffer from
+ * coordinated omission. The uncorrected service time is kept alongside for comparison.
+ *
+ * Tenants are picked with the same Zipf skew as their sizes, so the largest tenants see most traffic.
+ */
+final class OpenModelLoadGenerator {
+
+    // Microseconds, up to an hour, at three significant digits
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    interface Sender {
+
+        /**
+         * Sends the request without blocking; completes with the HTTP status.
+         */
+        CompletableFuture<Integer> send(DatasetGenerator.TenantData tenant, String method, String path, String body);
+    }
+
+    private final EndpointMix mix;
+    private final List<DatasetGenerator.TenantData> tenants;
+    private final ZipfDistribution tenantTraffic;
+    private final Sender sender;
+    private final Random random;
+
+    OpenModelLoadGenerator(EndpointMix mix, List<DatasetGenerator.TenantData> tenants, double zipfExponent, Sender sender, long seed) {
+        this.mix = mix;
+        this.tenants = tenants;
+        this.tenantTraffic = new ZipfDistribution(tenants.size(), zipfExponent);
+        this.sender = sender;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Runs for warmup + duration at the given rate (requests per second) and returns the latencies
+     * of the requests due after the warmup. Waits up to drainTimeout for requests still in flight.
+     */
+    Results run(double rate, Duration warmup, Duration duration, Duration drainTimeout) throws InterruptedException {
+        Results results = new Results(mix);
+        AtomicLong inFlight = new AtomicLong();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long warmupNanos = warmup.toNanos();
+        long endNanos = warmupNanos + duration.toNanos();
+
+        long start = System.nanoTime();
+        for (long i = 0; ; i++) {
+            long due = start + i * intervalNanos;
+            if (due - start >= endNanos) {
+                break;
+            }
+            waitUntil(due);
+            boolean measured = due - start >= warmupNanos;
+
+            EndpointMix.Endpoint endpoint = mix.sample(random);
+            DatasetGenerator.TenantData tenant = tenants.get(tenantTraffic.sample(random));
+            String path = endpoint.path(tenant, random);
+            inFlight.incrementAndGet();
+            long sent = System.nanoTime();
+            CompletableFuture<Integer> response;
+            try {
+                response = sender.send(tenant, endpoint.method(), path, endpoint.body());
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            response.whenComplete((status, error) -> {
+                if (measured) {
+                    results.record(endpoint, status, error, due, sent, System.nanoTime());
+                }
+                inFlight.decrementAndGet();
+            });
+        }
+        results.elapsedNanos = System.nanoTime() - start - warmupNanos;
+
+        long drainDeadline = System.nanoTime() + drainTimeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        results.close(inFlight.get());
+        return results;
+    }
+
+    private static void waitUntil(long due) {
+        long remaining;
+        while ((remaining = due - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    static final class Results {
+
+        private final Map<EndpointMix.Endpoint, EndpointResult> byEndpoint = new ConcurrentHashMap<>();
+        private final AtomicLong unfinished = new AtomicLong();
+        private long elapsedNanos;
+        private volatile boolean closed;
+
+        private Results(EndpointMix mix) {
+            mix.endpoints().forEach(endpoint -> byEndpoint.put(endpoint, new EndpointResult(endpoint.name())));
+        }
+
+        private void record(EndpointMix.Endpoint endpoint, Integer status, Throwable error, long due, long sent, long completed) {
+            EndpointResult result = byEndpoint.get(endpoint);
+            result.recording.readLock().lock();
+            try {
+                if (closed) {
+                    return; // Completed after the drain timeout, counted as unfinished
+                }
+                result.latency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(completed - due)));
+                result.serviceTime.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(completed - sent)));
+                if (error != null || status == null || status >= 400) {
+                    result.errors.incrementAndGet();
+                }
+            } finally {
+                result.recording.readLock().unlock();
+            }
+        }
+
+        // Reports iterate the histograms, which must not be written to meanwhile
+        private void close(long stillInFlight) {
+            unfinished.set(stillInFlight);
+            byEndpoint.values().forEach(result -> result.recording.writeLock().lock());
+            closed = true;
+            byEndpoint.values().forEach(result -> result.recording.writeLock().unlock());
+        }
+
+        List<EndpointResult> endpoints() {
+            return byEndpoint.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey((a, b) -> Integer.compare(a.index(), b.index())))
+                    .map(Map.Entry::getValue)
+                    .toList();
+        }
+
+        Duration elapsed() {
+            return Duration.ofNanos(elapsedNanos);
+        }
+
+        long unfinished() {
+            return unfinished.get();
+        }
+    }
+
+    static final class EndpointResult {
+
+        final String name;
+        // From the time the request was due (corrected for coordinated omission)
+        final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        // From the time it was actually sent
+        final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final AtomicLong errors = new AtomicLong();
+        // Shared by the recording threads, exclusive when the results are closed
+        private final ReadWriteLock recording = new ReentrantReadWriteLock();
+
+        private EndpointResult(String name) {
+            this.name = name;
+        }
+    }
+}
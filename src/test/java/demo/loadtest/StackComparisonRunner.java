@@ -0,0 +1,139 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.permission.PermissionCatalog;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read throughput of the servlet stack against the reactive one (profile "reactive") on equal hardware:
+ * both run in this JVM on the same embedded server type, the same in-memory database and the same
+ * connection pool size, and are loaded one after the other with the same read-only mix at each rate.
+ *
+ *   mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.demo.loadtest.StackComparisonRunner \
+ *       -Dloadtest.args="--rates=100,200,400,800"
+ *
+ * Admission control, the concurrency limit and request coalescing are switched off on the servlet side,
+ * so the comparison is between the stacks rather than the load protection in front of one of them.
+ *
+ * Options (defaults in brackets): --tenants [200], --work-orders [50000], --zipf [1.1], --rates requests/s
+ * [100,200,400,800], --warmup [5s], --duration [20s], --mix [READ_MIX], --pool-size [10],
+ * --request-timeout [10s], --seed [42].
+ */
+public final class StackComparisonRunner {
+
+    static final String READ_MIX = "25:GET /api/properties;"
+            + "20:GET /api/properties/{property};"
+            + "15:GET /api/vendors/{vendor};"
+            + "25:GET /api/workorders/{workOrder};"
+            + "15:GET /api/workorders";
+
+    private static final String ROW = "%-9s %8.0f %10.1f %7d %9.2f %9.2f %9.2f%n";
+
+    private StackComparisonRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int tenants = Integer.parseInt(options.getOrDefault("tenants", "200"));
+        long workOrders = Long.parseLong(options.getOrDefault("work-orders", "50000"));
+        double zipf = Double.parseDouble(options.getOrDefault("zipf", "1.1"));
+        List<Double> rates = new ArrayList<>();
+        for (String rate : options.getOrDefault("rates", "100,200,400,800").split(",")) {
+            rates.add(Double.parseDouble(rate.trim()));
+        }
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "5s"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "20s"));
+        Duration requestTimeout = DurationStyle.detectAndParse(options.getOrDefault("request-timeout", "10s"));
+        int poolSize = Integer.parseInt(options.getOrDefault("pool-size", "10"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        EndpointMix mix = EndpointMix.parse(options.getOrDefault("mix", READ_MIX));
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // Arguments rather than default properties, which application.properties would override
+        String[] common = {
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:stacks;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--app.reactive.url=r2dbc:h2:mem:///stacks;DB_CLOSE_DELAY=-1",
+                "--app.reactive.max-pool-size=" + poolSize,
+                "--app.admission.enabled=false",
+                "--app.concurrency-limit.enabled=false",
+                "--app.coalescing.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--logging.level.root=WARN"};
+        ConfigurableApplicationContext servlet = new SpringApplicationBuilder(DemoApplication.class).run(common);
+        ConfigurableApplicationContext reactive = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("reactive").run(common);
+        try (HttpSender servletSender = new HttpSender(baseUrl(servlet), requestTimeout)) {
+
+            List<DatasetGenerator.TenantData> dataset = new DatasetGenerator(servlet.getBean(DataSource.class),
+                    servlet.getBean(PermissionCatalog.class), seed).generate(tenants, workOrders, zipf);
+            System.out.printf("Generated %d tenants, %d work orders (largest tenant %d)%n", tenants, workOrders,
+                    dataset.get(0).workOrders());
+            // Tokens come from the servlet stack's login; the reactive stack accepts them as well
+            servletSender.login(dataset, DatasetGenerator.PASSWORD);
+
+            try (HttpSender reactiveSender = servletSender.withBaseUrl(baseUrl(reactive))) {
+                System.out.printf("%nLatency from the time each request was due (ms), %s per rate after %s of warmup:%n",
+                        duration, warmup);
+                System.out.printf("%-9s %8s %10s %7s %9s %9s %9s%n", "stack", "rate", "throughput", "errors", "p50", "p99", "max");
+                for (double rate : rates) {
+                    run("servlet", rate, new OpenModelLoadGenerator(mix, dataset, zipf, servletSender, seed)
+                            .run(rate, warmup, duration, requestTimeout));
+                    run("reactive", rate, new OpenModelLoadGenerator(mix, dataset, zipf, reactiveSender, seed)
+                            .run(rate, warmup, duration, requestTimeout));
+                }
+            }
+        } finally {
+            WebServer reactiveServer = ((WebServerApplicationContext) reactive).getWebServer();
+            reactive.close();
+            // Closing a reactive context only stops its server; Tomcat's await thread would keep the JVM alive
+            reactiveServer.destroy();
+            servlet.close();
+        }
+    }
+
+    private static void run(String stack, double rate, OpenModelLoadGenerator.Results results) {
+        Histogram total = new Histogram(3);
+        long errors = 0;
+        for (OpenModelLoadGenerator.EndpointResult endpoint : results.endpoints()) {
+            total.add(endpoint.latency);
+            errors += endpoint.errors.get();
+        }
+        double seconds = results.elapsed().toNanos() / 1e9;
+        System.out.printf(ROW, stack, rate, (total.getTotalCount() - errors) / seconds, errors,
+                total.getValueAtPercentile(50) / 1000.0, total.getValueAtPercentile(99) / 1000.0, total.getMaxValue() / 1000.0);
+        if (results.unfinished() > 0) {
+            System.out.printf("WARNING: %d requests were still in flight at the end and are not included%n", results.unfinished());
+        }
+    }
+
+    private static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+}
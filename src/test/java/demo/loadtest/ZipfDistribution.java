@@ -0,0 +1,47 @@
+package com.example.demo.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Zipf distribution over ranks 0..n-1: rank k has weight 1 / (k + 1)^exponent. With an exponent
+ * around 1 a handful of tenants own most of the data and traffic, as in production.
+ */
+final class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    ZipfDistribution(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    /**
+     * Splits total into n Zipf-weighted parts (largest first), each at least 1.
+     */
+    long[] split(long total) {
+        long[] parts = new long[cumulative.length];
+        long assigned = 0;
+        double previous = 0;
+        for (int k = 0; k < parts.length; k++) {
+            parts[k] = Math.max(1, Math.round((cumulative[k] - previous) * total));
+            previous = cumulative[k];
+            assigned += parts[k];
+        }
+        // Rounding drift goes to the largest tenant
+        parts[0] = Math.max(1, parts[0] + total - assigned);
+        return parts;
+    }
+}
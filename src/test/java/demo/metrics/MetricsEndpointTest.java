@@ -0,0 +1,108 @@
+package com.example.demo.metrics;
+
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.tenant.Tenant;
+import com.example.demo.tenant.TenantRepository;
+import com.example.demo.user.JwtTokenProvider;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The full application with metrics export enabled, scraped like Prometheus would
+@SpringBootTest(properties = "app.platform.operators=" + MetricsEndpointTest.SCRAPER)
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class MetricsEndpointTest {
+
+    static final String SCRAPER = "prometheus@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private TenantRepository tenantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PermissionCatalog permissionCatalog;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void whenScraped_thenEndpointTenantPoolHibernateAndJwtMetricsAreExported() throws Exception {
+        Tenant tenant = tenantRepository.save(new Tenant("Metrics " + UUID.randomUUID()));
+        User user = new User();
+        user.setUsername(UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setTenantId(tenant.getId());
+        user.setPermissions(permissionCatalog.resolve(Set.of("PERMISSION_READ_OWN_DATA")));
+        user = userRepository.save(user);
+        String token = jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        if (userRepository.findByUsername(SCRAPER).isEmpty()) {
+            saveUser(SCRAPER, tenant.getId());
+        }
+
+        mockMvc.perform(get("/api/properties").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/vendors/{id}", 999_999).header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus").with(httpBasic(SCRAPER, "scrape-secret")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"), "endpoint latency histogram");
+        assertTrue(scrape.matches("(?s).*http_server_requests_seconds_count\\{[^}]*uri=\"/api/vendors/\\{id}\".*"), "per endpoint");
+        assertTrue(scrape.contains("tenant_requests_total{outcome=\"SUCCESS\",tenant=\"" + tenant.getId() + "\""), "per tenant");
+        assertTrue(scrape.contains("tenant_requests_total{outcome=\"CLIENT_ERROR\",tenant=\"" + tenant.getId() + "\""), "tenant errors");
+        assertTrue(scrape.contains("security_jwt_authentication_seconds_bucket{"), "JWT filter timing");
+        assertTrue(scrape.contains("hikaricp_connections_active{"), "connection pool");
+        assertTrue(scrape.contains("hibernate_statements_total{"), "Hibernate statistics");
+    }
+
+    @Test
+    void whenMetricsEndpointIsCalledAnonymously_thenItIsNotExposed() throws Exception {
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Test
+    void whenATenantUserScrapes_thenItIsForbidden() throws Exception {
+        Tenant tenant = tenantRepository.save(new Tenant("Scrape " + UUID.randomUUID()));
+        User user = saveUser(UUID.randomUUID() + "@example.com", tenant.getId());
+        String token = jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic(user.getUsername(), "scrape-secret")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic(SCRAPER, "wrong")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private User saveUser(String username, Long tenantId) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(passwordEncoder.encode("scrape-secret"));
+        user.setTenantId(tenantId);
+        user.setPermissions(permissionCatalog.resolve(Set.of("PERMISSION_READ_OWN_DATA")));
+        return userRepository.save(user);
+    }
+}
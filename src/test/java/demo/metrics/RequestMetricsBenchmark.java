@@ -0,0 +1,73 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the instrumentation added to every API call: the per-tenant counter,
+ * the JWT filter timer and a histogram-enabled endpoint timer, recorded into a Prometheus registry
+ * from several threads. The baseline does the same bookkeeping without a registry.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RequestMetricsBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RequestMetricsBenchmark {
+
+    private static final int TENANTS = 500;
+
+    private TenantRequestMetrics tenantMetrics;
+    private Timer jwtTimer;
+    private Timer endpointTimer;
+
+    @Setup
+    public void setUp() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        // Same limits as application.properties: 100 tenant tags, histograms from 1ms to 10s
+        tenantMetrics = new TenantRequestMetrics(registry, 100);
+        jwtTimer = Timer.builder("security.jwt.authentication").tag("result", "authenticated")
+                .publishPercentileHistogram().maximumExpectedValue(Duration.ofSeconds(1)).register(registry);
+        endpointTimer = Timer.builder("http.server.requests").tag("uri", "/api/properties")
+                .publishPercentileHistogram().minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10)).register(registry);
+    }
+
+    @Benchmark
+    public long baseline() {
+        long start = System.nanoTime();
+        long tenantId = ThreadLocalRandom.current().nextLong(1, TENANTS);
+        return System.nanoTime() - start + tenantId;
+    }
+
+    @Benchmark
+    public long instrumented() {
+        long start = System.nanoTime();
+        long tenantId = ThreadLocalRandom.current().nextLong(1, TENANTS);
+        long elapsed = System.nanoTime() - start;
+        jwtTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        tenantMetrics.record(tenantId, 200);
+        endpointTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        return elapsed + tenantId;
+    }
+}
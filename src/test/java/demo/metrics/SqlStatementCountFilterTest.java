@@ -0,0 +1,72 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlStatementCountFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SqlStatementCounter inspector = new SqlStatementCounter();
+
+    @Test
+    void whenRequestRepeatsAStatement_thenItIsCountedAndFlaggedAsRepeated() throws Exception {
+        MockHttpServletRequest request = request();
+
+        filter(10, 3).doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            inspector.inspect("select w.id, w.property_id from work_order w where w.tenant_id=?");
+            for (int i = 0; i < 4; i++) {
+                inspector.inspect("select p.id, p.address from property p where p.id=?");
+            }
+        });
+
+        SqlStatementCounter.Counts counts = (SqlStatementCounter.Counts) request.getAttribute(SqlStatementCountFilter.COUNTS_ATTRIBUTE);
+        assertEquals(5, counts.total());
+        assertEquals(4, counts.maxRepeats());
+        assertEquals("select p.id, p.address from property p where p.id=?", counts.mostRepeatedShape());
+        assertEquals(5.0, registry.get("sql.statements.per.request").tag("uri", "/api/workorders").summary().totalAmount());
+        assertEquals(1.0, registry.get("sql.statements.over.budget").tag("reason", "repeated").counter().count());
+        assertNull(SqlStatementCounter.current(), "Counting must stop with the request");
+    }
+
+    @Test
+    void whenRequestStaysWithinBudget_thenNothingIsFlagged() throws Exception {
+        filter(10, 3).doFilter(request(), new MockHttpServletResponse(), (req, res) -> {
+            inspector.inspect("select 1");
+            inspector.inspect("select 2");
+        });
+
+        assertEquals(1, registry.get("sql.statements.per.request").summary().count());
+        assertNull(registry.find("sql.statements.over.budget").counter());
+    }
+
+    @Test
+    void whenStatementsRunOutsideARequest_thenTheyAreNotCounted() {
+        assertEquals("select 1", inspector.inspect("select 1"));
+        assertNull(SqlStatementCounter.current());
+    }
+
+    @Test
+    void whenDescribingAStatement_thenLiteralsAndParameterListsAreCollapsed() {
+        assertEquals("select * from app_user u where u.id in (?...) and u.username=? and u.tenant_id=?",
+                SqlStatementCounter.Counts.shapeOf("select * from app_user u\n  where u.id in (?, ?, ?) and u.username='a''b' and u.tenant_id=42"));
+    }
+
+    private SqlStatementCountFilter filter(int budget, int repeatThreshold) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("registry", registry);
+        return new SqlStatementCountFilter(beans.getBeanProvider(MeterRegistry.class), budget, repeatThreshold);
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/workorders");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/workorders");
+        return request;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.demo.metrics;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MockMvc matchers on the SQL statements a request ran, for controller tests against the
+ * full application (@SpringBootTest with @AutoConfigureMockMvc), e.g.
+ *
+ *   mockMvc.perform(get("/api/properties")...).andExpect(SqlStatements.atMost(3))
+ *                                              .andExpect(SqlStatements.noRepeatsOver(1));
+ */
+public final class SqlStatements {
+
+    private SqlStatements() {
+    }
+
+    public static ResultMatcher atMost(int statements) {
+        return result -> {
+            SqlStatementCounter.Counts counts = of(result);
+            assertTrue(counts.total() <= statements, () -> "Expected at most " + statements + " SQL statements but "
+                    + describe(result) + " ran " + counts.total() + "; most repeated: " + counts.mostRepeatedShape());
+        };
+    }
+
+    /**
+     * Fails if any one statement ran more than the given number of times, the signature of N+1 loading.
+     */
+    public static ResultMatcher noRepeatsOver(int times) {
+        return result -> {
+            SqlStatementCounter.Counts counts = of(result);
+            assertTrue(counts.maxRepeats() <= times, () -> describe(result) + " ran one statement "
+                    + counts.maxRepeats() + " times: " + counts.mostRepeatedShape());
+        };
+    }
+
+    public static SqlStatementCounter.Counts of(MvcResult result) {
+        Object counts = result.getRequest().getAttribute(SqlStatementCountFilter.COUNTS_ATTRIBUTE);
+        assertNotNull(counts, "No SQL statement counts; is SqlStatementCountFilter in the MockMvc filter chain?");
+        return (SqlStatementCounter.Counts) counts;
+    }
+
+    private static String describe(MvcResult result) {
+        return result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TenantRequestMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void whenRecording_thenRequestsAreCountedPerTenantAndOutcome() {
+        TenantRequestMetrics metrics = new TenantRequestMetrics(registry, 10);
+
+        metrics.record(1L, 200);
+        metrics.record(1L, 201);
+        metrics.record(1L, 403);
+        metrics.record(1L, 500);
+        metrics.record(null, 401);
+
+        assertEquals(2.0, count("1", "SUCCESS"));
+        assertEquals(1.0, count("1", "CLIENT_ERROR"));
+        assertEquals(1.0, count("1", "SERVER_ERROR"));
+        assertEquals(1.0, count(TenantRequestMetrics.NONE, "CLIENT_ERROR"));
+    }
+
+    @Test
+    void whenMoreTenantsThanTheLimit_thenTheRestShareOneSeries() {
+        TenantRequestMetrics metrics = new TenantRequestMetrics(registry, 3);
+
+        for (long tenantId = 1; tenantId <= 50; tenantId++) {
+            metrics.record(tenantId, 200);
+            metrics.record(tenantId, 200);
+        }
+
+        assertEquals(4, registry.find(TenantRequestMetrics.METRIC).counters().size());
+        assertEquals(2.0, count("3", "SUCCESS"));
+        assertEquals(94.0, count(TenantRequestMetrics.OTHER, "SUCCESS"));
+        assertNull(registry.find(TenantRequestMetrics.METRIC).tag("tenant", "4").counter());
+    }
+
+    private double count(String tenant, String outcome) {
+        return registry.get(TenantRequestMetrics.METRIC).tag("tenant", tenant).tag("outcome", outcome).counter().count();
+    }
+}
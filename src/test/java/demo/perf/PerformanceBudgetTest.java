@@ -0,0 +1,211 @@
+package com.example.demo.perf;
+
+import com.example.demo.metrics.SqlStatements;
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.tenant.Tenant;
+import com.example.demo.tenant.TenantRepository;
+import com.example.demo.user.AuthServiceImpl;
+import com.example.demo.user.JwtTokenProvider;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Performance regression gate (mvn -Pperf-gate test): a fixed workload against the real controllers,
+ * filters and database, measuring latency, allocated bytes and SQL statements per request and comparing
+ * them with the budgets in perf-budgets.properties.
+ *
+ * MockMvc runs each request on the calling thread, so the thread's allocation counter covers the whole
+ * request. Latency budgets are scaled to this machine by a calibration workload run after each endpoint,
+ * so it sees the same conditions as the requests (see PerformanceBudgets). The measurements of every run
+ * are written to target/perf-gate/measured-budgets.properties; after an intended change, copy the affected
+ * lines into the committed budgets, together with calibration.ms when copying latencies.
+ */
+@Tag("perf")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PerformanceBudgetTest {
+
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 300;
+    // BCrypt makes logins deliberately slow
+    private static final int LOGIN_WARMUP = 5;
+    private static final int LOGIN_ITERATIONS = 20;
+    private static final String PASSWORD = "perf-gate-password";
+
+    private static final Logger log = LoggerFactory.getLogger(PerformanceBudgetTest.class);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private TenantRepository tenantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PermissionCatalog permissionCatalog;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Long tenantId;
+    private String username;
+    private String token;
+    private long[] propertyIds;
+    private long[] vendorIds;
+    private long[] workOrderIds;
+    private final List<Double> calibrations = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // A mid-sized tenant: 200 properties, 50 vendors, 1000 work orders and 50 users
+        permissionCatalog.seed(AuthServiceImpl.DEFAULT_PERMISSIONS);
+        tenantId = tenantRepository.save(new Tenant("Perf " + UUID.randomUUID())).getId();
+        List<Object[]> properties = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            properties.add(new Object[]{i + " Perf Street", i % 2 == 0 ? "Condo" : "Single Family", i % 5, 1 + i % 3, tenantId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO property (address, type, bedrooms, bathrooms, tenant_id) VALUES (?, ?, ?, ?, ?)", properties);
+        List<Object[]> vendors = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            vendors.add(new Object[]{"Perf Vendor " + i, i % 2 == 0 ? "Plumbing" : "Electrical", "555-01" + i, tenantId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO vendor (name, specialty, phone, tenant_id) VALUES (?, ?, ?, ?)", vendors);
+        propertyIds = ids("property");
+        vendorIds = ids("vendor");
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> workOrders = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            workOrders.add(new Object[]{"Perf job " + i, "PENDING", now, now, propertyIds[i % propertyIds.length],
+                    i % 4 == 0 ? null : vendorIds[i % vendorIds.length], tenantId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO work_order (description, status, created_at, updated_at, property_id, vendor_id, tenant_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", workOrders);
+        workOrderIds = ids("work_order");
+
+        User admin = null;
+        for (int i = 0; i < 50; i++) {
+            User user = new User();
+            user.setUsername((i == 0 ? "admin-" : "user-" + i + "-") + UUID.randomUUID() + "@example.com");
+            user.setPassword(i == 0 ? passwordEncoder.encode(PASSWORD) : "not-a-real-hash");
+            user.setTenantId(tenantId);
+            user.setPermissions(permissionCatalog.resolve(i == 0
+                    ? AuthServiceImpl.DEFAULT_PERMISSIONS : List.of(AuthServiceImpl.DEFAULT_PERMISSIONS.get(0))));
+            user = userRepository.save(user);
+            if (i == 0) {
+                admin = user;
+            }
+        }
+        username = admin.getUsername();
+        token = "Bearer " + jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+    }
+
+    @Test
+    void whenRunningFixedWorkload_thenEveryEndpointStaysWithinBudget() throws Exception {
+        List<PerformanceBudgets.Measurement> measurements = List.of(
+                measure("properties.list", 200, () -> get("/api/properties").header("Authorization", token)),
+                measure("properties.get", 200, () -> get("/api/properties/" + random(propertyIds)).header("Authorization", token)),
+                measure("properties.create", 201, () -> post("/api/properties").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"address\":\"1 New Street\",\"type\":\"Condo\",\"bedrooms\":2,\"bathrooms\":1}")),
+                measure("vendors.list", 200, () -> get("/api/vendors").header("Authorization", token)),
+                measure("vendors.get", 200, () -> get("/api/vendors/" + random(vendorIds)).header("Authorization", token)),
+                measure("workorders.list", 200, () -> get("/api/workorders").header("Authorization", token)),
+                measure("workorders.get", 200, () -> get("/api/workorders/" + random(workOrderIds)).header("Authorization", token)),
+                measure("workorders.status", 200, () -> put("/api/workorders/" + random(workOrderIds) + "/status")
+                        .header("Authorization", token)
+                        .param("status", "IN_PROGRESS")),
+                measure("workorders.create", 201, () -> post("/api/workorders").header("Authorization", token)
+                        .param("propertyId", Long.toString(random(propertyIds)))
+                        .param("vendorId", Long.toString(random(vendorIds)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Perf gate job\"}")),
+                measure("admin.users", 200, () -> get("/api/admin/users").header("Authorization", token)),
+                measure("admin.permission-matrix", 200, () -> get("/api/admin/users/permission-matrix").header("Authorization", token)),
+                measure("auth.login", 200, LOGIN_WARMUP, LOGIN_ITERATIONS, () -> post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}")));
+
+        double calibration = calibrations.stream().sorted().toList().get(calibrations.size() / 2);
+
+        PerformanceBudgets.write(calibration, measurements, Path.of("target", "perf-gate", "measured-budgets.properties"));
+        PerformanceBudgets budgets = PerformanceBudgets.load().calibratedTo(calibration);
+        log.info("Calibration workload took {} ms, latency budgets scaled by {}",
+                String.format(Locale.ROOT, "%.3f", calibration), String.format(Locale.ROOT, "%.2f", budgets.latencyScale()));
+        measurements.forEach(m -> log.info("{}", m));
+
+        List<String> violations = measurements.stream().flatMap(m -> budgets.violations(m).stream()).toList();
+        assertTrue(violations.isEmpty(), () -> "Performance budgets exceeded:\n  " + String.join("\n  ", violations)
+                + "\nMeasured values are in target/perf-gate/measured-budgets.properties");
+    }
+
+    private PerformanceBudgets.Measurement measure(String scenario, int expectedStatus, Supplier<RequestBuilder> request) throws Exception {
+        return measure(scenario, expectedStatus, WARMUP, ITERATIONS, request);
+    }
+
+    private PerformanceBudgets.Measurement measure(String scenario, int expectedStatus, int warmup, int iterations,
+                                                   Supplier<RequestBuilder> request) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            mockMvc.perform(request.get()).andExpect(status().is(expectedStatus));
+        }
+        long[] nanos = new long[iterations];
+        long allocated = 0;
+        int maxStatements = 0;
+        for (int i = 0; i < iterations; i++) {
+            RequestBuilder builder = request.get();
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            MvcResult result = mockMvc.perform(builder).andReturn();
+            nanos[i] = System.nanoTime() - start;
+            allocated += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            assertEquals(expectedStatus, result.getResponse().getStatus(), scenario);
+            maxStatements = Math.max(maxStatements, SqlStatements.of(result).total());
+        }
+        calibrations.add(PerformanceBudgets.calibrationMillis());
+        return PerformanceBudgets.Measurement.of(scenario, nanos, allocated, maxStatements);
+    }
+
+    private long[] ids(String table) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + table + " WHERE tenant_id = ?", Long.class, tenantId)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long random(long[] ids) {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.demo.perf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Per-endpoint budgets committed in src/test/resources/perf-budgets.properties. A measurement violates
+ * its budget when it exceeds it by more than the tolerance of the metric.
+ *
+ * The p50 latency budgets are relative to the machine that recorded them: calibration.ms is the time of a
+ * fixed CPU-bound workload (calibrationMillis) on that machine, and calibratedTo scales the budgets by how
+ * much slower or faster the current machine runs it, which lets the latency tolerance stay tight. p99 is
+ * only reported: over a few hundred requests it is decided by a handful of GC pauses. Allocation and SQL
+ * statement counts do not depend on the machine and are compared as committed.
+ *
+ * Tolerances can be overridden per run, e.g. -Dperf.tolerance.latency=1.0 on a noisy CI agent.
+ */
+final class PerformanceBudgets {
+
+    static final String RESOURCE = "/perf-budgets.properties";
+    static final String CALIBRATION = "calibration.ms";
+
+    private static final int CALIBRATION_WARMUP = 5;
+    private static final int CALIBRATION_ROUNDS = 21;
+    private static final byte[] CALIBRATION_DATA = new byte[256 * 1024];
+    private static final int[] CALIBRATION_NUMBERS;
+    private static final int[] CALIBRATION_SCRATCH;
+    private static final MessageDigest CALIBRATION_DIGEST;
+    private static volatile long calibrationSink;
+
+    static {
+        Random random = new Random(42);
+        random.nextBytes(CALIBRATION_DATA);
+        CALIBRATION_NUMBERS = random.ints(100_000).toArray();
+        CALIBRATION_SCRATCH = new int[CALIBRATION_NUMBERS.length];
+        try {
+            CALIBRATION_DIGEST = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private final Properties budgets;
+    private final double latencyScale;
+
+    private PerformanceBudgets(Properties budgets, double latencyScale) {
+        this.budgets = budgets;
+        this.latencyScale = latencyScale;
+    }
+
+    static PerformanceBudgets load() throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream in = PerformanceBudgets.class.getResourceAsStream(RESOURCE)) {
+            if (in != null) {
+                budgets.load(in);
+            }
+        }
+        return new PerformanceBudgets(budgets, 1);
+    }
+
+    static PerformanceBudgets of(Map<String, String> budgets) {
+        Properties properties = new Properties();
+        properties.putAll(budgets);
+        return new PerformanceBudgets(properties, 1);
+    }
+
+    /**
+     * These budgets with latency scaled to a machine whose calibration workload took the given time.
+     * Without a committed calibration the latency budgets are used as they are.
+     */
+    PerformanceBudgets calibratedTo(double calibrationMillis) {
+        String committed = budgets.getProperty(CALIBRATION);
+        return committed == null ? this : new PerformanceBudgets(budgets, calibrationMillis / Double.parseDouble(committed));
+    }
+
+    double latencyScale() {
+        return latencyScale;
+    }
+
+    /**
+     * Every way the measurement exceeds the budget of its scenario, empty if within budget.
+     */
+    List<String> violations(Measurement measurement) {
+        List<String> violations = new ArrayList<>();
+        String scenario = measurement.scenario();
+        if (!budgets.containsKey(scenario + ".p50-ms")) {
+            violations.add(scenario + ": no budget committed in " + RESOURCE);
+            return violations;
+        }
+        check(violations, scenario, "p50-ms", measurement.p50Millis(), latencyScale, tolerance("latency"));
+        check(violations, scenario, "allocated-kb", measurement.allocatedKilobytes(), 1, tolerance("allocation"));
+        check(violations, scenario, "sql-statements", measurement.sqlStatements(), 1, tolerance("sql"));
+        return violations;
+    }
+
+    private void check(List<String> violations, String scenario, String metric, double measured, double scale, double tolerance) {
+        double budget = Double.parseDouble(budgets.getProperty(scenario + "." + metric)) * scale;
+        double limit = budget * (1 + tolerance);
+        if (measured > limit) {
+            violations.add(String.format(Locale.ROOT, "%s: %s %.2f exceeds budget %.2f by more than %.0f%%",
+                    scenario, metric, measured, budget, tolerance * 100));
+        }
+    }
+
+    private double tolerance(String kind) {
+        String override = System.getProperty("perf.tolerance." + kind);
+        return Double.parseDouble(override != null ? override : budgets.getProperty("tolerance." + kind, "0"));
+    }
+
+    /**
+     * Writes the measurements in budget form, for updating the committed budgets after an intended change.
+     */
+    static void write(double calibrationMillis, List<Measurement> measurements, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (Writer out = Files.newBufferedWriter(file)) {
+            out.write(String.format(Locale.ROOT, "%s=%.3f%n", CALIBRATION, calibrationMillis));
+            for (Measurement m : measurements) {
+                out.write(String.format(Locale.ROOT, "%1$s.p50-ms=%2$.2f%n%1$s.allocated-kb=%3$.0f%n%1$s.sql-statements=%4$d%n",
+                        m.scenario(), m.p50Millis(), Math.ceil(m.allocatedKilobytes()), m.sqlStatements()));
+            }
+        }
+    }
+
+    /**
+     * Median time of a fixed workload of hashing and sorting, the CPU-bound part of a request without its
+     * I/O. It allocates almost nothing, so garbage collection left over from the requests does not skew it.
+     */
+    static double calibrationMillis() {
+        long[] nanos = new long[CALIBRATION_ROUNDS];
+        for (int round = -CALIBRATION_WARMUP; round < CALIBRATION_ROUNDS; round++) {
+            long start = System.nanoTime();
+            calibrationSink += calibrationWork();
+            if (round >= 0) {
+                nanos[round] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(nanos);
+        return nanos[CALIBRATION_ROUNDS / 2] / 1e6;
+    }
+
+    private static long calibrationWork() {
+        CALIBRATION_DIGEST.reset();
+        CALIBRATION_DIGEST.update(CALIBRATION_DATA);
+        long result = CALIBRATION_DIGEST.digest()[0];
+        System.arraycopy(CALIBRATION_NUMBERS, 0, CALIBRATION_SCRATCH, 0, CALIBRATION_NUMBERS.length);
+        Arrays.sort(CALIBRATION_SCRATCH);
+        return result + CALIBRATION_SCRATCH[CALIBRATION_SCRATCH.length / 2];
+    }
+
+    /**
+     * Latency percentiles, mean allocation and the most SQL statements of one scenario's requests.
+     */
+    record Measurement(String scenario, double p50Millis, double p99Millis, double allocatedKilobytes, int sqlStatements) {
+
+        static Measurement of(String scenario, long[] nanos, long allocatedBytes, int maxSqlStatements) {
+            long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            return new Measurement(scenario, percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6,
+                    allocatedBytes / 1024.0 / nanos.length, maxSqlStatements);
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-28s p50 %7.2f ms  p99 %7.2f ms  %8.1f KB/request  %3d SQL statements",
+                    scenario, p50Millis, p99Millis, allocatedKilobytes, sqlStatements);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.perf;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerformanceBudgetsTest {
+
+    private final PerformanceBudgets budgets = PerformanceBudgets.of(Map.of(
+            "tolerance.latency", "0.5",
+            "tolerance.allocation", "0.1",
+            "tolerance.sql", "0",
+            "calibration.ms", "4",
+            "vendors.get.p50-ms", "2",
+            "vendors.get.allocated-kb", "100",
+            "vendors.get.sql-statements", "3"));
+
+    @Test
+    void whenWithinTolerance_thenNoViolations() {
+        assertEquals(0, budgets.violations(new PerformanceBudgets.Measurement("vendors.get", 2.9, 14.9, 109, 3)).size());
+    }
+
+    @Test
+    void whenOverTolerance_thenEachMetricIsReported() {
+        var violations = budgets.violations(new PerformanceBudgets.Measurement("vendors.get", 3.1, 9, 111, 4));
+
+        assertEquals(3, violations.size(), violations.toString());
+        assertTrue(violations.get(0).startsWith("vendors.get: p50-ms 3.10 exceeds budget 2.00"));
+        assertTrue(violations.stream().anyMatch(v -> v.contains("sql-statements 4.00")));
+    }
+
+    @Test
+    void whenMachineIsSlower_thenLatencyBudgetsScaleButCountsDoNot() {
+        var slower = budgets.calibratedTo(8);
+
+        assertEquals(0, slower.violations(new PerformanceBudgets.Measurement("vendors.get", 5.9, 29.9, 109, 3)).size());
+        var violations = slower.violations(new PerformanceBudgets.Measurement("vendors.get", 6.1, 9, 111, 4));
+        assertEquals(3, violations.size(), violations.toString());
+        assertTrue(violations.get(0).startsWith("vendors.get: p50-ms 6.10 exceeds budget 4.00"));
+    }
+
+    @Test
+    void whenScenarioHasNoBudget_thenItIsAViolation() {
+        var violations = budgets.violations(new PerformanceBudgets.Measurement("vendors.list", 1, 1, 1, 1));
+
+        assertEquals(1, violations.size());
+        assertTrue(violations.get(0).contains("no budget committed"));
+    }
+}
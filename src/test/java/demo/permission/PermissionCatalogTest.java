@@ -0,0 +1,118 @@
+package com.example.demo.permission;
+
+import com.example.demo.exception.ForbiddenException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PermissionCatalogTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcDataSource dataSource;
+    private PermissionCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:catalog_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE permission (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "name VARCHAR(255) NOT NULL UNIQUE)");
+        catalog = new PermissionCatalog(dataSource);
+    }
+
+    @Test
+    void whenSeeding_thenOnlyMissingPermissionsAreInserted() {
+        jdbcTemplate.update("INSERT INTO permission (name) VALUES ('PERMISSION_B')");
+
+        catalog.seed(List.of("PERMISSION_A", "PERMISSION_B", "PERMISSION_C"));
+        catalog.seed(List.of("PERMISSION_A", "PERMISSION_B", "PERMISSION_C"));
+
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM permission", Integer.class));
+        assertEquals(List.of("PERMISSION_B", "PERMISSION_A", "PERMISSION_C"), catalog.names());
+        assertEquals(jdbcTemplate.queryForObject("SELECT id FROM permission WHERE name = 'PERMISSION_C'", Long.class),
+                catalog.idOf("PERMISSION_C").orElseThrow());
+    }
+
+    @Test
+    void whenPermissionsAreAdded_thenExistingBitsDoNotChange() {
+        catalog.seed(List.of("PERMISSION_A", "PERMISSION_B"));
+        BitSet before = catalog.maskOf(Set.of("PERMISSION_A", "PERMISSION_B"));
+
+        catalog.seed(List.of("PERMISSION_0", "PERMISSION_A"));
+
+        assertEquals(before, catalog.maskOf(Set.of("PERMISSION_A", "PERMISSION_B")));
+        assertEquals(2, catalog.bitOf("PERMISSION_0").orElseThrow());
+        assertThrows(IllegalArgumentException.class, () -> catalog.maskOf(Set.of("PERMISSION_UNKNOWN")));
+    }
+
+    @Test
+    void whenResolving_thenReturnsEntitiesWithIdsAndSkipsUnknownNames() {
+        catalog.seed(List.of("PERMISSION_A", "PERMISSION_B"));
+
+        Set<Permission> permissions = catalog.resolve(Set.of("PERMISSION_A", "PERMISSION_UNKNOWN"));
+
+        assertEquals(1, permissions.size());
+        Permission permission = permissions.iterator().next();
+        assertEquals("PERMISSION_A", permission.getName());
+        assertEquals(catalog.idOf("PERMISSION_A").orElseThrow(), permission.getId());
+        assertEquals(Set.of("PERMISSION_A", "PERMISSION_B"),
+                catalog.all().stream().map(Permission::getName).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void whenThePlatformPermissionExists_thenItIsNeitherResolvedNorPartOfAll() {
+        catalog.seed(List.of("PERMISSION_A", PermissionCatalog.PLATFORM_PERMISSION));
+
+        assertThrows(ForbiddenException.class, () -> catalog.resolve(Set.of("PERMISSION_A", PermissionCatalog.PLATFORM_PERMISSION)));
+        assertEquals(Set.of("PERMISSION_A"), catalog.all().stream().map(Permission::getName).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void whenPermissionWasAddedElsewhere_thenResolveRefreshesTheSnapshot() {
+        catalog.seed(List.of("PERMISSION_A"));
+        jdbcTemplate.update("INSERT INTO permission (name) VALUES ('PERMISSION_NEW')");
+
+        assertTrue(catalog.idOf("PERMISSION_NEW").isEmpty());
+        assertEquals(1, catalog.resolve(Set.of("PERMISSION_NEW")).size());
+        assertTrue(catalog.idOf("PERMISSION_NEW").isPresent());
+    }
+
+    @Test
+    void whenUnknownNamesKeepComing_thenResolveReloadsAtMostOncePerInterval() {
+        catalog = new PermissionCatalog(dataSource, Duration.ofHours(1));
+        catalog.seed(List.of("PERMISSION_A"));
+        assertTrue(catalog.resolve(Set.of("PERMISSION_UNKNOWN")).isEmpty());
+        jdbcTemplate.update("INSERT INTO permission (name) VALUES ('PERMISSION_NEW')");
+
+        assertTrue(catalog.resolve(Set.of("PERMISSION_NEW")).isEmpty());
+        assertTrue(catalog.idOf("PERMISSION_NEW").isEmpty());
+    }
+
+    @Test
+    void whenCatalogueExceedsSixtyFourPermissions_thenMasksGrowWithIt() {
+        catalog.seed(List.of("PERMISSION_A"));
+        for (int i = 0; i < 100; i++) {
+            jdbcTemplate.update("INSERT INTO permission (name) VALUES (?)", "PERMISSION_EXTRA_" + i);
+        }
+
+        catalog.refresh();
+
+        assertEquals(101, catalog.names().size());
+        assertEquals(100, catalog.bitOf("PERMISSION_EXTRA_99").orElseThrow());
+        BitSet mask = catalog.maskOf(Set.of("PERMISSION_A", "PERMISSION_EXTRA_99"));
+        assertEquals(2, mask.cardinality());
+        assertTrue(mask.get(0) && mask.get(100));
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.demo.reactive;
+
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.property.Property;
+import com.example.demo.property.PropertyRepository;
+import com.example.demo.tenant.Tenant;
+import com.example.demo.tenant.TenantRepository;
+import com.example.demo.user.JwtTokenProvider;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import com.example.demo.workorder.WorkOrder;
+import com.example.demo.workorder.WorkOrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The reactive read stack (profile "reactive") against data written through JPA: tenant scoping, JWT, streaming,
+// and the metrics scrape
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.platform.operators=" + ReactiveReadStackTest.SCRAPER)
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+@AutoConfigureObservability
+public class ReactiveReadStackTest {
+
+    static final String SCRAPER = "reactive-prometheus@example.com";
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private TenantRepository tenantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PropertyRepository propertyRepository;
+    @Autowired
+    private WorkOrderRepository workOrderRepository;
+    @Autowired
+    private PermissionCatalog permissionCatalog;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void whenListingProperties_thenOnlyTheTenantsOwnAreReturnedInIdOrder() {
+        Long tenantId = newTenant();
+        Long otherTenantId = newTenant();
+        Property first = property(tenantId, "1 Reactive Road");
+        Property second = property(tenantId, "2 Reactive Road");
+        Property foreign = property(otherTenantId, "3 Elsewhere Lane");
+
+        webTestClient.get().uri("/api/properties")
+                .header("Authorization", tokenFor(tenantId))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo(first.getId().intValue())
+                .jsonPath("$[0].address").isEqualTo("1 Reactive Road")
+                .jsonPath("$[0].tenantId").isEqualTo(tenantId.intValue())
+                .jsonPath("$[1].id").isEqualTo(second.getId().intValue());
+
+        webTestClient.get().uri("/api/properties/{id}", first.getId())
+                .header("Authorization", tokenFor(tenantId))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.bedrooms").isEqualTo(3);
+        webTestClient.get().uri("/api/properties/{id}", foreign.getId())
+                .header("Authorization", tokenFor(tenantId))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void whenTokenIsMissingOrInvalid_orTheRequestIsNotARead_thenItIsRejected() {
+        webTestClient.get().uri("/api/vendors").exchange().expectStatus().isForbidden();
+        webTestClient.get().uri("/api/vendors")
+                .header("Authorization", "Bearer not-a-token")
+                .exchange()
+                .expectStatus().isForbidden();
+        webTestClient.post().uri("/api/vendors")
+                .header("Authorization", tokenFor(newTenant()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Writes stay on the servlet stack\"}")
+                .exchange()
+                .expectStatus().isForbidden();
+        webTestClient.get().uri("/actuator/health").exchange().expectStatus().isOk();
+    }
+
+    @Test
+    void whenScrapingPrometheus_thenOnlyPlatformOperatorsGetTheMetrics() {
+        Long tenantId = newTenant();
+        if (userRepository.findByUsername(SCRAPER).isEmpty()) {
+            saveUser(SCRAPER, tenantId);
+        }
+        User tenantUser = saveUser(UUID.randomUUID() + "@example.com", tenantId);
+
+        webTestClient.get().uri("/actuator/prometheus").exchange().expectStatus().isUnauthorized();
+        webTestClient.get().uri("/actuator/prometheus")
+                .headers(headers -> headers.setBasicAuth(SCRAPER, "wrong"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+        webTestClient.get().uri("/actuator/prometheus")
+                .headers(headers -> headers.setBasicAuth(tenantUser.getUsername(), "scrape-secret"))
+                .exchange()
+                .expectStatus().isForbidden();
+        webTestClient.get().uri("/actuator/prometheus")
+                .headers(headers -> headers.setBasicAuth(SCRAPER, "scrape-secret"))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void whenWorkOrdersAreStreamedAsNdjson_thenTheClientReadsThemOneByOne() {
+        Long tenantId = newTenant();
+        Property property = property(tenantId, "4 Stream Street");
+        List<WorkOrder> workOrders = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            WorkOrder workOrder = new WorkOrder();
+            workOrder.setProperty(property);
+            workOrder.setDescription("Job " + i);
+            workOrder.setTenantId(tenantId);
+            workOrders.add(workOrder);
+        }
+        workOrderRepository.saveAll(workOrders);
+
+        List<Map> firstRows = webTestClient.get().uri("/api/workorders")
+                .header("Authorization", tokenFor(tenantId))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Map.class)
+                .getResponseBody()
+                .take(3)
+                .collectList()
+                .block();
+
+        assertEquals(3, firstRows.size());
+        assertEquals("Job 0", firstRows.get(0).get("description"));
+        assertEquals(property.getId().intValue(), firstRows.get(0).get("propertyId"));
+
+        webTestClient.get().uri("/api/workorders")
+                .header("Authorization", tokenFor(tenantId))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(500);
+    }
+
+    private Property property(Long tenantId, String address) {
+        Property property = new Property();
+        property.setAddress(address);
+        property.setType("House");
+        property.setBedrooms(3);
+        property.setBathrooms(1);
+        property.setTenantId(tenantId);
+        return propertyRepository.save(property);
+    }
+
+    private User saveUser(String username, Long tenantId) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(passwordEncoder.encode("scrape-secret"));
+        user.setTenantId(tenantId);
+        user.setPermissions(permissionCatalog.resolve(Set.of("PERMISSION_READ_OWN_DATA")));
+        return userRepository.save(user);
+    }
+
+    private Long newTenant() {
+        return tenantRepository.save(new Tenant("Reactive " + UUID.randomUUID())).getId();
+    }
+
+    private String tokenFor(Long tenantId) {
+        User user = new User();
+        user.setUsername(UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setTenantId(tenantId);
+        user.setPermissions(permissionCatalog.resolve(Set.of("PERMISSION_READ_OWN_DATA")));
+        user = userRepository.save(user);
+        return "Bearer " + jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.demo.role;
+
+import com.example.demo.admin.AdminService;
+import com.example.demo.admin.BulkPermissionChangeRequest;
+import com.example.demo.admin.BulkPermissionChangeResult;
+import com.example.demo.exception.ForbiddenException;
+import com.example.demo.exception.InvalidRequestException;
+import com.example.demo.permission.Permission;
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.tenant.Tenant;
+import com.example.demo.tenant.TenantRepository;
+import com.example.demo.user.CustomUserDetailsService;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the real H2 database: templates, bulk changes and the effective permission closure
+@SpringBootTest
+public class RoleTemplateServiceTest {
+
+    private static final String READ = "PERMISSION_READ_OWN_DATA";
+    private static final String MANAGE_USERS = "PERMISSION_MANAGE_USERS";
+    private static final String DELETE_VENDOR = "PERMISSION_DELETE_VENDOR";
+    private static final String DELETE_PROPERTY = "PERMISSION_DELETE_PROPERTY";
+    private static final String DELETE_WORK_ORDER = "PERMISSION_DELETE_WORK_ORDER";
+
+    @Autowired
+    private RoleTemplateService roleTemplateService;
+    @Autowired
+    private AdminService adminService;
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+    @Autowired
+    private TenantRepository tenantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PermissionCatalog permissionCatalog;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Tenant tenant;
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        tenant = tenantRepository.save(new Tenant("Tenant " + UUID.randomUUID()));
+        admin = createUser(tenant, READ, MANAGE_USERS);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void whenAssigningTemplate_thenMembersGainItsPermissionsAndKeepDirectOnes() {
+        User user = createUser(tenant, READ);
+        roleTemplateService.saveTemplate("vendor-manager", Set.of(DELETE_VENDOR, DELETE_WORK_ORDER));
+
+        BulkPermissionChangeResult result = adminService.bulkChangePermissions(
+                request(Set.of(user.getId()), Set.of(), Set.of(), Set.of("vendor-manager"), Set.of()));
+
+        assertEquals(2, result.getPermissionsAdded());
+        assertEquals(Set.of(READ, DELETE_VENDOR, DELETE_WORK_ORDER), authorities(user));
+    }
+
+    @Test
+    void whenTemplateChanges_thenOnlyItsMembersAreRecomputed() {
+        User member = createUser(tenant, READ);
+        User outsider = createUser(tenant, READ);
+        roleTemplateService.saveTemplate("cleanup", Set.of(DELETE_VENDOR));
+        adminService.bulkChangePermissions(request(Set.of(member.getId()), Set.of(), Set.of(), Set.of("cleanup"), Set.of()));
+        authorities(member); // cache the old set
+
+        roleTemplateService.saveTemplate("cleanup", Set.of(DELETE_PROPERTY));
+
+        assertEquals(Set.of(READ, DELETE_PROPERTY), authorities(member));
+        assertEquals(Set.of(READ), authorities(outsider));
+        assertEquals(1, roleTemplateService.listTemplates().get(0).getMembers());
+    }
+
+    @Test
+    void whenRevokingDirectGrant_thenPermissionFromTemplateRemains() {
+        User user = createUser(tenant, READ, DELETE_VENDOR);
+        roleTemplateService.saveTemplate("vendors", Set.of(DELETE_VENDOR));
+        adminService.bulkChangePermissions(request(Set.of(user.getId()), Set.of(), Set.of(), Set.of("vendors"), Set.of()));
+
+        adminService.bulkChangePermissions(request(Set.of(user.getId()), Set.of(), Set.of(DELETE_VENDOR), Set.of(), Set.of()));
+        assertEquals(Set.of(READ, DELETE_VENDOR), authorities(user));
+
+        roleTemplateService.deleteTemplate("vendors");
+        assertEquals(Set.of(READ), authorities(user));
+    }
+
+    @Test
+    void whenBulkChanging_thenStatementCountDoesNotDependOnNumberOfUsers() {
+        Set<Long> few = userIds(createUsers(5));
+        Set<Long> many = userIds(createUsers(200));
+
+        long forFew = statementsFor(() -> adminService.bulkChangePermissions(
+                request(few, Set.of(DELETE_VENDOR), Set.of(READ), Set.of(), Set.of())));
+        long forMany = statementsFor(() -> adminService.bulkChangePermissions(
+                request(many, Set.of(DELETE_VENDOR), Set.of(READ), Set.of(), Set.of())));
+
+        System.out.printf("bulk permission change statements: 5 users=%d, 200 users=%d%n", forFew, forMany);
+        assertEquals(forFew, forMany);
+        User sample = userRepository.findById(many.iterator().next()).orElseThrow();
+        assertEquals(Set.of(DELETE_VENDOR), authorities(sample));
+    }
+
+    @Test
+    void whenUpdatingOneUser_thenCachedPermissionsAreReplaced() {
+        User user = createUser(tenant, READ, DELETE_VENDOR);
+        authorities(user); // cache the old set
+
+        User updated = adminService.updateUserPermissions(user.getId(), Set.of(READ, DELETE_PROPERTY));
+
+        assertEquals(Set.of(READ, DELETE_PROPERTY),
+                updated.getPermissions().stream().map(Permission::getName).collect(Collectors.toSet()));
+        assertEquals(Set.of(READ, DELETE_PROPERTY), authorities(user));
+    }
+
+    @Test
+    void whenAdminRevokesOwnUserManagement_thenNothingChanges() {
+        User user = createUser(tenant, READ);
+
+        assertThrows(ForbiddenException.class, () -> adminService.bulkChangePermissions(
+                request(Set.of(admin.getId(), user.getId()), Set.of(DELETE_VENDOR), Set.of(MANAGE_USERS), Set.of(), Set.of())));
+
+        assertEquals(Set.of(READ, MANAGE_USERS), authorities(admin));
+        assertEquals(Set.of(READ), authorities(user));
+    }
+
+    @Test
+    void whenTemplateChangeRemovesAdminsOwnUserManagement_thenNothingChanges() {
+        adminViaTemplateOnly("admins");
+
+        assertThrows(ForbiddenException.class, () -> roleTemplateService.saveTemplate("admins", Set.of(READ)));
+
+        assertEquals(Set.of(READ, MANAGE_USERS), authorities(admin));
+        assertEquals(List.of(MANAGE_USERS), roleTemplateService.listTemplates().get(0).getPermissions());
+    }
+
+    @Test
+    void whenDeletingTemplateRemovesAdminsOwnUserManagement_thenNothingChanges() {
+        adminViaTemplateOnly("admins");
+
+        assertThrows(ForbiddenException.class, () -> roleTemplateService.deleteTemplate("admins"));
+
+        assertEquals(Set.of(READ, MANAGE_USERS), authorities(admin));
+        assertEquals(1, roleTemplateService.listTemplates().get(0).getMembers());
+    }
+
+    @Test
+    void whenUserBelongsToAnotherTenant_thenBulkChangeIsDenied() {
+        Tenant otherTenant = tenantRepository.save(new Tenant("Other " + UUID.randomUUID()));
+        User stranger = createUser(otherTenant, READ);
+
+        assertThrows(ForbiddenException.class, () -> adminService.bulkChangePermissions(
+                request(Set.of(stranger.getId()), Set.of(DELETE_VENDOR), Set.of(), Set.of(), Set.of())));
+        assertEquals(Set.of(READ), authorities(stranger));
+    }
+
+    @Test
+    void whenTemplateIsUnknown_thenBulkChangeIsRejected() {
+        User user = createUser(tenant, READ);
+        assertThrows(InvalidRequestException.class, () -> adminService.bulkChangePermissions(
+                request(Set.of(user.getId()), Set.of(), Set.of(), Set.of("no-such-role"), Set.of())));
+    }
+
+    // Leaves the admin with user management only through the given template
+    private void adminViaTemplateOnly(String templateName) {
+        roleTemplateService.saveTemplate(templateName, Set.of(MANAGE_USERS));
+        adminService.bulkChangePermissions(
+                request(Set.of(admin.getId()), Set.of(), Set.of(MANAGE_USERS), Set.of(templateName), Set.of()));
+        assertEquals(Set.of(READ, MANAGE_USERS), authorities(admin));
+    }
+
+    private static BulkPermissionChangeRequest request(Set<Long> userIds, Set<String> grant, Set<String> revoke,
+                                                       Set<String> assignRoles, Set<String> removeRoles) {
+        return new BulkPermissionChangeRequest(userIds, grant, revoke, assignRoles, removeRoles);
+    }
+
+    private Set<String> authorities(User user) {
+        return userDetailsService.loadUserByUsername(user.getUsername()).getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+    }
+
+    private long statementsFor(Runnable call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        call.run();
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    private List<User> createUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(createUser(tenant, READ));
+        }
+        return users;
+    }
+
+    private static Set<Long> userIds(List<User> users) {
+        return users.stream().map(User::getId).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private User createUser(Tenant owner, String... permissions) {
+        User user = new User();
+        user.setUsername(UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setTenantId(owner.getId());
+        user.setPermissions(permissionCatalog.resolve(Set.of(permissions)));
+        return userRepository.save(user);
+    }
+}
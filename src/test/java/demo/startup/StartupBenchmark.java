@@ -0,0 +1,271 @@
+package com.example.demo.startup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.spi.ToolProvider;
+import java.util.stream.Stream;
+
+/**
+ * Time-to-ready and resident memory of the packaged application, started the way it used to be (java -jar)
+ * and the way the Docker image starts it: layers extracted, application classes in their own jar, a CDS
+ * archive from a training run and, if the jar was built with -Pproduction, the AOT-generated context.
+ *
+ *   mvn -Pproduction,startup-benchmark package exec:exec -DskipTests [-Dstartup.args=...]
+ *
+ * Every run is a fresh JVM on a free port. Time-to-ready is measured from process start until
+ * /actuator/health/readiness answers 200 (the application has started and accepts traffic);
+ * RSS is read from /proc right after, so it is only reported on Linux.
+ *
+ * Options (defaults in brackets): --jar [target/demo-0.0.1-SNAPSHOT.jar], --runs [5],
+ * --work-dir [target/startup], --jvm-args [none; space-separated, applied to every mode].
+ */
+public final class StartupBenchmark {
+
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(3);
+    private static final String MAIN_CLASS = "com.example.demo.DemoApplication";
+    private static final String AOT_INITIALIZER = "BOOT-INF/classes/com/example/demo/DemoApplication__ApplicationContextInitializer.class";
+    private static final String ROW = "%-28s %6d %10d %10d %10d %12s%n";
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        Path jar = Path.of(options.getOrDefault("jar", "target/demo-0.0.1-SNAPSHOT.jar")).toAbsolutePath();
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        Path workDir = Path.of(options.getOrDefault("work-dir", "target/startup")).toAbsolutePath();
+        List<String> jvmArgs = options.containsKey("jvm-args")
+                ? Arrays.asList(options.get("jvm-args").trim().split("\\s+")) : List.of();
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalArgumentException(jar + " not found; build it with mvn -Pproduction package -DskipTests");
+        }
+        boolean aot;
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            aot = jarFile.getEntry(AOT_INITIALIZER) != null;
+        }
+
+        Path extracted = extract(jar, workDir);
+        List<String> classpath = List.of("-cp", "app.jar" + File.pathSeparator + "BOOT-INF/lib/*");
+        Path archive = extracted.resolve("app.jsa");
+        List<String> aotFlag = aot ? List.of("-Dspring.aot.enabled=true") : List.of();
+        train(extracted, jvmArgs, aotFlag, classpath, archive);
+
+        Map<String, Mode> modes = new LinkedHashMap<>();
+        modes.put("java -jar", new Mode(jar.getParent(), List.of("-jar", jar.toString()), List.of()));
+        modes.put("extracted", new Mode(extracted, classpath, List.of()));
+        modes.put("extracted + CDS", new Mode(extracted, classpath, List.of("-XX:SharedArchiveFile=" + archive)));
+        if (aot) {
+            modes.put("extracted + CDS + AOT", new Mode(extracted, classpath,
+                    List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true")));
+        } else {
+            System.out.println("The jar has no AOT-generated classes (build with -Pproduction); skipping the AOT mode.");
+        }
+
+        System.out.printf("%n%d runs per mode of %s%n", runs, jar.getFileName());
+        System.out.printf("%-28s %6s %10s %10s %10s %12s%n", "mode", "runs", "ready min", "ready p50", "ready max", "RSS p50");
+        for (Map.Entry<String, Mode> mode : modes.entrySet()) {
+            long[] readyMillis = new long[runs];
+            long[] rssKb = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                Sample sample = start(mode.getValue(), jvmArgs);
+                readyMillis[run] = sample.readyMillis();
+                rssKb[run] = sample.rssKb();
+            }
+            Arrays.sort(readyMillis);
+            Arrays.sort(rssKb);
+            long rss = rssKb[runs / 2];
+            System.out.printf(ROW, mode.getKey(), runs, readyMillis[0], readyMillis[runs / 2], readyMillis[runs - 1],
+                    rss < 0 ? "n/a" : (rss / 1024) + " MB");
+        }
+    }
+
+    /**
+     * The layered jar's layers in one directory, as the Docker image has them, with the application
+     * classes packed into app.jar: CDS only archives classes loaded from jars.
+     */
+    private static Path extract(Path jar, Path workDir) throws IOException, InterruptedException {
+        Path extracted = workDir.resolve("extracted");
+        Path layers = workDir.resolve("layers");
+        deleteRecursively(workDir);
+        Files.createDirectories(extracted);
+        run(workDir, List.of(java(), "-Djarmode=layertools", "-jar", jar.toString(), "extract", "--destination", layers.toString()));
+        try (Stream<Path> layerDirs = Files.list(layers)) {
+            for (Path layer : layerDirs.toList()) {
+                copyRecursively(layer, extracted);
+            }
+        }
+        ToolProvider jarTool = ToolProvider.findFirst("jar")
+                .orElseThrow(() -> new IllegalStateException("The jar tool is missing; run on a JDK"));
+        int exit = jarTool.run(System.out, System.err, "--create", "--file", extracted.resolve("app.jar").toString(),
+                "-C", extracted.resolve("BOOT-INF/classes").toString(), ".");
+        if (exit != 0) {
+            throw new IllegalStateException("jar --create failed with " + exit);
+        }
+        deleteRecursively(extracted.resolve("BOOT-INF/classes"));
+        return extracted;
+    }
+
+    // Starts the context once and dumps the classes it loaded (spring.context.exit=onRefresh stops after refresh)
+    private static void train(Path extracted, List<String> jvmArgs, List<String> aotFlag, List<String> classpath, Path archive)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of(java(), "-XX:ArchiveClassesAtExit=" + archive, "-Dspring.context.exit=onRefresh"));
+        command.addAll(jvmArgs);
+        command.addAll(aotFlag);
+        command.addAll(classpath);
+        command.add(MAIN_CLASS);
+        command.add("--server.port=0");
+        run(extracted, command);
+        if (!Files.isRegularFile(archive)) {
+            throw new IllegalStateException("The training run did not write " + archive);
+        }
+    }
+
+    private static Sample start(Mode mode, List<String> jvmArgs) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>(List.of(java()));
+        command.addAll(jvmArgs);
+        command.addAll(mode.jvmFlags());
+        command.addAll(mode.launch());
+        if (!mode.launch().contains("-jar")) {
+            command.add(MAIN_CLASS);
+        }
+        command.add("--server.port=" + port);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(mode.directory().toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long deadline = started + READY_TIMEOUT.toNanos();
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("The application exited with " + process.exitValue() + ": " + command);
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("The application was not ready within " + READY_TIMEOUT);
+                }
+                try {
+                    int status = client.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    if (status == 200) {
+                        break;
+                    }
+                    if (status == 404) {
+                        throw new IllegalStateException("No readiness endpoint; is management.endpoint.health.probes.enabled set?");
+                    }
+                } catch (IOException notListeningYet) {
+                    // Keep polling
+                }
+                Thread.sleep(5);
+            }
+            long readyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            return new Sample(readyMillis, rssKb(process.pid()));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // VmRSS of the process in kB, or -1 where /proc is not available
+    private static long rssKb(long pid) {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> Long.parseLong(line.replaceAll("\\D+", "")))
+                    .findFirst()
+                    .orElse(-1L);
+        } catch (IOException | UncheckedIOException ex) {
+            return -1;
+        }
+    }
+
+    private static void run(Path directory, List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).directory(directory.toFile()).redirectErrorStream(true).start();
+        byte[] output;
+        try (InputStream in = process.getInputStream()) {
+            output = in.readAllBytes();
+        }
+        if (process.waitFor() != 0) {
+            System.out.write(output);
+            throw new IllegalStateException("Failed with " + process.exitValue() + ": " + command);
+        }
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void copyRecursively(Path source, Path target) throws IOException {
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : paths.toList()) {
+                Path destination = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(destination);
+                } else {
+                    Files.copy(path, destination);
+                }
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path each : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(each);
+            }
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    private record Mode(Path directory, List<String> launch, List<String> jvmFlags) {
+    }
+
+    private record Sample(long readyMillis, long rssKb) {
+    }
+}
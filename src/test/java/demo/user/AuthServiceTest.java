@@ -2,7 +2,7 @@ package com.example.demo.user;
 
 import com.example.demo.exception.UserAlreadyExistsException;
 import com.example.demo.permission.Permission; // Import Permission
-import com.example.demo.permission.PermissionRepository; // Import PermissionRepository
+import com.example.demo.permission.PermissionCatalog;
 import com.example.demo.tenant.Tenant; // Import Tenant
 import com.example.demo.tenant.TenantRepository; // Import TenantRepository
 import org.junit.jupiter.api.AfterEach; // Import AfterEach
@@ -34,7 +34,7 @@ public class AuthServiceTest {
     @Mock
     private TenantRepository tenantRepository;
     @Mock
-    private PermissionRepository permissionRepository; // Mock PermissionRepository
+    private PermissionCatalog permissionCatalog; // Permissions are resolved in memory
 
     @InjectMocks
     private AuthServiceImpl authService; // Test the implementation
@@ -66,39 +66,22 @@ public class AuthServiceTest {
         mockDeletePropertyPermission.setId(105L);
 
 
-        // --- Mock Permission Repository Behavior ---
-        // Mock findOrCreatePermission logic used internally
-        when(permissionRepository.findByName(AuthServiceImpl.DEFAULT_USER_PERMISSION))
-                .thenReturn(Optional.of(mockUserPermission));
-        when(permissionRepository.findByName(AuthServiceImpl.PERMISSION_MANAGE_USERS))
-                .thenReturn(Optional.of(mockAdminPermission1));
-        when(permissionRepository.findByName(AuthServiceImpl.PERMISSION_DELETE_VENDOR))
-                .thenReturn(Optional.of(mockAdminPermission2));
-        when(permissionRepository.findByName(AuthServiceImpl.PERMISSION_DELETE_WORK_ORDER))
-                .thenReturn(Optional.of(mockAdminPermission3));
-        // FIX: Add mock for the missing permission checked by initPermissions
-        when(permissionRepository.findByName(AuthServiceImpl.PERMISSION_DELETE_PROPERTY))
-                .thenReturn(Optional.of(mockDeletePropertyPermission));
-        // --- END FIX ---
-
+        // --- Mock Permission Catalog Behavior ---
+        when(permissionCatalog.resolve(Set.of(AuthServiceImpl.DEFAULT_USER_PERMISSION)))
+                .thenAnswer(invocation -> new HashSet<>(Set.of(mockUserPermission)));
 
-        // Mock findAll used when assigning admin permissions
-        when(permissionRepository.findAll()).thenReturn(List.of(
+        // Mock all() used when assigning admin permissions
+        when(permissionCatalog.all()).thenAnswer(invocation -> new HashSet<>(List.of(
                 mockUserPermission, mockAdminPermission1, mockAdminPermission2, mockAdminPermission3, mockDeletePropertyPermission
-        ));
-
-        when(permissionRepository.save(any(Permission.class))).thenAnswer(invocation -> {
-            Permission p = invocation.getArgument(0);
-            return p;
-        });
-        // --- End Permission Repo Mock ---
+        )));
+        // --- End Permission Catalog Mock ---
 
 
         // Mock password encoder
         when(passwordEncoder.encode(anyString())).thenReturn("hashedPassword");
 
-        // Mock tenant repository count for initial setup
-        when(tenantRepository.count()).thenReturn(1L);
+        // Mock the tenant existence probe for initial setup
+        when(tenantRepository.existsByNameIsNotNull()).thenReturn(true);
         Tenant defaultTenant = new Tenant(); defaultTenant.setId(1L); defaultTenant.setName("Default Tenant");
         when(tenantRepository.findById(1L)).thenReturn(Optional.of(defaultTenant));
 
@@ -126,9 +109,9 @@ public class AuthServiceTest {
     void whenRegisterNewUser_withValidData_andTenantExists_thenSavesUserWithDefaultPermissions() {
         // Arrange
         UserRegistrationRequest request = new UserRegistrationRequest("new@example.com", "Password123");
-        when(userRepository.findByUsername("new@example.com")).thenReturn(Optional.empty());
-        // FIX: Mock userRepository.count() to avoid first user logic
-        when(userRepository.count()).thenReturn(1L); // Ensure it's not the first user ever
+        when(userRepository.existsByUsername("new@example.com")).thenReturn(false);
+        // Users exist already, so this is not the first user ever
+        when(userRepository.existsByIdIsNotNull()).thenReturn(true);
         // --- END FIX ---
         // Tenant setup from @BeforeEach is sufficient
 
@@ -144,12 +127,15 @@ public class AuthServiceTest {
         assertTrue(registeredUser.getPermissions().contains(mockUserPermission));
 
         // Verify interactions
-        verify(userRepository).findByUsername("new@example.com");
-        verify(tenantRepository).count();
-        verify(userRepository).count();
+        verify(userRepository).existsByUsername("new@example.com");
+        verify(tenantRepository).existsByNameIsNotNull();
+        verify(userRepository).existsByIdIsNotNull();
+        verify(tenantRepository, never()).count();
+        verify(userRepository, never()).count();
+        verify(userRepository, never()).findByUsername(anyString());
         verify(tenantRepository).findById(1L);
-        verify(permissionRepository).findByName(AuthServiceImpl.DEFAULT_USER_PERMISSION);
-        verify(permissionRepository, never()).findAll();
+        verify(permissionCatalog).resolve(Set.of(AuthServiceImpl.DEFAULT_USER_PERMISSION));
+        verify(permissionCatalog, never()).all();
         ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
         verify(userRepository).save(userCaptor.capture());
         assertEquals(1, userCaptor.getValue().getPermissions().size());
@@ -160,9 +146,8 @@ public class AuthServiceTest {
     void whenRegisterNewUser_asFirstUserEver_thenSavesUserWithAllPermissions() {
         // Arrange
         UserRegistrationRequest request = new UserRegistrationRequest("admin@first.com", "Password123");
-        when(userRepository.findByUsername("admin@first.com")).thenReturn(Optional.empty());
-        when(tenantRepository.count()).thenReturn(0L);
-        when(userRepository.count()).thenReturn(0L);
+        when(userRepository.existsByUsername("admin@first.com")).thenReturn(false);
+        when(tenantRepository.existsByNameIsNotNull()).thenReturn(false);
 
         Tenant newTenant = new Tenant(); newTenant.setId(1L); newTenant.setName("First Tenant");
         when(tenantRepository.findByName(anyString())).thenReturn(Optional.empty());
@@ -185,12 +170,13 @@ public class AuthServiceTest {
 
 
         // Verify interactions
-        verify(userRepository).findByUsername("admin@first.com");
-        verify(tenantRepository).count();
-        verify(userRepository).count();
+        verify(userRepository).existsByUsername("admin@first.com");
+        verify(tenantRepository).existsByNameIsNotNull();
+        verify(tenantRepository, never()).count();
+        verify(userRepository, never()).count();
         verify(tenantRepository).save(any(Tenant.class));
-        verify(permissionRepository).findByName(AuthServiceImpl.DEFAULT_USER_PERMISSION);
-        verify(permissionRepository).findAll();
+        verify(permissionCatalog).resolve(Set.of(AuthServiceImpl.DEFAULT_USER_PERMISSION));
+        verify(permissionCatalog).all();
         // FIX: Use ArgumentCaptor for verification
         ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
         verify(userRepository).save(userCaptor.capture());
@@ -206,8 +192,7 @@ public class AuthServiceTest {
     void whenRegisterNewUser_withExistingUsername_thenThrowsUserAlreadyExistsException() {
         // Arrange
         UserRegistrationRequest request = new UserRegistrationRequest("existing@example.com", "Password123");
-        User existingUser = new User();
-        when(userRepository.findByUsername("existing@example.com")).thenReturn(Optional.of(existingUser));
+        when(userRepository.existsByUsername("existing@example.com")).thenReturn(true);
 
         // Act & Assert
         assertThrows(UserAlreadyExistsException.class, () -> {
@@ -215,54 +200,42 @@ public class AuthServiceTest {
         });
 
         // Verify interactions
-        verify(userRepository).findByUsername("existing@example.com");
+        verify(userRepository).existsByUsername("existing@example.com");
         verifyNoInteractions(tenantRepository);
-        verifyNoInteractions(permissionRepository);
+        verifyNoInteractions(permissionCatalog);
         verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
-    void whenInitPermissions_andPermissionExists_thenDoesNotSave() {
-        // Arrange (mocks for findByName return Optional.of(...) from @BeforeEach, includes all 5)
+    void whenTenantAndUsersExist_thenLaterRegistrationsSkipTheBootstrapProbes() {
+        // Arrange
+        when(userRepository.existsByUsername(anyString())).thenReturn(false);
+        when(userRepository.existsByIdIsNotNull()).thenReturn(true);
 
         // Act
-        authService.initPermissions(); // Manually call @PostConstruct method
-
-        // Assert
-        verify(permissionRepository).findByName(AuthServiceImpl.DEFAULT_USER_PERMISSION);
-        verify(permissionRepository).findByName(AuthServiceImpl.PERMISSION_MANAGE_USERS);
-        verify(permissionRepository).findByName(AuthServiceImpl.PERMISSION_DELETE_VENDOR);
-        verify(permissionRepository).findByName(AuthServiceImpl.PERMISSION_DELETE_WORK_ORDER);
-        verify(permissionRepository).findByName(AuthServiceImpl.PERMISSION_DELETE_PROPERTY); // Verify check
-
-        // FIX: Verification remains the same, mock was fixed
-        verify(permissionRepository, never()).save(any(Permission.class));
-        // --- END FIX ---
+        authService.registerNewUser(new UserRegistrationRequest("one@example.com", "Password123"));
+        User second = authService.registerNewUser(new UserRegistrationRequest("two@example.com", "Password123"));
+
+        // Assert: probed once, then remembered
+        assertEquals(1, second.getPermissions().size());
+        verify(tenantRepository, times(1)).existsByNameIsNotNull();
+        verify(userRepository, times(1)).existsByIdIsNotNull();
+        verify(tenantRepository, times(2)).findById(1L);
     }
 
     @Test
-    void whenInitPermissions_andPermissionDoesNotExist_thenSavesPermission() {
-        // Arrange
-        when(permissionRepository.findByName(AuthServiceImpl.PERMISSION_MANAGE_USERS)).thenReturn(Optional.empty());
-        Permission savedManageUsers = new Permission(AuthServiceImpl.PERMISSION_MANAGE_USERS);
-        when(permissionRepository.save(argThat(p -> p.getName().equals(AuthServiceImpl.PERMISSION_MANAGE_USERS))))
-                .thenReturn(savedManageUsers);
-
+    void whenInitPermissions_thenSeedsAllDefaultPermissionsInOneCall() {
         // Act
-        authService.initPermissions();
+        authService.initPermissions(); // Manually call @PostConstruct method
 
-        // Assert
-        verify(permissionRepository).findByName(AuthServiceImpl.DEFAULT_USER_PERMISSION);
-        verify(permissionRepository).findByName(AuthServiceImpl.PERMISSION_MANAGE_USERS);
-        verify(permissionRepository).findByName(AuthServiceImpl.PERMISSION_DELETE_VENDOR);
-        verify(permissionRepository).findByName(AuthServiceImpl.PERMISSION_DELETE_WORK_ORDER);
-        verify(permissionRepository).findByName(AuthServiceImpl.PERMISSION_DELETE_PROPERTY);
-
-        verify(permissionRepository, times(1)).save(argThat(p -> p.getName().equals(AuthServiceImpl.PERMISSION_MANAGE_USERS)));
-        verify(permissionRepository, never()).save(argThat(p -> p.getName().equals(AuthServiceImpl.DEFAULT_USER_PERMISSION)));
-        verify(permissionRepository, never()).save(argThat(p -> p.getName().equals(AuthServiceImpl.PERMISSION_DELETE_VENDOR)));
-        verify(permissionRepository, never()).save(argThat(p -> p.getName().equals(AuthServiceImpl.PERMISSION_DELETE_WORK_ORDER)));
-        verify(permissionRepository, never()).save(argThat(p -> p.getName().equals(AuthServiceImpl.PERMISSION_DELETE_PROPERTY)));
+        // Assert: inserting the missing ones is the catalogue's job (see PermissionCatalogTest)
+        verify(permissionCatalog).seed(List.of(
+                AuthServiceImpl.DEFAULT_USER_PERMISSION,
+                AuthServiceImpl.PERMISSION_MANAGE_USERS,
+                AuthServiceImpl.PERMISSION_DELETE_VENDOR,
+                AuthServiceImpl.PERMISSION_DELETE_WORK_ORDER,
+                AuthServiceImpl.PERMISSION_DELETE_PROPERTY));
+        verifyNoMoreInteractions(permissionCatalog);
     }
 }
 
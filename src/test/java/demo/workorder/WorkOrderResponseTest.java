@@ -0,0 +1,61 @@
+package com.example.demo.workorder;
+
+import com.example.demo.property.Property;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The precompiled writer must produce what Jackson wrote for the entity
+public class WorkOrderResponseTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void whenWritingTimestamps_thenTextMatchesJavaTimeModule() throws Exception {
+        LocalDateTime[] values = {
+                LocalDateTime.of(2024, 1, 2, 3, 4),
+                LocalDateTime.of(2024, 1, 2, 3, 4, 5),
+                LocalDateTime.of(2024, 12, 31, 23, 59, 59, 120_000_000),
+                LocalDateTime.of(999, 6, 7, 8, 9, 0, 123_456_000),
+                LocalDateTime.of(2024, 6, 7, 8, 9, 10, 123_456_789),
+                LocalDateTime.of(2024, 6, 7, 0, 0, 0, 1)};
+        for (LocalDateTime value : values) {
+            JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(response(value)));
+            assertEquals(objectMapper.writeValueAsString(value), "\"" + json.get("createdAt").asText() + "\"");
+        }
+    }
+
+    @Test
+    void whenWritingWorkOrder_thenAssociationsAreIdsAndNullsAreKept() throws Exception {
+        Property property = new Property();
+        property.setId(7L);
+        WorkOrder workOrder = new WorkOrder();
+        workOrder.setId(1L);
+        workOrder.setDescription("Fix \"the\" leak");
+        workOrder.setStatus("ON_HOLD");
+        workOrder.setProperty(property);
+        workOrder.setTenantId(3L);
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(WorkOrderResponse.of(workOrder)));
+
+        assertEquals(1L, json.get("id").asLong());
+        assertEquals("Fix \"the\" leak", json.get("description").asText());
+        assertEquals("ON_HOLD", json.get("status").asText());
+        assertEquals(7L, json.get("propertyId").asLong());
+        assertTrue(json.get("vendorId").isNull());
+        assertEquals(3L, json.get("tenantId").asLong());
+        assertFalse(json.has("property"));
+    }
+
+    private static WorkOrderResponse response(LocalDateTime createdAt) {
+        return new WorkOrderResponse(1L, "Job", "PENDING", 1L, null, createdAt, createdAt, 1L);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.workorder;
 
+import com.example.demo.exception.ForbiddenException;
 import com.example.demo.permission.Permission; // Import Permission
 import com.example.demo.property.Property;
 import com.example.demo.property.PropertyRepository;
@@ -199,13 +200,13 @@ public class WorkOrderServiceTest {
 
 
     @Test
-    void whenCreateWorkOrder_givenInvalidProperty_asUser_thenThrowsAccessDenied() {
+    void whenCreateWorkOrder_givenInvalidProperty_asUser_thenThrowsForbidden() {
         setupMockSecurityContext(false);
         Long propertyId = 99L;
         WorkOrder workOrderToSave = new WorkOrder();
         when(propertyRepository.findByIdAndTenantId(propertyId, MOCK_TENANT_ID)).thenReturn(Optional.empty());
 
-        assertThrows(AccessDeniedException.class, () -> {
+        assertThrows(ForbiddenException.class, () -> {
             workOrderService.createWorkOrder(workOrderToSave, propertyId, null);
         });
         verify(propertyRepository).findByIdAndTenantId(propertyId, MOCK_TENANT_ID);
@@ -213,7 +214,7 @@ public class WorkOrderServiceTest {
     }
 
     @Test
-    void whenCreateWorkOrder_givenInvalidVendor_asUser_thenThrowsAccessDenied() {
+    void whenCreateWorkOrder_givenInvalidVendor_asUser_thenThrowsForbidden() {
         setupMockSecurityContext(false);
         Long propertyId = 10L;
         Long vendorId = 99L;
@@ -223,7 +224,7 @@ public class WorkOrderServiceTest {
         when(propertyRepository.findByIdAndTenantId(propertyId, MOCK_TENANT_ID)).thenReturn(Optional.of(mockProperty));
         when(vendorRepository.findByIdAndTenantId(vendorId, MOCK_TENANT_ID)).thenReturn(Optional.empty());
 
-        assertThrows(AccessDeniedException.class, () -> {
+        assertThrows(ForbiddenException.class, () -> {
             workOrderService.createWorkOrder(workOrderToSave, propertyId, vendorId);
         });
         verify(propertyRepository).findByIdAndTenantId(propertyId, MOCK_TENANT_ID);
@@ -0,0 +1,120 @@
+package com.example.demo.workorder;
+
+import com.example.demo.metrics.SqlStatements;
+import com.example.demo.permission.PermissionCatalog;
+import com.example.demo.property.Property;
+import com.example.demo.property.PropertyRepository;
+import com.example.demo.tenant.Tenant;
+import com.example.demo.tenant.TenantRepository;
+import com.example.demo.user.JwtTokenProvider;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import com.example.demo.vendor.Vendor;
+import com.example.demo.vendor.VendorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Statement budgets of the work order endpoints against the real persistence layer, so N+1 regressions fail the build
+@SpringBootTest
+@AutoConfigureMockMvc
+public class WorkOrderStatementBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private TenantRepository tenantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PropertyRepository propertyRepository;
+    @Autowired
+    private VendorRepository vendorRepository;
+    @Autowired
+    private PermissionCatalog permissionCatalog;
+
+    private Long tenantId;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = tenantRepository.save(new Tenant("Budget " + UUID.randomUUID())).getId();
+        User user = new User();
+        user.setUsername(UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setTenantId(tenantId);
+        user.setPermissions(permissionCatalog.resolve(Set.of("PERMISSION_READ_OWN_DATA")));
+        user = userRepository.save(user);
+        token = "Bearer " + jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @Test
+    void whenCreatingWorkOrder_thenStatementsStayWithinBudget() throws Exception {
+        Property property = propertyRepository.save(property("1 Budget Street"));
+        Vendor vendor = vendorRepository.save(vendor("Budget Plumbing"));
+
+        mockMvc.perform(post("/api/workorders")
+                        .param("propertyId", property.getId().toString())
+                        .param("vendorId", vendor.getId().toString())
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Fix the leak\"}"))
+                .andExpect(status().isCreated())
+                // User and permissions, property, vendor, insert
+                .andExpect(SqlStatements.atMost(5))
+                .andExpect(SqlStatements.noRepeatsOver(1));
+    }
+
+    @Test
+    void whenListingWorkOrders_thenAssociationsAreNotLoadedPerRow() throws Exception {
+        Vendor vendor = vendorRepository.save(vendor("Budget Electrical"));
+        for (int i = 0; i < 10; i++) {
+            Property property = propertyRepository.save(property(i + " Budget Street"));
+            mockMvc.perform(post("/api/workorders")
+                            .param("propertyId", property.getId().toString())
+                            .param("vendorId", vendor.getId().toString())
+                            .header("Authorization", token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"description\":\"Job " + i + "\"}"))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(get("/api/workorders").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(10))
+                .andExpect(jsonPath("$[0].vendorId").value(vendor.getId()))
+                // User and permissions, work orders; no property or vendor lookups
+                .andExpect(SqlStatements.atMost(3))
+                .andExpect(SqlStatements.noRepeatsOver(1));
+    }
+
+    private Property property(String address) {
+        Property property = new Property();
+        property.setAddress(address);
+        property.setType("Condo");
+        property.setTenantId(tenantId);
+        return property;
+    }
+
+    private Vendor vendor(String name) {
+        Vendor vendor = new Vendor();
+        vendor.setName(name);
+        vendor.setTenantId(tenantId);
+        return vendor;
+    }
+}